@@ -1,17 +1,31 @@
 package de.pexora.core;
 
 import de.pexora.core.api.PexoraAPI;
+import de.pexora.core.api.command.CommandRegistration;
+import de.pexora.core.cache.PlayerDataCache;
+import de.pexora.core.commands.CommandManager;
 import de.pexora.core.commands.PexoraCommand;
 import de.pexora.core.config.CoreConfig;
 import de.pexora.core.config.MessageConfig;
+import de.pexora.core.database.Database;
+import de.pexora.core.events.EventDispatcher;
+import de.pexora.core.events.PexoraEventBus;
 import de.pexora.core.logger.LoggerService;
+import de.pexora.core.messaging.MessageBus;
+import de.pexora.core.metrics.CoreMetrics;
+import de.pexora.core.metrics.MetricsExporter;
+import de.pexora.core.metrics.MetricsRegistry;
 import de.pexora.core.messaging.PexoraChannel;
 import de.pexora.core.module.ModuleLoader;
+import de.pexora.core.profiler.TickProfiler;
+import de.pexora.core.status.HealthMonitor;
 import de.pexora.core.status.StatusAPI;
+import de.pexora.core.storage.KeyValueStore;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.File;
+import java.io.IOException;
 
 /**
  * Hauptklasse für das PexoraCore-Plugin-System.
@@ -34,7 +48,18 @@ public class PexoraCore extends JavaPlugin {
     private MessageConfig messageConfig;
     private ModuleLoader moduleLoader;
     private StatusAPI statusAPI;
+    private HealthMonitor healthMonitor;
+    private TickProfiler profiler;
+    private EventDispatcher eventDispatcher;
+    private PexoraEventBus eventBus;
+    private CommandManager commandManager;
+    private MetricsRegistry metricsRegistry;
+    private MetricsExporter metricsExporter;
+    private Database database;
+    private PlayerDataCache playerDataCache;
+    private KeyValueStore keyValueStore;
     private PexoraChannel pexoraChannel;
+    private MessageBus messageBus;
     private boolean placeholderApiAvailable = false;
     
     @Override
@@ -60,20 +85,53 @@ public class PexoraCore extends JavaPlugin {
         checkPlaceholderAPI();
         
         // Initialisiere Status-API
-        this.statusAPI = new StatusAPI();
+        this.statusAPI = new StatusAPI(this);
+        this.healthMonitor = new HealthMonitor(this, this.statusAPI);
+        
+        // Initialisiere Profiler vor allen Komponenten, deren Laufzeit gemessen wird
+        this.profiler = new TickProfiler(this);
+        this.eventDispatcher = new EventDispatcher(this);
+        this.eventBus = new PexoraEventBus(this);
+        this.commandManager = new CommandManager(this);
+        
+        // Initialisiere Metriken vor allen Komponenten, die eigene Metriken registrieren
+        this.metricsRegistry = new MetricsRegistry(this);
+        
+        // Initialisiere den gemeinsamen Datenbank-Pool, falls aktiviert
+        if (this.coreConfig.isDatabaseEnabled()) {
+            try {
+                this.database = new Database(this);
+            } catch (RuntimeException e) {
+                this.loggerService.error("Datenbank-Pool konnte nicht gestartet werden: " + e.getMessage());
+            }
+        }
+        this.playerDataCache = new PlayerDataCache(this);
+        try {
+            this.keyValueStore = new KeyValueStore(this);
+        } catch (IOException e) {
+            this.loggerService.error("Schlüssel-Wert-Speicher konnte nicht geöffnet werden: " + e.getMessage());
+        }
         
         // Initialisiere Plugin-Messaging-Kanal
         this.pexoraChannel = new PexoraChannel(this);
         
+        // Initialisiere Nachrichtenbus mit dem konfigurierten Transport
+        this.messageBus = new MessageBus(this, MessageBus.createTransport(this));
+        
         // Initialisiere Modul-Loader
         this.moduleLoader = new ModuleLoader(this);
         this.loggerService.info("Module wurden geladen: " + this.moduleLoader.getModules().size());
         
+        // Registriere eingebaute Metriken und starte den Export
+        CoreMetrics.register(this, this.metricsRegistry);
+        this.metricsExporter = new MetricsExporter(this, this.metricsRegistry);
+        this.metricsExporter.start();
+        
         // Initialisiere API
         PexoraAPI.initialize(this);
         
         // Registriere Befehle
-        getCommand("pexoracore").setExecutor(new PexoraCommand(this));
+        this.commandManager.register(this, CommandRegistration.fromAnnotated(new PexoraCommand(this)));
         
         this.loggerService.info("PexoraCore wurde erfolgreich aktiviert!");
     }
@@ -87,6 +145,50 @@ public class PexoraCore extends JavaPlugin {
             this.moduleLoader.disableAllModules();
         }
         
+        // Beende die Loader des Spieler-Caches vor dem Datenbank-Pool, aus dem sie lesen
+        if (this.playerDataCache != null) {
+            this.playerDataCache.close();
+        }
+        
+        // Schließe den Datenbank-Pool, nachdem die Module ihre letzten Aufträge abgegeben haben
+        if (this.database != null) {
+            this.database.close();
+        }
+        
+        // Schließe den Schlüssel-Wert-Speicher sauber, damit sein Index beim nächsten Start übernommen wird
+        if (this.keyValueStore != null) {
+            this.keyValueStore.close();
+        }
+        
+        // Entferne die eigenen Befehle aus der CommandMap und beende deren Thread-Pool
+        if (this.commandManager != null) {
+            this.commandManager.unregisterAll(this);
+            this.commandManager.close();
+        }
+        
+        // Beende den Metrik-Export
+        if (this.metricsExporter != null) {
+            this.metricsExporter.stop();
+        }
+        
+        // Stoppe die Health-Checks und den Profiler
+        if (this.healthMonitor != null) {
+            this.healthMonitor.close();
+        }
+        if (this.profiler != null) {
+            this.profiler.stop();
+        }
+        
+        // Beende den Event-Bus
+        if (this.eventBus != null) {
+            this.eventBus.close();
+        }
+        
+        // Stoppe den Nachrichtenbus vor dem Kanal
+        if (this.messageBus != null) {
+            this.messageBus.close();
+        }
+        
         // Deregistriere den Kommunikationskanal
         if (this.pexoraChannel != null) {
             this.pexoraChannel.unregister();
@@ -123,18 +225,37 @@ public class PexoraCore extends JavaPlugin {
      * Lädt alle Konfigurationen und Module neu
      */
     public void reload() {
+        prepareReload().run();
+    }
+    
+    /**
+     * Liest alle Konfigurationen ein, ohne sie zu übernehmen. Darf außerhalb des Server-Threads laufen,
+     * damit das Einlesen der YAML-Dateien den Tick nicht blockiert.
+     * 
+     * @return Der Schritt, der die Konfigurationen übernimmt und die Module neu lädt; muss im Server-Thread laufen
+     */
+    public Runnable prepareReload() {
         this.loggerService.info("PexoraCore wird neu geladen...");
         
-        // Konfigurationen neu laden
-        this.coreConfig.reload();
-        this.messageConfig.reload();
+        // Konfigurationen einlesen
+        Runnable applyCoreConfig = this.coreConfig.prepareReload();
+        Runnable applyMessageConfig = this.messageConfig.prepareReload();
         
-        // Module neu laden, wenn Auto-Reload aktiviert ist
-        if (this.coreConfig.isModuleAutoReload()) {
-            this.moduleLoader.reloadAllModules();
-        }
+        return () -> {
+            // Konfigurationen übernehmen
+            applyCoreConfig.run();
+            applyMessageConfig.run();
+            this.pexoraChannel.reloadSettings();
+            this.healthMonitor.reloadSettings();
+            this.profiler.reloadSettings();
         
-        this.loggerService.info("PexoraCore wurde erfolgreich neu geladen!");
+            // Module neu laden, wenn Auto-Reload aktiviert ist
+            if (this.coreConfig.isModuleAutoReload()) {
+                this.moduleLoader.reloadAllModules();
+            }
+            
+            this.loggerService.info("PexoraCore wurde erfolgreich neu geladen!");
+        };
     }
 
     /**
@@ -179,6 +300,62 @@ public class PexoraCore extends JavaPlugin {
         return statusAPI;
     }
     
+    /**
+     * @return den Profiler für Tickdauer und Modul-Laufzeiten
+     */
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * @return den Verteiler für die Event-Handler der Module
+     */
+    public EventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+    
+    /**
+     * @return den Event-Bus für Events zwischen Modulen
+     */
+    public PexoraEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * @return den Manager für zur Laufzeit registrierte Befehle
+     */
+    public CommandManager getCommandManager() {
+        return commandManager;
+    }
+    
+    /**
+     * @return die Registry für Metriken
+     */
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+    
+    /**
+     * @return den gemeinsamen Datenbank-Pool oder null, wenn die Datenbank deaktiviert ist
+     */
+    public Database getDatabase() {
+        return database;
+    }
+    
+    /**
+     * @return den Cache für Spielerdaten der Module
+     */
+    public PlayerDataCache getPlayerDataCache() {
+        return playerDataCache;
+    }
+    
+    /**
+     * @return den Schlüssel-Wert-Speicher oder null, wenn er nicht geöffnet werden konnte
+     */
+    public KeyValueStore getKeyValueStore() {
+        return keyValueStore;
+    }
+    
     /**
      * @return den Pexora-Kommunikationskanal
      */
@@ -186,6 +363,13 @@ public class PexoraCore extends JavaPlugin {
         return pexoraChannel;
     }
     
+    /**
+     * @return den Nachrichtenbus für Topics zwischen Servern
+     */
+    public MessageBus getMessageBus() {
+        return messageBus;
+    }
+    
     /**
      * @return ob PlaceholderAPI verfügbar ist
      */
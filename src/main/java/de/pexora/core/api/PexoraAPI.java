@@ -3,12 +3,21 @@ package de.pexora.core.api;
 import de.pexora.core.PexoraCore;
 import de.pexora.core.api.config.ConfigService;
 import de.pexora.core.api.messaging.MessagingService;
+import de.pexora.core.cache.PlayerDataCache;
+import de.pexora.core.commands.CommandManager;
 import de.pexora.core.config.CoreConfig;
 import de.pexora.core.config.MessageConfig;
+import de.pexora.core.database.Database;
+import de.pexora.core.events.PexoraEventBus;
 import de.pexora.core.logger.LoggerService;
+import de.pexora.core.messaging.MessageBus;
+import de.pexora.core.messaging.PexoraChannel;
+import de.pexora.core.metrics.MetricsRegistry;
 import de.pexora.core.module.ModuleLoader;
 import de.pexora.core.status.StatusAPI;
+import de.pexora.core.storage.KeyValueStore;
 import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.util.Map;
@@ -98,6 +107,62 @@ public class PexoraAPI {
         return plugin.getModuleLoader();
     }
     
+    /**
+     * @return Den Plugin-Messaging-Kanal zum Proxy
+     */
+    public PexoraChannel getPexoraChannel() {
+        return plugin.getPexoraChannel();
+    }
+    
+    /**
+     * @return Den Nachrichtenbus für Topics zwischen Servern
+     */
+    public MessageBus getMessageBus() {
+        return plugin.getMessageBus();
+    }
+    
+    /**
+     * @return Den Event-Bus für Events zwischen Modulen
+     */
+    public PexoraEventBus getEventBus() {
+        return plugin.getEventBus();
+    }
+    
+    /**
+     * @return Den Manager, über den Module Befehle zur Laufzeit registrieren
+     */
+    public CommandManager getCommandManager() {
+        return plugin.getCommandManager();
+    }
+    
+    /**
+     * @return Die Registry für Metriken (Prometheus-Format)
+     */
+    public MetricsRegistry getMetrics() {
+        return plugin.getMetricsRegistry();
+    }
+    
+    /**
+     * @return Den gemeinsamen Datenbank-Pool oder null, wenn die Datenbank in der config.yml deaktiviert ist
+     */
+    public Database getDatabase() {
+        return plugin.getDatabase();
+    }
+    
+    /**
+     * @return Den Cache, über den Module Spielerdaten vor dem Beitritt laden
+     */
+    public PlayerDataCache getPlayerDataCache() {
+        return plugin.getPlayerDataCache();
+    }
+    
+    /**
+     * @return Den Schlüssel-Wert-Speicher für kleine Zustände der Module (über {@link KeyValueStore#namespace(org.bukkit.plugin.Plugin)})
+     */
+    public KeyValueStore getKeyValueStore() {
+        return plugin.getKeyValueStore();
+    }
+    
     /**
      * @return Ob PlaceholderAPI verfügbar ist
      */
@@ -151,6 +216,29 @@ public class PexoraAPI {
         return plugin.getMessageConfig().getMessage(key, placeholders);
     }
     
+    /**
+     * Holt eine Nachricht in der Sprache des Spielers
+     * 
+     * @param player Der Spieler, dessen Client-Sprache verwendet wird
+     * @param key Der Nachrichtenschlüssel
+     * @return Die formatierte Nachrichtenkomponente
+     */
+    public Component getMessage(Player player, String key) {
+        return plugin.getMessageConfig().getMessage(player, key);
+    }
+    
+    /**
+     * Holt eine Nachricht in der Sprache des Spielers und ersetzt benutzerdefinierte Platzhalter
+     * 
+     * @param player Der Spieler, dessen Client-Sprache verwendet wird
+     * @param key Der Nachrichtenschlüssel
+     * @param placeholders Die zu ersetzenden Platzhalter (Schlüssel-Wert-Paare)
+     * @return Die formatierte Nachrichtenkomponente
+     */
+    public Component getMessage(Player player, String key, String... placeholders) {
+        return plugin.getMessageConfig().getMessage(player, key, placeholders);
+    }
+    
     /**
      * Protokolliert eine Info-Nachricht über den Logger-Service
      * 
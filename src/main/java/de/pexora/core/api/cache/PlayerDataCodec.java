@@ -0,0 +1,26 @@
+package de.pexora.core.api.cache;
+
+import java.io.IOException;
+
+/**
+ * Serialisiert Spielerdaten für die Stufen des Spieler-Caches außerhalb des Java-Heaps.
+ * Ohne Codec werden die Daten nach Ablauf der Frist verworfen und bei Bedarf neu geladen.
+ * 
+ * @param <T> Der Typ der Spielerdaten
+ */
+public interface PlayerDataCodec<T> {
+
+    /**
+     * @param value Die Spielerdaten
+     * @return Die serialisierten Daten
+     * @throws IOException Wenn die Daten nicht serialisiert werden können
+     */
+    byte[] encode(T value) throws IOException;
+    
+    /**
+     * @param data Die Rückgabe von {@link #encode(Object)}
+     * @return Die Spielerdaten
+     * @throws IOException Wenn die Daten nicht gelesen werden können, z.B. nach einer Formatänderung
+     */
+    T decode(byte[] data) throws IOException;
+}
@@ -0,0 +1,20 @@
+package de.pexora.core.api.cache;
+
+import java.util.UUID;
+
+/**
+ * Lädt die Daten eines Spielers für den Spieler-Cache, z.B. aus der Datenbank.
+ * Wird auf einem Thread des Caches aufgerufen, nie im Server-Thread, und darf daher blockieren.
+ * 
+ * @param <T> Der Typ der Spielerdaten
+ */
+@FunctionalInterface
+public interface PlayerDataLoader<T> {
+
+    /**
+     * @param uuid Die UUID des Spielers
+     * @return Die Spielerdaten oder null, wenn es keine gibt; null wird nicht zwischengespeichert
+     * @throws Exception Wenn die Daten nicht geladen werden konnten
+     */
+    T load(UUID uuid) throws Exception;
+}
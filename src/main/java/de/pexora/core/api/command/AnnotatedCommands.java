@@ -0,0 +1,208 @@
+package de.pexora.core.api.command;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Übersetzt eine mit {@link CommandInfo} beschriebene Klasse in einen Befehlsbaum.
+ * 
+ * Die Methoden werden einmalig über Reflection gelesen und als gebundene MethodHandles
+ * hinterlegt, sodass beim Ausführen keine Reflection mehr nötig ist.
+ */
+final class AnnotatedCommands {
+
+    private static final int SENDER_COMMAND_SENDER = 0;
+    private static final int SENDER_PLAYER = 1;
+    private static final int SENDER_CONTEXT = 2;
+    
+    private AnnotatedCommands() {
+    }
+    
+    static CommandRegistration compile(Object handler) {
+        Class<?> type = handler.getClass();
+        CommandInfo info = type.getAnnotation(CommandInfo.class);
+        if (info == null) {
+            throw new IllegalArgumentException(type.getName() + " ist nicht mit @CommandInfo beschrieben");
+        }
+        
+        CommandRegistration registration = new CommandRegistration(info.name()).withAliases(info.aliases());
+        if (!info.permission().isEmpty()) {
+            registration.withPermission(info.permission());
+        }
+        if (!info.description().isEmpty()) {
+            registration.withDescription(info.description());
+        }
+        
+        // Sortiert, damit der Baum unabhängig von der Reihenfolge der Reflection immer gleich aussieht
+        List<Method> methods = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (method.isAnnotationPresent(Subcommand.class)) {
+                methods.add(method);
+            }
+        }
+        methods.sort(Comparator.comparing((Method method) -> method.getAnnotation(Subcommand.class).value())
+                .thenComparingInt(Method::getParameterCount));
+        
+        for (Method method : methods) {
+            addMethod(registration.getRoot(), handler, method);
+        }
+        return registration;
+    }
+    
+    private static void addMethod(CommandNode root, Object handler, Method method) {
+        Subcommand subcommand = method.getAnnotation(Subcommand.class);
+        String where = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        
+        // Literale des Pfads, bestehende Knoten werden wiederverwendet
+        CommandNode node = root;
+        for (String segment : subcommand.value().trim().split(" +")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            String[] names = segment.split("\\|");
+            CommandNode child = findChild(node, names[0], null);
+            if (child == null) {
+                String[] aliases = new String[names.length - 1];
+                System.arraycopy(names, 1, aliases, 0, aliases.length);
+                child = CommandNode.literal(names[0], aliases);
+                node.then(child);
+            }
+            node = child;
+        }
+        if (!subcommand.permission().isEmpty()) {
+            node.permission(subcommand.permission());
+        }
+        
+        Parameter[] parameters = method.getParameters();
+        if (parameters.length == 0) {
+            throw new IllegalArgumentException(where + ": der erste Parameter muss CommandSender, Player oder CommandContext sein");
+        }
+        
+        int senderKind = senderKind(parameters[0].getType());
+        if (senderKind < 0) {
+            throw new IllegalArgumentException(where + ": der erste Parameter muss CommandSender, Player oder CommandContext sein");
+        }
+        
+        // Typisierte Argumente
+        String[] argumentNames = new String[parameters.length - 1];
+        for (int i = 1; i < parameters.length; i++) {
+            Parameter parameter = parameters[i];
+            Arg arg = parameter.getAnnotation(Arg.class);
+            String name = arg != null ? arg.value() : parameter.getName();
+            ArgumentParser<?> parser;
+            if (arg != null && arg.greedy()) {
+                if (parameter.getType() != String.class || i != parameters.length - 1) {
+                    throw new IllegalArgumentException(where + ": nur der letzte String-Parameter kann alle restlichen Argumente aufnehmen");
+                }
+                parser = ArgumentParsers.greedyString();
+            } else {
+                parser = ArgumentParsers.forType(parameter.getType());
+            }
+            
+            CommandNode child = findChild(node, name, parser);
+            if (child == null) {
+                child = CommandNode.argument(name, parser);
+                node.then(child);
+            }
+            node = child;
+            argumentNames[i - 1] = name;
+        }
+        
+        if (node.getAction() != null) {
+            throw new IllegalArgumentException(where + ": der Pfad \"" + subcommand.value() + "\" ist bereits belegt");
+        }
+        if (senderKind == SENDER_PLAYER) {
+            node.playerOnly();
+        }
+        if (!subcommand.description().isEmpty()) {
+            node.description(subcommand.description());
+        }
+        node.executes(subcommand.mode(), new MethodAction(bind(handler, method, where), senderKind, argumentNames));
+    }
+    
+    private static CommandNode findChild(CommandNode node, String name, ArgumentParser<?> parser) {
+        for (CommandNode child : node.getChildren()) {
+            if (child.getParser() == parser && child.getName().equalsIgnoreCase(name)) {
+                return child;
+            }
+        }
+        return null;
+    }
+    
+    private static int senderKind(Class<?> type) {
+        if (type == CommandSender.class) {
+            return SENDER_COMMAND_SENDER;
+        }
+        if (type == Player.class) {
+            return SENDER_PLAYER;
+        }
+        if (type == CommandContext.class) {
+            return SENDER_CONTEXT;
+        }
+        return -1;
+    }
+    
+    /**
+     * Bindet die Methode an das Objekt und bringt sie in die Form (Object[]) -> Object
+     */
+    private static MethodHandle bind(Object handler, Method method, String where) {
+        try {
+            // Klassen von Modulen sind oft nicht öffentlich
+            method.setAccessible(true);
+            MethodHandle handle = MethodHandles.lookup().unreflect(method).bindTo(handler);
+            int count = method.getParameterCount();
+            return handle.asType(MethodType.genericMethodType(count)).asSpreader(Object[].class, count);
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException(where + " kann nicht aufgerufen werden: " + e.getMessage(), e);
+        }
+    }
+    
+    private static final class MethodAction implements CommandAction {
+        
+        private final MethodHandle handle;
+        private final int senderKind;
+        private final String[] argumentNames;
+        
+        private MethodAction(MethodHandle handle, int senderKind, String[] argumentNames) {
+            this.handle = handle;
+            this.senderKind = senderKind;
+            this.argumentNames = argumentNames;
+        }
+        
+        @Override
+        public void execute(CommandContext context) {
+            Object[] arguments = new Object[argumentNames.length + 1];
+            switch (senderKind) {
+                case SENDER_PLAYER:
+                    arguments[0] = context.getPlayer();
+                    break;
+                case SENDER_CONTEXT:
+                    arguments[0] = context;
+                    break;
+                default:
+                    arguments[0] = context.getSender();
+                    break;
+            }
+            for (int i = 0; i < argumentNames.length; i++) {
+                arguments[i + 1] = context.get(argumentNames[i]);
+            }
+            
+            try {
+                Object ignored = handle.invokeExact(arguments);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+}
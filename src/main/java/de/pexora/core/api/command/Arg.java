@@ -0,0 +1,24 @@
+package de.pexora.core.api.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Benennt ein Argument eines {@link Subcommand}s für Hilfetexte und {@link CommandContext#get(String)}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface Arg {
+
+    /**
+     * @return der Name des Arguments
+     */
+    String value();
+    
+    /**
+     * @return ob ein String-Argument alle restlichen Eingaben aufnimmt; nur für den letzten Parameter
+     */
+    boolean greedy() default false;
+}
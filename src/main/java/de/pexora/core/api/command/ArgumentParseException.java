@@ -0,0 +1,35 @@
+package de.pexora.core.api.command;
+
+/**
+ * Wird von einem {@link ArgumentParser} geworfen, wenn eine Eingabe nicht gelesen werden kann.
+ * Der Core sendet dem Absender die Nachricht aus der messages.yml.
+ */
+public class ArgumentParseException extends Exception {
+
+    private final String messageKey;
+    private final String[] placeholders;
+    
+    /**
+     * @param messageKey Der Schlüssel der Fehlermeldung in der messages.yml
+     * @param placeholders Die Platzhalter als Paare aus Name und Wert
+     */
+    public ArgumentParseException(String messageKey, String... placeholders) {
+        super(messageKey, null, false, false);
+        this.messageKey = messageKey;
+        this.placeholders = placeholders;
+    }
+    
+    /**
+     * @return der Schlüssel der Fehlermeldung
+     */
+    public String getMessageKey() {
+        return messageKey;
+    }
+    
+    /**
+     * @return die Platzhalter der Fehlermeldung als Paare aus Name und Wert
+     */
+    public String[] getPlaceholders() {
+        return placeholders;
+    }
+}
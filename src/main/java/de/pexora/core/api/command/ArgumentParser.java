@@ -0,0 +1,53 @@
+package de.pexora.core.api.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Liest ein typisiertes Argument eines Befehls und schlägt Werte für die Tab-Vervollständigung vor.
+ * Fertige Parser liefert {@link ArgumentParsers}.
+ * 
+ * @param <T> Der Typ des Arguments
+ */
+public interface ArgumentParser<T> {
+
+    /**
+     * Liest das Argument
+     * 
+     * @param sender Der Absender des Befehls
+     * @param input Die Eingabe; bei {@link #isGreedy()} alle restlichen Argumente, durch Leerzeichen getrennt
+     * @return Der gelesene Wert
+     * @throws ArgumentParseException Wenn die Eingabe ungültig ist
+     */
+    T parse(CommandSender sender, String input) throws ArgumentParseException;
+    
+    /**
+     * Schlägt Werte für die Tab-Vervollständigung vor
+     * 
+     * @param sender Der Absender
+     * @param prefix Der bisher eingegebene Teil des Arguments
+     * @return Die passenden Vorschläge
+     */
+    default List<String> complete(CommandSender sender, String prefix) {
+        return Collections.emptyList();
+    }
+    
+    /**
+     * @return ob das Argument alle restlichen Eingaben aufnimmt, z.B. für Nachrichten
+     */
+    default boolean isGreedy() {
+        return false;
+    }
+    
+    /**
+     * Gibt an, ob {@link #parse} und {@link #complete} außerhalb des Server-Threads aufgerufen werden dürfen.
+     * Nur dann wird die Tab-Vervollständigung auf Paper asynchron berechnet, sonst im Server-Thread.
+     * 
+     * @return ob der Parser threadsicher ist
+     */
+    default boolean isAsyncSafe() {
+        return false;
+    }
+}
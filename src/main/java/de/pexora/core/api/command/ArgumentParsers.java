@@ -0,0 +1,282 @@
+package de.pexora.core.api.command;
+
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Fertige {@link ArgumentParser} für die üblichen Argumenttypen.
+ * 
+ * Die Fehlermeldungen verwenden die Schlüssel error-argument-invalid, error-argument-number,
+ * error-argument-range und error-player-not-found aus der messages.yml.
+ */
+public final class ArgumentParsers {
+
+    private static final ArgumentParser<String> WORD = new StringParser(false);
+    private static final ArgumentParser<String> GREEDY_STRING = new StringParser(true);
+    private static final ArgumentParser<Integer> INTEGER = integer(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    private static final ArgumentParser<Double> DECIMAL = decimal(-Double.MAX_VALUE, Double.MAX_VALUE);
+    private static final ArgumentParser<Boolean> BOOL = new BooleanParser();
+    private static final ArgumentParser<Player> PLAYER = new PlayerParser();
+    
+    private ArgumentParsers() {
+    }
+    
+    /**
+     * @return einen Parser für ein einzelnes Wort
+     */
+    public static ArgumentParser<String> word() {
+        return WORD;
+    }
+    
+    /**
+     * @return einen Parser, der alle restlichen Argumente als Text aufnimmt
+     */
+    public static ArgumentParser<String> greedyString() {
+        return GREEDY_STRING;
+    }
+    
+    /**
+     * @return einen Parser für ganze Zahlen
+     */
+    public static ArgumentParser<Integer> integer() {
+        return INTEGER;
+    }
+    
+    /**
+     * @param min Der kleinste erlaubte Wert
+     * @param max Der größte erlaubte Wert
+     * @return einen Parser für ganze Zahlen im angegebenen Bereich
+     */
+    public static ArgumentParser<Integer> integer(int min, int max) {
+        return (SafeParser<Integer>) (sender, input) -> {
+            int value;
+            try {
+                value = Integer.parseInt(input);
+            } catch (NumberFormatException e) {
+                throw new ArgumentParseException("error-argument-number", "input", input);
+            }
+            if (value < min || value > max) {
+                throw new ArgumentParseException("error-argument-range", "input", input,
+                        "min", String.valueOf(min), "max", String.valueOf(max));
+            }
+            return value;
+        };
+    }
+    
+    /**
+     * @return einen Parser für Dezimalzahlen
+     */
+    public static ArgumentParser<Double> decimal() {
+        return DECIMAL;
+    }
+    
+    /**
+     * @param min Der kleinste erlaubte Wert
+     * @param max Der größte erlaubte Wert
+     * @return einen Parser für Dezimalzahlen im angegebenen Bereich
+     */
+    public static ArgumentParser<Double> decimal(double min, double max) {
+        return (SafeParser<Double>) (sender, input) -> {
+            double value;
+            try {
+                value = Double.parseDouble(input);
+            } catch (NumberFormatException e) {
+                throw new ArgumentParseException("error-argument-number", "input", input);
+            }
+            if (Double.isNaN(value) || value < min || value > max) {
+                throw new ArgumentParseException("error-argument-range", "input", input,
+                        "min", String.valueOf(min), "max", String.valueOf(max));
+            }
+            return value;
+        };
+    }
+    
+    /**
+     * @return einen Parser für true und false
+     */
+    public static ArgumentParser<Boolean> bool() {
+        return BOOL;
+    }
+    
+    /**
+     * @return einen Parser für einen Spieler, der online ist
+     */
+    public static ArgumentParser<Player> player() {
+        return PLAYER;
+    }
+    
+    /**
+     * @param <E> Der Typ der Aufzählung
+     * @param type Die Klasse der Aufzählung
+     * @return einen Parser für die Konstanten einer Aufzählung, ohne Beachtung der Groß- und Kleinschreibung
+     */
+    public static <E extends Enum<E>> ArgumentParser<E> enumeration(Class<E> type) {
+        E[] constants = type.getEnumConstants();
+        String[] names = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            names[i] = constants[i].name().toLowerCase(Locale.ROOT);
+        }
+        return new ChoiceParser<>(names, constants);
+    }
+    
+    /**
+     * @param choices Die erlaubten Werte
+     * @return einen Parser für einen der angegebenen Werte, ohne Beachtung der Groß- und Kleinschreibung
+     */
+    public static ArgumentParser<String> choices(String... choices) {
+        return new ChoiceParser<>(choices.clone(), choices.clone());
+    }
+    
+    /**
+     * Gibt den Parser für einen Parametertyp zurück, wie er von {@link Subcommand}-Methoden verwendet wird
+     * 
+     * @param type Der Parametertyp
+     * @return Der Parser
+     * @throws IllegalArgumentException Wenn es für den Typ keinen Parser gibt
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static ArgumentParser<?> forType(Class<?> type) {
+        if (type == String.class) {
+            return WORD;
+        }
+        if (type == int.class || type == Integer.class) {
+            return INTEGER;
+        }
+        if (type == double.class || type == Double.class) {
+            return DECIMAL;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return BOOL;
+        }
+        if (type == Player.class) {
+            return PLAYER;
+        }
+        if (type.isEnum()) {
+            return enumeration((Class) type);
+        }
+        throw new IllegalArgumentException("Kein Argument-Parser für den Typ " + type.getName());
+    }
+    
+    private static List<String> filter(String[] values, String prefix) {
+        List<String> matches = new ArrayList<>();
+        for (String value : values) {
+            if (value.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                matches.add(value);
+            }
+        }
+        return matches;
+    }
+    
+    /**
+     * Parser ohne Zugriff auf den Server, die auch außerhalb des Server-Threads laufen dürfen
+     */
+    @FunctionalInterface
+    private interface SafeParser<T> extends ArgumentParser<T> {
+        
+        @Override
+        default boolean isAsyncSafe() {
+            return true;
+        }
+    }
+    
+    private static final class StringParser implements SafeParser<String> {
+        
+        private final boolean greedy;
+        
+        private StringParser(boolean greedy) {
+            this.greedy = greedy;
+        }
+        
+        @Override
+        public String parse(CommandSender sender, String input) {
+            return input;
+        }
+        
+        @Override
+        public boolean isGreedy() {
+            return greedy;
+        }
+    }
+    
+    private static final class BooleanParser implements SafeParser<Boolean> {
+        
+        private static final String[] VALUES = {"true", "false"};
+        
+        @Override
+        public Boolean parse(CommandSender sender, String input) throws ArgumentParseException {
+            if (input.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            }
+            if (input.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+            throw new ArgumentParseException("error-argument-invalid", "input", input);
+        }
+        
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            return filter(VALUES, prefix);
+        }
+    }
+    
+    private static final class PlayerParser implements ArgumentParser<Player> {
+        
+        // Die Spielerliste darf wie bei der Vervollständigung von Paper asynchron gelesen werden
+        @Override
+        public boolean isAsyncSafe() {
+            return true;
+        }
+        
+        @Override
+        public Player parse(CommandSender sender, String input) throws ArgumentParseException {
+            Player player = Bukkit.getPlayerExact(input);
+            if (player == null) {
+                throw new ArgumentParseException("error-player-not-found", "input", input);
+            }
+            return player;
+        }
+        
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            List<String> matches = new ArrayList<>();
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                String name = player.getName();
+                if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                    matches.add(name);
+                }
+            }
+            return matches;
+        }
+    }
+    
+    private static final class ChoiceParser<T> implements SafeParser<T> {
+        
+        private final String[] names;
+        private final T[] values;
+        
+        private ChoiceParser(String[] names, T[] values) {
+            this.names = names;
+            this.values = values;
+        }
+        
+        @Override
+        public T parse(CommandSender sender, String input) throws ArgumentParseException {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(input)) {
+                    return values[i];
+                }
+            }
+            throw new ArgumentParseException("error-argument-invalid", "input", input);
+        }
+        
+        @Override
+        public List<String> complete(CommandSender sender, String prefix) {
+            return filter(names, prefix);
+        }
+    }
+}
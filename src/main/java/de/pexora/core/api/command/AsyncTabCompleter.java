@@ -0,0 +1,27 @@
+package de.pexora.core.api.command;
+
+import org.bukkit.command.CommandSender;
+
+import java.util.List;
+
+/**
+ * Tab-Vervollständigung, die nicht im Server-Thread laufen muss, z.B. weil sie Spieler im Netzwerk
+ * oder Daten aus einer Datenbank nachschlägt.
+ * 
+ * Auf Paper wird sie über das AsyncTabCompleteEvent außerhalb des Server-Threads aufgerufen, auf Spigot
+ * im Server-Thread. Die Ergebnisse werden pro Spieler und Eingabe kurz zwischengespeichert; beim
+ * Weitertippen werden sie gefiltert statt neu berechnet. Vorschläge sollten daher mit dem letzten
+ * Argument beginnen.
+ */
+@FunctionalInterface
+public interface AsyncTabCompleter {
+
+    /**
+     * Berechnet die Vorschläge für das letzte Argument
+     * 
+     * @param sender Der Absender
+     * @param args Die bisherigen Argumente; das letzte ist das unvollständige
+     * @return Die Vorschläge
+     */
+    List<String> complete(CommandSender sender, String[] args);
+}
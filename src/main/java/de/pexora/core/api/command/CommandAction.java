@@ -0,0 +1,13 @@
+package de.pexora.core.api.command;
+
+/**
+ * Wird ausgeführt, wenn ein Befehl bis zu seinem Knoten aufgelöst wurde
+ */
+@FunctionalInterface
+public interface CommandAction {
+
+    /**
+     * @param context Der Absender, die Eingabe und die gelesenen Argumente
+     */
+    void execute(CommandContext context);
+}
@@ -0,0 +1,83 @@
+package de.pexora.core.api.command;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+/**
+ * Der Kontext eines ausgeführten Befehls mit den typisiert gelesenen Argumenten
+ */
+public interface CommandContext {
+
+    /**
+     * @return der Absender des Befehls
+     */
+    CommandSender getSender();
+    
+    /**
+     * @return der Absender als Spieler, oder null wenn der Befehl von der Konsole kam
+     */
+    Player getPlayer();
+    
+    /**
+     * @return der verwendete Befehlsname oder Alias
+     */
+    String getLabel();
+    
+    /**
+     * @return die unveränderten Argumente
+     */
+    String[] getArgs();
+    
+    /**
+     * Gibt ein gelesenes Argument zurück
+     * 
+     * @param <T> Der Typ des Arguments
+     * @param name Der Name des Arguments
+     * @return Der Wert
+     * @throws IllegalArgumentException Wenn das Argument auf diesem Pfad nicht vorkommt
+     */
+    <T> T get(String name);
+    
+    /**
+     * @param <T> Der Typ des Arguments
+     * @param name Der Name des Arguments
+     * @param defaultValue Der Wert, falls das Argument nicht angegeben wurde
+     * @return Der Wert oder defaultValue
+     */
+    <T> T getOrDefault(String name, T defaultValue);
+    
+    /**
+     * @param name Der Name des Arguments
+     * @return ob das Argument angegeben wurde
+     */
+    boolean has(String name);
+    
+    /**
+     * Sendet dem Absender eine Nachricht aus der messages.yml, für Spieler in ihrer Sprache
+     * 
+     * @param messageKey Der Schlüssel der Nachricht
+     * @param placeholders Die Platzhalter als Paare aus Name und Wert
+     */
+    void reply(String messageKey, String... placeholders);
+    
+    /**
+     * Sendet dem Absender eine Nachricht
+     * 
+     * @param message Die Nachricht
+     */
+    void reply(Component message);
+    
+    /**
+     * Führt eine Aufgabe im Server-Thread aus, z.B. um Ergebnisse einer asynchronen Aktion zu übernehmen.
+     * Im Modus {@link ExecutionMode#MAIN} läuft sie sofort, sonst im nächsten Tick; siehe {@link ExecutionMode}.
+     * 
+     * @param task Die Aufgabe
+     */
+    void runOnMain(Runnable task);
+    
+    /**
+     * @return der Modus, in dem die Aktion läuft
+     */
+    ExecutionMode getExecutionMode();
+}
@@ -0,0 +1,35 @@
+package de.pexora.core.api.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Beschreibt einen Befehl, dessen Unterbefehle als Methoden mit {@link Subcommand} deklariert sind.
+ * Siehe {@link CommandRegistration#fromAnnotated(Object)}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CommandInfo {
+
+    /**
+     * @return der Name des Befehls
+     */
+    String name();
+    
+    /**
+     * @return die Aliase des Befehls
+     */
+    String[] aliases() default {};
+    
+    /**
+     * @return die Berechtigung für den gesamten Befehl, leer für keine
+     */
+    String permission() default "";
+    
+    /**
+     * @return die Beschreibung des Befehls
+     */
+    String description() default "";
+}
@@ -0,0 +1,207 @@
+package de.pexora.core.api.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ein Knoten im Baum eines Befehls: entweder ein festes Wort (Literal) oder ein typisiertes Argument.
+ * 
+ * Der Baum wird beim Registrieren über den CommandManager in eine kompakte Form übersetzt, sodass
+ * ein Aufruf nur so viele Schritte braucht, wie der Befehl Argumente hat.
+ * 
+ * Beispiel:
+ * <pre>
+ * new CommandRegistration("party")
+ *         .then(CommandNode.literal("invite", "inv")
+ *                 .then(CommandNode.argument("spieler", ArgumentParsers.player())
+ *                         .playerOnly()
+ *                         .executes(context -> invite(context.getPlayer(), context.get("spieler")))));
+ * </pre>
+ */
+public final class CommandNode {
+
+    private final String name;
+    private final String[] aliases;
+    private final ArgumentParser<?> parser;
+    private final List<CommandNode> children = new ArrayList<>();
+    private CommandAction action;
+    private ExecutionMode executionMode;
+    private String permission;
+    private String description;
+    private boolean playerOnly;
+    
+    private CommandNode(String name, String[] aliases, ArgumentParser<?> parser) {
+        if (name == null || name.isEmpty() || name.indexOf(' ') >= 0) {
+            throw new IllegalArgumentException("Ungültiger Knotenname: " + name);
+        }
+        this.name = name;
+        this.aliases = aliases;
+        this.parser = parser;
+    }
+    
+    /**
+     * Erstellt einen Knoten für ein festes Wort
+     * 
+     * @param name Das Wort, z.B. "invite"
+     * @param aliases Weitere Schreibweisen des Worts
+     * @return Der Knoten
+     */
+    public static CommandNode literal(String name, String... aliases) {
+        return new CommandNode(name, aliases.clone(), null);
+    }
+    
+    /**
+     * Erstellt einen Knoten für ein typisiertes Argument
+     * 
+     * @param name Der Name des Arguments für {@link CommandContext#get(String)} und Hilfetexte
+     * @param parser Der Parser des Arguments
+     * @return Der Knoten
+     */
+    public static CommandNode argument(String name, ArgumentParser<?> parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("Parser darf nicht null sein");
+        }
+        return new CommandNode(name, new String[0], parser);
+    }
+    
+    /**
+     * Hängt einen Kindknoten an
+     * 
+     * @param child Der Kindknoten
+     * @return Dieser Knoten (für Method-Chaining)
+     */
+    public CommandNode then(CommandNode child) {
+        if (parser != null && parser.isGreedy()) {
+            throw new IllegalStateException("Nach dem Argument " + name + " kann kein weiterer Knoten folgen");
+        }
+        children.add(child);
+        return this;
+    }
+    
+    /**
+     * Legt fest, was beim Aufruf bis zu diesem Knoten ausgeführt wird
+     * 
+     * @param action Die Aktion
+     * @return Dieser Knoten (für Method-Chaining)
+     */
+    public CommandNode executes(CommandAction action) {
+        this.action = action;
+        return this;
+    }
+    
+    /**
+     * Legt fest, was beim Aufruf bis zu diesem Knoten ausgeführt wird und auf welchem Thread
+     * 
+     * @param mode Der Modus der Aktion
+     * @param action Die Aktion
+     * @return Dieser Knoten (für Method-Chaining)
+     */
+    public CommandNode executes(ExecutionMode mode, CommandAction action) {
+        this.executionMode = mode;
+        this.action = action;
+        return this;
+    }
+    
+    /**
+     * Setzt die Berechtigung für diesen Knoten und alle Kindknoten
+     * 
+     * @param permission Die Berechtigung
+     * @return Dieser Knoten (für Method-Chaining)
+     */
+    public CommandNode permission(String permission) {
+        this.permission = permission;
+        return this;
+    }
+    
+    /**
+     * Setzt die Beschreibung für die Hilfe
+     * 
+     * @param description Die Beschreibung
+     * @return Dieser Knoten (für Method-Chaining)
+     */
+    public CommandNode description(String description) {
+        this.description = description;
+        return this;
+    }
+    
+    /**
+     * Erlaubt die Aktion dieses Knotens nur für Spieler
+     * 
+     * @return Dieser Knoten (für Method-Chaining)
+     */
+    public CommandNode playerOnly() {
+        this.playerOnly = true;
+        return this;
+    }
+    
+    /**
+     * @return das Wort oder der Name des Arguments
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return die weiteren Schreibweisen eines Literals
+     */
+    public String[] getAliases() {
+        return aliases.clone();
+    }
+    
+    /**
+     * @return der Parser, oder null für ein Literal
+     */
+    public ArgumentParser<?> getParser() {
+        return parser;
+    }
+    
+    /**
+     * @return ob der Knoten ein festes Wort ist
+     */
+    public boolean isLiteral() {
+        return parser == null;
+    }
+    
+    /**
+     * @return die Kindknoten
+     */
+    public List<CommandNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+    
+    /**
+     * @return die Aktion oder null
+     */
+    public CommandAction getAction() {
+        return action;
+    }
+    
+    /**
+     * @return der Modus der Aktion, oder null für den Standard der Registrierung
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
+    /**
+     * @return die Berechtigung oder null
+     */
+    public String getPermission() {
+        return permission;
+    }
+    
+    /**
+     * @return die Beschreibung oder null
+     */
+    public String getDescription() {
+        return description;
+    }
+    
+    /**
+     * @return ob die Aktion nur für Spieler erlaubt ist
+     */
+    public boolean isPlayerOnly() {
+        return playerOnly;
+    }
+}
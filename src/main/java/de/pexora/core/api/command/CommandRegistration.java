@@ -6,16 +6,23 @@ import org.bukkit.command.TabCompleter;
 /**
  * Hilfsklasse zur Registrierung von Befehlen im PexoraCore-System.
  * Diese Klasse erleichtert das Registrieren und Verwalten von Befehlen für Module.
+ * 
+ * Ein Befehl wird entweder klassisch über einen {@link CommandExecutor} ausgeführt oder deklarativ
+ * als Baum aus {@link CommandNode}s beschrieben, dessen Argumente der Core liest, prüft und vervollständigt.
+ * Registriert wird er über den CommandManager, der ihn beim Entladen des Moduls wieder entfernt.
  */
 public class CommandRegistration {
-    
+
     private final String commandName;
     private final CommandExecutor executor;
+    private final CommandNode root;
     private TabCompleter tabCompleter;
+    private AsyncTabCompleter asyncTabCompleter;
     private String[] aliases;
     private String permission;
     private String description;
     private String usage;
+    private ExecutionMode executionMode = ExecutionMode.MAIN;
     
     /**
      * Erstellt eine neue CommandRegistration-Instanz
@@ -26,6 +33,73 @@ public class CommandRegistration {
     public CommandRegistration(String commandName, CommandExecutor executor) {
         this.commandName = commandName;
         this.executor = executor;
+        this.root = CommandNode.literal(commandName);
+    }
+    
+    /**
+     * Erstellt eine neue CommandRegistration-Instanz für einen deklarativ beschriebenen Befehl
+     * 
+     * @param commandName Der Name des Befehls
+     */
+    public CommandRegistration(String commandName) {
+        this(commandName, null);
+    }
+    
+    /**
+     * Erstellt die Registrierung für ein Objekt, dessen Klasse mit {@link CommandInfo} beschrieben ist
+     * und dessen Unterbefehle als Methoden mit {@link Subcommand} deklariert sind
+     * 
+     * @param handler Das Objekt mit den Unterbefehlen
+     * @return Die Registrierung
+     * @throws IllegalArgumentException Wenn die Klasse oder eine Methode ungültig beschrieben ist
+     */
+    public static CommandRegistration fromAnnotated(Object handler) {
+        return AnnotatedCommands.compile(handler);
+    }
+    
+    /**
+     * Legt fest, was beim Aufruf des Befehls ohne Argumente ausgeführt wird
+     * 
+     * @param action Die Aktion
+     * @return Diese CommandRegistration-Instanz (für Method-Chaining)
+     */
+    public CommandRegistration executes(CommandAction action) {
+        root.executes(action);
+        return this;
+    }
+    
+    /**
+     * Legt fest, was beim Aufruf des Befehls ohne Argumente ausgeführt wird und auf welchem Thread
+     * 
+     * @param mode Der Modus der Aktion
+     * @param action Die Aktion
+     * @return Diese CommandRegistration-Instanz (für Method-Chaining)
+     */
+    public CommandRegistration executes(ExecutionMode mode, CommandAction action) {
+        root.executes(mode, action);
+        return this;
+    }
+    
+    /**
+     * Setzt den Modus für den CommandExecutor und alle Aktionen ohne eigenen Modus
+     * 
+     * @param executionMode Der Modus
+     * @return Diese CommandRegistration-Instanz (für Method-Chaining)
+     */
+    public CommandRegistration withExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+    
+    /**
+     * Hängt einen Unterbefehl oder ein Argument an den Befehl an
+     * 
+     * @param child Der Knoten
+     * @return Diese CommandRegistration-Instanz (für Method-Chaining)
+     */
+    public CommandRegistration then(CommandNode child) {
+        root.then(child);
+        return this;
     }
     
     /**
@@ -39,6 +113,18 @@ public class CommandRegistration {
         return this;
     }
     
+    /**
+     * Setzt eine Tab-Vervollständigung, die auf Paper außerhalb des Server-Threads läuft.
+     * Sie ersetzt den TabCompleter und die Vorschläge aus dem Befehlsbaum.
+     * 
+     * @param asyncTabCompleter Die Tab-Vervollständigung
+     * @return Diese CommandRegistration-Instanz (für Method-Chaining)
+     */
+    public CommandRegistration withAsyncTabCompleter(AsyncTabCompleter asyncTabCompleter) {
+        this.asyncTabCompleter = asyncTabCompleter;
+        return this;
+    }
+    
     /**
      * Setzt die Aliase für den Befehl
      * 
@@ -101,6 +187,22 @@ public class CommandRegistration {
         return executor;
     }
     
+    /**
+     * Gibt den Wurzelknoten des Befehlsbaums zurück
+     * 
+     * @return Der Wurzelknoten
+     */
+    public CommandNode getRoot() {
+        return root;
+    }
+    
+    /**
+     * @return ob der Befehl als Baum beschrieben ist und nicht über einen {@link CommandExecutor} läuft
+     */
+    public boolean isDeclarative() {
+        return root.getAction() != null || !root.getChildren().isEmpty();
+    }
+    
     /**
      * Gibt den TabCompleter zurück
      * 
@@ -110,6 +212,24 @@ public class CommandRegistration {
         return tabCompleter;
     }
     
+    /**
+     * Gibt die asynchrone Tab-Vervollständigung zurück
+     * 
+     * @return Die Tab-Vervollständigung oder null
+     */
+    public AsyncTabCompleter getAsyncTabCompleter() {
+        return asyncTabCompleter;
+    }
+    
+    /**
+     * Gibt den Modus für den CommandExecutor und alle Aktionen ohne eigenen Modus zurück
+     * 
+     * @return Der Modus
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
     /**
      * Gibt die Befehlsaliase zurück
      * 
@@ -0,0 +1,28 @@
+package de.pexora.core.api.command;
+
+/**
+ * Legt fest, auf welchem Thread die Aktion eines Befehls läuft.
+ * 
+ * Berechtigungen und Argumente werden immer im Server-Thread geprüft; nur die Aktion selbst wird verlagert.
+ */
+public enum ExecutionMode {
+
+    /**
+     * Die Aktion läuft sofort im Server-Thread
+     */
+    MAIN,
+    
+    /**
+     * Die Aktion läuft auf dem Thread-Pool der Befehle. Aufgaben über {@link CommandContext#runOnMain(Runnable)}
+     * werden sofort für den nächsten Tick eingeplant.
+     */
+    ASYNC,
+    
+    /**
+     * Die Aktion läuft auf dem Thread-Pool der Befehle, z.B. zum Einlesen von Dateien oder für Datenbankabfragen.
+     * Aufgaben über {@link CommandContext#runOnMain(Runnable)} werden gesammelt und erst nach dem Ende der Aktion
+     * im nächsten Tick ausgeführt, um die Ergebnisse zu übernehmen. Bricht die Aktion mit einem Fehler ab,
+     * entfallen sie.
+     */
+    ASYNC_THEN_MAIN
+}
@@ -0,0 +1,45 @@
+package de.pexora.core.api.command;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Markiert eine Methode als Unterbefehl einer mit {@link CommandInfo} beschriebenen Klasse.
+ * 
+ * Der erste Parameter ist der Absender ({@link org.bukkit.command.CommandSender}, {@link org.bukkit.entity.Player}
+ * für Befehle nur für Spieler) oder der {@link CommandContext}. Alle weiteren Parameter werden als typisierte
+ * Argumente gelesen, siehe {@link ArgumentParsers#forType(Class)} und {@link Arg}.
+ * 
+ * Beispiel:
+ * <pre>
+ * &#64;Subcommand(value = "give", permission = "pexora.eco.give")
+ * public void give(CommandSender sender, &#64;Arg("spieler") Player target, &#64;Arg("betrag") double amount) { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subcommand {
+
+    /**
+     * @return der Pfad aus Literalen, durch Leerzeichen getrennt, z.B. "profile reset"; leer für den Befehl selbst.
+     *         Aliase eines Literals werden mit | angehängt, z.B. "remove|rm".
+     */
+    String value();
+    
+    /**
+     * @return die Berechtigung für diesen Unterbefehl, leer für keine zusätzliche
+     */
+    String permission() default "";
+    
+    /**
+     * @return die Beschreibung für die Hilfe
+     */
+    String description() default "";
+    
+    /**
+     * @return auf welchem Thread die Methode läuft
+     */
+    ExecutionMode mode() default ExecutionMode.MAIN;
+}
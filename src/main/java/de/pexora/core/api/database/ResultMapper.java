@@ -0,0 +1,20 @@
+package de.pexora.core.api.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Liest das Ergebnis einer Abfrage, z.B. in eine Liste oder ein einzelnes Objekt
+ * 
+ * @param <T> Der Typ des Ergebnisses
+ */
+@FunctionalInterface
+public interface ResultMapper<T> {
+
+    /**
+     * @param resultSet Das Ergebnis der Abfrage, vor der ersten Zeile positioniert
+     * @return Das gelesene Ergebnis
+     * @throws SQLException Bei einem Datenbankfehler
+     */
+    T map(ResultSet resultSet) throws SQLException;
+}
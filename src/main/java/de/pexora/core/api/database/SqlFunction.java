@@ -0,0 +1,21 @@
+package de.pexora.core.api.database;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Arbeit mit einer Verbindung aus dem Datenbank-Pool des Cores.
+ * Die Verbindung gehört dem Pool und darf nicht außerhalb des Aufrufs verwendet werden.
+ * 
+ * @param <T> Der Typ des Ergebnisses
+ */
+@FunctionalInterface
+public interface SqlFunction<T> {
+
+    /**
+     * @param connection Die Verbindung
+     * @return Das Ergebnis
+     * @throws SQLException Bei einem Datenbankfehler; die zugehörige Future schlägt damit fehl
+     */
+    T apply(Connection connection) throws SQLException;
+}
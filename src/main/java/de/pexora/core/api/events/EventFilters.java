@@ -0,0 +1,195 @@
+package de.pexora.core.api.events;
+
+import de.pexora.core.api.scheduler.TaskScheduler;
+import de.pexora.core.util.IntLongMap;
+import de.pexora.core.util.IntObjectMap;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Zustand pro Spieler für die gedrosselten und entprellten Handler aus {@link EventRegistration}.
+ * 
+ * Spieler werden über ihre Entity-ID in Maps mit primitiven Schlüsseln geführt, sodass pro Event
+ * weder Schlüssel noch Einträge erzeugt werden. Die Einträge eines Spielers werden beim Verlassen
+ * des Servers entfernt. Zugriffe sind synchronisiert, damit die Filter auch für asynchrone Events
+ * wie den Chat funktionieren.
+ */
+final class EventFilters {
+
+    private EventFilters() {
+    }
+    
+    /**
+     * Ein Filter mit Zustand pro Spieler
+     */
+    interface PlayerState {
+        
+        /**
+         * Entfernt den Zustand eines Spielers, der den Server verlassen hat
+         * 
+         * @param entityId Die Entity-ID des Spielers
+         */
+        void forget(int entityId);
+    }
+    
+    /**
+     * Ruft den Handler höchstens einmal pro Intervall und Spieler auf
+     */
+    static final class Throttle<T extends Event> implements PlayerState {
+        
+        private final Function<? super T, ? extends Player> playerOf;
+        private final long intervalNanos;
+        private final EventRegistration.EventHandler<T> handler;
+        private final IntLongMap lastCalls = new IntLongMap();
+        
+        Throttle(Function<? super T, ? extends Player> playerOf, int maxPerSecond, EventRegistration.EventHandler<T> handler) {
+            if (maxPerSecond <= 0) {
+                throw new IllegalArgumentException("maxPerSecond muss größer als 0 sein");
+            }
+            this.playerOf = playerOf;
+            this.intervalNanos = 1_000_000_000L / maxPerSecond;
+            this.handler = handler;
+        }
+        
+        void handle(T event) {
+            Player player = playerOf.apply(event);
+            if (player == null) {
+                // Ohne Spieler gibt es nichts zu drosseln
+                handler.handle(event);
+                return;
+            }
+            
+            int id = player.getEntityId();
+            long now = System.nanoTime();
+            synchronized (lastCalls) {
+                if (lastCalls.containsKey(id) && now - lastCalls.get(id, 0L) < intervalNanos) {
+                    return;
+                }
+                lastCalls.put(id, now);
+            }
+            handler.handle(event);
+        }
+        
+        @Override
+        public void forget(int entityId) {
+            synchronized (lastCalls) {
+                lastCalls.remove(entityId);
+            }
+        }
+    }
+    
+    /**
+     * Fasst die Events eines Spielers zusammen und ruft den Handler erst auf,
+     * wenn eine bestimmte Anzahl Ticks lang kein weiteres Event kam
+     */
+    static final class Debounce<T extends Event, S> implements PlayerState {
+        
+        private final Function<? super T, ? extends Player> playerOf;
+        private final int ticks;
+        private final EventRegistration.Coalescer<T, S> coalescer;
+        private final EventRegistration.DebouncedHandler<S> handler;
+        private final TaskScheduler scheduler;
+        private final IntObjectMap<Pending<S>> pending = new IntObjectMap<>();
+        
+        // Wird pro Tick wiederverwendet, damit die Handler außerhalb der Sperre laufen
+        private final List<Pending<S>> due = new ArrayList<>();
+        private int waiting;
+        private BukkitTask task;
+        
+        Debounce(Function<? super T, ? extends Player> playerOf, int ticks, EventRegistration.Coalescer<T, S> coalescer,
+                 EventRegistration.DebouncedHandler<S> handler, TaskScheduler scheduler) {
+            if (ticks <= 0) {
+                throw new IllegalArgumentException("ticks muss größer als 0 sein");
+            }
+            this.playerOf = playerOf;
+            this.ticks = ticks;
+            this.coalescer = coalescer;
+            this.handler = handler;
+            this.scheduler = scheduler;
+        }
+        
+        void handle(T event) {
+            Player player = playerOf.apply(event);
+            if (player == null) {
+                return;
+            }
+            
+            int id = player.getEntityId();
+            synchronized (pending) {
+                Pending<S> entry = pending.get(id);
+                if (entry == null) {
+                    entry = new Pending<>(player);
+                    pending.put(id, entry);
+                }
+                if (entry.remaining == 0) {
+                    waiting++;
+                }
+                entry.state = coalescer.coalesce(entry.state, event);
+                entry.remaining = ticks;
+                
+                if (task == null) {
+                    task = scheduler.runTaskTimer(this::tick, 1L, 1L);
+                }
+            }
+        }
+        
+        private void tick() {
+            synchronized (pending) {
+                pending.forEachValue(entry -> {
+                    if (entry.remaining > 0 && --entry.remaining == 0) {
+                        due.add(entry);
+                    }
+                });
+                waiting -= due.size();
+                if (waiting == 0 && task != null) {
+                    task.cancel();
+                    task = null;
+                }
+            }
+            
+            for (int i = 0; i < due.size(); i++) {
+                Pending<S> entry = due.get(i);
+                S state;
+                synchronized (pending) {
+                    state = entry.state;
+                    entry.state = null;
+                }
+                if (state != null) {
+                    handler.handle(entry.player, state);
+                }
+            }
+            due.clear();
+        }
+        
+        @Override
+        public void forget(int entityId) {
+            synchronized (pending) {
+                Pending<S> entry = pending.remove(entityId);
+                if (entry != null && entry.remaining > 0) {
+                    // Zusammengefasste Events eines Spielers, der den Server verlassen hat, werden verworfen
+                    entry.state = null;
+                    waiting--;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Zusammengefasster Zustand eines Spielers; wird pro Spieler nur einmal angelegt
+     */
+    private static final class Pending<S> {
+        
+        private final Player player;
+        private S state;
+        private int remaining;
+        
+        private Pending(Player player) {
+            this.player = player;
+        }
+    }
+}
@@ -1,18 +1,48 @@
 package de.pexora.core.api.events;
 
-import org.bukkit.Bukkit;
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.scheduler.TaskScheduler;
+import de.pexora.core.events.EventDispatcher;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 /**
  * Hilfsklasse zur Registrierung von Event-Listenern im PexoraCore-System.
  * Diese Klasse vereinfacht die Registrierung von Event-Handlern.
+ * Die Handler laufen über den {@link EventDispatcher} des Cores: pro Event-Typ und Priorität gibt es
+ * nur einen Bukkit-Listener für alle Module. Die Laufzeit der Handler wird vom Profiler des Cores
+ * dem Plugin zugerechnet (/pexora profile).
+ * 
+ * Die add-Methoden ({@link #addListener}, {@link #addHandler}) liefern {@link ListenerHandle}s, über die
+ * einzelne Handler gezielt entfernt werden können; die register-Methoden verhalten sich wie bisher.
+ * Beim Deaktivieren des Plugins werden alle Handler automatisch entfernt.
+ * 
+ * Für häufige Events wie PlayerMoveEvent gibt es gefilterte Varianten: nur bei einem Wechsel des
+ * Blocks ({@link #registerBlockMove}), höchstens N-mal pro Sekunde und Spieler ({@link #registerThrottled})
+ * oder einmal nach einer Ruhephase mit zusammengefasstem Zustand ({@link #registerDebounced}).
  */
 public class EventRegistration {
-    
+
     private final Plugin plugin;
+    private final List<ListenerHandle> handles = new CopyOnWriteArrayList<>();
+    private final List<EventFilters.PlayerState> playerStates = new CopyOnWriteArrayList<>();
+    private ListenerHandle quitHandle;
     
     /**
      * Erstellt eine neue EventRegistration-Instanz
@@ -29,7 +59,32 @@ public class EventRegistration {
      * @param listener Der zu registrierende Listener
      */
     public void registerListener(Listener listener) {
-        Bukkit.getPluginManager().registerEvents(listener, plugin);
+        addListener(listener);
+    }
+    
+    /**
+     * Registriert einen Listener für alle seine Event-Handler
+     * 
+     * @param listener Der zu registrierende Listener
+     * @return Die Verweise auf alle Handler des Listeners
+     */
+    public List<ListenerHandle> addListener(Listener listener) {
+        EventDispatcher dispatcher = dispatcher();
+        List<ListenerHandle> created = new ArrayList<>();
+        Map<Class<? extends Event>, Set<RegisteredListener>> handlers = plugin.getPluginLoader().createRegisteredListeners(listener, plugin);
+        for (Map.Entry<Class<? extends Event>, Set<RegisteredListener>> entry : handlers.entrySet()) {
+            for (RegisteredListener registered : entry.getValue()) {
+                if (dispatcher != null) {
+                    // Die Handler laufen über den Verteiler des Cores, der ihre Laufzeit misst.
+                    // RegisteredListener#callEvent beachtet ignoreCancelled bereits selbst.
+                    created.add(new ListenerHandle(dispatcher.register(entry.getKey(), registered.getPriority(), plugin, false, registered::callEvent)));
+                } else {
+                    created.add(registerDirect(entry.getKey(), registered));
+                }
+            }
+        }
+        handles.addAll(created);
+        return created;
     }
     
     /**
@@ -44,10 +99,61 @@ public class EventRegistration {
     }
     
     /**
-     * Hebt die Registrierung aller Listener eines Plugins auf
+     * Entfernt einen einzelnen Handler
+     * 
+     * @param handle Der Verweis aus der Registrierung
+     * @return true, wenn der Handler noch registriert war
+     */
+    public boolean unregister(ListenerHandle handle) {
+        handles.remove(handle);
+        return handle.unregister();
+    }
+    
+    /**
+     * Hebt die Registrierung aller Listener des Plugins auf, die über eine EventRegistration registriert wurden
      */
     public void unregisterAllListeners() {
-        Bukkit.getPluginManager().registerEvents(new Listener() {}, plugin);
+        removeAllListeners();
+    }
+    
+    /**
+     * Hebt die Registrierung aller Listener des Plugins auf, die über eine EventRegistration registriert wurden
+     * 
+     * @return Die Anzahl der entfernten Handler
+     */
+    public int removeAllListeners() {
+        int removed = 0;
+        for (ListenerHandle handle : handles) {
+            if (handle.unregister()) {
+                removed++;
+            }
+        }
+        handles.clear();
+        playerStates.clear();
+        quitHandle = null;
+        
+        // Auch Handler anderer EventRegistration-Instanzen desselben Plugins
+        EventDispatcher dispatcher = dispatcher();
+        if (dispatcher != null) {
+            removed += dispatcher.unregisterAll(plugin);
+        }
+        return removed;
+    }
+    
+    /**
+     * @return die Anzahl der noch registrierten Handler dieser Instanz
+     */
+    public int getListenerCount() {
+        handles.removeIf(handle -> !handle.isActive());
+        return handles.size();
+    }
+    
+    /**
+     * @return die Verweise auf alle noch registrierten Handler dieser Instanz
+     */
+    public List<ListenerHandle> getHandles() {
+        handles.removeIf(handle -> !handle.isActive());
+        return new ArrayList<>(handles);
     }
     
     /**
@@ -61,18 +167,7 @@ public class EventRegistration {
      */
     public <T extends Event> void registerEvent(Class<T> eventClass, EventHandler<T> handler, 
                                                EventPriority priority, boolean ignoreCancelled) {
-        Bukkit.getPluginManager().registerEvent(
-            eventClass,
-            new Listener() {},
-            priority,
-            (listener, event) -> {
-                if (eventClass.isInstance(event)) {
-                    handler.handle(eventClass.cast(event));
-                }
-            },
-            plugin,
-            ignoreCancelled
-        );
+        addHandler(eventClass, handler, priority, ignoreCancelled);
     }
     
     /**
@@ -83,7 +178,7 @@ public class EventRegistration {
      * @param handler Der Event-Handler
      */
     public <T extends Event> void registerEvent(Class<T> eventClass, EventHandler<T> handler) {
-        registerEvent(eventClass, handler, EventPriority.NORMAL, false);
+        addHandler(eventClass, handler, EventPriority.NORMAL, false);
     }
     
     /**
@@ -96,7 +191,191 @@ public class EventRegistration {
      */
     public <T extends Event> void registerEvent(Class<T> eventClass, EventHandler<T> handler, 
                                                EventPriority priority) {
-        registerEvent(eventClass, handler, priority, false);
+        addHandler(eventClass, handler, priority, false);
+    }
+    
+    /**
+     * Registriert einen spezifischen Event-Handler für einen bestimmten Event-Typ
+     * 
+     * @param <T> Der Event-Typ
+     * @param eventClass Die Event-Klasse
+     * @param handler Der Event-Handler
+     * @param priority Die Event-Priorität
+     * @param ignoreCancelled Ob abgebrochene Events ignoriert werden sollen
+     * @return Der Verweis auf den Handler
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Event> ListenerHandle addHandler(Class<T> eventClass, EventHandler<T> handler,
+                                                      EventPriority priority, boolean ignoreCancelled) {
+        EventDispatcher dispatcher = dispatcher();
+        ListenerHandle handle;
+        if (dispatcher != null) {
+            // Der Verteiler prüft den Event-Typ bereits einmal für alle Handler
+            handle = new ListenerHandle(dispatcher.register(eventClass, priority, plugin, ignoreCancelled, event -> handler.handle((T) event)));
+        } else {
+            RegisteredListener registered = new RegisteredListener(
+                new Listener() {},
+                (listener, event) -> {
+                    if (eventClass.isInstance(event)) {
+                        handler.handle(eventClass.cast(event));
+                    }
+                },
+                priority,
+                plugin,
+                ignoreCancelled
+            );
+            handle = registerDirect(eventClass, registered);
+        }
+        handles.add(handle);
+        return handle;
+    }
+    
+    /**
+     * Registriert einen spezifischen Event-Handler mit normaler Priorität
+     * 
+     * @param <T> Der Event-Typ
+     * @param eventClass Die Event-Klasse
+     * @param handler Der Event-Handler
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends Event> ListenerHandle addHandler(Class<T> eventClass, EventHandler<T> handler) {
+        return addHandler(eventClass, handler, EventPriority.NORMAL, false);
+    }
+    
+    /**
+     * Registriert einen Handler für PlayerMoveEvent, der nur aufgerufen wird, wenn der Spieler
+     * einen anderen Block betritt. Drehungen des Kopfes und Bewegungen innerhalb eines Blocks
+     * werden ohne weiteren Aufwand verworfen.
+     * 
+     * @param handler Der Event-Handler
+     * @return Der Verweis auf den Handler
+     */
+    public ListenerHandle registerBlockMove(EventHandler<PlayerMoveEvent> handler) {
+        return registerBlockMove(handler, EventPriority.NORMAL, false);
+    }
+    
+    /**
+     * Registriert einen Handler für PlayerMoveEvent, der nur aufgerufen wird, wenn der Spieler
+     * einen anderen Block betritt
+     * 
+     * @param handler Der Event-Handler
+     * @param priority Die Event-Priorität
+     * @param ignoreCancelled Ob abgebrochene Events ignoriert werden sollen
+     * @return Der Verweis auf den Handler
+     */
+    public ListenerHandle registerBlockMove(EventHandler<PlayerMoveEvent> handler, EventPriority priority, boolean ignoreCancelled) {
+        return addHandler(PlayerMoveEvent.class, event -> {
+            Location from = event.getFrom();
+            Location to = event.getTo();
+            if (to != null && (from.getBlockX() != to.getBlockX() || from.getBlockY() != to.getBlockY()
+                    || from.getBlockZ() != to.getBlockZ() || from.getWorld() != to.getWorld())) {
+                handler.handle(event);
+            }
+        }, priority, ignoreCancelled);
+    }
+    
+    /**
+     * Registriert einen Handler, der höchstens maxPerSecond-mal pro Sekunde und Spieler aufgerufen wird.
+     * Weitere Events in dieser Zeit werden verworfen.
+     * 
+     * @param <T> Der Event-Typ
+     * @param eventClass Die Event-Klasse
+     * @param maxPerSecond Die maximale Anzahl Aufrufe pro Sekunde und Spieler
+     * @param handler Der Event-Handler
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends PlayerEvent> ListenerHandle registerThrottled(Class<T> eventClass, int maxPerSecond, EventHandler<T> handler) {
+        return registerThrottled(eventClass, PlayerEvent::getPlayer, maxPerSecond, EventPriority.NORMAL, false, handler);
+    }
+    
+    /**
+     * Registriert einen Handler, der höchstens maxPerSecond-mal pro Sekunde und Spieler aufgerufen wird
+     * 
+     * @param <T> Der Event-Typ
+     * @param eventClass Die Event-Klasse
+     * @param playerOf Ermittelt den Spieler eines Events, z.B. BlockBreakEvent::getPlayer; Events ohne Spieler werden nicht gedrosselt
+     * @param maxPerSecond Die maximale Anzahl Aufrufe pro Sekunde und Spieler
+     * @param priority Die Event-Priorität
+     * @param ignoreCancelled Ob abgebrochene Events ignoriert werden sollen
+     * @param handler Der Event-Handler
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends Event> ListenerHandle registerThrottled(Class<T> eventClass, Function<? super T, ? extends Player> playerOf,
+                                                             int maxPerSecond, EventPriority priority, boolean ignoreCancelled,
+                                                             EventHandler<T> handler) {
+        EventFilters.Throttle<T> throttle = new EventFilters.Throttle<>(playerOf, maxPerSecond, handler);
+        trackPlayerState(throttle);
+        return addHandler(eventClass, throttle::handle, priority, ignoreCancelled);
+    }
+    
+    /**
+     * Registriert einen entprellten Handler: Die Events eines Spielers werden zusammengefasst, und der
+     * Handler wird einmal auf dem Server-Thread aufgerufen, sobald ticks Ticks lang kein weiteres Event
+     * des Spielers kam. Verlässt der Spieler vorher den Server, wird der Zustand verworfen.
+     * 
+     * @param <T> Der Event-Typ
+     * @param <S> Der zusammengefasste Zustand
+     * @param eventClass Die Event-Klasse
+     * @param ticks Die Ruhephase in Ticks
+     * @param coalescer Fasst ein Event mit dem bisherigen Zustand zusammen
+     * @param handler Erhält den Spieler und den zusammengefassten Zustand
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends PlayerEvent, S> ListenerHandle registerDebounced(Class<T> eventClass, int ticks,
+                                                                       Coalescer<T, S> coalescer, DebouncedHandler<S> handler) {
+        return registerDebounced(eventClass, PlayerEvent::getPlayer, ticks, EventPriority.MONITOR, true, coalescer, handler);
+    }
+    
+    /**
+     * Registriert einen entprellten Handler mit zusammengefasstem Zustand pro Spieler
+     * 
+     * @param <T> Der Event-Typ
+     * @param <S> Der zusammengefasste Zustand
+     * @param eventClass Die Event-Klasse
+     * @param playerOf Ermittelt den Spieler eines Events; Events ohne Spieler werden ignoriert
+     * @param ticks Die Ruhephase in Ticks
+     * @param priority Die Event-Priorität
+     * @param ignoreCancelled Ob abgebrochene Events ignoriert werden sollen
+     * @param coalescer Fasst ein Event mit dem bisherigen Zustand zusammen
+     * @param handler Erhält den Spieler und den zusammengefassten Zustand
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends Event, S> ListenerHandle registerDebounced(Class<T> eventClass, Function<? super T, ? extends Player> playerOf,
+                                                                 int ticks, EventPriority priority, boolean ignoreCancelled,
+                                                                 Coalescer<T, S> coalescer, DebouncedHandler<S> handler) {
+        EventFilters.Debounce<T, S> debounce = new EventFilters.Debounce<>(playerOf, ticks, coalescer, handler, new TaskScheduler(plugin));
+        trackPlayerState(debounce);
+        return addHandler(eventClass, debounce::handle, priority, ignoreCancelled);
+    }
+    
+    /**
+     * Merkt sich den Zustand eines Filters und registriert einmalig den Handler,
+     * der den Zustand eines Spielers beim Verlassen des Servers entfernt
+     */
+    private synchronized void trackPlayerState(EventFilters.PlayerState state) {
+        playerStates.add(state);
+        if (quitHandle == null || !quitHandle.isActive()) {
+            quitHandle = addHandler(PlayerQuitEvent.class, event -> {
+                int entityId = event.getPlayer().getEntityId();
+                for (EventFilters.PlayerState playerState : playerStates) {
+                    playerState.forget(entityId);
+                }
+            }, EventPriority.MONITOR, false);
+        }
+    }
+    
+    /**
+     * Trägt einen Handler direkt in die HandlerList ein, wenn der Core nicht aktiv ist
+     */
+    private static ListenerHandle registerDirect(Class<? extends Event> eventClass, RegisteredListener registered) {
+        HandlerList handlerList = EventDispatcher.getHandlerList(eventClass);
+        handlerList.register(registered);
+        return new ListenerHandle(eventClass, handlerList, registered);
+    }
+    
+    private static EventDispatcher dispatcher() {
+        PexoraCore core = PexoraCore.getInstance();
+        return core != null ? core.getEventDispatcher() : null;
     }
     
     /**
@@ -108,4 +387,31 @@ public class EventRegistration {
     public interface EventHandler<T extends Event> {
         void handle(T event);
     }
+    
+    /**
+     * Fasst Events eines Spielers für {@link #registerDebounced} zusammen
+     * 
+     * @param <T> Der Event-Typ
+     * @param <S> Der zusammengefasste Zustand
+     */
+    @FunctionalInterface
+    public interface Coalescer<T extends Event, S> {
+        
+        /**
+         * @param state Der bisherige Zustand, oder null beim ersten Event nach einem Aufruf
+         * @param event Das neue Event
+         * @return Der neue Zustand, nicht null
+         */
+        S coalesce(S state, T event);
+    }
+    
+    /**
+     * Erhält den zusammengefassten Zustand eines Spielers aus {@link #registerDebounced}
+     * 
+     * @param <S> Der zusammengefasste Zustand
+     */
+    @FunctionalInterface
+    public interface DebouncedHandler<S> {
+        void handle(Player player, S state);
+    }
 }
\ No newline at end of file
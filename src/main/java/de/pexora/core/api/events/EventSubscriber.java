@@ -0,0 +1,15 @@
+package de.pexora.core.api.events;
+
+/**
+ * Funktionales Interface für Handler auf dem {@link de.pexora.core.events.PexoraEventBus}
+ * 
+ * @param <T> Der Event-Typ
+ */
+@FunctionalInterface
+public interface EventSubscriber<T extends PexoraEvent> {
+
+    /**
+     * @param event Das veröffentlichte Event
+     */
+    void onEvent(T event);
+}
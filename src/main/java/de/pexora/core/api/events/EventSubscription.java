@@ -0,0 +1,43 @@
+package de.pexora.core.api.events;
+
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Verweis auf einen Handler des {@link de.pexora.core.events.PexoraEventBus}.
+ * Über den Verweis kann der Handler gezielt wieder entfernt werden.
+ */
+public interface EventSubscription {
+
+    /**
+     * Entfernt den Handler
+     * 
+     * @return true, wenn der Handler noch registriert war
+     */
+    boolean unsubscribe();
+    
+    /**
+     * @return ob der Handler noch registriert ist
+     */
+    boolean isActive();
+    
+    /**
+     * @return das Plugin, dem der Handler gehört
+     */
+    Plugin getOwner();
+    
+    /**
+     * @return die abonnierte Event-Klasse
+     */
+    Class<? extends PexoraEvent> getEventClass();
+    
+    /**
+     * @return die Priorität des Handlers
+     */
+    EventPriority getPriority();
+    
+    /**
+     * @return der Ausführungsmodus des Handlers
+     */
+    HandlerMode getMode();
+}
@@ -0,0 +1,20 @@
+package de.pexora.core.api.events;
+
+/**
+ * Legt fest, auf welchem Thread ein Handler des {@link de.pexora.core.events.PexoraEventBus} läuft
+ */
+public enum HandlerMode {
+
+    /**
+     * Direkt beim Veröffentlichen auf dem Thread des Aufrufers, in der Reihenfolge der Priorität.
+     * Handler, die auf die Bukkit-API zugreifen, brauchen diesen Modus und müssen vom Server-Thread aus
+     * veröffentlicht werden.
+     */
+    SYNC,
+    
+    /**
+     * Auf dem begrenzten Thread-Pool des Event-Busses, nachdem alle SYNC-Handler gelaufen sind.
+     * Die Bukkit-API darf hier nicht verwendet werden.
+     */
+    ASYNC
+}
@@ -0,0 +1,91 @@
+package de.pexora.core.api.events;
+
+import de.pexora.core.events.EventDispatcher;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+
+/**
+ * Verweis auf einen über {@link EventRegistration} registrierten Handler.
+ * Über den Verweis kann der Handler gezielt wieder entfernt werden.
+ */
+public final class ListenerHandle {
+
+    private final Plugin owner;
+    private final Class<? extends Event> eventClass;
+    private final EventPriority priority;
+    
+    // Entweder läuft der Handler über den Verteiler des Cores oder er ist direkt in der HandlerList eingetragen
+    private final EventDispatcher.Handler handler;
+    private final HandlerList handlerList;
+    private final RegisteredListener registered;
+    private volatile boolean active = true;
+    
+    ListenerHandle(EventDispatcher.Handler handler) {
+        this.owner = handler.getOwner();
+        this.eventClass = handler.getEventClass();
+        this.priority = handler.getPriority();
+        this.handler = handler;
+        this.handlerList = null;
+        this.registered = null;
+    }
+    
+    ListenerHandle(Class<? extends Event> eventClass, HandlerList handlerList, RegisteredListener registered) {
+        this.owner = registered.getPlugin();
+        this.eventClass = eventClass;
+        this.priority = registered.getPriority();
+        this.handler = null;
+        this.handlerList = handlerList;
+        this.registered = registered;
+    }
+    
+    /**
+     * Entfernt den Handler
+     * 
+     * @return true, wenn der Handler noch registriert war
+     */
+    public boolean unregister() {
+        if (handler != null) {
+            return handler.unregister();
+        }
+        if (!active) {
+            return false;
+        }
+        active = false;
+        handlerList.unregister(registered);
+        return true;
+    }
+    
+    /**
+     * @return ob der Handler noch registriert ist. Handler eines deaktivierten Plugins gelten als entfernt.
+     */
+    public boolean isActive() {
+        if (handler != null) {
+            return handler.isRegistered();
+        }
+        return active && owner.isEnabled();
+    }
+    
+    /**
+     * @return das Plugin, dem der Handler gehört
+     */
+    public Plugin getOwner() {
+        return owner;
+    }
+    
+    /**
+     * @return die Event-Klasse des Handlers
+     */
+    public Class<? extends Event> getEventClass() {
+        return eventClass;
+    }
+    
+    /**
+     * @return die Priorität des Handlers
+     */
+    public EventPriority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,19 @@
+package de.pexora.core.api.events;
+
+/**
+ * Markiert ein Event, das Module über den {@link de.pexora.core.events.PexoraEventBus} austauschen.
+ * 
+ * Im Gegensatz zu Bukkit-Events braucht ein PexoraEvent keine HandlerList. Handler erhalten auch
+ * Events von Unterklassen und Events, die ein abonniertes Interface implementieren.
+ * 
+ * Beispiel:
+ * <pre>
+ * public final class BalanceChangedEvent implements PexoraEvent {
+ *     private final UUID player;
+ *     private final double balance;
+ *     ...
+ * }
+ * </pre>
+ */
+public interface PexoraEvent {
+}
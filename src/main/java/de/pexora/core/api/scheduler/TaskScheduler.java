@@ -0,0 +1,97 @@
+package de.pexora.core.api.scheduler;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.profiler.TickProfiler;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Hilfsklasse zum Planen von Aufgaben im PexoraCore-System.
+ * Die Laufzeit der Aufgaben wird vom Profiler des Cores dem Modul zugerechnet (/pexora profile).
+ */
+public class TaskScheduler {
+
+    private final Plugin plugin;
+    
+    /**
+     * Erstellt eine neue TaskScheduler-Instanz
+     * 
+     * @param plugin Das Plugin, für das Aufgaben geplant werden sollen
+     */
+    public TaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+    
+    /**
+     * Führt eine Aufgabe im nächsten Tick auf dem Server-Thread aus
+     * 
+     * @param task Die Aufgabe
+     * @return Die geplante Aufgabe
+     */
+    public BukkitTask runTask(Runnable task) {
+        return Bukkit.getScheduler().runTask(plugin, profiled(task));
+    }
+    
+    /**
+     * Führt eine Aufgabe verzögert auf dem Server-Thread aus
+     * 
+     * @param task Die Aufgabe
+     * @param delayTicks Die Verzögerung in Ticks
+     * @return Die geplante Aufgabe
+     */
+    public BukkitTask runTaskLater(Runnable task, long delayTicks) {
+        return Bukkit.getScheduler().runTaskLater(plugin, profiled(task), delayTicks);
+    }
+    
+    /**
+     * Führt eine Aufgabe wiederholt auf dem Server-Thread aus
+     * 
+     * @param task Die Aufgabe
+     * @param delayTicks Die Verzögerung bis zur ersten Ausführung in Ticks
+     * @param periodTicks Der Abstand zwischen den Ausführungen in Ticks
+     * @return Die geplante Aufgabe
+     */
+    public BukkitTask runTaskTimer(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getScheduler().runTaskTimer(plugin, profiled(task), delayTicks, periodTicks);
+    }
+    
+    /**
+     * Führt eine Aufgabe asynchron aus
+     * 
+     * @param task Die Aufgabe
+     * @return Die geplante Aufgabe
+     */
+    public BukkitTask runTaskAsynchronously(Runnable task) {
+        return Bukkit.getScheduler().runTaskAsynchronously(plugin, profiled(task));
+    }
+    
+    /**
+     * Führt eine Aufgabe verzögert und asynchron aus
+     * 
+     * @param task Die Aufgabe
+     * @param delayTicks Die Verzögerung in Ticks
+     * @return Die geplante Aufgabe
+     */
+    public BukkitTask runTaskLaterAsynchronously(Runnable task, long delayTicks) {
+        return Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, profiled(task), delayTicks);
+    }
+    
+    /**
+     * Führt eine Aufgabe wiederholt und asynchron aus
+     * 
+     * @param task Die Aufgabe
+     * @param delayTicks Die Verzögerung bis zur ersten Ausführung in Ticks
+     * @param periodTicks Der Abstand zwischen den Ausführungen in Ticks
+     * @return Die geplante Aufgabe
+     */
+    public BukkitTask runTaskTimerAsynchronously(Runnable task, long delayTicks, long periodTicks) {
+        return Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, profiled(task), delayTicks, periodTicks);
+    }
+    
+    private Runnable profiled(Runnable task) {
+        PexoraCore core = PexoraCore.getInstance();
+        TickProfiler profiler = core != null ? core.getProfiler() : null;
+        return profiler != null ? profiler.wrap(plugin, task) : task;
+    }
+}
@@ -0,0 +1,62 @@
+package de.pexora.core.api.status;
+
+/**
+ * Eigene Gesundheitsprüfung eines Moduls.
+ * Der Core führt alle Prüfungen regelmäßig asynchron aus (status.health-check-interval-seconds),
+ * daher darf eine Prüfung nicht auf die Bukkit-API zugreifen und sollte schnell zurückkehren.
+ * Eine Exception zählt als fehlgeschlagene Prüfung, ebenso eine Prüfung, die länger als
+ * status.health-check-timeout-seconds läuft; sie wird dann unterbrochen.
+ */
+@FunctionalInterface
+public interface HealthCheck {
+
+    /**
+     * Führt die Prüfung aus
+     * 
+     * @return Das Ergebnis der Prüfung
+     * @throws Exception Wenn die Prüfung fehlschlägt
+     */
+    Result check() throws Exception;
+    
+    /**
+     * Ergebnis einer Gesundheitsprüfung
+     */
+    final class Result {
+        
+        private static final Result HEALTHY = new Result(true, null);
+        
+        private final boolean healthy;
+        private final String message;
+        
+        private Result(boolean healthy, String message) {
+            this.healthy = healthy;
+            this.message = message;
+        }
+        
+        /**
+         * @return ein Ergebnis für eine erfolgreiche Prüfung
+         */
+        public static Result healthy() {
+            return HEALTHY;
+        }
+        
+        /**
+         * @param message Beschreibung des Problems
+         * @return ein Ergebnis für eine fehlgeschlagene Prüfung
+         */
+        public static Result unhealthy(String message) {
+            return new Result(false, message);
+        }
+        
+        public boolean isHealthy() {
+            return healthy;
+        }
+        
+        /**
+         * @return die Beschreibung des Problems oder null
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+}
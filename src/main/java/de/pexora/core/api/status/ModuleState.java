@@ -0,0 +1,39 @@
+package de.pexora.core.api.status;
+
+/**
+ * Lebenszyklus-Zustand eines Moduls
+ */
+public enum ModuleState {
+
+    /**
+     * Das Modul wird gerade geladen oder aktiviert
+     */
+    LOADING,
+    
+    /**
+     * Das Modul ist aktiviert und gesund
+     */
+    ENABLED,
+    
+    /**
+     * Das Modul ist aktiviert, aber ein Health-Check schlägt fehl oder der Heartbeat fehlt
+     */
+    DEGRADED,
+    
+    /**
+     * Das Laden oder Aktivieren des Moduls ist fehlgeschlagen
+     */
+    FAILED,
+    
+    /**
+     * Das Modul ist deaktiviert
+     */
+    DISABLED;
+    
+    /**
+     * @return ob Module in diesem Zustand als aktiviert gelten
+     */
+    public boolean isActive() {
+        return this == ENABLED || this == DEGRADED;
+    }
+}
@@ -1,13 +1,33 @@
 package de.pexora.core.api.status;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Repräsentiert den Status eines Moduls im PexoraCore-System.
  * Diese Klasse dient als Schnittstelle für Module, um ihren Status abzufragen oder zu aktualisieren.
+ * 
+ * Neben dem Lebenszyklus-Zustand werden der letzte Heartbeat, Fehler sowie Lade- und
+ * Aktivierungsdauer erfasst. Module können eigene {@link HealthCheck}s registrieren; schlägt eine
+ * Prüfung fehl oder bleibt der Heartbeat aus, gilt ein aktiviertes Modul als {@link ModuleState#DEGRADED}.
+ * Alle Methoden sind threadsicher.
  */
 public class ModuleStatus {
-    
+
     private final String moduleName;
-    private boolean enabled;
+    private final ModuleStatusListener changeListener;
+    private final Map<String, HealthCheck> healthChecks = new ConcurrentHashMap<>();
+    private final LongAdder errorCount = new LongAdder();
+    private volatile ModuleState state;
+    private volatile String healthProblem;
+    private volatile long stateSince;
+    private volatile long lastHeartbeat;
+    private volatile String lastError;
+    private volatile long lastErrorTime;
+    private volatile long loadDurationMillis = -1;
+    private volatile long enableDurationMillis = -1;
     
     /**
      * Erstellt eine neue ModuleStatus-Instanz
@@ -16,8 +36,32 @@ public class ModuleStatus {
      * @param enabled Der initiale Aktivierungsstatus
      */
     public ModuleStatus(String moduleName, boolean enabled) {
+        this(moduleName, enabled, null);
+    }
+    
+    /**
+     * Erstellt eine neue ModuleStatus-Instanz, die Änderungen über {@link #setEnabled(boolean)} meldet
+     * 
+     * @param moduleName Der Name des Moduls
+     * @param enabled Der initiale Aktivierungsstatus
+     * @param changeListener Wird bei jedem tatsächlichen Statuswechsel aufgerufen, oder null
+     */
+    public ModuleStatus(String moduleName, boolean enabled, ModuleStatusListener changeListener) {
+        this(moduleName, enabled ? ModuleState.ENABLED : ModuleState.DISABLED, changeListener);
+    }
+    
+    /**
+     * Erstellt eine neue ModuleStatus-Instanz mit einem Lebenszyklus-Zustand
+     * 
+     * @param moduleName Der Name des Moduls
+     * @param state Der initiale Zustand
+     * @param changeListener Wird bei jedem tatsächlichen Status- und Zustandswechsel aufgerufen, oder null
+     */
+    public ModuleStatus(String moduleName, ModuleState state, ModuleStatusListener changeListener) {
         this.moduleName = moduleName;
-        this.enabled = enabled;
+        this.state = state;
+        this.changeListener = changeListener;
+        this.stateSince = System.currentTimeMillis();
     }
     
     /**
@@ -32,10 +76,10 @@ public class ModuleStatus {
     /**
      * Prüft, ob das Modul aktiviert ist
      * 
-     * @return true, wenn das Modul aktiviert ist, sonst false
+     * @return true, wenn das Modul aktiviert ist (auch wenn es eingeschränkt ist), sonst false
      */
     public boolean isEnabled() {
-        return enabled;
+        return state.isActive();
     }
     
     /**
@@ -44,6 +88,213 @@ public class ModuleStatus {
      * @param enabled Der neue Aktivierungsstatus
      */
     public void setEnabled(boolean enabled) {
-        this.enabled = enabled;
+        if (isEnabled() != enabled) {
+            setState(enabled ? ModuleState.ENABLED : ModuleState.DISABLED);
+        }
+    }
+    
+    /**
+     * Gibt den Zustand des Moduls zurück. Ein aktiviertes Modul mit fehlgeschlagenem
+     * Health-Check oder ausbleibendem Heartbeat wird als DEGRADED gemeldet.
+     * 
+     * @return Der aktuelle Zustand
+     */
+    public ModuleState getState() {
+        ModuleState current = state;
+        if (current == ModuleState.ENABLED && healthProblem != null) {
+            return ModuleState.DEGRADED;
+        }
+        return current;
+    }
+    
+    /**
+     * Setzt den Lebenszyklus-Zustand des Moduls.
+     * Beim Deaktivieren oder Fehlschlagen werden die Health-Checks des Moduls entfernt.
+     * 
+     * @param state Der neue Zustand
+     */
+    public void setState(ModuleState state) {
+        ModuleState previous;
+        ModuleState current;
+        synchronized (this) {
+            previous = getState();
+            this.state = state;
+            if (state == ModuleState.LOADING) {
+                lastHeartbeat = 0;
+            }
+            if (!state.isActive()) {
+                healthProblem = null;
+                healthChecks.clear();
+            }
+            current = getState();
+            if (previous != current) {
+                stateSince = System.currentTimeMillis();
+            }
+        }
+        notifyChange(previous, current);
+    }
+    
+    /**
+     * Setzt das aktuelle Gesundheitsproblem. Wird vom Core nach den Health-Checks aufgerufen.
+     * 
+     * @param problem Beschreibung des Problems, oder null wenn das Modul gesund ist
+     */
+    public void updateHealth(String problem) {
+        ModuleState previous;
+        ModuleState current;
+        synchronized (this) {
+            previous = getState();
+            this.healthProblem = problem;
+            current = getState();
+            if (previous != current) {
+                stateSince = System.currentTimeMillis();
+            }
+        }
+        notifyChange(previous, current);
+    }
+    
+    private void notifyChange(ModuleState previous, ModuleState current) {
+        if (changeListener == null || previous == current) {
+            return;
+        }
+        changeListener.onStateChange(moduleName, previous, current);
+        if (previous.isActive() != current.isActive()) {
+            changeListener.onStatusChange(moduleName, current.isActive());
+        }
+    }
+    
+    /**
+     * @return die Beschreibung des aktuellen Gesundheitsproblems oder null
+     */
+    public String getHealthProblem() {
+        return healthProblem;
+    }
+    
+    /**
+     * @return der Zeitpunkt des letzten Zustandswechsels (Millisekunden seit Epoch)
+     */
+    public long getStateSince() {
+        return stateSince;
+    }
+    
+    /**
+     * Meldet, dass das Modul noch arbeitet. Module, die einmal einen Heartbeat gesendet haben,
+     * gelten als eingeschränkt, wenn länger als status.heartbeat-timeout-seconds keiner folgt.
+     */
+    public void heartbeat() {
+        lastHeartbeat = System.currentTimeMillis();
+    }
+    
+    /**
+     * @return der Zeitpunkt des letzten Heartbeats (Millisekunden seit Epoch), oder 0 wenn noch keiner gesendet wurde
+     */
+    public long getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+    
+    /**
+     * Prüft, ob der Heartbeat eines aktivierten Moduls ausgeblieben ist
+     * 
+     * @param timeoutMillis Die maximale Zeit seit dem letzten Heartbeat, 0 = keine Prüfung
+     * @return true, wenn das Modul Heartbeats sendet und der letzte zu lange zurückliegt
+     */
+    public boolean isStale(long timeoutMillis) {
+        long last = lastHeartbeat;
+        return timeoutMillis > 0 && last > 0 && isEnabled() && System.currentTimeMillis() - last > timeoutMillis;
+    }
+    
+    /**
+     * Meldet einen Fehler des Moduls
+     * 
+     * @param message Beschreibung des Fehlers
+     */
+    public void reportError(String message) {
+        errorCount.increment();
+        lastError = message;
+        lastErrorTime = System.currentTimeMillis();
+    }
+    
+    /**
+     * Meldet einen Fehler des Moduls
+     * 
+     * @param error Der aufgetretene Fehler
+     */
+    public void reportError(Throwable error) {
+        reportError(error.getClass().getSimpleName() + ": " + error.getMessage());
+    }
+    
+    /**
+     * @return die Anzahl der gemeldeten Fehler seit dem Start des Servers
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+    
+    /**
+     * @return die Beschreibung des letzten Fehlers oder null
+     */
+    public String getLastError() {
+        return lastError;
+    }
+    
+    /**
+     * @return der Zeitpunkt des letzten Fehlers (Millisekunden seit Epoch), oder 0
+     */
+    public long getLastErrorTime() {
+        return lastErrorTime;
+    }
+    
+    /**
+     * Registriert eine Gesundheitsprüfung. Eine vorhandene Prüfung mit demselben Namen wird ersetzt.
+     * 
+     * @param name Der Name der Prüfung, z.B. "datenbank"
+     * @param check Die Prüfung
+     */
+    public void addHealthCheck(String name, HealthCheck check) {
+        healthChecks.put(name, check);
+    }
+    
+    /**
+     * Entfernt eine Gesundheitsprüfung
+     * 
+     * @param name Der Name der Prüfung
+     */
+    public void removeHealthCheck(String name) {
+        healthChecks.remove(name);
+    }
+    
+    /**
+     * @return die registrierten Gesundheitsprüfungen nach Namen
+     */
+    public Map<String, HealthCheck> getHealthChecks() {
+        return Collections.unmodifiableMap(healthChecks);
+    }
+    
+    /**
+     * @return die Dauer des Ladens in Millisekunden, oder -1 wenn unbekannt
+     */
+    public long getLoadDurationMillis() {
+        return loadDurationMillis;
+    }
+    
+    /**
+     * @param loadDurationMillis Die Dauer des Ladens in Millisekunden
+     */
+    public void setLoadDurationMillis(long loadDurationMillis) {
+        this.loadDurationMillis = loadDurationMillis;
+    }
+    
+    /**
+     * @return die Dauer des Aktivierens (onEnable) in Millisekunden, oder -1 wenn unbekannt
+     */
+    public long getEnableDurationMillis() {
+        return enableDurationMillis;
+    }
+    
+    /**
+     * @param enableDurationMillis Die Dauer des Aktivierens in Millisekunden
+     */
+    public void setEnableDurationMillis(long enableDurationMillis) {
+        this.enableDurationMillis = enableDurationMillis;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package de.pexora.core.api.status;
+
+/**
+ * Wird über Statuswechsel von Modulen benachrichtigt, damit Module nicht regelmäßig abfragen müssen.
+ * Der Aufruf erfolgt auf dem Thread, der den Status geändert hat (in der Regel der Server-Thread).
+ */
+@FunctionalInterface
+public interface ModuleStatusListener {
+
+    /**
+     * Wird aufgerufen, wenn ein Modul aktiviert oder deaktiviert wurde.
+     * Das Entfernen eines aktivierten Moduls wird als Deaktivierung gemeldet.
+     * 
+     * @param moduleName Der Name des Moduls
+     * @param enabled Der neue Aktivierungsstatus
+     */
+    void onStatusChange(String moduleName, boolean enabled);
+    
+    /**
+     * Wird bei jedem Wechsel des Lebenszyklus-Zustands aufgerufen, z.B. von ENABLED nach DEGRADED.
+     * Wechsel durch Health-Checks werden auf einem asynchronen Thread gemeldet.
+     * 
+     * @param moduleName Der Name des Moduls
+     * @param previous Der vorherige Zustand, oder null bei neu registrierten Modulen
+     * @param state Der neue Zustand
+     */
+    default void onStateChange(String moduleName, ModuleState previous, ModuleState state) {
+    }
+}
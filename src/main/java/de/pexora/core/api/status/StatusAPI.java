@@ -1,5 +1,8 @@
 package de.pexora.core.api.status;
 
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -7,7 +10,7 @@ import java.util.Map;
  * Diese Schnittstelle ermöglicht den Zugriff auf den Modulstatus ohne direkte Abhängigkeiten zur Core-Implementierung.
  */
 public interface StatusAPI {
-    
+
     /**
      * Registriert ein Modul mit seinem Aktivierungsstatus
      * 
@@ -16,6 +19,15 @@ public interface StatusAPI {
      */
     void registerModule(String moduleName, boolean enabled);
     
+    /**
+     * Registriert ein Modul mit einem Lebenszyklus-Zustand oder ändert den Zustand eines registrierten Moduls
+     * 
+     * @param moduleName Der Name des Moduls
+     * @param state Der Zustand
+     * @return Das ModuleStatus-Objekt des Moduls
+     */
+    ModuleStatus registerModule(String moduleName, ModuleState state);
+    
     /**
      * Hebt die Registrierung eines Moduls auf
      * 
@@ -34,7 +46,7 @@ public interface StatusAPI {
     /**
      * Gibt den Status aller Module zurück
      * 
-     * @return Eine Map mit Modulnamen und ihrem Aktivierungsstatus
+     * @return Eine unveränderliche Momentaufnahme mit Modulnamen und ihrem Aktivierungsstatus
      */
     Map<String, Boolean> getModuleStatus();
     
@@ -59,4 +71,48 @@ public interface StatusAPI {
      * @return Das ModuleStatus-Objekt oder null, wenn nicht gefunden
      */
     ModuleStatus getModuleStatusForModule(String moduleName);
+    
+    /**
+     * Gibt die ModuleStatus-Objekte aller registrierten Module zurück
+     * 
+     * @return Eine unveränderliche Liste der Module
+     */
+    Collection<ModuleStatus> getModuleStatuses();
+    
+    /**
+     * Registriert einen zusätzlichen Abschnitt für die Statusausgabe
+     * 
+     * @param section Der Name des Abschnitts
+     * @param provider Der Provider, der die Zeilen des Abschnitts liefert
+     */
+    void registerStatusProvider(String section, StatusProvider provider);
+    
+    /**
+     * Entfernt einen Abschnitt der Statusausgabe
+     * 
+     * @param section Der Name des Abschnitts
+     */
+    void unregisterStatusProvider(String section);
+    
+    /**
+     * Fragt alle registrierten Abschnitte ab
+     * 
+     * @return Eine Map mit Abschnittsnamen und ihren Zeilen, in Registrierungsreihenfolge
+     */
+    Map<String, Map<String, String>> getStatusSections();
+    
+    /**
+     * Registriert einen Listener für Statuswechsel von Modulen
+     * 
+     * @param owner Das Plugin, dem der Listener gehört; er wird beim Deaktivieren des Plugins entfernt
+     * @param listener Der Listener
+     */
+    void addStatusListener(Plugin owner, ModuleStatusListener listener);
+    
+    /**
+     * Entfernt einen Listener für Statuswechsel
+     * 
+     * @param listener Der Listener
+     */
+    void removeStatusListener(ModuleStatusListener listener);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package de.pexora.core.api.status;
+
+import java.util.Map;
+
+/**
+ * Liefert einen zusätzlichen Abschnitt für die Statusausgabe (/pexora status).
+ * Wird bei jeder Abfrage aufgerufen und sollte daher nur bereits erfasste Werte zusammenstellen.
+ */
+@FunctionalInterface
+public interface StatusProvider {
+
+    /**
+     * Gibt die Zeilen dieses Abschnitts zurück
+     * 
+     * @return Eine geordnete Map mit Bezeichnung und Wert
+     */
+    Map<String, String> getStatus();
+}
@@ -0,0 +1,472 @@
+package de.pexora.core.cache;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.cache.PlayerDataCodec;
+import de.pexora.core.api.cache.PlayerDataLoader;
+import org.bukkit.plugin.Plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Die Spielerdaten eines Moduls im Spieler-Cache, registriert über
+ * {@link PlayerDataCache#register(Plugin, String, PlayerDataLoader, PlayerDataCodec)}.
+ * 
+ * Ein Zugriff sucht die Daten nacheinander im Heap, im Speicher außerhalb des Heaps und in der
+ * Datei-Stufe; erst wenn sie nirgends liegen, wird der Loader des Moduls aufgerufen. Gefundene Daten
+ * wandern zurück in den Heap. Gleichzeitige Zugriffe auf denselben Spieler teilen sich einen Ladevorgang.
+ * 
+ * Die Datei-Stufe ist ein Cache, keine Ablage: Ändert ein Modul die Daten an anderer Stelle, z.B. auf
+ * einem anderen Server, muss es {@link #invalidate(UUID)} aufrufen oder die Datei-Stufe ausschalten.
+ * 
+ * @param <T> Der Typ der Spielerdaten
+ */
+public final class CachedPlayerData<T> {
+
+    private final PexoraCore plugin;
+    private final PlayerDataCache service;
+    private final Plugin owner;
+    private final String name;
+    private final PlayerDataLoader<T> loader;
+    private final PlayerDataCodec<T> codec;
+    private final File directory;
+    private final long fileTtlMillis;
+    
+    private final Map<UUID, Entry<T>> heap = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<T>> loading = new ConcurrentHashMap<>();
+    
+    // Stand je Spieler, neu vergeben bei put, invalidate und beim Verdrängen aus dem Heap; ein Ladevorgang
+    // oder eine Kopie in den unteren Stufen, die vor einer solchen Änderung entstanden ist, darf nicht mehr
+    // in den Heap bzw. in die nächste Stufe gelangen
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong versionCounter = new AtomicLong();
+    
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder heapHits = new LongAdder();
+    private final LongAdder offHeapHits = new LongAdder();
+    private final LongAdder fileHits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    
+    CachedPlayerData(PexoraCore plugin, PlayerDataCache service, Plugin owner, String name, PlayerDataLoader<T> loader,
+                     PlayerDataCodec<T> codec, File directory, long fileTtlMillis) {
+        this.plugin = plugin;
+        this.service = service;
+        this.owner = owner;
+        this.name = name;
+        this.loader = loader;
+        this.codec = codec;
+        this.directory = codec != null && fileTtlMillis > 0 ? directory : null;
+        this.fileTtlMillis = fileTtlMillis;
+    }
+    
+    /**
+     * Liefert die Daten eines Spielers und lädt sie bei Bedarf. Vorab geladene Daten sind sofort verfügbar.
+     * 
+     * @param uuid Die UUID des Spielers
+     * @return Die Future mit den Daten oder null, wenn der Loader keine geliefert hat
+     */
+    public CompletableFuture<T> get(UUID uuid) {
+        T value = getIfLoaded(uuid);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> future = loading.putIfAbsent(uuid, created);
+        if (future != null) {
+            return future;
+        }
+        try {
+            service.execute(() -> load(uuid, created));
+        } catch (RejectedExecutionException e) {
+            loading.remove(uuid, created);
+            loadFailures.increment();
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+    
+    /**
+     * Liefert die Daten eines Spielers, wenn sie im Speicher liegen, ohne zu laden oder auf Dateien zuzugreifen.
+     * Geeignet für den Server-Thread, z.B. im PlayerJoinEvent nach dem Vorabladen.
+     * 
+     * @param uuid Die UUID des Spielers
+     * @return Die Daten oder null
+     */
+    public T getIfLoaded(UUID uuid) {
+        requests.increment();
+        Entry<T> entry = heap.get(uuid);
+        if (entry != null) {
+            heapHits.increment();
+            return entry.value;
+        }
+        
+        Long version = versions.get(uuid);
+        byte[] data = service.takeOffHeap(this, uuid);
+        if (data != null) {
+            T value = decode(uuid, data);
+            if (value != null) {
+                offHeapHits.increment();
+                promoteIfCurrent(uuid, value, version);
+                return value;
+            }
+        }
+        return null;
+    }
+    
+    private void load(UUID uuid, CompletableFuture<T> future) {
+        Long version = versions.get(uuid);
+        try {
+            T value = readFile(uuid);
+            if (value != null) {
+                fileHits.increment();
+            } else {
+                loads.increment();
+                value = loader.load(uuid);
+            }
+            if (value != null) {
+                promoteIfCurrent(uuid, value, version);
+            }
+            future.complete(value);
+        } catch (Exception e) {
+            loadFailures.increment();
+            plugin.getLoggerService().warn("Spielerdaten " + owner.getName() + "/" + name + " für " + uuid
+                    + " konnten nicht geladen werden: " + e.getMessage());
+            if (plugin.getCoreConfig().isDebugMode()) {
+                e.printStackTrace();
+            }
+            future.completeExceptionally(e);
+        } finally {
+            loading.remove(uuid, future);
+        }
+    }
+    
+    /**
+     * Legt geladene Daten in den Heap, sofern sie seit Beginn des Ladens nicht durch
+     * {@link #put(UUID, Object)} oder {@link #invalidate(UUID)} überholt wurden
+     */
+    private void promoteIfCurrent(UUID uuid, T value, Long version) {
+        versions.compute(uuid, (key, current) -> {
+            if (Objects.equals(current, version)) {
+                promote(uuid, value);
+            }
+            return current;
+        });
+    }
+    
+    private void promote(UUID uuid, T value) {
+        Entry<T> entry = new Entry<>(value);
+        if (!service.isOnline(uuid)) {
+            // Vorab geladen oder für einen Spieler, der nicht online ist: nur bis zum Ablauf der Frist behalten
+            entry.evictAt = System.currentTimeMillis() + service.getGraceMillis();
+        }
+        heap.put(uuid, entry);
+        // Hat markOnline den Eintrag zwischen der Prüfung und dem Einfügen verpasst, hier nachholen
+        if (entry.evictAt != 0 && service.isOnline(uuid)) {
+            entry.evictAt = 0;
+        }
+    }
+    
+    /**
+     * Ersetzt die Daten eines Spielers im Cache, z.B. nach einer Änderung durch das Modul.
+     * Serialisierte Kopien in den anderen Stufen werden verworfen.
+     * 
+     * @param uuid Die UUID des Spielers
+     * @param value Die neuen Daten
+     */
+    public void put(UUID uuid, T value) {
+        versions.compute(uuid, (key, version) -> {
+            promote(uuid, value);
+            return versionCounter.incrementAndGet();
+        });
+        // Erst nach dem neuen Stand, damit ein gleichzeitiges Verdrängen keine alte Kopie zurücklässt
+        service.takeOffHeap(this, uuid);
+        deleteFile(uuid);
+    }
+    
+    /**
+     * Entfernt die Daten eines Spielers aus allen Stufen; der nächste Zugriff ruft den Loader auf
+     * 
+     * @param uuid Die UUID des Spielers
+     */
+    public void invalidate(UUID uuid) {
+        versions.compute(uuid, (key, version) -> {
+            heap.remove(uuid);
+            return versionCounter.incrementAndGet();
+        });
+        service.takeOffHeap(this, uuid);
+        deleteFile(uuid);
+    }
+    
+    void markOnline(UUID uuid) {
+        Entry<T> entry = heap.get(uuid);
+        if (entry != null) {
+            entry.evictAt = 0;
+        }
+    }
+    
+    void markOffline(UUID uuid, long evictAt) {
+        Entry<T> entry = heap.get(uuid);
+        if (entry != null) {
+            entry.evictAt = evictAt;
+        }
+    }
+    
+    /**
+     * Verdrängt die Daten von Spielern, deren Frist abgelaufen ist, aus dem Heap
+     * 
+     * @param now Die aktuelle Zeit in Millisekunden
+     */
+    void sweep(long now) {
+        for (Map.Entry<UUID, Entry<T>> mapEntry : heap.entrySet()) {
+            Entry<T> entry = mapEntry.getValue();
+            long evictAt = entry.evictAt;
+            if (evictAt > 0 && now >= evictAt) {
+                Long version = removeFromHeap(mapEntry.getKey(), entry);
+                if (version != null) {
+                    demote(mapEntry.getKey(), entry.value, version);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Entfernt einen Eintrag aus dem Heap und vergibt dabei einen neuen Stand für seine Kopie in den unteren Stufen
+     * 
+     * @return Der neue Stand oder null, wenn der Eintrag inzwischen ersetzt oder entfernt wurde
+     */
+    private Long removeFromHeap(UUID uuid, Entry<T> entry) {
+        Long version = versionCounter.incrementAndGet();
+        Long current = versions.compute(uuid, (key, previous) -> heap.remove(uuid, entry) ? version : previous);
+        return version.equals(current) ? version : null;
+    }
+    
+    private void demote(UUID uuid, T value, Long version) {
+        if (codec == null) {
+            forget(uuid, version);
+            return;
+        }
+        byte[] data;
+        try {
+            data = codec.encode(value);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLoggerService().warn("Spielerdaten " + owner.getName() + "/" + name + " konnten nicht serialisiert werden: " + e.getMessage());
+            forget(uuid, version);
+            return;
+        }
+        if (!service.hasOffHeap()) {
+            writeFile(uuid, data, version);
+            return;
+        }
+        
+        // Ein put oder invalidate während des Serialisierens hat Vorrang; die Prüfung und das Ablegen
+        // geschehen deshalb gemeinsam unter der Sperre des Stands
+        List<OffHeapStore.Evicted> evicted = new ArrayList<>(0);
+        versions.computeIfPresent(uuid, (key, current) -> {
+            if (current.equals(version)) {
+                evicted.addAll(service.putOffHeap(this, uuid, data, version));
+            }
+            return current;
+        });
+        for (OffHeapStore.Evicted entry : evicted) {
+            entry.cache.writeFile(entry.uuid, entry.data, entry.version);
+        }
+    }
+    
+    /**
+     * Vergisst den Stand eines Spielers, dessen Daten in keiner Stufe mehr liegen
+     */
+    private void forget(UUID uuid, Long version) {
+        if (!loading.containsKey(uuid)) {
+            versions.remove(uuid, version);
+        }
+    }
+    
+    private T decode(UUID uuid, byte[] data) {
+        try {
+            return codec.decode(data);
+        } catch (IOException | RuntimeException e) {
+            plugin.getLoggerService().debug("Zwischengespeicherte Spielerdaten " + owner.getName() + "/" + name + " für " + uuid
+                    + " verworfen: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private T readFile(UUID uuid) {
+        if (directory == null) {
+            return null;
+        }
+        File file = new File(directory, uuid + ".bin");
+        long modified = file.lastModified();
+        if (modified == 0) {
+            return null;
+        }
+        if (System.currentTimeMillis() - modified > fileTtlMillis) {
+            deleteFile(uuid);
+            return null;
+        }
+        
+        try {
+            T value = decode(uuid, Files.readAllBytes(file.toPath()));
+            // Die Daten liegen jetzt im Heap; eine alte Kopie darf später keine neueren Daten verdecken
+            deleteFile(uuid);
+            return value;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Legt Daten in der Datei-Stufe ab, sofern sich ihr Stand seit dem Verdrängen nicht geändert hat
+     * 
+     * @param uuid Die UUID des Spielers
+     * @param data Die serialisierten Daten
+     * @param version Der Stand beim Verdrängen aus dem Heap
+     */
+    void writeFile(UUID uuid, byte[] data, Long version) {
+        if (directory == null) {
+            forget(uuid, version);
+            return;
+        }
+        File temp;
+        try {
+            Files.createDirectories(directory.toPath());
+            // Eigene temporäre Datei, da eine veraltete Kopie gleichzeitig geschrieben werden kann
+            temp = Files.createTempFile(directory.toPath(), uuid.toString(), ".tmp").toFile();
+            Files.write(temp.toPath(), data);
+        } catch (IOException e) {
+            plugin.getLoggerService().debug("Spielerdaten " + owner.getName() + "/" + name + " konnten nicht abgelegt werden: " + e.getMessage());
+            forget(uuid, version);
+            return;
+        }
+        
+        // Umbenennen nur, solange kein put oder invalidate dazwischen kam; beide warten darauf
+        versions.computeIfPresent(uuid, (key, current) -> {
+            if (current.equals(version)) {
+                try {
+                    Files.move(temp.toPath(), new File(directory, uuid + ".bin").toPath(), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    plugin.getLoggerService().debug("Spielerdaten " + owner.getName() + "/" + name + " konnten nicht abgelegt werden: " + e.getMessage());
+                }
+            }
+            return current;
+        });
+        if (temp.exists() && !temp.delete()) {
+            temp.deleteOnExit();
+        }
+    }
+    
+    private void deleteFile(UUID uuid) {
+        if (directory != null) {
+            File file = new File(directory, uuid + ".bin");
+            if (file.exists() && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+    
+    /**
+     * Löscht abgelaufene Dateien der Datei-Stufe
+     * 
+     * @param now Die aktuelle Zeit in Millisekunden
+     */
+    void purgeFiles(long now) {
+        File[] files = directory != null ? directory.listFiles() : null;
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (now - file.lastModified() > fileTtlMillis && file.delete() && file.getName().endsWith(".bin")) {
+                // Mit der Datei ist der Stand des Spielers nicht mehr nötig, sofern er nicht wieder im Speicher liegt
+                UUID uuid = parseUuid(file.getName().substring(0, file.getName().length() - 4));
+                if (uuid != null && !heap.containsKey(uuid) && !loading.containsKey(uuid) && !service.containsOffHeap(this, uuid)) {
+                    versions.remove(uuid);
+                }
+            }
+        }
+    }
+    
+    private static UUID parseUuid(String name) {
+        try {
+            return UUID.fromString(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+    
+    void clear() {
+        heap.clear();
+        versions.clear();
+    }
+    
+    /**
+     * @return das Modul, dem die Daten gehören
+     */
+    public Plugin getOwner() {
+        return owner;
+    }
+    
+    /**
+     * @return der Name der Daten
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return die Anzahl der Spieler im Heap
+     */
+    public int getHeapSize() {
+        return heap.size();
+    }
+    
+    public long getRequestCount() {
+        return requests.sum();
+    }
+    
+    public long getHeapHits() {
+        return heapHits.sum();
+    }
+    
+    public long getOffHeapHits() {
+        return offHeapHits.sum();
+    }
+    
+    public long getFileHits() {
+        return fileHits.sum();
+    }
+    
+    public long getLoadCount() {
+        return loads.sum();
+    }
+    
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+    
+    private static final class Entry<T> {
+        
+        private final T value;
+        
+        // 0, solange der Spieler online ist, sonst der Zeitpunkt, ab dem der Eintrag den Heap verlässt
+        private volatile long evictAt;
+        
+        private Entry(T value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package de.pexora.core.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Serialisierte Spielerdaten außerhalb des Java-Heaps, gemeinsam für alle Caches.
+ * 
+ * Der Speicher besteht aus wenigen großen direkten ByteBuffern ("Slabs"), die bei Bedarf bis zum Budget
+ * angelegt und erst beim Herunterfahren freigegeben werden. Jeder Slab ist in Blöcke fester Größe
+ * geteilt; ein Eintrag belegt so viele Blöcke, wie er braucht, und gibt sie beim Entfernen an die
+ * Freiliste zurück. So entstehen weder viele kleine direkte Buffer, deren nativer Speicher erst der
+ * Garbage Collector freigibt, noch Lücken durch Fragmentierung.
+ * 
+ * Ist das Budget erschöpft, werden die am längsten nicht genutzten Einträge verdrängt und an den
+ * Aufrufer zurückgegeben, damit dieser sie in die Datei-Stufe übernehmen kann.
+ */
+final class OffHeapStore {
+
+    private static final int BLOCK_SIZE = 256;
+    private static final int SLAB_SIZE = 4 * 1024 * 1024;
+    
+    private final long maxBytes;
+    private final int maxBlocks;
+    private final int blocksPerSlab;
+    private final LinkedHashMap<Key, Slot> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int allocatedBlocks;
+    private int[] freeBlocks = new int[0];
+    private int freeCount;
+    
+    OffHeapStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.maxBlocks = (int) Math.min(Integer.MAX_VALUE, maxBytes / BLOCK_SIZE);
+        this.blocksPerSlab = Math.max(1, Math.min(SLAB_SIZE / BLOCK_SIZE, maxBlocks));
+    }
+    
+    /**
+     * Legt einen Eintrag ab und verdrängt bei Bedarf ältere
+     * 
+     * @param cache Der Cache, dem der Eintrag gehört
+     * @param uuid Die UUID des Spielers
+     * @param data Die serialisierten Daten
+     * @param version Der Stand der Daten im Cache, siehe {@link Evicted#version}
+     * @return Die verdrängten Einträge; enthält den neuen Eintrag selbst, wenn er größer als das Budget ist
+     */
+    synchronized List<Evicted> put(CachedPlayerData<?> cache, UUID uuid, byte[] data, Long version) {
+        Key key = new Key(cache, uuid);
+        List<Evicted> evicted = new ArrayList<>(0);
+        int needed = blocksFor(data.length);
+        if (needed > maxBlocks) {
+            evicted.add(new Evicted(key, data, version));
+            return evicted;
+        }
+        
+        Slot previous = entries.remove(key);
+        if (previous != null) {
+            release(previous);
+        }
+        Iterator<Map.Entry<Key, Slot>> iterator = entries.entrySet().iterator();
+        while (freeCount + maxBlocks - allocatedBlocks < needed && iterator.hasNext()) {
+            Map.Entry<Key, Slot> eldest = iterator.next();
+            iterator.remove();
+            evicted.add(new Evicted(eldest.getKey(), read(eldest.getValue()), eldest.getValue().version));
+            release(eldest.getValue());
+        }
+        
+        Slot slot = new Slot(new int[needed], data.length, version);
+        int offset = 0;
+        for (int i = 0; i < needed; i++) {
+            if (freeCount == 0) {
+                addSlab();
+            }
+            int block = freeBlocks[--freeCount];
+            slot.blocks[i] = block;
+            int length = Math.min(BLOCK_SIZE, data.length - offset);
+            position(block).put(data, offset, length);
+            offset += length;
+        }
+        entries.put(key, slot);
+        return evicted;
+    }
+    
+    /**
+     * Entnimmt einen Eintrag, z.B. um ihn zurück in den Heap zu holen
+     * 
+     * @param cache Der Cache
+     * @param uuid Die UUID des Spielers
+     * @return Die serialisierten Daten oder null
+     */
+    synchronized byte[] take(CachedPlayerData<?> cache, UUID uuid) {
+        Slot slot = entries.remove(new Key(cache, uuid));
+        if (slot == null) {
+            return null;
+        }
+        byte[] data = read(slot);
+        release(slot);
+        return data;
+    }
+    
+    synchronized boolean contains(CachedPlayerData<?> cache, UUID uuid) {
+        return entries.containsKey(new Key(cache, uuid));
+    }
+    
+    /**
+     * Entfernt alle Einträge eines Caches
+     * 
+     * @param cache Der Cache
+     */
+    synchronized void removeAll(CachedPlayerData<?> cache) {
+        Iterator<Map.Entry<Key, Slot>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Slot> entry = iterator.next();
+            if (entry.getKey().cache == cache) {
+                release(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * Entfernt alle Einträge und gibt die Slabs frei
+     */
+    synchronized void clear() {
+        entries.clear();
+        slabs.clear();
+        allocatedBlocks = 0;
+        freeBlocks = new int[0];
+        freeCount = 0;
+    }
+    
+    private void addSlab() {
+        int count = Math.min(blocksPerSlab, maxBlocks - allocatedBlocks);
+        int first = slabs.size() * blocksPerSlab;
+        slabs.add(ByteBuffer.allocateDirect(count * BLOCK_SIZE));
+        allocatedBlocks += count;
+        if (freeBlocks.length < allocatedBlocks) {
+            freeBlocks = Arrays.copyOf(freeBlocks, allocatedBlocks);
+        }
+        // Absteigend, damit die Blöcke vorne im Slab zuerst vergeben werden
+        for (int block = first + count - 1; block >= first; block--) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+    
+    private void release(Slot slot) {
+        for (int block : slot.blocks) {
+            freeBlocks[freeCount++] = block;
+        }
+    }
+    
+    private ByteBuffer position(int block) {
+        ByteBuffer slab = slabs.get(block / blocksPerSlab);
+        slab.clear().position((block % blocksPerSlab) * BLOCK_SIZE);
+        return slab;
+    }
+    
+    private byte[] read(Slot slot) {
+        byte[] data = new byte[slot.length];
+        int offset = 0;
+        for (int block : slot.blocks) {
+            int length = Math.min(BLOCK_SIZE, data.length - offset);
+            position(block).get(data, offset, length);
+            offset += length;
+        }
+        return data;
+    }
+    
+    private static int blocksFor(int length) {
+        return (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+    
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+    
+    /**
+     * @return die Größe der belegten Blöcke in Bytes
+     */
+    synchronized long getUsedBytes() {
+        return (long) (allocatedBlocks - freeCount) * BLOCK_SIZE;
+    }
+    
+    long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    /**
+     * Ein verdrängter Eintrag
+     */
+    static final class Evicted {
+        
+        final CachedPlayerData<?> cache;
+        final UUID uuid;
+        final byte[] data;
+        // Der Stand beim Ablegen; hat sich der Stand im Cache seitdem geändert, ist der Eintrag veraltet
+        final Long version;
+        
+        private Evicted(Key key, byte[] data, Long version) {
+            this.cache = key.cache;
+            this.uuid = key.uuid;
+            this.data = data;
+            this.version = version;
+        }
+    }
+    
+    private static final class Slot {
+        
+        private final int[] blocks;
+        private final int length;
+        private final Long version;
+        
+        private Slot(int[] blocks, int length, Long version) {
+            this.blocks = blocks;
+            this.length = length;
+            this.version = version;
+        }
+    }
+    
+    private static final class Key {
+        
+        private final CachedPlayerData<?> cache;
+        private final UUID uuid;
+        
+        private Key(CachedPlayerData<?> cache, UUID uuid) {
+            this.cache = cache;
+            this.uuid = uuid;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return cache == key.cache && uuid.equals(key.uuid);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(cache), uuid);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package de.pexora.core.cache;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.cache.PlayerDataCodec;
+import de.pexora.core.api.cache.PlayerDataLoader;
+import de.pexora.core.config.CoreConfig;
+import de.pexora.core.metrics.MetricType;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Read-Through-Cache für Spielerdaten der Module mit mehreren Stufen.
+ * 
+ * Module registrieren pro Datenart einen Loader; der Core lädt die Daten aller Module bereits im
+ * AsyncPlayerPreLoginEvent, also vor dem Beitritt und außerhalb des Server-Threads. Im PlayerJoinEvent
+ * liegen sie dann über {@link CachedPlayerData#getIfLoaded(UUID)} bereit, ohne den Server-Thread zu blockieren:
+ * <pre>
+ * CachedPlayerData&lt;Profile&gt; profiles = cache.register(this, "profile", profileDao::load, new ProfileCodec());
+ * Profile profile = profiles.getIfLoaded(player.getUniqueId());
+ * </pre>
+ * 
+ * Nach dem Verlassen bleiben die Daten {@link CoreConfig#getCacheGraceSeconds()} im Heap, damit ein
+ * schneller Wiederbeitritt nicht neu lädt. Danach werden sie mit einem {@link PlayerDataCodec}
+ * serialisiert außerhalb des Heaps und, wenn dieser Speicher voll ist, im Ordner cache/ abgelegt.
+ */
+public class PlayerDataCache implements Listener {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9_-]+");
+    private static final int LOADER_QUEUE_CAPACITY = 10000;
+    private static final long SWEEP_INTERVAL_TICKS = 20 * 20L;
+    private static final long PURGE_INTERVAL_MILLIS = 10 * 60 * 1000L;
+    
+    private final PexoraCore plugin;
+    private final ThreadPoolExecutor executor;
+    private final OffHeapStore offHeap;
+    private final long graceMillis;
+    private final long prefetchTimeoutMillis;
+    private final long fileTtlMillis;
+    private final List<CachedPlayerData<?>> caches = new CopyOnWriteArrayList<>();
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+    private final BukkitTask sweepTask;
+    private long lastPurge;
+    
+    private final LongAdder prefetches = new LongAdder();
+    private final LongAdder prefetchTimeouts = new LongAdder();
+    
+    public PlayerDataCache(PexoraCore plugin) {
+        CoreConfig config = plugin.getCoreConfig();
+        this.plugin = plugin;
+        this.executor = createExecutor(config.getCacheLoaderThreads());
+        long offHeapBytes = config.getCacheOffHeapMaxMegabytes() * 1024 * 1024;
+        this.offHeap = offHeapBytes > 0 ? new OffHeapStore(offHeapBytes) : null;
+        this.graceMillis = TimeUnit.SECONDS.toMillis(config.getCacheGraceSeconds());
+        this.prefetchTimeoutMillis = config.getCachePrefetchTimeoutMillis();
+        this.fileTtlMillis = TimeUnit.MINUTES.toMillis(config.getCacheFileTtlMinutes());
+        
+        // Spieler, die bereits online sind, z.B. nach einem Reload
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            online.add(player.getUniqueId());
+        }
+        
+        this.sweepTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::sweep,
+                SWEEP_INTERVAL_TICKS, SWEEP_INTERVAL_TICKS);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getStatusAPI().registerStatusProvider("Spieler-Cache", this::getStatusSummary);
+        registerMetrics();
+    }
+    
+    private static ThreadPoolExecutor createExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(LOADER_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-Cache-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    private void registerMetrics() {
+        plugin.getMetricsRegistry().collector(plugin, "pexora_player_cache_requests_total", "Zugriffe auf den Spieler-Cache je Stufe",
+                MetricType.COUNTER, sink -> {
+                    for (CachedPlayerData<?> cache : caches) {
+                        String id = cache.getOwner().getName() + "/" + cache.getName();
+                        sink.add(cache.getHeapHits(), "cache", id, "tier", "heap");
+                        sink.add(cache.getOffHeapHits(), "cache", id, "tier", "offheap");
+                        sink.add(cache.getFileHits(), "cache", id, "tier", "file");
+                        sink.add(cache.getLoadCount(), "cache", id, "tier", "loader");
+                    }
+                });
+        plugin.getMetricsRegistry().collector(plugin, "pexora_player_cache_entries", "Spieler im Heap je Cache", MetricType.GAUGE, sink -> {
+            for (CachedPlayerData<?> cache : caches) {
+                sink.add(cache.getHeapSize(), "cache", cache.getOwner().getName() + "/" + cache.getName());
+            }
+        });
+        if (offHeap != null) {
+            plugin.getMetricsRegistry().gauge(plugin, "pexora_player_cache_offheap_bytes", "Belegter Speicher außerhalb des Heaps",
+                    offHeap::getUsedBytes);
+        }
+    }
+    
+    /**
+     * Registriert Spielerdaten ohne Codec; nach Ablauf der Frist werden sie verworfen
+     * 
+     * @param owner Das Modul, dem die Daten gehören
+     * @param name Der Name der Daten, eindeutig pro Modul (Kleinbuchstaben, Ziffern, "-" und "_")
+     * @param loader Lädt die Daten eines Spielers
+     * @return Der Zugriff auf die Daten
+     * @throws IllegalArgumentException Wenn der Name ungültig oder für das Modul bereits vergeben ist
+     */
+    public <T> CachedPlayerData<T> register(Plugin owner, String name, PlayerDataLoader<T> loader) {
+        return register(owner, name, loader, null);
+    }
+    
+    /**
+     * Registriert Spielerdaten. Mit Codec wandern sie nach Ablauf der Frist in den Speicher außerhalb
+     * des Heaps und in die Datei-Stufe, statt verworfen zu werden.
+     * 
+     * @param owner Das Modul, dem die Daten gehören
+     * @param name Der Name der Daten, eindeutig pro Modul (Kleinbuchstaben, Ziffern, "-" und "_")
+     * @param loader Lädt die Daten eines Spielers
+     * @param codec Serialisiert die Daten oder null
+     * @return Der Zugriff auf die Daten
+     * @throws IllegalArgumentException Wenn der Name ungültig oder für das Modul bereits vergeben ist
+     */
+    public <T> CachedPlayerData<T> register(Plugin owner, String name, PlayerDataLoader<T> loader, PlayerDataCodec<T> codec) {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Ungültiger Name für Spielerdaten: " + name);
+        }
+        synchronized (caches) {
+            for (CachedPlayerData<?> cache : caches) {
+                if (cache.getOwner() == owner && cache.getName().equals(name)) {
+                    throw new IllegalArgumentException("Spielerdaten " + name + " sind für " + owner.getName() + " bereits registriert");
+                }
+            }
+            
+            File directory = new File(new File(new File(plugin.getDataFolder(), "cache"), owner.getName()), name);
+            CachedPlayerData<T> cache = new CachedPlayerData<>(plugin, this, owner, name, loader, codec, directory, fileTtlMillis);
+            caches.add(cache);
+            plugin.getLoggerService().debug("Spielerdaten " + owner.getName() + "/" + name + " im Cache registriert");
+            return cache;
+        }
+    }
+    
+    /**
+     * Lädt die Daten aller Module, bevor der Spieler beitritt. Die Anmeldung wartet höchstens
+     * {@link CoreConfig#getCachePrefetchTimeoutMillis()}; länger dauernde Loader laufen im Hintergrund weiter.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || caches.isEmpty()) {
+            return;
+        }
+        
+        UUID uuid = event.getUniqueId();
+        List<CompletableFuture<?>> futures = new ArrayList<>(caches.size());
+        for (CachedPlayerData<?> cache : caches) {
+            futures.add(cache.get(uuid));
+        }
+        prefetches.increment();
+        
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(prefetchTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            prefetchTimeouts.increment();
+            plugin.getLoggerService().debug("Spielerdaten von " + event.getName() + " nach " + prefetchTimeoutMillis
+                    + " ms noch nicht vollständig geladen");
+        } catch (ExecutionException e) {
+            // Der fehlgeschlagene Loader hat den Fehler bereits gemeldet
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        online.add(uuid);
+        for (CachedPlayerData<?> cache : caches) {
+            cache.markOnline(uuid);
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        online.remove(uuid);
+        long evictAt = System.currentTimeMillis() + graceMillis;
+        for (CachedPlayerData<?> cache : caches) {
+            cache.markOffline(uuid, evictAt);
+        }
+    }
+    
+    /**
+     * Entfernt die Spielerdaten eines deaktivierten Moduls aus dem Speicher; die Datei-Stufe bleibt erhalten
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        Plugin owner = event.getPlugin();
+        List<CachedPlayerData<?>> removed = new ArrayList<>();
+        synchronized (caches) {
+            for (CachedPlayerData<?> cache : caches) {
+                if (cache.getOwner() == owner) {
+                    removed.add(cache);
+                }
+            }
+            caches.removeAll(removed);
+        }
+        for (CachedPlayerData<?> cache : removed) {
+            cache.clear();
+            if (offHeap != null) {
+                offHeap.removeAll(cache);
+            }
+        }
+    }
+    
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (CachedPlayerData<?> cache : caches) {
+            cache.sweep(now);
+        }
+        
+        if (now - lastPurge >= PURGE_INTERVAL_MILLIS) {
+            lastPurge = now;
+            for (CachedPlayerData<?> cache : caches) {
+                cache.purgeFiles(now);
+            }
+        }
+    }
+    
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+    
+    boolean isOnline(UUID uuid) {
+        return online.contains(uuid);
+    }
+    
+    long getGraceMillis() {
+        return graceMillis;
+    }
+    
+    boolean hasOffHeap() {
+        return offHeap != null;
+    }
+    
+    /**
+     * @return die verdrängten Einträge oder null, wenn der Speicher außerhalb des Heaps ausgeschaltet ist
+     */
+    List<OffHeapStore.Evicted> putOffHeap(CachedPlayerData<?> cache, UUID uuid, byte[] data, Long version) {
+        return offHeap != null ? offHeap.put(cache, uuid, data, version) : null;
+    }
+    
+    boolean containsOffHeap(CachedPlayerData<?> cache, UUID uuid) {
+        return offHeap != null && offHeap.contains(cache, uuid);
+    }
+    
+    byte[] takeOffHeap(CachedPlayerData<?> cache, UUID uuid) {
+        return offHeap != null ? offHeap.take(cache, uuid) : null;
+    }
+    
+    /**
+     * Beendet den Thread-Pool der Loader und gibt den Speicher außerhalb des Heaps frei
+     */
+    public void close() {
+        sweepTask.cancel();
+        executor.shutdown();
+        if (offHeap != null) {
+            offHeap.clear();
+        }
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Caches", String.valueOf(caches.size()));
+        for (CachedPlayerData<?> cache : caches) {
+            long requests = cache.getRequestCount();
+            String line = cache.getHeapSize() + " Spieler im Heap";
+            if (requests > 0) {
+                line += ", " + percent(cache.getHeapHits(), requests) + "% Heap, " + percent(cache.getOffHeapHits(), requests)
+                        + "% Off-Heap, " + percent(cache.getFileHits(), requests) + "% Datei, " + cache.getLoadCount()
+                        + " geladen (" + requests + " Zugriffe)";
+            }
+            if (cache.getLoadFailures() > 0) {
+                line += ", " + cache.getLoadFailures() + " Fehler";
+            }
+            status.put(cache.getOwner().getName() + "/" + cache.getName(), line);
+        }
+        if (offHeap != null) {
+            status.put("Off-Heap", offHeap.getEntryCount() + " Einträge, " + (offHeap.getUsedBytes() / 1024) + " / "
+                    + (offHeap.getMaxBytes() / 1024) + " KB");
+        }
+        status.put("Vorab geladen", prefetches.sum() + " Anmeldungen, " + prefetchTimeouts.sum() + " Zeitüberschreitungen");
+        return status;
+    }
+    
+    private static long percent(long part, long total) {
+        return part * 100 / total;
+    }
+}
@@ -0,0 +1,440 @@
+package de.pexora.core.commands;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.command.CommandRegistration;
+import org.bukkit.Server;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandMap;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registriert Befehle des Cores und der Module zur Laufzeit in der CommandMap des Servers.
+ * 
+ * Befehle müssen dadurch nicht in der plugin.yml stehen und werden beim Deaktivieren ihres Moduls
+ * wieder entfernt. Deklarative Befehle werden beim Registrieren einmalig in einen Baum übersetzt,
+ * über den Aufrufe und die Tab-Vervollständigung aufgelöst werden.
+ * 
+ * Die CommandMap ist nicht Teil der Spigot-API und wird über Reflection vom Server gelesen.
+ * Nach Änderungen wird der Befehlsbaum der Clients im nächsten Tick einmalig aktualisiert.
+ * 
+ * Aktionen, die nicht im Server-Thread laufen müssen, führt er auf einem begrenzten Thread-Pool aus
+ * (siehe {@link de.pexora.core.api.command.ExecutionMode}).
+ * 
+ * Auf Paper werden Tab-Vervollständigungen über das AsyncTabCompleteEvent außerhalb des
+ * Server-Threads beantwortet; Befehle mit Completern, die nicht threadsicher sind, und alle
+ * Befehle auf Spigot werden wie gewohnt im Server-Thread vervollständigt.
+ */
+public class CommandManager implements Listener {
+
+    private static final String PAPER_ASYNC_TAB_COMPLETE = "com.destroystokyo.paper.event.server.AsyncTabCompleteEvent";
+    private static final int ASYNC_QUEUE_CAPACITY = 1000;
+    
+    private final PexoraCore plugin;
+    private final PermissionCache permissions = new PermissionCache();
+    private final CompletionCache completions = new CompletionCache();
+    // Schlüssel ist plugin:name, siehe keyOf
+    private final Map<String, PexoraBukkitCommand> commands = new LinkedHashMap<>();
+    
+    // Alle Schreibweisen der eigenen Befehle für die Vervollständigung außerhalb des Server-Threads
+    private final Map<String, PexoraBukkitCommand> labels = new ConcurrentHashMap<>();
+    private final LongAdder asyncCompletions = new LongAdder();
+    private final ThreadPoolExecutor asyncExecutor;
+    private final LongAdder asyncExecutions = new LongAdder();
+    private AsyncTabCompleteAccess asyncTabComplete;
+    private final CommandMap commandMap;
+    private final Map<String, Command> knownCommands;
+    private final Method syncCommands;
+    private boolean syncPending;
+    
+    public CommandManager(PexoraCore plugin) {
+        this.plugin = plugin;
+        this.commandMap = findCommandMap(plugin.getServer());
+        this.knownCommands = commandMap != null ? findKnownCommands(commandMap) : null;
+        this.syncCommands = findSyncCommands(plugin.getServer());
+        this.asyncExecutor = createAsyncExecutor(plugin.getCoreConfig().getCommandAsyncThreads());
+        if (commandMap == null) {
+            plugin.getLoggerService().warn("CommandMap des Servers nicht gefunden, Befehle können nicht registriert werden");
+        } else if (knownCommands == null) {
+            plugin.getLoggerService().warn("Befehlsliste der CommandMap nicht gefunden, Befehle werden beim Entladen nicht vollständig entfernt");
+        }
+        
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        registerAsyncTabComplete();
+        plugin.getStatusAPI().registerStatusProvider("Befehle", this::getStatusSummary);
+    }
+    
+    private static ThreadPoolExecutor createAsyncExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-Command-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    private void registerAsyncTabComplete() {
+        Class<? extends Event> eventClass;
+        try {
+            eventClass = Class.forName(PAPER_ASYNC_TAB_COMPLETE).asSubclass(Event.class);
+            asyncTabComplete = new AsyncTabCompleteAccess(eventClass);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            return;
+        }
+        
+        plugin.getServer().getPluginManager().registerEvent(eventClass, this, EventPriority.NORMAL,
+                (listener, event) -> onAsyncTabComplete(event), plugin);
+    }
+    
+    /**
+     * Registriert einen Befehl. Ein bereits über den Core registrierter Befehl desselben Plugins mit
+     * demselben Namen wird ersetzt. Gehört der Name einem anderen Plugin, bleibt dessen Befehl bestehen
+     * und der neue ist nur als /plugin:name erreichbar.
+     * 
+     * @param owner Das Plugin, dem der Befehl gehört
+     * @param registration Die Beschreibung des Befehls
+     * @return Der registrierte Befehl, z.B. zum Entfernen über {@link #unregister(Command)}
+     * @throws IllegalArgumentException Wenn der Befehl weder einen Baum noch einen Executor hat
+     * @throws IllegalStateException Wenn die CommandMap nicht verfügbar ist
+     */
+    public synchronized Command register(Plugin owner, CommandRegistration registration) {
+        if (commandMap == null) {
+            throw new IllegalStateException("Die CommandMap des Servers ist nicht verfügbar");
+        }
+        if (!registration.isDeclarative() && registration.getExecutor() == null) {
+            throw new IllegalArgumentException("Befehl " + registration.getCommandName() + " hat weder Aktionen noch einen Executor");
+        }
+        
+        String name = registration.getCommandName().toLowerCase(Locale.ROOT);
+        PexoraBukkitCommand previous = commands.get(keyOf(owner, name));
+        if (previous != null) {
+            unregister(previous);
+        }
+        
+        CompiledNode root = registration.isDeclarative() ? CompiledNode.compile(registration, permissions) : null;
+        PexoraBukkitCommand command = new PexoraBukkitCommand(plugin, this, owner, registration, root, permissions, completions);
+        String prefix = owner.getName().toLowerCase(Locale.ROOT);
+        if (!commandMap.register(prefix, command)) {
+            plugin.getLoggerService().warn("Befehl /" + name + " ist bereits vergeben und nur als /" + prefix + ":" + name + " erreichbar");
+        }
+        commands.put(keyOf(owner, name), command);
+        addLabels(prefix, command);
+        scheduleSync();
+        
+        plugin.getLoggerService().debug("Befehl /" + name + " von " + owner.getName() + " registriert (" + command.getNodeCount() + " Knoten)");
+        return command;
+    }
+    
+    /**
+     * Führt die Aktion eines Befehls auf dem Thread-Pool der Befehle aus
+     * 
+     * @param task Die Aktion
+     * @throws RejectedExecutionException Wenn die Warteschlange voll ist
+     */
+    void executeAsync(Runnable task) {
+        asyncExecutor.execute(task);
+        asyncExecutions.increment();
+    }
+    
+    /**
+     * Beendet den Thread-Pool der Befehle. Bereits eingereihte Aktionen werden noch abgearbeitet.
+     */
+    public void close() {
+        asyncExecutor.shutdown();
+    }
+    
+    /**
+     * Entfernt einen Befehl
+     * 
+     * @param command Der Rückgabewert von {@link #register(Plugin, CommandRegistration)}
+     * @return true, wenn der Befehl noch registriert war
+     */
+    public synchronized boolean unregister(Command command) {
+        if (!(command instanceof PexoraBukkitCommand)
+                || !commands.remove(keyOf(((PexoraBukkitCommand) command).getPlugin(), command.getName()), command)) {
+            return false;
+        }
+        
+        command.unregister(commandMap);
+        labels.values().removeIf(known -> known == command);
+        completions.clear();
+        if (knownCommands != null) {
+            // Entfernt den Namen, alle Aliase und die Schreibweise mit Präfix
+            knownCommands.values().removeIf(known -> known == command);
+        }
+        scheduleSync();
+        return true;
+    }
+    
+    /**
+     * Entfernt alle Befehle eines Plugins
+     * 
+     * @param owner Das Plugin
+     * @return Die Anzahl der entfernten Befehle
+     */
+    public synchronized int unregisterAll(Plugin owner) {
+        int removed = 0;
+        for (PexoraBukkitCommand command : new ArrayList<>(commands.values())) {
+            if (command.getPlugin() == owner && unregister(command)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        // Die eigenen Befehle entfernt der Core in onDisable, nachdem die Module entladen sind
+        if (event.getPlugin() != plugin) {
+            unregisterAll(event.getPlugin());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        permissions.forget(event.getPlayer().getEntityId());
+        completions.forget(event.getPlayer().getEntityId());
+    }
+    
+    /**
+     * Befehle verschiedener Plugins mit demselben Namen verdrängen sich nicht gegenseitig
+     */
+    private static String keyOf(Plugin owner, String name) {
+        return owner.getName().toLowerCase(Locale.ROOT) + ":" + name.toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Merkt sich die Schreibweisen, unter denen die CommandMap den Befehl tatsächlich führt
+     */
+    private void addLabels(String prefix, PexoraBukkitCommand command) {
+        List<String> names = new ArrayList<>();
+        names.add(command.getName());
+        names.addAll(command.getAliases());
+        for (String name : names) {
+            String label = name.toLowerCase(Locale.ROOT);
+            if (commandMap.getCommand(label) == command) {
+                labels.put(label, command);
+            }
+            labels.put(prefix + ":" + label, command);
+        }
+    }
+    
+    /**
+     * Beantwortet die Vervollständigung eigener Befehle im Thread, in dem Paper das Event auslöst
+     */
+    private void onAsyncTabComplete(Event event) {
+        try {
+            if (!asyncTabComplete.isCommand(event) || asyncTabComplete.isHandled(event)) {
+                return;
+            }
+            
+            String buffer = asyncTabComplete.getBuffer(event);
+            int start = buffer.startsWith("/") ? 1 : 0;
+            int space = buffer.indexOf(' ', start);
+            if (space < 0) {
+                // Der Befehlsname selbst wird von Paper vervollständigt
+                return;
+            }
+            PexoraBukkitCommand command = labels.get(buffer.substring(start, space).toLowerCase(Locale.ROOT));
+            if (command == null) {
+                return;
+            }
+            
+            String label = buffer.substring(start, space);
+            String[] args = buffer.substring(space + 1).split(" ", -1);
+            List<String> result = command.completeAsync(asyncTabComplete.getSender(event), label, args);
+            if (result != null) {
+                asyncTabComplete.complete(event, result);
+                asyncCompletions.increment();
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Paper fragt danach wie gewohnt im Server-Thread an
+            plugin.getLoggerService().debug("Asynchrone Vervollständigung fehlgeschlagen: " + e);
+        }
+    }
+    
+    /**
+     * @param owner Das Plugin
+     * @return die Namen der Befehle des Plugins
+     */
+    public synchronized List<String> getCommandNames(Plugin owner) {
+        List<String> names = new ArrayList<>();
+        for (PexoraBukkitCommand command : commands.values()) {
+            if (command.getPlugin() == owner) {
+                names.add(command.getName());
+            }
+        }
+        return names;
+    }
+    
+    /**
+     * @return die Anzahl der registrierten Befehle
+     */
+    public synchronized int getCommandCount() {
+        return commands.size();
+    }
+    
+    /**
+     * @return die Anzahl der Befehlsausführungen seit dem Start
+     */
+    public synchronized long getExecutionCount() {
+        long total = 0;
+        for (PexoraBukkitCommand command : commands.values()) {
+            total += command.getExecutions();
+        }
+        return total;
+    }
+    
+    private void scheduleSync() {
+        // Mehrere Änderungen, z.B. beim Laden aller Module, werden in einem Tick zusammengefasst
+        if (syncPending || syncCommands == null || !plugin.isEnabled()) {
+            return;
+        }
+        syncPending = true;
+        plugin.getServer().getScheduler().runTask(plugin, this::syncCommands);
+    }
+    
+    private void syncCommands() {
+        synchronized (this) {
+            syncPending = false;
+        }
+        try {
+            syncCommands.invoke(plugin.getServer());
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            plugin.getLoggerService().debug("Befehlsbaum der Spieler konnte nicht aktualisiert werden: " + e);
+        }
+    }
+    
+    /**
+     * Zugriff auf das AsyncTabCompleteEvent von Paper über Reflection
+     */
+    private static final class AsyncTabCompleteAccess {
+        
+        private final Method getSender;
+        private final Method getBuffer;
+        private final Method isCommand;
+        private final Method isHandled;
+        private final Method setCompletions;
+        private final Method setHandled;
+        
+        private AsyncTabCompleteAccess(Class<?> eventClass) throws NoSuchMethodException {
+            this.getSender = eventClass.getMethod("getSender");
+            this.getBuffer = eventClass.getMethod("getBuffer");
+            this.isCommand = eventClass.getMethod("isCommand");
+            this.isHandled = eventClass.getMethod("isHandled");
+            this.setCompletions = eventClass.getMethod("setCompletions", List.class);
+            this.setHandled = eventClass.getMethod("setHandled", boolean.class);
+        }
+        
+        private CommandSender getSender(Event event) throws ReflectiveOperationException {
+            return (CommandSender) getSender.invoke(event);
+        }
+        
+        private String getBuffer(Event event) throws ReflectiveOperationException {
+            return (String) getBuffer.invoke(event);
+        }
+        
+        private boolean isCommand(Event event) throws ReflectiveOperationException {
+            return (Boolean) isCommand.invoke(event);
+        }
+        
+        private boolean isHandled(Event event) throws ReflectiveOperationException {
+            return (Boolean) isHandled.invoke(event);
+        }
+        
+        private void complete(Event event, List<String> completions) throws ReflectiveOperationException {
+            setCompletions.invoke(event, completions);
+            setHandled.invoke(event, true);
+        }
+    }
+    
+    private static CommandMap findCommandMap(Server server) {
+        try {
+            Method method = server.getClass().getMethod("getCommandMap");
+            return (CommandMap) method.invoke(server);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<String, Command> findKnownCommands(CommandMap commandMap) {
+        try {
+            // Paper und neuere Spigot-Versionen
+            Method method = commandMap.getClass().getMethod("getKnownCommands");
+            return (Map<String, Command>) method.invoke(commandMap);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Ältere Versionen: geschütztes Feld in SimpleCommandMap
+        }
+        
+        Class<?> current = commandMap.getClass();
+        while (current != null) {
+            try {
+                Field field = current.getDeclaredField("knownCommands");
+                field.setAccessible(true);
+                return (Map<String, Command>) field.get(commandMap);
+            } catch (NoSuchFieldException e) {
+                current = current.getSuperclass();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    private static Method findSyncCommands(Server server) {
+        try {
+            Method method = server.getClass().getMethod("syncCommands");
+            method.setAccessible(true);
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+    
+    private synchronized Map<String, String> getStatusSummary() {
+        int nodes = 0;
+        for (PexoraBukkitCommand command : commands.values()) {
+            nodes += command.getNodeCount();
+        }
+        
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Befehle", String.valueOf(commands.size()));
+        status.put("Knoten", String.valueOf(nodes));
+        status.put("Ausführungen", String.valueOf(getExecutionCount()));
+        status.put("Berechtigungen", permissions.getPermissionCount() + " (" + permissions.getEntryCount() + " Spieler im Cache)");
+        status.put("Asynchron", asyncExecutions.sum() + " Aktionen, " + asyncExecutor.getActiveCount() + " laufend, "
+                + asyncExecutor.getQueue().size() + " wartend");
+        status.put("Vervollständigung", asyncTabComplete != null
+                ? asyncCompletions.sum() + " asynchron beantwortet"
+                : "synchron (kein Paper)");
+        long hits = completions.getHits();
+        long lookups = hits + completions.getMisses();
+        status.put("Vorschlags-Cache", lookups > 0 ? (hits * 100 / lookups) + "% Treffer (" + lookups + " Anfragen)" : "keine Anfragen");
+        return status;
+    }
+}
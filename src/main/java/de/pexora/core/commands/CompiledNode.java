@@ -0,0 +1,129 @@
+package de.pexora.core.commands;
+
+import de.pexora.core.api.command.ArgumentParser;
+import de.pexora.core.api.command.CommandAction;
+import de.pexora.core.api.command.CommandNode;
+import de.pexora.core.api.command.CommandRegistration;
+import de.pexora.core.api.command.ExecutionMode;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Unveränderliche, übersetzte Form eines {@link CommandNode}.
+ * 
+ * Literale liegen in einer TreeMap ohne Beachtung der Groß- und Kleinschreibung, sodass ein Argument
+ * ohne Kopie oder toLowerCase aufgelöst wird. Berechtigungen sind bereits auf IDs des
+ * {@link PermissionCache} abgebildet und die Verwendungshinweise vorberechnet.
+ */
+final class CompiledNode {
+
+    private static final CompiledNode[] NO_NODES = new CompiledNode[0];
+    
+    final String name;
+    final ArgumentParser<?> parser;
+    final int permission;
+    final boolean playerOnly;
+    final CommandAction action;
+    final ExecutionMode mode;
+    final String description;
+    final String usage;
+    
+    // Alle Schreibweisen für die Auflösung, nur die Hauptnamen sortiert für die Vervollständigung
+    private final TreeMap<String, CompiledNode> literals;
+    final CompiledNode[] literalNodes;
+    final CompiledNode[] arguments;
+    
+    private CompiledNode(CommandNode node, String permission, String path, ExecutionMode defaultMode, PermissionCache permissions) {
+        this.name = node.getName();
+        this.parser = node.getParser();
+        this.permission = permissions.idOf(permission);
+        this.playerOnly = node.isPlayerOnly();
+        this.action = node.getAction();
+        this.mode = node.getExecutionMode() != null ? node.getExecutionMode() : defaultMode;
+        this.description = node.getDescription();
+        
+        List<CompiledNode> literalList = new ArrayList<>();
+        List<CompiledNode> argumentList = new ArrayList<>();
+        TreeMap<String, CompiledNode> literalMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (CommandNode child : node.getChildren()) {
+            String childPath = path + " " + (child.isLiteral() ? child.getName() : "<" + child.getName() + ">");
+            CompiledNode compiled = new CompiledNode(child, child.getPermission(), childPath, defaultMode, permissions);
+            if (child.isLiteral()) {
+                putLiteral(literalMap, child.getName(), compiled, path);
+                for (String alias : child.getAliases()) {
+                    putLiteral(literalMap, alias, compiled, path);
+                }
+                literalList.add(compiled);
+            } else {
+                argumentList.add(compiled);
+            }
+        }
+        literalList.sort(Comparator.comparing(compiled -> compiled.name, String.CASE_INSENSITIVE_ORDER));
+        
+        this.literals = literalMap.isEmpty() ? null : literalMap;
+        this.literalNodes = literalList.toArray(NO_NODES);
+        this.arguments = argumentList.toArray(NO_NODES);
+        this.usage = buildUsage(path);
+    }
+    
+    /**
+     * Übersetzt den Baum einer Registrierung
+     * 
+     * @param registration Die Registrierung
+     * @param permissions Der Zwischenspeicher, in dem die Berechtigungen angelegt werden
+     * @return Die Wurzel des übersetzten Baums
+     * @throws IllegalArgumentException Wenn ein Literal auf einer Ebene doppelt vorkommt
+     */
+    static CompiledNode compile(CommandRegistration registration, PermissionCache permissions) {
+        CommandNode root = registration.getRoot();
+        String permission = root.getPermission() != null ? root.getPermission() : registration.getPermission();
+        return new CompiledNode(root, permission, "/" + root.getName(), registration.getExecutionMode(), permissions);
+    }
+    
+    private static void putLiteral(TreeMap<String, CompiledNode> literals, String name, CompiledNode node, String path) {
+        if (literals.putIfAbsent(name, node) != null) {
+            throw new IllegalArgumentException("Unterbefehl " + name + " kommt unter " + path + " mehrfach vor");
+        }
+    }
+    
+    private String buildUsage(String path) {
+        if (literalNodes.length == 0 && arguments.length == 0) {
+            return path;
+        }
+        
+        StringBuilder options = new StringBuilder();
+        for (CompiledNode literal : literalNodes) {
+            options.append(options.length() > 0 ? "|" : "").append(literal.name);
+        }
+        for (CompiledNode argument : arguments) {
+            options.append(options.length() > 0 ? "|" : "").append(argument.name);
+        }
+        // Kann der Knoten selbst ausgeführt werden, sind die folgenden Argumente optional
+        return action != null ? path + " [" + options + "]" : path + " <" + options + ">";
+    }
+    
+    /**
+     * @param word Das eingegebene Argument
+     * @return das Literal mit diesem Namen oder Alias, oder null
+     */
+    CompiledNode literal(String word) {
+        return literals != null ? literals.get(word) : null;
+    }
+    
+    /**
+     * @return die Anzahl der Knoten in diesem Teilbaum
+     */
+    int countNodes() {
+        int count = 1;
+        for (CompiledNode literal : literalNodes) {
+            count += literal.countNodes();
+        }
+        for (CompiledNode argument : arguments) {
+            count += argument.countNodes();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,134 @@
+package de.pexora.core.commands;
+
+import de.pexora.core.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Kurzlebiger Zwischenspeicher für Tab-Vervollständigungen, pro Spieler über die Entity-ID geführt.
+ * 
+ * Ein Eintrag gilt für einen Befehl und die vollständigen Argumente vor dem letzten. Tippt der Spieler
+ * das letzte Argument weiter, werden die gespeicherten Vorschläge nur gefiltert, sodass ein langsamer
+ * Parser pro Argument nur einmal aufgerufen wird. Gespeichert werden nur Vorschläge aus dem Befehlsbaum
+ * mit threadsicheren Parsern; klassische TabCompleter werden jedes Mal gefragt, da ihre Vorschläge nicht
+ * nach dem Präfix gefiltert sein müssen. Zugriffe sind synchronisiert, da Paper Vervollständigungen
+ * außerhalb des Server-Threads anfragt.
+ */
+final class CompletionCache {
+
+    private static final int MAX_ENTRIES_PER_PLAYER = 16;
+    
+    private final IntObjectMap<Map<String, Entry>> players = new IntObjectMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    /**
+     * Sucht gespeicherte Vorschläge
+     * 
+     * @param entityId Die Entity-ID des Spielers
+     * @param key Der Schlüssel aus {@link #keyOf(String, String[])}
+     * @param token Das letzte, unvollständige Argument
+     * @param ttlNanos Die Lebensdauer eines Eintrags
+     * @return Die gefilterten Vorschläge, oder null wenn kein gültiger Eintrag vorliegt
+     */
+    List<String> get(int entityId, String key, String token, long ttlNanos) {
+        Entry entry;
+        synchronized (this) {
+            Map<String, Entry> entries = players.get(entityId);
+            entry = entries != null ? entries.get(key) : null;
+        }
+        if (entry == null || System.nanoTime() - entry.created >= ttlNanos
+                || !token.regionMatches(true, 0, entry.token, 0, entry.token.length())) {
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        List<String> filtered = new ArrayList<>(entry.completions.size());
+        for (String completion : entry.completions) {
+            if (completion.regionMatches(true, 0, token, 0, token.length())) {
+                filtered.add(completion);
+            }
+        }
+        return filtered;
+    }
+    
+    /**
+     * Speichert Vorschläge
+     * 
+     * @param entityId Die Entity-ID des Spielers
+     * @param key Der Schlüssel aus {@link #keyOf(String, String[])}
+     * @param token Das letzte, unvollständige Argument
+     * @param completions Die Vorschläge; werden kopiert
+     */
+    void put(int entityId, String key, String token, List<String> completions) {
+        Entry entry = new Entry(token, new ArrayList<>(completions), System.nanoTime());
+        synchronized (this) {
+            Map<String, Entry> entries = players.get(entityId);
+            if (entries == null) {
+                entries = new HashMap<>();
+                players.put(entityId, entries);
+            } else if (entries.size() >= MAX_ENTRIES_PER_PLAYER && !entries.containsKey(key)) {
+                // Einträge leben nur kurz, bei zu vielen Befehlen wird einfach neu begonnen
+                entries.clear();
+            }
+            entries.put(key, entry);
+        }
+    }
+    
+    /**
+     * Bildet den Schlüssel aus dem Befehl und den vollständigen Argumenten
+     * 
+     * @param command Der Name des Befehls
+     * @param args Alle Argumente; das letzte wird nicht berücksichtigt
+     * @return Der Schlüssel
+     */
+    static String keyOf(String command, String[] args) {
+        StringBuilder key = new StringBuilder(command);
+        for (int i = 0; i < args.length - 1; i++) {
+            key.append(' ').append(args[i]);
+        }
+        return key.toString();
+    }
+    
+    /**
+     * Entfernt die Einträge eines Spielers, der den Server verlassen hat
+     * 
+     * @param entityId Die Entity-ID des Spielers
+     */
+    synchronized void forget(int entityId) {
+        players.remove(entityId);
+    }
+    
+    /**
+     * Leert den Zwischenspeicher, z.B. nachdem sich die registrierten Befehle geändert haben
+     */
+    synchronized void clear() {
+        players.clear();
+    }
+    
+    long getHits() {
+        return hits.sum();
+    }
+    
+    long getMisses() {
+        return misses.sum();
+    }
+    
+    private static final class Entry {
+        
+        private final String token;
+        private final List<String> completions;
+        private final long created;
+        
+        private Entry(String token, List<String> completions, long created) {
+            this.token = token;
+            this.completions = completions;
+            this.created = created;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package de.pexora.core.commands;
+
+import de.pexora.core.api.command.CommandContext;
+import de.pexora.core.api.command.ExecutionMode;
+import de.pexora.core.config.MessageConfig;
+import de.pexora.core.util.AdventureUtil;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Der Kontext eines Aufrufs; die gelesenen Argumente liegen in zwei kleinen Arrays.
+ * Im Modus {@link ExecutionMode#ASYNC_THEN_MAIN} sammelt er die Aufgaben für den Server-Thread.
+ */
+final class DispatchContext implements CommandContext {
+
+    private final MessageConfig messages;
+    private final CommandSender sender;
+    private final String label;
+    private final String[] args;
+    private final String[] names;
+    private final Object[] values;
+    private final Consumer<Runnable> mainScheduler;
+    private int size;
+    private volatile ExecutionMode executionMode = ExecutionMode.MAIN;
+    private boolean collecting;
+    private List<Runnable> deferred;
+    
+    DispatchContext(MessageConfig messages, CommandSender sender, String label, String[] args, Consumer<Runnable> mainScheduler) {
+        this.messages = messages;
+        this.sender = sender;
+        this.label = label;
+        this.args = args;
+        this.names = new String[args.length];
+        this.values = new Object[args.length];
+        this.mainScheduler = mainScheduler;
+    }
+    
+    synchronized void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+        this.collecting = executionMode == ExecutionMode.ASYNC_THEN_MAIN;
+    }
+    
+    /**
+     * @return die gesammelten Aufgaben für den Server-Thread; weitere werden danach direkt eingeplant
+     */
+    synchronized List<Runnable> takeDeferred() {
+        List<Runnable> tasks = deferred != null ? deferred : Collections.emptyList();
+        deferred = null;
+        collecting = false;
+        return tasks;
+    }
+    
+    void put(String name, Object value) {
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+    
+    @Override
+    public CommandSender getSender() {
+        return sender;
+    }
+    
+    @Override
+    public Player getPlayer() {
+        return sender instanceof Player ? (Player) sender : null;
+    }
+    
+    @Override
+    public String getLabel() {
+        return label;
+    }
+    
+    @Override
+    public String[] getArgs() {
+        return args.clone();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return (T) values[i];
+            }
+        }
+        throw new IllegalArgumentException("Argument " + name + " wurde nicht angegeben");
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getOrDefault(String name, T defaultValue) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return (T) values[i];
+            }
+        }
+        return defaultValue;
+    }
+    
+    @Override
+    public boolean has(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public void reply(String messageKey, String... placeholders) {
+        send(messages, sender, messageKey, placeholders);
+    }
+    
+    @Override
+    public void runOnMain(Runnable task) {
+        switch (executionMode) {
+            case MAIN:
+                if (Bukkit.isPrimaryThread()) {
+                    task.run();
+                } else {
+                    mainScheduler.accept(task);
+                }
+                break;
+            case ASYNC_THEN_MAIN:
+                synchronized (this) {
+                    // Nur solange die Aktion läuft, danach werden Aufgaben direkt eingeplant
+                    if (collecting) {
+                        if (deferred == null) {
+                            deferred = new ArrayList<>();
+                        }
+                        deferred.add(task);
+                        return;
+                    }
+                }
+                mainScheduler.accept(task);
+                break;
+            default:
+                mainScheduler.accept(task);
+                break;
+        }
+    }
+    
+    @Override
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
+    /**
+     * Sendet eine Nachricht aus der messages.yml, für Spieler in ihrer Sprache
+     */
+    static void send(MessageConfig messages, CommandSender sender, String messageKey, String... placeholders) {
+        if (sender instanceof Player) {
+            Player player = (Player) sender;
+            AdventureUtil.sendMessage(player, messages.getMessage(player, messageKey, placeholders));
+        } else {
+            sender.sendMessage(AdventureUtil.toLegacy(messages.getMessage(messageKey, placeholders)));
+        }
+    }
+    
+    @Override
+    public void reply(Component message) {
+        if (sender instanceof Player) {
+            AdventureUtil.sendMessage((Player) sender, message);
+        } else {
+            sender.sendMessage(AdventureUtil.toLegacy(message));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.pexora.core.commands;
+
+import de.pexora.core.util.IntObjectMap;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Zwischenspeicher für Berechtigungsprüfungen der Befehle.
+ * 
+ * Berechtigungen werden beim Übersetzen eines Befehlsbaums auf fortlaufende IDs abgebildet. Pro Spieler
+ * werden die Ergebnisse als Bitsets gehalten, sodass die Tab-Vervollständigung, die bei jedem Tastendruck
+ * alle Unterbefehle prüft, nur beim ersten Mal die Permissions-Plugins fragt. Die Einträge verfallen nach
+ * kurzer Zeit, damit geänderte Rechte ohne Neuladen wirksam werden. Die Konsole wird nicht zwischengespeichert.
+ */
+final class PermissionCache {
+
+    static final int NONE = -1;
+    private static final long TTL_NANOS = 1_000_000_000L;
+    
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> permissions = new ArrayList<>();
+    private final IntObjectMap<Entry> entries = new IntObjectMap<>();
+    
+    /**
+     * Gibt die ID einer Berechtigung zurück und vergibt bei Bedarf eine neue
+     * 
+     * @param permission Die Berechtigung, oder null für keine
+     * @return Die ID oder {@link #NONE}
+     */
+    synchronized int idOf(String permission) {
+        if (permission == null || permission.isEmpty()) {
+            return NONE;
+        }
+        Integer id = ids.get(permission);
+        if (id == null) {
+            id = permissions.size();
+            ids.put(permission, id);
+            permissions.add(permission);
+        }
+        return id;
+    }
+    
+    /**
+     * Prüft eine Berechtigung
+     * 
+     * @param sender Der Absender
+     * @param id Die ID aus {@link #idOf(String)}
+     * @return ob der Absender die Berechtigung hat
+     */
+    boolean has(CommandSender sender, int id) {
+        if (id == NONE) {
+            return true;
+        }
+        if (!(sender instanceof Player)) {
+            return sender.hasPermission(nameOf(id));
+        }
+        
+        Player player = (Player) sender;
+        int entityId = player.getEntityId();
+        int word = id >>> 6;
+        long bit = 1L << id;
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry entry = entries.get(entityId);
+            if (entry != null && entry.player == player && now - entry.created < TTL_NANOS
+                    && word < entry.known.length && (entry.known[word] & bit) != 0) {
+                return (entry.granted[word] & bit) != 0;
+            }
+        }
+        
+        // Außerhalb der Sperre, da Permissions-Plugins hier eigene Sperren nehmen können
+        boolean granted = player.hasPermission(nameOf(id));
+        synchronized (this) {
+            Entry entry = entries.get(entityId);
+            if (entry == null || entry.player != player || now - entry.created >= TTL_NANOS) {
+                entry = new Entry(player, now, permissions.size());
+                entries.put(entityId, entry);
+            }
+            entry.ensureCapacity(word + 1);
+            entry.known[word] |= bit;
+            if (granted) {
+                entry.granted[word] |= bit;
+            }
+        }
+        return granted;
+    }
+    
+    private synchronized String nameOf(int id) {
+        return permissions.get(id);
+    }
+    
+    /**
+     * Entfernt die Einträge eines Spielers, der den Server verlassen hat
+     * 
+     * @param entityId Die Entity-ID des Spielers
+     */
+    synchronized void forget(int entityId) {
+        entries.remove(entityId);
+    }
+    
+    /**
+     * @return die Anzahl der vergebenen Berechtigungs-IDs
+     */
+    synchronized int getPermissionCount() {
+        return permissions.size();
+    }
+    
+    /**
+     * @return die Anzahl der Spieler mit zwischengespeicherten Ergebnissen
+     */
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+    
+    private static final class Entry {
+        
+        private final Player player;
+        private final long created;
+        private long[] known;
+        private long[] granted;
+        
+        private Entry(Player player, long created, int permissionCount) {
+            this.player = player;
+            this.created = created;
+            int words = Math.max(1, (permissionCount + 63) >>> 6);
+            this.known = new long[words];
+            this.granted = new long[words];
+        }
+        
+        private void ensureCapacity(int words) {
+            if (known.length < words) {
+                known = Arrays.copyOf(known, words);
+                granted = Arrays.copyOf(granted, words);
+            }
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package de.pexora.core.commands;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.command.ArgumentParseException;
+import de.pexora.core.api.command.AsyncTabCompleter;
+import de.pexora.core.api.command.CommandAction;
+import de.pexora.core.api.command.ExecutionMode;
+import de.pexora.core.api.command.CommandRegistration;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.command.PluginIdentifiableCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ein zur Laufzeit in der CommandMap registrierter Befehl.
+ * 
+ * Deklarative Befehle werden über den übersetzten Baum aufgelöst: pro Argument wird ein Literal
+ * nachgeschlagen oder ein Argument gelesen, Berechtigungen laufen über den {@link PermissionCache}.
+ * Klassische Befehle werden an ihren CommandExecutor und TabCompleter weitergereicht.
+ * 
+ * Aktionen mit {@link ExecutionMode#ASYNC} oder {@link ExecutionMode#ASYNC_THEN_MAIN} laufen nach der
+ * Prüfung im Server-Thread auf dem Thread-Pool des {@link CommandManager}s.
+ * 
+ * Die Tab-Vervollständigung läuft auf Paper über {@link #completeAsync}, sofern alle beteiligten
+ * Completer und Parser threadsicher sind, sonst wie auf Spigot über {@link #tabComplete}.
+ * Die Ergebnisse beider Wege landen im selben {@link CompletionCache}.
+ */
+final class PexoraBukkitCommand extends Command implements PluginIdentifiableCommand {
+
+    private final PexoraCore core;
+    private final CommandManager manager;
+    private final Plugin owner;
+    private final CommandRegistration registration;
+    private final CompiledNode root;
+    private final PermissionCache permissions;
+    private final CompletionCache completionCache;
+    private final int legacyPermission;
+    private final LongAdder executions = new LongAdder();
+    
+    PexoraBukkitCommand(PexoraCore core, CommandManager manager, Plugin owner, CommandRegistration registration, CompiledNode root,
+                        PermissionCache permissions, CompletionCache completions) {
+        super(registration.getCommandName(),
+                registration.getDescription() != null ? registration.getDescription() : "",
+                registration.getUsage() != null ? registration.getUsage() : root != null ? root.usage : "/" + registration.getCommandName(),
+                registration.getAliases() != null ? Arrays.asList(registration.getAliases()) : Collections.emptyList());
+        this.core = core;
+        this.manager = manager;
+        this.owner = owner;
+        this.registration = registration;
+        this.root = root;
+        this.permissions = permissions;
+        this.completionCache = completions;
+        this.legacyPermission = permissions.idOf(registration.getPermission());
+        
+        // Damit Bukkit den Befehl Spielern ohne Berechtigung nicht anzeigt
+        String permission = root != null ? registration.getRoot().getPermission() : null;
+        setPermission(permission != null ? permission : registration.getPermission());
+    }
+    
+    @Override
+    public boolean execute(CommandSender sender, String label, String[] args) {
+        if (!owner.isEnabled()) {
+            return false;
+        }
+        executions.increment();
+        
+        long start = core.getProfiler().begin();
+        try {
+            if (root != null) {
+                dispatch(sender, label, args);
+            } else {
+                executeLegacy(sender, label, args);
+            }
+        } catch (RuntimeException e) {
+            reportFailure(sender, label, e);
+        } finally {
+            core.getProfiler().end(owner, start);
+        }
+        return true;
+    }
+    
+    private void executeLegacy(CommandSender sender, String label, String[] args) {
+        if (!permissions.has(sender, legacyPermission)) {
+            reply(sender, "error-command-permission");
+            return;
+        }
+        run(sender, label, registration.getExecutionMode(), null, () -> {
+            if (!registration.getExecutor().onCommand(sender, this, label, args) && registration.getUsage() != null) {
+                reply(sender, "error-command-usage", "usage", escape(registration.getUsage().replace("<command>", label)));
+            }
+        });
+    }
+    
+    /**
+     * Führt die Aktion im angegebenen Modus aus. Im Server-Thread läuft sie direkt, sonst auf dem
+     * Thread-Pool; gesammelte Aufgaben für den Server-Thread folgen im nächsten Tick.
+     */
+    private void run(CommandSender sender, String label, ExecutionMode mode, DispatchContext context, Runnable action) {
+        if (mode == ExecutionMode.MAIN) {
+            action.run();
+            return;
+        }
+        
+        try {
+            manager.executeAsync(() -> {
+                boolean completed = false;
+                try {
+                    completed = runGuarded(sender, label, action);
+                } finally {
+                    if (context != null && mode == ExecutionMode.ASYNC_THEN_MAIN) {
+                        // Beendet das Sammeln auch nach einem Fehler; die Aufgaben einer fehlgeschlagenen Aktion entfallen
+                        List<Runnable> deferred = context.takeDeferred();
+                        if (completed && !deferred.isEmpty()) {
+                            scheduleMain(sender, label, () -> deferred.forEach(Runnable::run));
+                        }
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reply(sender, "error-command-busy");
+        }
+    }
+    
+    /**
+     * Plant eine Aufgabe für den nächsten Tick ein, solange das Modul aktiviert ist
+     */
+    void scheduleMain(CommandSender sender, String label, Runnable task) {
+        if (!owner.isEnabled() || !core.isEnabled()) {
+            return;
+        }
+        core.getServer().getScheduler().runTask(core, () -> {
+            if (owner.isEnabled()) {
+                runGuarded(sender, label, task);
+            }
+        });
+    }
+    
+    private boolean runGuarded(CommandSender sender, String label, Runnable task) {
+        long start = core.getProfiler().begin();
+        try {
+            task.run();
+            return true;
+        } catch (RuntimeException e) {
+            reportFailure(sender, label, e);
+            return false;
+        } finally {
+            core.getProfiler().end(owner, start);
+        }
+    }
+    
+    private void reportFailure(CommandSender sender, String label, RuntimeException error) {
+        core.getLoggerService().error("Befehl /" + label + " von " + owner.getName() + " hat einen Fehler verursacht: " + error);
+        if (core.getCoreConfig().isDebugMode()) {
+            error.printStackTrace();
+        }
+        reply(sender, "error-command-failed");
+    }
+    
+    private void dispatch(CommandSender sender, String label, String[] args) {
+        CompiledNode node = root;
+        if (!permissions.has(sender, node.permission)) {
+            reply(sender, "error-command-permission");
+            return;
+        }
+        
+        DispatchContext context = new DispatchContext(core.getMessageConfig(), sender, label, args,
+                task -> scheduleMain(sender, label, task));
+        int index = 0;
+        while (index < args.length) {
+            CompiledNode next = node.literal(args[index]);
+            if (next != null) {
+                index++;
+            } else if (node.arguments.length > 0) {
+                ArgumentParseException failure = null;
+                for (CompiledNode argument : node.arguments) {
+                    boolean greedy = argument.parser.isGreedy();
+                    String input = greedy ? String.join(" ", Arrays.asList(args).subList(index, args.length)) : args[index];
+                    try {
+                        context.put(argument.name, argument.parser.parse(sender, input));
+                        next = argument;
+                        index = greedy ? args.length : index + 1;
+                        break;
+                    } catch (ArgumentParseException e) {
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    }
+                }
+                if (next == null) {
+                    // Die Werte enthalten Eingaben des Spielers und dürfen keine Tags einschleusen
+                    String[] placeholders = Arrays.copyOf(failure.getPlaceholders(), failure.getPlaceholders().length + 2);
+                    placeholders[placeholders.length - 2] = "argument";
+                    placeholders[placeholders.length - 1] = node.arguments[0].name;
+                    for (int i = 1; i < placeholders.length; i += 2) {
+                        placeholders[i] = escape(placeholders[i]);
+                    }
+                    reply(sender, failure.getMessageKey(), placeholders);
+                    return;
+                }
+            } else {
+                // Ein unbekannter Unterbefehl wird wie vor dem Befehlsbaum gemeldet
+                if (node.literalNodes.length > 0) {
+                    reply(sender, "error-invalid-command");
+                } else {
+                    reply(sender, "error-command-usage", "usage", escape(node.usage));
+                }
+                return;
+            }
+            
+            if (!permissions.has(sender, next.permission)) {
+                reply(sender, "error-command-permission");
+                return;
+            }
+            node = next;
+        }
+        
+        if (node.action == null) {
+            reply(sender, "error-command-usage", "usage", escape(node.usage));
+            return;
+        }
+        if (node.playerOnly && !(sender instanceof Player)) {
+            reply(sender, "error-player-only");
+            return;
+        }
+        context.setExecutionMode(node.mode);
+        CommandAction action = node.action;
+        run(sender, label, node.mode, context, () -> action.execute(context));
+    }
+    
+    @Override
+    public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
+        if (!owner.isEnabled() || args.length == 0) {
+            return Collections.emptyList();
+        }
+        return complete(sender, alias, args, false);
+    }
+    
+    /**
+     * Berechnet die Vorschläge außerhalb des Server-Threads
+     * 
+     * @return Die Vorschläge, oder null wenn ein beteiligter Completer oder Parser nicht threadsicher ist
+     */
+    List<String> completeAsync(CommandSender sender, String alias, String[] args) {
+        if (!owner.isEnabled() || args.length == 0) {
+            return Collections.emptyList();
+        }
+        return complete(sender, alias, args, true);
+    }
+    
+    private List<String> complete(CommandSender sender, String alias, String[] args, boolean async) {
+        AsyncTabCompleter asyncCompleter = registration.getAsyncTabCompleter();
+        if (root == null || asyncCompleter != null) {
+            if (!permissions.has(sender, root != null ? root.permission : legacyPermission)) {
+                return Collections.emptyList();
+            }
+            if (asyncCompleter != null) {
+                return nonNull(asyncCompleter.complete(sender, args));
+            }
+            if (async) {
+                // Ein klassischer TabCompleter läuft immer im Server-Thread
+                return null;
+            }
+            return nonNull(registration.getTabCompleter() != null
+                    ? registration.getTabCompleter().onTabComplete(sender, this, alias, args)
+                    : super.tabComplete(sender, alias, args));
+        }
+        return completeTree(sender, args, async);
+    }
+    
+    /**
+     * Folgt dem Baum über alle vollständigen Argumente und schlägt für das letzte die
+     * erlaubten Literale und die Werte der Argument-Parser vor
+     */
+    private List<String> completeTree(CommandSender sender, String[] args, boolean async) {
+        CompiledNode node = root;
+        if (!permissions.has(sender, node.permission)) {
+            return Collections.emptyList();
+        }
+        
+        for (int i = 0; i < args.length - 1; i++) {
+            CompiledNode next = node.literal(args[i]);
+            if (next == null) {
+                if (async && !argumentsAsyncSafe(node)) {
+                    return null;
+                }
+                next = parseSilently(sender, node, args[i]);
+            }
+            if (next == null || !permissions.has(sender, next.permission)) {
+                return Collections.emptyList();
+            }
+            node = next;
+        }
+        boolean asyncSafe = argumentsAsyncSafe(node);
+        if (async && !asyncSafe) {
+            return null;
+        }
+        
+        // Nur Vorschläge threadsicherer Parser werden zwischengespeichert und beim Weitertippen gefiltert
+        String prefix = args[args.length - 1];
+        long ttlNanos = core.getCoreConfig().getCommandCompletionCacheMillis() * 1_000_000L;
+        boolean cacheable = asyncSafe && ttlNanos > 0 && sender instanceof Player;
+        String key = cacheable ? CompletionCache.keyOf(getName(), args) : null;
+        if (cacheable) {
+            List<String> cached = completionCache.get(((Player) sender).getEntityId(), key, prefix, ttlNanos);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        List<String> completions = new ArrayList<>();
+        for (CompiledNode literal : node.literalNodes) {
+            if (literal.name.regionMatches(true, 0, prefix, 0, prefix.length()) && permissions.has(sender, literal.permission)) {
+                completions.add(literal.name);
+            }
+        }
+        for (CompiledNode argument : node.arguments) {
+            if (!argument.parser.isGreedy() && permissions.has(sender, argument.permission)) {
+                completions.addAll(argument.parser.complete(sender, prefix));
+            }
+        }
+        if (cacheable) {
+            completionCache.put(((Player) sender).getEntityId(), key, prefix, completions);
+        }
+        return completions;
+    }
+    
+    private static boolean argumentsAsyncSafe(CompiledNode node) {
+        for (CompiledNode argument : node.arguments) {
+            if (!argument.parser.isAsyncSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static CompiledNode parseSilently(CommandSender sender, CompiledNode node, String input) {
+        for (CompiledNode argument : node.arguments) {
+            if (argument.parser.isGreedy()) {
+                // Nimmt alle restlichen Argumente auf, danach gibt es nichts mehr vorzuschlagen
+                return null;
+            }
+            try {
+                argument.parser.parse(sender, input);
+                return argument;
+            } catch (ArgumentParseException e) {
+                // Nächstes Argument versuchen
+            }
+        }
+        return null;
+    }
+    
+    private static List<String> nonNull(List<String> completions) {
+        return completions != null ? completions : Collections.emptyList();
+    }
+    
+    private void reply(CommandSender sender, String messageKey, String... placeholders) {
+        DispatchContext.send(core.getMessageConfig(), sender, messageKey, placeholders);
+    }
+    
+    private static String escape(String text) {
+        // Verwendungshinweise enthalten spitze Klammern, die MiniMessage sonst als Tags liest
+        return MiniMessage.miniMessage().escapeTags(text);
+    }
+    
+    @Override
+    public Plugin getPlugin() {
+        return owner;
+    }
+    
+    /**
+     * @return die Anzahl der Knoten im Befehlsbaum, 1 für klassische Befehle
+     */
+    int getNodeCount() {
+        return root != null ? root.countNodes() : 1;
+    }
+    
+    /**
+     * @return die Anzahl der Ausführungen
+     */
+    long getExecutions() {
+        return executions.sum();
+    }
+}
@@ -1,20 +1,32 @@
 package de.pexora.core.commands;
 
 import de.pexora.core.PexoraCore;
-import de.pexora.core.api.PexoraAPI;
+import de.pexora.core.api.command.CommandContext;
+import de.pexora.core.api.command.CommandInfo;
+import de.pexora.core.api.command.ExecutionMode;
+import de.pexora.core.api.command.Subcommand;
+import de.pexora.core.api.status.ModuleStatus;
+import de.pexora.core.profiler.ModuleProfile;
+import de.pexora.core.profiler.TickProfiler;
 import de.pexora.core.util.AdventureUtil;
+import de.pexora.core.util.LatencyHistogram;
 import net.kyori.adventure.text.Component;
-import org.bukkit.command.Command;
-import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Verarbeitet den Haupt-PexoraCore-Befehl und seine Unterbefehle.
+ * Der Befehl wird über den CommandManager registriert, die Unterbefehle sind als Methoden deklariert.
  */
-public class PexoraCommand implements CommandExecutor {
+@CommandInfo(name = "pexoracore", aliases = "pex", permission = "pexora.admin", description = "Hauptbefehl für PexoraCore")
+public class PexoraCommand {
+
+    private static final int PROFILE_ENTRIES = 10;
 
     private final PexoraCore plugin;
 
@@ -22,75 +34,25 @@ public class PexoraCommand implements CommandExecutor {
         this.plugin = plugin;
     }
 
-    @Override
-    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-        // Prüfen, ob der Befehl /pexoracore ist
-        if (!command.getName().equalsIgnoreCase("pexoracore")) {
-            return false;
-        }
-
-        // Berechtigungen prüfen
-        if (!sender.hasPermission("pexora.admin")) {
-            Component message = plugin.getMessageConfig().getMessage("error-command-permission");
-            if (sender instanceof Player) {
-                AdventureUtil.sendMessage((Player) sender, message);
-            } else {
-                sender.sendMessage(AdventureUtil.toLegacy(message));
-            }
-            return true;
-        }
-
-        // Unterbefehle verarbeiten
-        if (args.length == 0) {
-            // Kein Unterbefehl angegeben, Hilfe anzeigen
-            showHelp(sender);
-            return true;
-        }
+    @Subcommand(value = "reload", description = "Lädt Konfigurationen und Module neu", mode = ExecutionMode.ASYNC_THEN_MAIN)
+    public void handleReload(CommandContext context) {
+        // YAML-Dateien außerhalb des Server-Threads einlesen
+        Runnable apply = plugin.prepareReload();
 
-        String subCommand = args[0].toLowerCase();
-        switch (subCommand) {
-            case "reload":
-                handleReload(sender);
-                break;
-            case "status":
-                handleStatus(sender);
-                break;
-            case "help":
-                showHelp(sender);
-                break;
-            default:
-                // Unbekannter Unterbefehl
-                Component message = plugin.getMessageConfig().getMessage("error-invalid-command");
-                if (sender instanceof Player) {
-                    AdventureUtil.sendMessage((Player) sender, message);
-                } else {
-                    sender.sendMessage(AdventureUtil.toLegacy(message));
-                }
-                break;
-        }
-
-        return true;
+        // Übernehmen und Module neu laden im nächsten Tick
+        context.runOnMain(() -> {
+            apply.run();
+            sendMessage(context.getSender(), plugin.getMessageConfig().getMessage("plugin-reloaded"));
+        });
     }
 
-    private void handleReload(CommandSender sender) {
-        // Plugin neu laden
-        plugin.reload();
-        
-        // Bestätigungsnachricht senden
-        Component message = plugin.getMessageConfig().getMessage("plugin-reloaded");
-        if (sender instanceof Player) {
-            AdventureUtil.sendMessage((Player) sender, message);
-        } else {
-            sender.sendMessage(AdventureUtil.toLegacy(message));
-        }
-    }
-
-    private void handleStatus(CommandSender sender) {
+    @Subcommand(value = "status", description = "Zeigt den Status des Cores und der Module")
+    public void handleStatus(CommandSender sender) {
         // Plugin-Version abrufen
         String version = plugin.getDescription().getVersion();
         
         // Modulstatus abrufen
-        Map<String, Boolean> moduleStatus = plugin.getStatusAPI().getModuleStatus();
+        Collection<ModuleStatus> moduleStatuses = plugin.getStatusAPI().getModuleStatuses();
         int enabledCount = plugin.getStatusAPI().getEnabledModuleCount();
         int totalCount = plugin.getStatusAPI().getTotalModuleCount();
         
@@ -112,11 +74,10 @@ public class PexoraCommand implements CommandExecutor {
             AdventureUtil.sendMessage(player, papiInfo);
             
             // Modulliste senden
-            for (Map.Entry<String, Boolean> entry : moduleStatus.entrySet()) {
-                String moduleStatusText = entry.getValue() ? "§aAktiviert" : "§cDeaktiviert";
+            for (ModuleStatus status : moduleStatuses) {
                 Component moduleEntry = plugin.getMessageConfig().getMessage("status-module-entry", 
-                        "module", entry.getKey(), 
-                        "status", moduleStatusText);
+                        "module", status.getModuleName(), 
+                        "status", describeModule(status, true));
                 AdventureUtil.sendMessage(player, moduleEntry);
             }
         } else {
@@ -127,21 +88,152 @@ public class PexoraCommand implements CommandExecutor {
             sender.sendMessage(AdventureUtil.toLegacy(papiInfo));
             
             // Modulliste senden
-            for (Map.Entry<String, Boolean> entry : moduleStatus.entrySet()) {
-                String moduleStatusText = entry.getValue() ? "Aktiviert" : "Deaktiviert";
+            for (ModuleStatus status : moduleStatuses) {
                 Component moduleEntry = plugin.getMessageConfig().getMessage("status-module-entry", 
-                        "module", entry.getKey(), 
-                        "status", moduleStatusText);
+                        "module", status.getModuleName(), 
+                        "status", describeModule(status, false));
                 sender.sendMessage(AdventureUtil.toLegacy(moduleEntry));
             }
         }
+        
+        // Zusätzliche Abschnitte (Kanal, Module usw.)
+        sendStatusSections(sender);
+    }
+    
+    @Subcommand(value = "profile reset", description = "Setzt die Messwerte des Profilers zurück")
+    public void handleProfileReset(CommandSender sender) {
+        TickProfiler profiler = plugin.getProfiler();
+        if (!profiler.isEnabled()) {
+            sendMessage(sender, plugin.getMessageConfig().getMessage("profile-disabled"));
+            return;
+        }
+        
+        profiler.reset();
+        sendMessage(sender, plugin.getMessageConfig().getMessage("profile-reset"));
+    }
+    
+    @Subcommand(value = "profile", description = "Zeigt Tickdauer und Laufzeiten der Module")
+    public void handleProfile(CommandSender sender) {
+        TickProfiler profiler = plugin.getProfiler();
+        if (!profiler.isEnabled()) {
+            sendMessage(sender, plugin.getMessageConfig().getMessage("profile-disabled"));
+            return;
+        }
+        
+        LatencyHistogram ticks = profiler.getTickTime();
+        sendMessage(sender, plugin.getMessageConfig().getMessage("profile-header",
+                "window", String.valueOf(plugin.getCoreConfig().getProfilerWindowSeconds()),
+                "source", profiler.isPaperTicks() ? "Paper" : "Scheduler"));
+        sendMessage(sender, plugin.getMessageConfig().getMessage("profile-tick",
+                "p50", LatencyHistogram.formatMillis(ticks.getPercentile(50)),
+                "p99", LatencyHistogram.formatMillis(ticks.getPercentile(99)),
+                "max", LatencyHistogram.formatMillis(ticks.getMax()),
+                "ticks", String.valueOf(ticks.getCount())));
+        
+        List<ModuleProfile> profiles = profiler.getProfiles();
+        for (int i = 0; i < Math.min(PROFILE_ENTRIES, profiles.size()); i++) {
+            ModuleProfile profile = profiles.get(i);
+            LatencyHistogram tickTime = profile.getTickTime();
+            sendMessage(sender, plugin.getMessageConfig().getMessage("profile-module-entry",
+                    "module", profile.getName(),
+                    "p50", LatencyHistogram.formatMillis(tickTime.getPercentile(50)),
+                    "p99", LatencyHistogram.formatMillis(tickTime.getPercentile(99)),
+                    "mean", LatencyHistogram.formatMillis(tickTime.getMean()),
+                    "async", LatencyHistogram.formatMillis(profile.getAsyncNanos()),
+                    "calls", String.valueOf(profile.getInvocations())));
+        }
+    }
+    
+    private void sendMessage(CommandSender sender, Component message) {
+        if (sender instanceof Player) {
+            AdventureUtil.sendMessage((Player) sender, message);
+        } else {
+            sender.sendMessage(AdventureUtil.toLegacy(message));
+        }
+    }
+    
+    /**
+     * Beschreibt den Zustand eines Moduls inklusive Gesundheitsproblemen, fehlendem Heartbeat und Fehlern
+     */
+    private String describeModule(ModuleStatus status, boolean colored) {
+        String color;
+        String text;
+        switch (status.getState()) {
+            case ENABLED:
+                color = "§a";
+                text = "Aktiviert";
+                break;
+            case DEGRADED:
+                color = "§e";
+                text = "Eingeschränkt";
+                break;
+            case LOADING:
+                color = "§7";
+                text = "Wird geladen";
+                break;
+            case FAILED:
+                color = "§c";
+                text = "Fehlgeschlagen";
+                break;
+            default:
+                color = "§c";
+                text = "Deaktiviert";
+                break;
+        }
+        
+        StringBuilder description = new StringBuilder(colored ? color + text : text);
+        String problem = status.getHealthProblem();
+        long heartbeatTimeout = plugin.getCoreConfig().getHeartbeatTimeoutSeconds() * 1000L;
+        if (problem != null) {
+            description.append(" (").append(problem).append(")");
+        } else if (status.isStale(heartbeatTimeout)) {
+            // Die nächste Runde der Health-Checks hat das Modul noch nicht markiert
+            long seconds = (System.currentTimeMillis() - status.getLastHeartbeat()) / 1000L;
+            description.append(" (kein Heartbeat seit ").append(seconds).append(" s)");
+        }
+        if (status.getErrorCount() > 0) {
+            description.append(colored ? " §7" : " ").append("Fehler: ").append(status.getErrorCount());
+        }
+        int listeners = plugin.getModuleLoader().getListenerCount(status.getModuleName());
+        if (listeners > 0) {
+            description.append(colored ? " §7" : " ").append("Listener: ").append(listeners);
+        }
+        return description.toString();
+    }
+    
+    private void sendStatusSections(CommandSender sender) {
+        for (Map.Entry<String, Map<String, String>> section : plugin.getStatusAPI().getStatusSections().entrySet()) {
+            List<Component> lines = new ArrayList<>();
+            lines.add(plugin.getMessageConfig().getMessage("status-section-header", "section", section.getKey()));
+            for (Map.Entry<String, String> entry : section.getValue().entrySet()) {
+                lines.add(plugin.getMessageConfig().getMessage("status-section-entry",
+                        "key", entry.getKey(),
+                        "value", entry.getValue()));
+            }
+            
+            for (Component line : lines) {
+                if (sender instanceof Player) {
+                    AdventureUtil.sendMessage((Player) sender, line);
+                } else {
+                    sender.sendMessage(AdventureUtil.toLegacy(line));
+                }
+            }
+        }
     }
 
-    private void showHelp(CommandSender sender) {
+    @Subcommand(value = "", description = "Zeigt die Hilfe")
+    public void handleDefault(CommandSender sender) {
+        // Kein Unterbefehl angegeben, Hilfe anzeigen
+        showHelp(sender);
+    }
+    
+    @Subcommand(value = "help", description = "Zeigt die Hilfe")
+    public void showHelp(CommandSender sender) {
         // Nachrichten abrufen
         Component header = plugin.getMessageConfig().getMessage("help-header");
         Component reloadHelp = plugin.getMessageConfig().getMessage("help-command-reload");
         Component statusHelp = plugin.getMessageConfig().getMessage("help-command-status");
+        Component profileHelp = plugin.getMessageConfig().getMessage("help-command-profile");
         Component helpHelp = plugin.getMessageConfig().getMessage("help-command-help");
         
         // Nachrichten senden
@@ -150,12 +242,14 @@ public class PexoraCommand implements CommandExecutor {
             AdventureUtil.sendMessage(player, header);
             AdventureUtil.sendMessage(player, reloadHelp);
             AdventureUtil.sendMessage(player, statusHelp);
+            AdventureUtil.sendMessage(player, profileHelp);
             AdventureUtil.sendMessage(player, helpHelp);
         } else {
             // Konsolensender
             sender.sendMessage(AdventureUtil.toLegacy(header));
             sender.sendMessage(AdventureUtil.toLegacy(reloadHelp));
             sender.sendMessage(AdventureUtil.toLegacy(statusHelp));
+            sender.sendMessage(AdventureUtil.toLegacy(profileHelp));
             sender.sendMessage(AdventureUtil.toLegacy(helpHelp));
         }
     }
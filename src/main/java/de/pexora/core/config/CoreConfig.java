@@ -1,6 +1,7 @@
 package de.pexora.core.config;
 
 import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.OverflowPolicy;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -27,6 +28,59 @@ public class CoreConfig {
     private boolean deleteOldPlugins = false;
     private java.util.List<String> additionalModules = new java.util.ArrayList<>();
     
+    // Spracheinstellungen
+    private String defaultLocale = "de";
+    private boolean perPlayerLocale = true;
+    private java.util.Map<String, String> localeFallbacks = new java.util.HashMap<>();
+    
+    // Kanal-Einstellungen
+    private int channelQueueCapacity = 1000;
+    private int channelQueueTtlSeconds = 60;
+    private int channelQueueFlushDelayTicks = 20;
+    private boolean channelBatching = false;
+    private int channelCompressionThreshold = 256;
+    private long channelRequestTimeoutMillis = 5000;
+    private int channelMaxInFlightRequests = 1024;
+    private int channelHandlerThreads = 2;
+    private long channelSlowHandlerMillis = 5;
+    private String channelSecret = "";
+    private String transportType = "player";
+    private String transportNodeId = "server";
+    private String transportBind = "";
+    private java.util.List<String> transportPeers = new java.util.ArrayList<>();
+    private int transportReconnectSeconds = 5;
+    private int pubSubQueueCapacity = 256;
+    private OverflowPolicy pubSubOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private long pubSubBlockTimeoutMillis = 50;
+    
+    // Statusüberwachung
+    private int healthCheckIntervalSeconds = 30;
+    private int heartbeatTimeoutSeconds = 60;
+    private int healthCheckTimeoutSeconds = 5;
+    
+    // Profiler
+    private boolean profilerEnabled = true;
+    private int profilerWindowSeconds = 60;
+    
+    // Event-Bus
+    private int eventBusAsyncThreads = 2;
+    private int eventBusQueueCapacity = 10000;
+    private long commandCompletionCacheMillis = 1500;
+    private int commandAsyncThreads = 2;
+    private int cacheLoaderThreads = 4;
+    private long cachePrefetchTimeoutMillis = 3000;
+    private long cacheGraceSeconds = 300;
+    private long cacheOffHeapMaxMegabytes = 0;
+    private long cacheFileTtlMinutes = 60;
+    private long storageSyncIntervalMillis = 1000;
+    private long storageCompactionMinKilobytes = 1024;
+    private int storageCompactionGarbagePercent = 50;
+    
+    // Metriken
+    private boolean metricsHttpEnabled = false;
+    private String metricsHttpBind = "127.0.0.1:9464";
+    private int metricsDumpIntervalSeconds = 60;
+    
     // Datenbankeinstellungen
     private String databaseHost = "localhost";
     private int databasePort = 3306;
@@ -34,6 +88,16 @@ public class CoreConfig {
     private String databaseUser = "root";
     private String databasePassword = "";
     private boolean databaseEnabled = false;
+    private String databaseType = "mysql";
+    private int databaseMaxConnections = 8;
+    private int databaseModuleQuota = 4;
+    private int databaseQueueCapacity = 1000;
+    private int databaseConnectionTimeoutMillis = 5000;
+    private int databaseSlowQueryMillis = 250;
+    private int writeBehindFlushIntervalMillis = 1000;
+    private int writeBehindBatchSize = 500;
+    private int writeBehindMaxPending = 50000;
+    private int writeBehindDrainTimeoutMillis = 10000;
     
     public CoreConfig(PexoraCore plugin) {
         this.plugin = plugin;
@@ -51,8 +115,20 @@ public class CoreConfig {
      * Reloads the configuration from disk
      */
     public void reload() {
-        config = YamlConfiguration.loadConfiguration(configFile);
-        loadValues();
+        prepareReload().run();
+    }
+    
+    /**
+     * Reads and parses the configuration without applying it. May run off the server thread.
+     * 
+     * @return The step that applies the parsed configuration; must run on the server thread
+     */
+    public Runnable prepareReload() {
+        YamlConfiguration loaded = YamlConfiguration.loadConfiguration(configFile);
+        return () -> {
+            config = loaded;
+            loadValues();
+        };
     }
     
     /**
@@ -86,6 +162,74 @@ public class CoreConfig {
             additionalModules = new java.util.ArrayList<>();
         }
         
+        // Spracheinstellungen
+        defaultLocale = config.getString("locale.default", "de");
+        perPlayerLocale = config.getBoolean("locale.per-player", true);
+        localeFallbacks = new java.util.HashMap<>();
+        org.bukkit.configuration.ConfigurationSection fallbackSection = config.getConfigurationSection("locale.fallbacks");
+        if (fallbackSection != null) {
+            for (String locale : fallbackSection.getKeys(false)) {
+                String fallback = fallbackSection.getString(locale);
+                if (fallback != null) {
+                    localeFallbacks.put(locale, fallback);
+                }
+            }
+        }
+        
+        // Kanal-Einstellungen
+        channelQueueCapacity = config.getInt("channel.queue.capacity", 1000);
+        channelQueueTtlSeconds = config.getInt("channel.queue.ttl-seconds", 60);
+        channelQueueFlushDelayTicks = config.getInt("channel.queue.flush-delay-ticks", 20);
+        channelBatching = config.getBoolean("channel.batching.enabled", false);
+        channelCompressionThreshold = config.getInt("channel.batching.compression-threshold", 256);
+        channelRequestTimeoutMillis = config.getLong("channel.requests.timeout-millis", 5000L);
+        channelMaxInFlightRequests = config.getInt("channel.requests.max-in-flight", 1024);
+        channelHandlerThreads = Math.max(1, config.getInt("channel.handler-threads", 2));
+        channelSlowHandlerMillis = config.getLong("channel.slow-handler-millis", 5L);
+        channelSecret = config.getString("channel.security.secret", "");
+        transportType = config.getString("channel.transport.type", "player").toLowerCase();
+        transportNodeId = config.getString("channel.transport.node-id", "server");
+        transportBind = config.getString("channel.transport.socket.bind", "");
+        transportPeers = config.getStringList("channel.transport.socket.peers");
+        transportReconnectSeconds = Math.max(1, config.getInt("channel.transport.socket.reconnect-seconds", 5));
+        pubSubQueueCapacity = Math.max(1, config.getInt("channel.pubsub.queue-capacity", 256));
+        pubSubBlockTimeoutMillis = config.getLong("channel.pubsub.block-timeout-millis", 50L);
+        String overflow = config.getString("channel.pubsub.overflow", "drop-oldest");
+        try {
+            pubSubOverflowPolicy = OverflowPolicy.valueOf(overflow.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            plugin.getLoggerService().warn("Ungültige Overflow-Strategie '" + overflow + "', verwende drop-oldest");
+            pubSubOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+        }
+        
+        // Statusüberwachung
+        healthCheckIntervalSeconds = Math.max(0, config.getInt("status.health-check-interval-seconds", 30));
+        heartbeatTimeoutSeconds = Math.max(0, config.getInt("status.heartbeat-timeout-seconds", 60));
+        healthCheckTimeoutSeconds = Math.max(1, config.getInt("status.health-check-timeout-seconds", 5));
+        
+        // Profiler
+        profilerEnabled = config.getBoolean("profiler.enabled", true);
+        profilerWindowSeconds = Math.max(1, config.getInt("profiler.window-seconds", 60));
+        
+        // Event-Bus
+        eventBusAsyncThreads = Math.max(1, config.getInt("eventbus.async-threads", 2));
+        eventBusQueueCapacity = Math.max(16, config.getInt("eventbus.queue-capacity", 10000));
+        commandCompletionCacheMillis = Math.max(0, config.getLong("commands.completion-cache-millis", 1500));
+        commandAsyncThreads = Math.max(1, config.getInt("commands.async-threads", 2));
+        cacheLoaderThreads = Math.max(1, config.getInt("cache.loader-threads", 4));
+        cachePrefetchTimeoutMillis = Math.max(0, config.getLong("cache.prefetch-timeout-millis", 3000));
+        cacheGraceSeconds = Math.max(0, config.getLong("cache.grace-seconds", 300));
+        cacheOffHeapMaxMegabytes = Math.max(0, config.getLong("cache.offheap-max-mb", 0));
+        cacheFileTtlMinutes = Math.max(0, config.getLong("cache.file-ttl-minutes", 60));
+        storageSyncIntervalMillis = Math.max(50, config.getLong("storage.sync-interval-millis", 1000));
+        storageCompactionMinKilobytes = Math.max(64, config.getLong("storage.compaction-min-kb", 1024));
+        storageCompactionGarbagePercent = Math.max(10, Math.min(90, config.getInt("storage.compaction-garbage-percent", 50)));
+        
+        // Metriken
+        metricsHttpEnabled = config.getBoolean("metrics.http.enabled", false);
+        metricsHttpBind = config.getString("metrics.http.bind", "127.0.0.1:9464");
+        metricsDumpIntervalSeconds = Math.max(0, config.getInt("metrics.dump-interval-seconds", 60));
+        
         // Datenbankeinstellungen
         databaseHost = config.getString("database.host", "localhost");
         databasePort = config.getInt("database.port", 3306);
@@ -93,6 +237,16 @@ public class CoreConfig {
         databaseUser = config.getString("database.user", "root");
         databasePassword = config.getString("database.password", "");
         databaseEnabled = config.getBoolean("database.enabled", false);
+        databaseType = config.getString("database.type", "mysql");
+        databaseMaxConnections = Math.max(1, config.getInt("database.pool.max-connections", 8));
+        databaseModuleQuota = Math.max(1, Math.min(databaseMaxConnections, config.getInt("database.pool.module-quota", 4)));
+        databaseQueueCapacity = Math.max(16, config.getInt("database.pool.queue-capacity", 1000));
+        databaseConnectionTimeoutMillis = Math.max(100, config.getInt("database.pool.connection-timeout-millis", 5000));
+        databaseSlowQueryMillis = Math.max(1, config.getInt("database.slow-query-millis", 250));
+        writeBehindFlushIntervalMillis = Math.max(50, config.getInt("database.write-behind.flush-interval-millis", 1000));
+        writeBehindBatchSize = Math.max(1, config.getInt("database.write-behind.batch-size", 500));
+        writeBehindMaxPending = Math.max(writeBehindBatchSize, config.getInt("database.write-behind.max-pending", 50000));
+        writeBehindDrainTimeoutMillis = Math.max(0, config.getInt("database.write-behind.drain-timeout-millis", 10000));
         
         // Log loaded settings if in debug mode
         if (debugMode) {
@@ -104,6 +258,8 @@ public class CoreConfig {
             plugin.getLoggerService().debug("  Auto-Copy zu Modules: " + autoCopyToModules);
             plugin.getLoggerService().debug("  Alte Plugins löschen: " + deleteOldPlugins);
             plugin.getLoggerService().debug("  Zusätzliche Module: " + additionalModules);
+            plugin.getLoggerService().debug("  Standardsprache: " + defaultLocale);
+            plugin.getLoggerService().debug("  Spielersprache verwenden: " + perPlayerLocale);
             plugin.getLoggerService().debug("  Datenbank aktiviert: " + databaseEnabled);
         }
     }
@@ -144,6 +300,293 @@ public class CoreConfig {
         save();
     }
     
+    /**
+     * @return die Standardsprache für Nachrichten
+     */
+    public String getDefaultLocale() {
+        return defaultLocale;
+    }
+    
+    /**
+     * @return ob die Client-Sprache eines Spielers für Nachrichten verwendet wird
+     */
+    public boolean isPerPlayerLocale() {
+        return perPlayerLocale;
+    }
+    
+    /**
+     * @return die konfigurierten Fallback-Sprachen (Sprache zu Fallback-Sprache)
+     */
+    public java.util.Map<String, String> getLocaleFallbacks() {
+        return localeFallbacks;
+    }
+    
+    /**
+     * @return die maximale Anzahl wartender Nachrichten ohne Online-Spieler
+     */
+    public int getChannelQueueCapacity() {
+        return channelQueueCapacity;
+    }
+    
+    /**
+     * @return wie lange eine Nachricht auf einen Spieler warten darf, in Sekunden
+     */
+    public int getChannelQueueTtlSeconds() {
+        return channelQueueTtlSeconds;
+    }
+    
+    /**
+     * @return die Verzögerung in Ticks, nach der wartende Nachrichten beim Join gesendet werden
+     */
+    public int getChannelQueueFlushDelayTicks() {
+        return channelQueueFlushDelayTicks;
+    }
+    
+    /**
+     * @return ob Nachrichten eines Ticks zu einem Paket zusammengefasst werden
+     */
+    public boolean isChannelBatching() {
+        return channelBatching;
+    }
+    
+    /**
+     * @return ab welcher Größe in Bytes zusammengefasste Pakete komprimiert werden
+     */
+    public int getChannelCompressionThreshold() {
+        return channelCompressionThreshold;
+    }
+    
+    /**
+     * @return nach wie vielen Millisekunden eine Anfrage ohne Antwort fehlschlägt
+     */
+    public long getChannelRequestTimeoutMillis() {
+        return channelRequestTimeoutMillis;
+    }
+    
+    /**
+     * @return die maximale Anzahl gleichzeitig offener Anfragen
+     */
+    public int getChannelMaxInFlightRequests() {
+        return channelMaxInFlightRequests;
+    }
+    
+    /**
+     * @return die Anzahl der Threads für asynchrone Kanal-Handler
+     */
+    public int getChannelHandlerThreads() {
+        return channelHandlerThreads;
+    }
+    
+    /**
+     * @return ab welcher Dauer (Millisekunden) ein Handler auf dem Server-Thread als langsam gemeldet wird, 0 = aus
+     */
+    public long getChannelSlowHandlerMillis() {
+        return channelSlowHandlerMillis;
+    }
+    
+    /**
+     * @return das mit dem Proxy geteilte Geheimnis für den Handshake, leer = keine Authentifizierung
+     */
+    public String getChannelSecret() {
+        return channelSecret;
+    }
+    
+    /**
+     * @return der Transport für Topic-Nachrichten (player, socket oder loopback)
+     */
+    public String getTransportType() {
+        return transportType;
+    }
+    
+    /**
+     * @return die eindeutige ID dieses Servers im Verbund
+     */
+    public String getTransportNodeId() {
+        return transportNodeId;
+    }
+    
+    /**
+     * @return die Adresse (host:port), auf der der Socket-Transport lauscht, oder leer
+     */
+    public String getTransportBind() {
+        return transportBind;
+    }
+    
+    /**
+     * @return die Adressen (host:port) der anderen Server für den Socket-Transport
+     */
+    public java.util.List<String> getTransportPeers() {
+        return transportPeers;
+    }
+    
+    /**
+     * @return die Wartezeit zwischen Verbindungsversuchen zu nicht erreichbaren Servern in Sekunden
+     */
+    public int getTransportReconnectSeconds() {
+        return transportReconnectSeconds;
+    }
+    
+    /**
+     * @return die Standardgröße der Warteschlange pro Topic-Abonnement
+     */
+    public int getPubSubQueueCapacity() {
+        return pubSubQueueCapacity;
+    }
+    
+    /**
+     * @return die Standardstrategie, wenn die Warteschlange eines Abonnements voll ist
+     */
+    public OverflowPolicy getPubSubOverflowPolicy() {
+        return pubSubOverflowPolicy;
+    }
+    
+    /**
+     * @return wie lange ein Sender bei der Strategie BLOCK höchstens wartet (Millisekunden)
+     */
+    public long getPubSubBlockTimeoutMillis() {
+        return pubSubBlockTimeoutMillis;
+    }
+    
+    /**
+     * @return das Intervall der Health-Checks in Sekunden, 0 = aus
+     */
+    public int getHealthCheckIntervalSeconds() {
+        return healthCheckIntervalSeconds;
+    }
+    
+    /**
+     * @return nach wie vielen Sekunden ohne Heartbeat ein Modul als eingeschränkt gilt, 0 = aus
+     */
+    public int getHeartbeatTimeoutSeconds() {
+        return heartbeatTimeoutSeconds;
+    }
+    
+    /**
+     * @return wie lange ein einzelner Health-Check höchstens laufen darf, bevor er als fehlgeschlagen gilt (Sekunden)
+     */
+    public int getHealthCheckTimeoutSeconds() {
+        return healthCheckTimeoutSeconds;
+    }
+    
+    /**
+     * @return ob der Profiler die Tickdauer und die Laufzeit der Module misst
+     */
+    public boolean isProfilerEnabled() {
+        return profilerEnabled;
+    }
+    
+    /**
+     * @return die Länge des gleitenden Fensters des Profilers in Sekunden
+     */
+    public int getProfilerWindowSeconds() {
+        return profilerWindowSeconds;
+    }
+    
+    /**
+     * @return die Anzahl der Threads für asynchrone Handler des Event-Busses
+     */
+    public int getEventBusAsyncThreads() {
+        return eventBusAsyncThreads;
+    }
+    
+    /**
+     * @return die maximale Anzahl wartender asynchroner Aufrufe des Event-Busses
+     */
+    public int getEventBusQueueCapacity() {
+        return eventBusQueueCapacity;
+    }
+    
+    /**
+     * @return wie lange Tab-Vervollständigungen pro Spieler zwischengespeichert werden (Millisekunden, 0 = aus)
+     */
+    public long getCommandCompletionCacheMillis() {
+        return commandCompletionCacheMillis;
+    }
+    
+    /**
+     * @return die Anzahl der Threads für asynchrone Befehle
+     */
+    public int getCommandAsyncThreads() {
+        return commandAsyncThreads;
+    }
+    
+    /**
+     * @return die Anzahl der Threads für die Loader des Spieler-Caches
+     */
+    public int getCacheLoaderThreads() {
+        return cacheLoaderThreads;
+    }
+    
+    /**
+     * @return wie lange die Anmeldung auf vorab geladene Spielerdaten wartet (Millisekunden)
+     */
+    public long getCachePrefetchTimeoutMillis() {
+        return cachePrefetchTimeoutMillis;
+    }
+    
+    /**
+     * @return wie lange Spielerdaten nach dem Verlassen im Heap bleiben (Sekunden)
+     */
+    public long getCacheGraceSeconds() {
+        return cacheGraceSeconds;
+    }
+    
+    /**
+     * @return der Speicher außerhalb des Heaps für serialisierte Spielerdaten (MB, 0 = aus)
+     */
+    public long getCacheOffHeapMaxMegabytes() {
+        return cacheOffHeapMaxMegabytes;
+    }
+    
+    /**
+     * @return wie lange serialisierte Spielerdaten im Ordner cache/ gültig sind (Minuten, 0 = aus)
+     */
+    public long getCacheFileTtlMinutes() {
+        return cacheFileTtlMinutes;
+    }
+    
+    /**
+     * @return das Intervall, in dem der Schlüssel-Wert-Speicher auf den Datenträger schreibt (Millisekunden)
+     */
+    public long getStorageSyncIntervalMillis() {
+        return storageSyncIntervalMillis;
+    }
+    
+    /**
+     * @return die Größe des Logs, ab der der Schlüssel-Wert-Speicher verdichtet wird (KB)
+     */
+    public long getStorageCompactionMinKilobytes() {
+        return storageCompactionMinKilobytes;
+    }
+    
+    /**
+     * @return der Anteil überholter Einträge im Log, ab dem verdichtet wird (Prozent)
+     */
+    public int getStorageCompactionGarbagePercent() {
+        return storageCompactionGarbagePercent;
+    }
+    
+    /**
+     * @return ob die Metriken über HTTP im Prometheus-Format bereitgestellt werden
+     */
+    public boolean isMetricsHttpEnabled() {
+        return metricsHttpEnabled;
+    }
+    
+    /**
+     * @return die Adresse (host:port) des Metrik-Endpunkts
+     */
+    public String getMetricsHttpBind() {
+        return metricsHttpBind;
+    }
+    
+    /**
+     * @return das Intervall, in dem die Metriken ohne HTTP-Endpunkt in eine Datei geschrieben werden (Sekunden), 0 = aus
+     */
+    public int getMetricsDumpIntervalSeconds() {
+        return metricsDumpIntervalSeconds;
+    }
+    
     /**
      * @return the database host
      */
@@ -186,6 +629,76 @@ public class CoreConfig {
         return databaseEnabled;
     }
     
+    /**
+     * @return the database type: mysql, h2 or sqlite
+     */
+    public String getDatabaseType() {
+        return databaseType;
+    }
+    
+    /**
+     * @return the maximum number of pooled connections, which is also the number of query threads
+     */
+    public int getDatabaseMaxConnections() {
+        return databaseMaxConnections;
+    }
+    
+    /**
+     * @return the maximum number of connections a single module may use at the same time
+     */
+    public int getDatabaseModuleQuota() {
+        return databaseModuleQuota;
+    }
+    
+    /**
+     * @return the maximum number of queries a single module may have waiting
+     */
+    public int getDatabaseQueueCapacity() {
+        return databaseQueueCapacity;
+    }
+    
+    /**
+     * @return how long to wait for a free or new connection (milliseconds)
+     */
+    public int getDatabaseConnectionTimeoutMillis() {
+        return databaseConnectionTimeoutMillis;
+    }
+    
+    /**
+     * @return the duration from which a query counts as slow (milliseconds)
+     */
+    public int getDatabaseSlowQueryMillis() {
+        return databaseSlowQueryMillis;
+    }
+    
+    /**
+     * @return the interval in which write-behind queues are flushed (milliseconds)
+     */
+    public int getWriteBehindFlushIntervalMillis() {
+        return writeBehindFlushIntervalMillis;
+    }
+    
+    /**
+     * @return the number of pending entries that triggers an early flush and the JDBC batch size
+     */
+    public int getWriteBehindBatchSize() {
+        return writeBehindBatchSize;
+    }
+    
+    /**
+     * @return the number of pending entries per queue from which a failing queue spills to its journal
+     */
+    public int getWriteBehindMaxPending() {
+        return writeBehindMaxPending;
+    }
+    
+    /**
+     * @return how long a queue may flush when its module is disabled before the rest goes to the journal (milliseconds)
+     */
+    public int getWriteBehindDrainTimeoutMillis() {
+        return writeBehindDrainTimeoutMillis;
+    }
+    
     /**
      * @return the configuration file
      */
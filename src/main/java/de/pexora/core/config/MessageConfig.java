@@ -6,53 +6,160 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages message configuration (messages.yml) for customizable messages.
  * Uses MiniMessage format for styling.
+ * 
+ * Besides the base messages.yml, locale bundles named messages_&lt;locale&gt;.yml
+ * (e.g. messages_de.yml, messages_en_us.yml) are loaded from the plugin folder.
+ * A message is resolved along a fallback chain such as de_at -&gt; de -&gt; default
+ * locale -&gt; messages.yml. Identical templates are interned across all bundles, so
+ * parsed components are shared between locales that use the same text.
  */
 public class MessageConfig {
 
+    private static final String DEFAULT_PREFIX = "<gradient:#ff55ff:#aa00ff>[PX]</gradient> ";
+    private static final String BUNDLE_PREFIX = "messages_";
+    private static final String BUNDLE_SUFFIX = ".yml";
+    private static final String[] BUNDLED_LOCALES = {"en"};
+    
+    /**
+     * Key of the base bundle (messages.yml) at the end of every fallback chain
+     */
+    private static final String ROOT_LOCALE = "";
+    
     private final PexoraCore plugin;
     private final File messagesFile;
     private FileConfiguration config;
     
-    // Cache for message components
-    private final Map<String, Component> messageCache;
+    // Locale bundles (locale -> key -> interned template), replaced as a whole on reload
+    private volatile Map<String, Map<String, String>> bundles;
+    
+    // Cache for message components, per locale chain; components are shared via the template cache
+    private final Map<String, Map<String, Component>> messageCache;
+    private final Map<String, Component> templateCache;
+    private final Map<String, String[]> chainCache;
+    private final Map<UUID, String[]> playerChains;
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
     private Component prefixComponent;
     
     public MessageConfig(PexoraCore plugin) {
         this.plugin = plugin;
         this.messagesFile = new File(plugin.getDataFolder(), "messages.yml");
-        this.messageCache = new HashMap<>();
+        this.messageCache = new ConcurrentHashMap<>();
+        this.templateCache = new ConcurrentHashMap<>();
+        this.chainCache = new ConcurrentHashMap<>();
+        this.playerChains = new ConcurrentHashMap<>();
         
         // Load or create messages
         if (!messagesFile.exists()) {
             plugin.saveResource("messages.yml", false);
         }
+        for (String locale : BUNDLED_LOCALES) {
+            if (!new File(plugin.getDataFolder(), BUNDLE_PREFIX + locale + BUNDLE_SUFFIX).exists()) {
+                plugin.saveResource(BUNDLE_PREFIX + locale + BUNDLE_SUFFIX, false);
+            }
+        }
         
         reload();
+        
+        plugin.getServer().getPluginManager().registerEvents(new LocaleListener(), plugin);
     }
     
     /**
-     * Reloads the message configuration from disk
+     * Reloads the message configuration and all locale bundles from disk
      */
     public void reload() {
-        config = YamlConfiguration.loadConfiguration(messagesFile);
-        messageCache.clear();
+        prepareReload().run();
+    }
+    
+    /**
+     * Reads and parses the message configuration and all locale bundles without applying them.
+     * May run off the server thread, so a reload does not block the tick while YAML is parsed.
+     * 
+     * @return The step that swaps in the parsed messages; must run on the server thread
+     */
+    public Runnable prepareReload() {
+        FileConfiguration loadedConfig = YamlConfiguration.loadConfiguration(messagesFile);
         
-        // Cache the prefix component
-        String prefixString = config.getString("prefix", "<gradient:#ff55ff:#aa00ff>[PX]</gradient> ");
-        prefixComponent = MiniMessage.miniMessage().deserialize(prefixString);
+        Map<String, String> pool = new HashMap<>();
+        Map<String, Map<String, String>> loaded = new HashMap<>();
+        loaded.put(ROOT_LOCALE, readBundle(loadedConfig, pool));
         
-        if (plugin.getCoreConfig().isDebugMode()) {
-            plugin.getLogger().info("[DEBUG] Loaded MessageConfig, prefix: " + prefixString);
+        File[] bundleFiles = plugin.getDataFolder().listFiles(
+                (dir, name) -> name.startsWith(BUNDLE_PREFIX) && name.endsWith(BUNDLE_SUFFIX));
+        if (bundleFiles != null) {
+            for (File bundleFile : bundleFiles) {
+                String name = bundleFile.getName();
+                String locale = normalizeLocale(name.substring(BUNDLE_PREFIX.length(), name.length() - BUNDLE_SUFFIX.length()));
+                loaded.put(locale, readBundle(YamlConfiguration.loadConfiguration(bundleFile), pool));
+            }
         }
+        
+        // Parse the prefix component up front
+        String prefixString = loadedConfig.getString("prefix", DEFAULT_PREFIX);
+        Component loadedPrefix = MiniMessage.miniMessage().deserialize(prefixString);
+        int templates = pool.size();
+        
+        return () -> {
+            config = loadedConfig;
+            bundles = loaded;
+            prefixComponent = loadedPrefix;
+            clearCaches();
+            
+            if (plugin.getCoreConfig().isDebugMode()) {
+                plugin.getLogger().info("[DEBUG] Loaded MessageConfig, prefix: " + prefixString
+                        + ", locales: " + (loaded.size() - 1) + ", distinct templates: " + templates);
+            }
+        };
+    }
+    
+    /**
+     * Reads all string values of a bundle, interning them through the shared pool
+     * 
+     * @param bundle The bundle configuration
+     * @param pool The intern pool shared by all bundles of one reload
+     * @return The key to template map
+     */
+    private Map<String, String> readBundle(FileConfiguration bundle, Map<String, String> pool) {
+        Map<String, String> templates = new HashMap<>();
+        for (String key : bundle.getKeys(true)) {
+            if (bundle.isString(key)) {
+                String template = bundle.getString(key);
+                templates.put(key, pool.computeIfAbsent(template, t -> t));
+            }
+        }
+        return templates;
+    }
+    
+    /**
+     * Clears all derived caches; bundles themselves are kept
+     */
+    private void clearCaches() {
+        messageCache.clear();
+        templateCache.clear();
+        chainCache.clear();
+        playerChains.clear();
     }
     
     /**
@@ -68,59 +175,120 @@ public class MessageConfig {
     }
     
     /**
-     * Gets a message from the configuration
+     * Gets a message from the configuration in the default locale
      * 
      * @param key The message key
      * @return The message component, or a default message if not found
      */
     public Component getMessage(String key) {
+        return lookup(defaultChain(), key);
+    }
+    
+    /**
+     * Gets a message in the locale of the given player
+     * 
+     * @param player The player whose client locale is used
+     * @param key The message key
+     * @return The message component, or a default message if not found
+     */
+    public Component getMessage(Player player, String key) {
+        return lookup(chainFor(player), key);
+    }
+    
+    /**
+     * Gets a message in the given locale, e.g. "de" or "en_us"
+     * 
+     * @param locale The locale
+     * @param key The message key
+     * @return The message component, or a default message if not found
+     */
+    public Component getLocalizedMessage(String locale, String key) {
+        return lookup(chainFor(locale), key);
+    }
+    
+    private Component lookup(String[] chain, String key) {
         // Return from cache if available
-        if (messageCache.containsKey(key)) {
-            return messageCache.get(key);
+        Map<String, Component> cache = messageCache.computeIfAbsent(chain[0], locale -> new ConcurrentHashMap<>());
+        Component cached = cache.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            return cached;
         }
+        cacheMisses.increment();
         
-        // Get from config, apply prefix
-        String message = config.getString(key);
+        String message = resolve(chain, key);
+        Component component;
         if (message == null) {
-            Component missingComponent = Component.text("Missing message: " + key);
-            messageCache.put(key, missingComponent);
-            return missingComponent;
+            component = Component.text("Missing message: " + key);
+        } else {
+            // Replace %prefix% placeholder and share the parsed component between locales
+            String template = message.replace("%prefix%", resolvePrefix(chain));
+            component = templateCache.computeIfAbsent(template, t -> MiniMessage.miniMessage().deserialize(t));
         }
-        
-        // Replace %prefix% placeholder
-        message = message.replace("%prefix%", config.getString("prefix", "<gradient:#ff55ff:#aa00ff>[PX]</gradient> "));
-        
-        // Parse with MiniMessage
-        Component component = MiniMessage.miniMessage().deserialize(message);
-        messageCache.put(key, component);
+        cache.put(key, component);
         
         return component;
     }
     
     /**
-     * Gets a message and replaces custom placeholders
+     * @return the number of message lookups answered from the component cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+    
+    /**
+     * @return the number of message lookups that had to resolve and parse the message
+     */
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+    
+    /**
+     * @return the number of cached message components over all locale chains
+     */
+    public int getCacheSize() {
+        int size = 0;
+        for (Map<String, Component> cache : messageCache.values()) {
+            size += cache.size();
+        }
+        return size;
+    }
+    
+    /**
+     * Gets a message in the default locale and replaces custom placeholders
      * 
      * @param key The message key
      * @param placeholders The placeholders to replace (key, value pairs)
      * @return The formatted message component
      */
     public Component getMessage(String key, String... placeholders) {
-        String message = config.getString(key);
+        return format(defaultChain(), key, placeholders);
+    }
+    
+    /**
+     * Gets a message in the locale of the given player and replaces custom placeholders
+     * 
+     * @param player The player whose client locale is used
+     * @param key The message key
+     * @param placeholders The placeholders to replace (key, value pairs)
+     * @return The formatted message component
+     */
+    public Component getMessage(Player player, String key, String... placeholders) {
+        return format(chainFor(player), key, placeholders);
+    }
+    
+    private Component format(String[] chain, String key, String... placeholders) {
+        String message = resolve(chain, key);
         if (message == null) {
             return Component.text("Missing message: " + key);
         }
         
         // Replace %prefix% placeholder
-        message = message.replace("%prefix%", config.getString("prefix", "<gradient:#ff55ff:#aa00ff>[PX]</gradient> "));
+        message = message.replace("%prefix%", resolvePrefix(chain));
         
         // Replace custom placeholders
-        if (placeholders != null && placeholders.length >= 2) {
-            for (int i = 0; i < placeholders.length - 1; i += 2) {
-                String placeholder = placeholders[i];
-                String value = placeholders[i + 1];
-                message = message.replace("%" + placeholder + "%", value);
-            }
-        }
+        message = AdventureUtil.replacePlaceholders(message, placeholders);
         
         // Parse with MiniMessage
         return MiniMessage.miniMessage().deserialize(message);
@@ -136,6 +304,17 @@ public class MessageConfig {
         return config.getString(key);
     }
     
+    /**
+     * Gets the raw template of a message in the locale of the given player
+     * 
+     * @param player The player whose client locale is used
+     * @param key The message key
+     * @return The raw template, or null if no bundle in the chain defines it
+     */
+    public String getPlainMessage(Player player, String key) {
+        return resolve(chainFor(player), key);
+    }
+    
     /**
      * Sets a message in the configuration
      * 
@@ -144,7 +323,7 @@ public class MessageConfig {
      */
     public void setMessage(String key, String message) {
         config.set(key, message);
-        messageCache.remove(key);
+        updateRootBundle();
         save();
     }
     
@@ -159,7 +338,7 @@ public class MessageConfig {
      * @return the raw prefix string
      */
     public String getPrefixString() {
-        return config.getString("prefix", "<gradient:#ff55ff:#aa00ff>[PX]</gradient> ");
+        return config.getString("prefix", DEFAULT_PREFIX);
     }
     
     /**
@@ -170,15 +349,138 @@ public class MessageConfig {
     public void setPrefix(String prefix) {
         config.set("prefix", prefix);
         prefixComponent = MiniMessage.miniMessage().deserialize(prefix);
-        // Clear cache as all messages with prefix need to be regenerated
-        messageCache.clear();
+        // Rebuild the base bundle and clear caches as all messages with prefix need to be regenerated
+        updateRootBundle();
         save();
     }
     
+    /**
+     * Re-reads the base bundle after an in-memory change, reusing interned templates of the other bundles
+     */
+    private void updateRootBundle() {
+        Map<String, String> pool = new HashMap<>();
+        for (Map<String, String> bundle : bundles.values()) {
+            for (String template : bundle.values()) {
+                pool.put(template, template);
+            }
+        }
+        Map<String, Map<String, String>> updated = new HashMap<>(bundles);
+        updated.put(ROOT_LOCALE, readBundle(config, pool));
+        bundles = updated;
+        clearCaches();
+    }
+    
+    /**
+     * @return the locales for which a bundle is loaded (without the base messages.yml)
+     */
+    public List<String> getAvailableLocales() {
+        List<String> locales = new ArrayList<>(bundles.keySet());
+        locales.remove(ROOT_LOCALE);
+        Collections.sort(locales);
+        return locales;
+    }
+    
+    /**
+     * Returns the normalized locale used for a player, e.g. "de_de"
+     * 
+     * @param player The player
+     * @return The most specific locale of the player's fallback chain
+     */
+    public String getLocale(Player player) {
+        return chainFor(player)[0];
+    }
+    
     /**
      * @return the configuration file
      */
     public FileConfiguration getConfig() {
         return config;
     }
+    
+    /**
+     * Looks up a template along a fallback chain
+     */
+    private String resolve(String[] chain, String key) {
+        Map<String, Map<String, String>> current = bundles;
+        for (String locale : chain) {
+            Map<String, String> bundle = current.get(locale);
+            if (bundle != null) {
+                String template = bundle.get(key);
+                if (template != null) {
+                    return template;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private String resolvePrefix(String[] chain) {
+        String prefix = resolve(chain, "prefix");
+        return prefix != null ? prefix : DEFAULT_PREFIX;
+    }
+    
+    private String[] defaultChain() {
+        return chainFor(plugin.getCoreConfig().getDefaultLocale());
+    }
+    
+    private String[] chainFor(Player player) {
+        if (player == null || !plugin.getCoreConfig().isPerPlayerLocale()) {
+            return defaultChain();
+        }
+        return playerChains.computeIfAbsent(player.getUniqueId(), id -> chainFor(player.getLocale()));
+    }
+    
+    private String[] chainFor(String locale) {
+        String normalized = locale == null ? normalizeLocale(plugin.getCoreConfig().getDefaultLocale()) : normalizeLocale(locale);
+        return chainCache.computeIfAbsent(normalized, this::buildChain);
+    }
+    
+    /**
+     * Builds the fallback chain for a locale, e.g. de_at -> de -> default locale -> base bundle
+     */
+    private String[] buildChain(String locale) {
+        List<String> chain = new ArrayList<>();
+        appendChain(chain, locale);
+        appendChain(chain, normalizeLocale(plugin.getCoreConfig().getDefaultLocale()));
+        chain.add(ROOT_LOCALE);
+        return chain.toArray(new String[0]);
+    }
+    
+    /**
+     * Appends a locale and its fallbacks; configured fallbacks win over stripping the country suffix
+     */
+    private void appendChain(List<String> chain, String locale) {
+        Map<String, String> fallbacks = plugin.getCoreConfig().getLocaleFallbacks();
+        String current = locale;
+        while (current != null && !current.isEmpty() && !chain.contains(current)) {
+            chain.add(current);
+            String configured = fallbacks.get(current);
+            if (configured != null) {
+                current = normalizeLocale(configured);
+            } else {
+                int separator = current.lastIndexOf('_');
+                current = separator > 0 ? current.substring(0, separator) : null;
+            }
+        }
+    }
+    
+    private static String normalizeLocale(String locale) {
+        return locale.trim().replace('-', '_').toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * Keeps the per-player locale cache in sync with client locale changes
+     */
+    private final class LocaleListener implements Listener {
+        
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onLocaleChange(PlayerLocaleChangeEvent event) {
+            playerChains.put(event.getPlayer().getUniqueId(), chainFor(event.getLocale()));
+        }
+        
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onQuit(PlayerQuitEvent event) {
+            playerChains.remove(event.getPlayer().getUniqueId());
+        }
+    }
 }
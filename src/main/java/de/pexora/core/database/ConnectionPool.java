@@ -0,0 +1,197 @@
+package de.pexora.core.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ein einfacher JDBC-Verbindungspool mit fester Obergrenze.
+ * 
+ * Freie Verbindungen werden zuletzt-benutzt-zuerst wiederverwendet, damit selten gebrauchte Verbindungen
+ * altern und nach {@link #MAX_LIFETIME_MILLIS} geschlossen werden, bevor der Server sie trennt. Eine
+ * Verbindung, die länger frei war als {@link #VALIDATE_AFTER_MILLIS}, wird vor der Ausgabe geprüft.
+ */
+final class ConnectionPool {
+
+    private static final long MAX_LIFETIME_MILLIS = 30 * 60 * 1000L;
+    private static final long VALIDATE_AFTER_MILLIS = 30 * 1000L;
+    private static final int VALIDATE_TIMEOUT_SECONDS = 2;
+    
+    private final String url;
+    private final Properties properties;
+    private final int maxConnections;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final ArrayDeque<Pooled> idle = new ArrayDeque<>();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private volatile boolean closed;
+    
+    /**
+     * @param url Die JDBC-URL
+     * @param properties Die Eigenschaften für den Treiber, siehe {@link DatabaseType#connectionProperties}
+     * @param maxConnections Die Obergrenze der gleichzeitig ausgegebenen Verbindungen
+     * @param timeoutMillis Wie lange {@link #acquire()} höchstens auf eine freie Verbindung wartet
+     */
+    ConnectionPool(String url, Properties properties, int maxConnections, long timeoutMillis) {
+        this.url = url;
+        this.properties = properties;
+        this.maxConnections = maxConnections;
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+    
+    /**
+     * Gibt eine Verbindung aus, wartet dafür höchstens die konfigurierte Zeit
+     * 
+     * @return Die Verbindung; muss mit {@link #release(Pooled, boolean)} zurückgegeben werden
+     * @throws SQLException Wenn keine Verbindung frei wurde oder aufgebaut werden konnte
+     */
+    Pooled acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Der Datenbank-Pool ist geschlossen");
+        }
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("Keine freie Datenbankverbindung nach " + timeoutMillis + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf eine Datenbankverbindung unterbrochen", e);
+        }
+        
+        try {
+            long now = System.currentTimeMillis();
+            Pooled pooled;
+            while ((pooled = pollIdle()) != null) {
+                if (now - pooled.created < MAX_LIFETIME_MILLIS
+                        && (now - pooled.lastUsed < VALIDATE_AFTER_MILLIS || isValid(pooled.connection))) {
+                    return pooled;
+                }
+                closeQuietly(pooled.connection);
+            }
+            
+            Connection connection = DriverManager.getConnection(url, properties);
+            created.increment();
+            return new Pooled(connection, now);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    /**
+     * Gibt eine Verbindung an den Pool zurück
+     * 
+     * @param pooled Die Verbindung aus {@link #acquire()}
+     * @param broken ob die Verbindung nach einem Fehler nicht mehr verwendet werden soll
+     */
+    void release(Pooled pooled, boolean broken) {
+        try {
+            Connection connection = pooled.connection;
+            long now = System.currentTimeMillis();
+            if (closed || broken || connection.isClosed() || now - pooled.created >= MAX_LIFETIME_MILLIS) {
+                closeQuietly(connection);
+                return;
+            }
+            
+            // Zustand zurücksetzen, den ein Modul hinterlassen haben könnte
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            pooled.lastUsed = now;
+            synchronized (idle) {
+                idle.push(pooled);
+            }
+        } catch (SQLException e) {
+            closeQuietly(pooled.connection);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    private Pooled pollIdle() {
+        synchronized (idle) {
+            return idle.poll();
+        }
+    }
+    
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Die Verbindung wird ohnehin verworfen
+        }
+    }
+    
+    /**
+     * Schließt alle freien Verbindungen; ausgegebene werden bei der Rückgabe geschlossen
+     */
+    void close() {
+        closed = true;
+        Pooled pooled;
+        while ((pooled = pollIdle()) != null) {
+            closeQuietly(pooled.connection);
+        }
+    }
+    
+    /**
+     * @return die Anzahl der ausgegebenen Verbindungen
+     */
+    int getActiveCount() {
+        return maxConnections - permits.availablePermits();
+    }
+    
+    /**
+     * @return die Anzahl der freien, offenen Verbindungen
+     */
+    int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+    
+    int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    long getCreatedCount() {
+        return created.sum();
+    }
+    
+    long getTimeoutCount() {
+        return timeouts.sum();
+    }
+    
+    /**
+     * Eine Verbindung mit ihren Zeitstempeln
+     */
+    static final class Pooled {
+        
+        final Connection connection;
+        private final long created;
+        private long lastUsed;
+        
+        private Pooled(Connection connection, long created) {
+            this.connection = connection;
+            this.created = created;
+            this.lastUsed = created;
+        }
+    }
+}
@@ -0,0 +1,633 @@
+package de.pexora.core.database;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.database.ResultMapper;
+import de.pexora.core.api.database.SqlFunction;
+import de.pexora.core.config.CoreConfig;
+import de.pexora.core.metrics.Histogram;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * Gemeinsamer Datenbankzugriff für den Core und alle Module.
+ * 
+ * Der Core hält einen einzigen Verbindungspool, statt dass jedes Modul eigene Verbindungen öffnet.
+ * Alle Zugriffe laufen auf einem eigenen Thread-Pool und liefern eine {@link CompletableFuture};
+ * der Server-Thread wartet nie auf die Datenbank. Ergebnisse, die die Bukkit-API berühren, werden
+ * über {@link #getMainThreadExecutor()} zurück in den Server-Thread gegeben:
+ * <pre>
+ * database.query(this, "SELECT coins FROM konto WHERE uuid = ?", rs -&gt; rs.next() ? rs.getLong(1) : 0L, uuid.toString())
+ *         .thenAcceptAsync(coins -&gt; player.sendMessage("Coins: " + coins), database.getMainThreadExecutor());
+ * </pre>
+ * 
+ * Jedes Modul darf höchstens {@link CoreConfig#getDatabaseModuleQuota()} Verbindungen gleichzeitig
+ * belegen. Weitere Aufträge warten in einer Warteschlange des Moduls, sodass ein Modul mit vielen
+ * Abfragen die anderen nicht aushungert. Ist die gemeinsame Warteschlange voll, schlägt die Future
+ * mit einer {@link RejectedExecutionException} fehl.
+ * 
+ * Für häufige Änderungen derselben Zeilen bietet er gepufferte Schreibzugriffe über
+ * {@link #createWriteBehindQueue(Plugin, String, String)}.
+ */
+public class Database implements Listener {
+
+    private static final long SLOW_QUERY_WARN_INTERVAL_MILLIS = 10_000L;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5_000L;
+    private static final String CONNECTION_LABEL = "<Verbindung>";
+    private static final String QUERY_METRIC = "pexora_database_query_seconds";
+    private static final Pattern QUEUE_NAME_PATTERN = Pattern.compile("[a-z0-9_-]+");
+    
+    private final PexoraCore plugin;
+    private final DatabaseType type;
+    private final ConnectionPool pool;
+    private final ThreadPoolExecutor executor;
+    private final int moduleQuota;
+    private final int queueCapacity;
+    private final QueryStats stats;
+    private final Executor mainThreadExecutor;
+    
+    // Warteschlangen je Modul; Zugriff nur unter der Sperre von queues
+    private final Map<Plugin, ModuleQueue> queues = new HashMap<>();
+    private int pendingCount;
+    
+    private final List<WriteBehindQueue> writeQueues = new CopyOnWriteArrayList<>();
+    // Warteschlangen freigegebener Module, die noch asynchron geschrieben werden
+    private final List<WriteBehindQueue> releasing = new CopyOnWriteArrayList<>();
+    private final BukkitTask flushTask;
+    
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile long lastSlowWarning;
+    
+    /**
+     * Erstellt den Pool aus dem Abschnitt "database" der config.yml
+     * 
+     * @param plugin Die Core-Instanz
+     * @throws IllegalArgumentException Wenn der Datenbanktyp unbekannt ist
+     * @throws IllegalStateException Wenn kein JDBC-Treiber für den Typ gefunden wurde
+     */
+    public Database(PexoraCore plugin) {
+        CoreConfig config = plugin.getCoreConfig();
+        this.plugin = plugin;
+        this.type = DatabaseType.fromName(config.getDatabaseType());
+        if (!type.loadDriver(plugin.getClass().getClassLoader())) {
+            throw new IllegalStateException("Kein JDBC-Treiber für " + type.name().toLowerCase(Locale.ROOT) + " gefunden");
+        }
+        
+        String url = type.buildUrl(config.getDatabaseHost(), config.getDatabasePort(), config.getDatabaseName(), plugin.getDataFolder());
+        this.pool = new ConnectionPool(url, type.connectionProperties(config.getDatabaseUser(), config.getDatabasePassword(),
+                config.getDatabaseConnectionTimeoutMillis()), config.getDatabaseMaxConnections(), config.getDatabaseConnectionTimeoutMillis());
+        this.executor = createExecutor(config.getDatabaseMaxConnections(), config.getDatabaseQueueCapacity());
+        this.moduleQuota = config.getDatabaseModuleQuota();
+        this.queueCapacity = config.getDatabaseQueueCapacity();
+        this.stats = new QueryStats(TimeUnit.MILLISECONDS.toNanos(config.getDatabaseSlowQueryMillis()));
+        this.mainThreadExecutor = task -> plugin.getServer().getScheduler().runTask(plugin, task);
+        
+        long flushTicks = Math.max(1, config.getWriteBehindFlushIntervalMillis() / 50);
+        this.flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flushWriteQueues, flushTicks, flushTicks);
+        
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getStatusAPI().registerStatusProvider("Datenbank", this::getStatusSummary);
+        registerMetrics();
+        
+        plugin.getLoggerService().info("Datenbank-Pool gestartet (" + type.name().toLowerCase(Locale.ROOT) + ", "
+                + config.getDatabaseMaxConnections() + " Verbindungen, " + moduleQuota + " je Modul)");
+    }
+    
+    private static ThreadPoolExecutor createExecutor(int threads, int capacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-Database-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    private void registerMetrics() {
+        plugin.getMetricsRegistry().gauge(plugin, "pexora_database_connections", "Verbindungen des Datenbank-Pools",
+                pool::getActiveCount, "state", "active");
+        plugin.getMetricsRegistry().gauge(plugin, "pexora_database_connections", "Verbindungen des Datenbank-Pools",
+                pool::getIdleCount, "state", "idle");
+        plugin.getMetricsRegistry().gauge(plugin, "pexora_database_queue_depth", "Wartende Datenbankaufträge",
+                this::getPendingCount);
+        plugin.getMetricsRegistry().counter(plugin, "pexora_database_rejected_total", "Abgelehnte Datenbankaufträge",
+                rejected::sum);
+        plugin.getMetricsRegistry().counter(plugin, "pexora_database_slow_queries_total", "Langsame Datenbankabfragen",
+                stats::getSlowCount);
+        plugin.getMetricsRegistry().gauge(plugin, "pexora_database_writebehind_pending", "Wartende Einträge der Write-Behind-Warteschlangen",
+                () -> sumWriteQueues(WriteBehindQueue::getPendingCount));
+        String help = "Einträge der Write-Behind-Warteschlangen";
+        plugin.getMetricsRegistry().counter(plugin, "pexora_database_writebehind_entries_total", help,
+                () -> sumWriteQueues(WriteBehindQueue::getWrittenCount), "result", "written");
+        plugin.getMetricsRegistry().counter(plugin, "pexora_database_writebehind_entries_total", help,
+                () -> sumWriteQueues(WriteBehindQueue::getCoalescedCount), "result", "coalesced");
+        plugin.getMetricsRegistry().counter(plugin, "pexora_database_writebehind_entries_total", help,
+                () -> sumWriteQueues(WriteBehindQueue::getFlushedCount), "result", "flushed");
+        plugin.getMetricsRegistry().counter(plugin, "pexora_database_writebehind_entries_total", help,
+                () -> sumWriteQueues(WriteBehindQueue::getJournaledCount), "result", "journaled");
+    }
+    
+    private long sumWriteQueues(ToLongFunction<WriteBehindQueue> value) {
+        long sum = 0;
+        for (WriteBehindQueue queue : writeQueues) {
+            sum += value.applyAsLong(queue);
+        }
+        return sum;
+    }
+    
+    /**
+     * Führt Arbeit mit einer Verbindung aus dem Pool aus. Die Verbindung ist im Auto-Commit-Modus
+     * und wird danach automatisch zurückgegeben.
+     * 
+     * @param owner Das Modul, dem der Auftrag zugerechnet wird
+     * @param work Die Arbeit
+     * @return Die Future mit dem Ergebnis
+     */
+    public <T> CompletableFuture<T> withConnection(Plugin owner, SqlFunction<T> work) {
+        return submit(owner, CONNECTION_LABEL, work);
+    }
+    
+    /**
+     * Führt Arbeit in einer Transaktion aus. Wirft die Arbeit eine Exception, wird die Transaktion
+     * zurückgerollt, sonst bestätigt.
+     * 
+     * @param owner Das Modul, dem der Auftrag zugerechnet wird
+     * @param work Die Arbeit
+     * @return Die Future mit dem Ergebnis
+     */
+    public <T> CompletableFuture<T> transaction(Plugin owner, SqlFunction<T> work) {
+        return submit(owner, CONNECTION_LABEL, connection -> {
+            connection.setAutoCommit(false);
+            T result = work.apply(connection);
+            connection.commit();
+            return result;
+        });
+    }
+    
+    /**
+     * Führt eine Abfrage als PreparedStatement aus
+     * 
+     * @param owner Das Modul, dem die Abfrage zugerechnet wird
+     * @param sql Das Statement mit Platzhaltern "?"
+     * @param mapper Liest das Ergebnis
+     * @param params Die Werte der Platzhalter
+     * @return Die Future mit dem gelesenen Ergebnis
+     */
+    public <T> CompletableFuture<T> query(Plugin owner, String sql, ResultMapper<T> mapper, Object... params) {
+        return submit(owner, sql, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, params);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return mapper.map(resultSet);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Führt ein INSERT, UPDATE oder DELETE als PreparedStatement aus
+     * 
+     * @param owner Das Modul, dem das Statement zugerechnet wird
+     * @param sql Das Statement mit Platzhaltern "?"
+     * @param params Die Werte der Platzhalter
+     * @return Die Future mit der Anzahl der geänderten Zeilen
+     */
+    public CompletableFuture<Integer> update(Plugin owner, String sql, Object... params) {
+        return submit(owner, sql, connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, params);
+                return statement.executeUpdate();
+            }
+        });
+    }
+    
+    /**
+     * Erstellt eine Warteschlange für gepufferte Schreibzugriffe mit einem festen Statement.
+     * Einträge, die beim letzten Mal nicht geschrieben werden konnten, werden aus dem Journal übernommen;
+     * wird eine gleichnamige Warteschlange einer früheren Instanz des Moduls noch freigegeben, erst danach.
+     * 
+     * @param owner Das Modul, dem die Warteschlange gehört; sie wird beim Deaktivieren des Moduls geschrieben und geschlossen
+     * @param name Der Name der Warteschlange, eindeutig pro Modul (Kleinbuchstaben, Ziffern, "-" und "_")
+     * @param sql Das Statement mit Platzhaltern "?", z.B. ein INSERT ... ON DUPLICATE KEY UPDATE
+     * @return Die Warteschlange
+     * @throws IllegalArgumentException Wenn der Name ungültig oder für das Modul bereits vergeben ist
+     */
+    public WriteBehindQueue createWriteBehindQueue(Plugin owner, String name, String sql) {
+        if (!QUEUE_NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Ungültiger Name für eine Write-Behind-Warteschlange: " + name);
+        }
+        synchronized (writeQueues) {
+            WriteBehindQueue predecessor = null;
+            for (WriteBehindQueue queue : writeQueues) {
+                if (queue.getOwner() == owner && queue.getName().equals(name)) {
+                    throw new IllegalArgumentException("Write-Behind-Warteschlange " + name + " ist für " + owner.getName() + " bereits registriert");
+                }
+                if (isSameJournal(queue, owner, name)) {
+                    predecessor = queue;
+                }
+            }
+            for (WriteBehindQueue queue : releasing) {
+                if (isSameJournal(queue, owner, name)) {
+                    predecessor = queue;
+                }
+            }
+            
+            // Eine ältere Instanz des Moduls nutzt dieselben Dateien, bis sie freigegeben ist; beide
+            // Warteschlangen teilen sich deshalb das Journal, die neue übernimmt es erst danach
+            WriteBehindQueue queue;
+            if (predecessor != null) {
+                queue = new WriteBehindQueue(plugin, this, owner, name, sql, predecessor.getJournal(), predecessor.getReleased());
+            } else {
+                File directory = new File(new File(plugin.getDataFolder(), "journal"), owner.getName());
+                queue = new WriteBehindQueue(plugin, this, owner, name, sql, new WriteJournal(directory, name), null);
+            }
+            writeQueues.add(queue);
+            return queue;
+        }
+    }
+    
+    private static boolean isSameJournal(WriteBehindQueue queue, Plugin owner, String name) {
+        return queue.getOwner() != owner && queue.getOwner().getName().equals(owner.getName()) && queue.getName().equals(name);
+    }
+    
+    private void flushWriteQueues() {
+        for (WriteBehindQueue queue : writeQueues) {
+            queue.flush();
+        }
+    }
+    
+    private static void bind(PreparedStatement statement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+    
+    <T> CompletableFuture<T> submit(Plugin owner, String label, SqlFunction<T> work) {
+        Task<T> task = new Task<>(owner, label, work);
+        boolean dispatch;
+        synchronized (queues) {
+            if (executor.isShutdown()) {
+                task.future.completeExceptionally(new RejectedExecutionException("Der Datenbank-Pool ist geschlossen"));
+                return task.future;
+            }
+            
+            ModuleQueue queue = queues.computeIfAbsent(owner, key -> new ModuleQueue());
+            dispatch = queue.running < moduleQuota;
+            if (dispatch) {
+                queue.running++;
+            } else if (pendingCount >= queueCapacity) {
+                rejected.increment();
+                task.future.completeExceptionally(new RejectedExecutionException("Die Warteschlange der Datenbank ist voll"));
+                return task.future;
+            } else {
+                queue.pending.add(task);
+                pendingCount++;
+            }
+        }
+        
+        if (dispatch) {
+            dispatch(task);
+        }
+        return task.future;
+    }
+    
+    private void dispatch(Task<?> task) {
+        try {
+            executor.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            task.future.completeExceptionally(e);
+            next(task.owner);
+        }
+    }
+    
+    private <T> void run(Task<T> task) {
+        try {
+            // Von einem deaktivierten Modul abgebrochene Aufträge brauchen keine Verbindung mehr
+            if (task.future.isDone()) {
+                return;
+            }
+            
+            ConnectionPool.Pooled pooled;
+            try {
+                pooled = pool.acquire();
+            } catch (SQLException e) {
+                fail(task, e);
+                return;
+            }
+            
+            T result = null;
+            Throwable error = null;
+            boolean broken = false;
+            long start = System.nanoTime();
+            try {
+                result = task.work.apply(pooled.connection);
+            } catch (Throwable e) {
+                error = e;
+                broken = isConnectionError(e, pooled.connection);
+            } finally {
+                record(task, System.nanoTime() - start);
+                pool.release(pooled, broken);
+            }
+            
+            // Erst nach der Rückgabe, damit die Verbindung beim Abschluss der Future wieder frei ist
+            if (error == null) {
+                task.future.complete(result);
+            } else {
+                fail(task, error);
+            }
+        } finally {
+            next(task.owner);
+        }
+    }
+    
+    private void next(Plugin owner) {
+        Task<?> next;
+        synchronized (queues) {
+            ModuleQueue queue = queues.get(owner);
+            if (queue == null) {
+                return;
+            }
+            next = queue.pending.poll();
+            if (next != null) {
+                pendingCount--;
+            } else if (--queue.running == 0) {
+                queues.remove(owner);
+            }
+        }
+        
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+    
+    private void record(Task<?> task, long nanos) {
+        String owner = task.owner.getName();
+        // Die Zeitreihe gehört dem Modul, damit sie mit ihm aus der Registry verschwindet
+        histograms.computeIfAbsent(owner, name -> plugin.getMetricsRegistry().histogram(task.owner, QUERY_METRIC,
+                "Laufzeit der Datenbankabfragen je Modul", "module", name)).record(nanos);
+        
+        if (stats.record(owner, task.label, nanos)) {
+            long now = System.currentTimeMillis();
+            if (now - lastSlowWarning >= SLOW_QUERY_WARN_INTERVAL_MILLIS) {
+                lastSlowWarning = now;
+                plugin.getLoggerService().warn("Langsame Datenbankabfrage von " + owner + " ("
+                        + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms): " + task.label);
+            }
+        }
+    }
+    
+    private void fail(Task<?> task, Throwable e) {
+        failed.increment();
+        if (plugin.getCoreConfig().isDebugMode()) {
+            plugin.getLoggerService().debug("Datenbankauftrag von " + task.owner.getName() + " fehlgeschlagen: " + e.getMessage());
+        }
+        task.future.completeExceptionally(e);
+    }
+    
+    private static boolean isConnectionError(Throwable e, Connection connection) {
+        if (e instanceof SQLException) {
+            // SQL-State-Klasse 08: Verbindungsfehler
+            String state = ((SQLException) e).getSQLState();
+            if (state != null && state.startsWith("08")) {
+                return true;
+            }
+        }
+        try {
+            return connection.isClosed();
+        } catch (SQLException ex) {
+            return true;
+        }
+    }
+    
+    /**
+     * Bukkit meldet das Deaktivieren vor onDisable des Moduls, das dort oft noch Daten speichert.
+     * Die Warteschlangen werden daher erst im nächsten Tick und asynchron freigegeben; Module des
+     * ModuleLoaders gibt dieser direkt nach dem Deaktivieren frei.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        Plugin owner = event.getPlugin();
+        if (owner != plugin && plugin.isEnabled()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> release(owner));
+        }
+    }
+    
+    /**
+     * Gibt ein deaktiviertes Modul frei: Seine Write-Behind-Warteschlangen werden begrenzt lange geschrieben
+     * (Rest ins Journal) und geschlossen, danach werden seine übrigen wartenden Aufträge abgebrochen.
+     * 
+     * Im laufenden Betrieb geschieht das asynchron, damit der Server-Thread nicht auf die Datenbank wartet;
+     * nur während der Core selbst deaktiviert wird, wird direkt geschrieben.
+     * 
+     * @param owner Das Modul
+     */
+    public void release(Plugin owner) {
+        List<WriteBehindQueue> released = new ArrayList<>();
+        synchronized (writeQueues) {
+            for (WriteBehindQueue queue : writeQueues) {
+                if (queue.getOwner() == owner) {
+                    released.add(queue);
+                }
+            }
+            writeQueues.removeAll(released);
+            releasing.addAll(released);
+        }
+        
+        if (!released.isEmpty() && plugin.isEnabled()) {
+            try {
+                plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> finishRelease(owner, released));
+                return;
+            } catch (RuntimeException e) {
+                // Der Core wird gerade deaktiviert
+            }
+        }
+        finishRelease(owner, released);
+    }
+    
+    private void finishRelease(Plugin owner, List<WriteBehindQueue> released) {
+        drain(released);
+        releasing.removeAll(released);
+        
+        List<Task<?>> cancelled;
+        synchronized (queues) {
+            ModuleQueue queue = queues.get(owner);
+            if (queue == null) {
+                cancelled = List.of();
+            } else {
+                cancelled = List.copyOf(queue.pending);
+                pendingCount -= queue.pending.size();
+                queue.pending.clear();
+            }
+        }
+        for (Task<?> task : cancelled) {
+            task.future.cancel(false);
+        }
+        
+        if (histograms.remove(owner.getName()) != null) {
+            plugin.getMetricsRegistry().unregister(owner, QUERY_METRIC, "module", owner.getName());
+        }
+        stats.forget(owner.getName());
+        if (!cancelled.isEmpty()) {
+            plugin.getLoggerService().debug(cancelled.size() + " wartende Datenbankaufträge von " + owner.getName() + " abgebrochen");
+        }
+    }
+    
+    /**
+     * Beendet den Thread-Pool, wartet kurz auf laufende Aufträge und schließt alle Verbindungen
+     */
+    public void close() {
+        flushTask.cancel();
+        List<WriteBehindQueue> remaining;
+        synchronized (writeQueues) {
+            remaining = new ArrayList<>(writeQueues);
+            writeQueues.clear();
+            // Noch nicht fertig freigegebene Warteschlangen ebenfalls abschließen, bevor die Verbindungen schließen
+            remaining.addAll(releasing);
+        }
+        drain(remaining);
+        
+        synchronized (queues) {
+            executor.shutdown();
+        }
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                plugin.getLoggerService().warn("Datenbankaufträge nach " + SHUTDOWN_TIMEOUT_MILLIS + " ms nicht beendet, Verbindungen werden geschlossen");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.close();
+    }
+    
+    private void drain(List<WriteBehindQueue> writeQueues) {
+        if (writeQueues.isEmpty()) {
+            return;
+        }
+        // Alle Warteschlangen teilen sich die Wartezeit, damit das Herunterfahren begrenzt bleibt
+        long deadline = System.currentTimeMillis() + plugin.getCoreConfig().getWriteBehindDrainTimeoutMillis();
+        for (WriteBehindQueue queue : writeQueues) {
+            queue.drain(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+    
+    /**
+     * @return ein Executor, der Aufgaben im nächsten Tick im Server-Thread ausführt
+     */
+    public Executor getMainThreadExecutor() {
+        return mainThreadExecutor;
+    }
+    
+    /**
+     * @return der Typ der Datenbank
+     */
+    public DatabaseType getType() {
+        return type;
+    }
+    
+    /**
+     * @return die Laufzeiten der Abfragen
+     */
+    public QueryStats getQueryStats() {
+        return stats;
+    }
+    
+    ConnectionPool getPool() {
+        return pool;
+    }
+    
+    /**
+     * @return die Anzahl der Aufträge, die auf eine freie Quote ihres Moduls warten
+     */
+    public int getPendingCount() {
+        synchronized (queues) {
+            return pendingCount;
+        }
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Typ", type.name().toLowerCase(Locale.ROOT));
+        status.put("Verbindungen", pool.getActiveCount() + " aktiv, " + pool.getIdleCount() + " frei, "
+                + pool.getMaxConnections() + " maximal");
+        status.put("Abfragen", stats.getQueryCount() + " (" + stats.getSlowCount() + " langsam, " + failed.sum() + " fehlgeschlagen)");
+        status.put("Warteschlange", getPendingCount() + " wartend, " + rejected.sum() + " abgelehnt");
+        status.put("Timeouts", String.valueOf(pool.getTimeoutCount()));
+        if (!writeQueues.isEmpty()) {
+            long written = sumWriteQueues(WriteBehindQueue::getWrittenCount);
+            long coalesced = sumWriteQueues(WriteBehindQueue::getCoalescedCount);
+            status.put("Write-Behind", writeQueues.size() + " Warteschlangen, " + sumWriteQueues(WriteBehindQueue::getPendingCount)
+                    + " wartend, " + (written > 0 ? coalesced * 100 / written : 0) + "% zusammengefasst, "
+                    + sumWriteQueues(WriteBehindQueue::getJournaledCount) + " im Journal");
+        }
+        
+        List<QueryStats.Entry> slowest = stats.getSlowest(3);
+        for (int i = 0; i < slowest.size(); i++) {
+            QueryStats.Entry entry = slowest.get(i);
+            status.put("Langsam #" + (i + 1), entry.getOwner() + ": " + entry.getSlowCount() + "x, max "
+                    + TimeUnit.NANOSECONDS.toMillis(entry.getMaxNanos()) + " ms - " + abbreviate(entry.getSql()));
+        }
+        return status;
+    }
+    
+    private static String abbreviate(String sql) {
+        String text = sql.replaceAll("\\s+", " ").trim();
+        return text.length() > 60 ? text.substring(0, 57) + "..." : text;
+    }
+    
+    /**
+     * Wartende Aufträge und belegte Quote eines Moduls
+     */
+    private static final class ModuleQueue {
+        
+        private final ArrayDeque<Task<?>> pending = new ArrayDeque<>();
+        private int running;
+    }
+    
+    private static final class Task<T> {
+        
+        private final Plugin owner;
+        private final String label;
+        private final SqlFunction<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        
+        private Task(Plugin owner, String label, SqlFunction<T> work) {
+            this.owner = owner;
+            this.label = label;
+            this.work = work;
+        }
+    }
+}
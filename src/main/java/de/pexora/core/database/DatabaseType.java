@@ -0,0 +1,96 @@
+package de.pexora.core.database;
+
+import java.io.File;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Die unterstützten Datenbanken und wie ihre JDBC-URL gebildet wird
+ */
+public enum DatabaseType {
+
+    MYSQL("com.mysql.cj.jdbc.Driver", "com.mysql.jdbc.Driver"),
+    H2("org.h2.Driver"),
+    SQLITE("org.sqlite.JDBC");
+    
+    private final String[] driverClasses;
+    
+    DatabaseType(String... driverClasses) {
+        this.driverClasses = driverClasses;
+    }
+    
+    /**
+     * @param name Der Name aus der config.yml, z.B. "mysql"
+     * @return Der Typ
+     * @throws IllegalArgumentException Wenn der Typ unbekannt ist
+     */
+    public static DatabaseType fromName(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unbekannter Datenbanktyp: " + name + " (erlaubt: mysql, h2, sqlite)");
+        }
+    }
+    
+    /**
+     * Lädt den JDBC-Treiber. MySQL und SQLite bringt der Server mit, H2 muss als Bibliothek vorhanden sein.
+     * 
+     * @param classLoader Der ClassLoader, über den der Treiber gesucht wird
+     * @return ob ein Treiber geladen wurde
+     */
+    boolean loadDriver(ClassLoader classLoader) {
+        for (String driverClass : driverClasses) {
+            try {
+                Class.forName(driverClass, true, classLoader);
+                return true;
+            } catch (ClassNotFoundException e) {
+                // Nächsten Treibernamen versuchen
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Bildet die JDBC-URL
+     * 
+     * @param host Der Host (nur MySQL)
+     * @param port Der Port (nur MySQL)
+     * @param name Der Name der Datenbank bzw. der Datei
+     * @param dataFolder Der Ordner für dateibasierte Datenbanken
+     * @return Die URL
+     */
+    String buildUrl(String host, int port, String name, File dataFolder) {
+        switch (this) {
+            case H2:
+                // Der MySQL-Modus erlaubt den Modulen dieselben Statements wie auf dem Server
+                return "jdbc:h2:file:" + new File(dataFolder, name).getAbsolutePath() + ";MODE=MySQL";
+            case SQLITE:
+                return "jdbc:sqlite:" + new File(dataFolder, name + ".db").getAbsolutePath();
+            default:
+                return "jdbc:mysql://" + host + ":" + port + "/" + name
+                        + "?useUnicode=true&characterEncoding=utf8&rewriteBatchedStatements=true&cachePrepStmts=true";
+        }
+    }
+    
+    /**
+     * Bildet die Eigenschaften für den Verbindungsaufbau. Die Zeitgrenze wird über die Eigenschaften
+     * des Treibers gesetzt, da {@code DriverManager.setLoginTimeout} für die ganze JVM gelten würde.
+     * 
+     * @param user Der Benutzer (nur MySQL)
+     * @param password Das Passwort (nur MySQL)
+     * @param connectTimeoutMillis Wie lange der Aufbau einer Verbindung höchstens dauern darf
+     * @return Die Eigenschaften für {@code DriverManager.getConnection}
+     */
+    Properties connectionProperties(String user, String password, long connectTimeoutMillis) {
+        Properties properties = new Properties();
+        if (this == MYSQL) {
+            if (user != null && !user.isEmpty()) {
+                properties.setProperty("user", user);
+                properties.setProperty("password", password != null ? password : "");
+            }
+            properties.setProperty("connectTimeout", String.valueOf(connectTimeoutMillis));
+        }
+        // H2 und SQLite öffnen eine lokale Datei und bauen keine Netzwerkverbindung auf
+        return properties;
+    }
+}
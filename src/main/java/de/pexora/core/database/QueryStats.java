@@ -0,0 +1,147 @@
+package de.pexora.core.database;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Laufzeiten der Datenbankabfragen je Modul und Statement.
+ * 
+ * Die Anzahl der unterschiedlichen Statements ist begrenzt, damit Module mit zusammengesetztem SQL
+ * den Speicher nicht füllen; weitere Statements eines Moduls werden unter {@link #OTHER} gezählt.
+ */
+public final class QueryStats {
+
+    /**
+     * Sammeleintrag für Statements über der Obergrenze
+     */
+    public static final String OTHER = "<weitere>";
+    
+    private static final int MAX_STATEMENTS = 256;
+    
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long slowNanos;
+    
+    QueryStats(long slowNanos) {
+        this.slowNanos = slowNanos;
+    }
+    
+    /**
+     * Erfasst eine Abfrage
+     * 
+     * @param owner Der Name des Moduls
+     * @param sql Das Statement
+     * @param nanos Die Laufzeit in Nanosekunden
+     * @return true, wenn die Abfrage als langsam gilt
+     */
+    boolean record(String owner, String sql, long nanos) {
+        String key = owner + '\n' + sql;
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            String target = entries.size() < MAX_STATEMENTS ? sql : OTHER;
+            entry = entries.computeIfAbsent(owner + '\n' + target, k -> new Entry(owner, target));
+        }
+        
+        boolean slow = nanos >= slowNanos;
+        entry.count.increment();
+        entry.totalNanos.add(nanos);
+        entry.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (slow) {
+            entry.slowCount.increment();
+        }
+        return slow;
+    }
+    
+    /**
+     * Entfernt die Einträge eines Moduls
+     * 
+     * @param owner Der Name des Moduls
+     */
+    void forget(String owner) {
+        entries.values().removeIf(entry -> entry.owner.equals(owner));
+    }
+    
+    /**
+     * @param limit Die maximale Anzahl
+     * @return die Statements mit den meisten langsamen Ausführungen, absteigend
+     */
+    public List<Entry> getSlowest(int limit) {
+        List<Entry> slowest = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.getSlowCount() > 0) {
+                slowest.add(entry);
+            }
+        }
+        slowest.sort(Comparator.comparingLong(Entry::getSlowCount).thenComparingLong(Entry::getMaxNanos).reversed());
+        return slowest.size() > limit ? new ArrayList<>(slowest.subList(0, limit)) : slowest;
+    }
+    
+    /**
+     * @return die Anzahl aller erfassten Abfragen
+     */
+    public long getQueryCount() {
+        long count = 0;
+        for (Entry entry : entries.values()) {
+            count += entry.getCount();
+        }
+        return count;
+    }
+    
+    /**
+     * @return die Anzahl aller langsamen Abfragen
+     */
+    public long getSlowCount() {
+        long count = 0;
+        for (Entry entry : entries.values()) {
+            count += entry.getSlowCount();
+        }
+        return count;
+    }
+    
+    /**
+     * Laufzeiten eines Statements
+     */
+    public static final class Entry {
+        
+        private final String owner;
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder slowCount = new LongAdder();
+        
+        private Entry(String owner, String sql) {
+            this.owner = owner;
+            this.sql = sql;
+        }
+        
+        public String getOwner() {
+            return owner;
+        }
+        
+        public String getSql() {
+            return sql;
+        }
+        
+        public long getCount() {
+            return count.sum();
+        }
+        
+        public long getAverageNanos() {
+            long calls = count.sum();
+            return calls > 0 ? totalNanos.sum() / calls : 0;
+        }
+        
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+        
+        public long getSlowCount() {
+            return slowCount.sum();
+        }
+    }
+}
@@ -0,0 +1,478 @@
+package de.pexora.core.database;
+
+import de.pexora.core.PexoraCore;
+import org.bukkit.plugin.Plugin;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gepufferte Schreibzugriffe eines Moduls mit einem festen Statement, z.B. einem Upsert der Spielerdaten.
+ * 
+ * Statt bei jeder Änderung eine Zeile einzeln zu schreiben, merkt sich die Warteschlange pro Schlüssel
+ * nur den letzten Stand. Im Intervall aus der config.yml oder sobald {@link de.pexora.core.config.CoreConfig#getWriteBehindBatchSize()}
+ * Einträge warten, werden alle Einträge in einer Transaktion als JDBC-Batch geschrieben.
+ * <pre>
+ * WriteBehindQueue coins = database.createWriteBehindQueue(this, "coins",
+ *         "INSERT INTO konto (uuid, coins) VALUES (?, ?) ON DUPLICATE KEY UPDATE coins = VALUES(coins)");
+ * coins.write(uuid.toString(), uuid, amount);
+ * </pre>
+ * 
+ * Schlägt das Schreiben fehl, bleiben die Einträge in der Warteschlange und werden beim nächsten Mal
+ * erneut versucht; neuere Werte desselben Schlüssels gehen dabei vor. Wird die Warteschlange zu groß
+ * oder das Modul deaktiviert, bevor alles geschrieben ist, landen die Einträge im Journal und werden
+ * nach dem nächsten erfolgreichen Schreiben bzw. beim nächsten Start nachgeholt. Schlüssel, die seit
+ * dem Schreiben ins Journal neu geschrieben wurden, werden dabei übersprungen, damit ein alter Stand
+ * keinen neueren überschreibt.
+ */
+public final class WriteBehindQueue {
+
+    private static final long FAILURE_WARN_INTERVAL_MILLIS = 10_000L;
+    
+    private final PexoraCore plugin;
+    private final Database database;
+    private final Plugin owner;
+    private final String name;
+    private final String sql;
+    private final WriteJournal journal;
+    private final int batchSize;
+    private final int maxPending;
+    
+    // Zugriff nur unter der Sperre von lock
+    private final Object lock = new Object();
+    private LinkedHashMap<String, Object[]> pending = new LinkedHashMap<>();
+    private Map<String, Object[]> inFlight;
+    private boolean inFlightJournaled;
+    private boolean flushing;
+    private boolean replayPending;
+    private boolean closed;
+    // Schlüssel, die seit dem letzten Schreiben ins Journal neu geschrieben wurden
+    private final Set<String> superseded = new HashSet<>();
+    private boolean trackSuperseded;
+    private long spills;
+    
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private final CompletableFuture<Void> released;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder journaled = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long lastFailureWarning;
+    
+    /**
+     * @param predecessor Die Freigabe einer älteren Warteschlange auf demselben Journal, z.B. nach dem Neuladen
+     *                    des Moduls; das Journal wird erst danach übernommen. {@code null}, wenn es keine gibt
+     */
+    WriteBehindQueue(PexoraCore plugin, Database database, Plugin owner, String name, String sql, WriteJournal journal,
+                     CompletableFuture<Void> predecessor) {
+        this.plugin = plugin;
+        this.database = database;
+        this.owner = owner;
+        this.name = name;
+        this.sql = sql;
+        this.journal = journal;
+        this.batchSize = plugin.getCoreConfig().getWriteBehindBatchSize();
+        this.maxPending = plugin.getCoreConfig().getWriteBehindMaxPending();
+        this.released = predecessor == null ? drained : CompletableFuture.allOf(drained, predecessor);
+        if (predecessor == null) {
+            recover();
+        } else {
+            // Bis dahin geschriebene Schlüssel sind neuer als alles, was die ältere Warteschlange ins Journal schreibt
+            trackSuperseded = true;
+            predecessor.whenComplete((result, error) -> recover());
+        }
+    }
+    
+    /**
+     * Merkt einen Eintrag zum Schreiben vor. Ein noch nicht geschriebener Eintrag mit demselben
+     * Schlüssel wird ersetzt. Kehrt sofort zurück und darf aus jedem Thread aufgerufen werden.
+     * 
+     * @param key Der Schlüssel, z.B. die UUID des Spielers
+     * @param params Die Werte der Platzhalter des Statements; Text, Zahlen, Wahrheitswerte, byte[],
+     *               Timestamps, UUIDs und Enums (beide als Text)
+     * @throws IllegalArgumentException Bei einem nicht unterstützten Parametertyp
+     * @throws IllegalStateException Wenn die Warteschlange bereits geschlossen wurde
+     */
+    public void write(String key, Object... params) {
+        Object[] values = WriteJournal.normalize(params);
+        boolean flush;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Write-Behind-Warteschlange " + name + " ist geschlossen");
+            }
+            if (pending.put(key, values) != null) {
+                coalesced.increment();
+            }
+            if (trackSuperseded) {
+                superseded.add(key);
+            }
+            flush = !flushing && pending.size() >= batchSize;
+        }
+        written.increment();
+        
+        if (flush) {
+            flush();
+        }
+    }
+    
+    /**
+     * Schreibt alle wartenden Einträge. Läuft bereits ein Schreibvorgang, passiert nichts.
+     * 
+     * @return Die Future mit der Anzahl der geschriebenen Einträge
+     */
+    public CompletableFuture<Integer> flush() {
+        CompletableFuture<Integer> future = startFlush();
+        return future != null ? future : CompletableFuture.completedFuture(0);
+    }
+    
+    private CompletableFuture<Integer> startFlush() {
+        Map<String, Object[]> batch;
+        boolean replayInBatch;
+        synchronized (lock) {
+            if (flushing || pending.isEmpty()) {
+                return null;
+            }
+            flushing = true;
+            batch = pending;
+            inFlight = batch;
+            replayInBatch = replayPending;
+            pending = new LinkedHashMap<>();
+        }
+        
+        CompletableFuture<Integer> future = database.submit(owner, sql, connection -> executeBatch(connection, batch));
+        return future.whenComplete((count, error) -> onFlushed(batch, replayInBatch, error));
+    }
+    
+    private int executeBatch(Connection connection, Map<String, Object[]> batch) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int count = 0;
+            for (Object[] values : batch.values()) {
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                statement.addBatch();
+                if (++count % batchSize == 0) {
+                    statement.executeBatch();
+                }
+            }
+            if (count % batchSize != 0) {
+                statement.executeBatch();
+            }
+        }
+        connection.commit();
+        return batch.size();
+    }
+    
+    private void onFlushed(Map<String, Object[]> batch, boolean replayInBatch, Throwable error) {
+        if (error == null) {
+            flushed.add(batch.size());
+            synchronized (lock) {
+                // Hat drain() die nachgeholten Einträge bereits erneut ins Journal übernommen, gehört eine
+                // vorhandene Datei zum Nachholen schon einer späteren Warteschlange
+                if (replayInBatch && replayPending) {
+                    journal.finishReplay();
+                    replayPending = false;
+                }
+            }
+            // Nach einem Ausfall ins Journal geschriebene Einträge nachholen, solange die Datenbank erreichbar ist
+            if (journal.hasEntries() && canRecover()) {
+                recover();
+            }
+        } else {
+            failures.increment();
+            warnFailure(batch.size(), error);
+        }
+        
+        Map<String, Object[]> spill = null;
+        boolean spillReplay = false;
+        boolean flushAgain;
+        synchronized (lock) {
+            // Hat drain() eine Kopie des Stapels bereits ins Journal geschrieben, darf er nicht erneut
+            // angehängt werden; er würde dort neuere Werte derselben Schlüssel überdecken
+            if (error != null && !inFlightJournaled) {
+                // Die Einträge kommen zurück, neuere Werte derselben Schlüssel haben Vorrang
+                LinkedHashMap<String, Object[]> merged = new LinkedHashMap<>(batch);
+                merged.putAll(pending);
+                pending = merged;
+                if (closed || pending.size() >= maxPending) {
+                    spill = pending;
+                    spillReplay = replayPending;
+                    pending = new LinkedHashMap<>();
+                    markSpilling(spill);
+                }
+            }
+            inFlight = null;
+            inFlightJournaled = false;
+            flushing = false;
+            flushAgain = error == null && !closed && pending.size() >= batchSize;
+        }
+        
+        if (spill != null) {
+            spill(spill, spillReplay);
+        }
+        if (flushAgain) {
+            flush();
+        }
+    }
+    
+    private boolean canRecover() {
+        synchronized (lock) {
+            return !replayPending && !closed;
+        }
+    }
+    
+    /**
+     * Merkt vor, dass Einträge ins Journal geschrieben werden; ab jetzt geschriebene Schlüssel sind neuer.
+     * Nur unter der Sperre von lock aufrufen.
+     */
+    private void markSpilling(Map<String, Object[]> entries) {
+        trackSuperseded = true;
+        superseded.removeAll(entries.keySet());
+        spills++;
+    }
+    
+    private void recover() {
+        long spillsBefore;
+        synchronized (lock) {
+            if (closed) {
+                // Das Journal bleibt für den nächsten Start liegen
+                return;
+            }
+            spillsBefore = spills;
+        }
+        
+        Map<String, Object[]> entries;
+        try {
+            entries = journal.recover();
+        } catch (IOException e) {
+            plugin.getLoggerService().error("Journal der Write-Behind-Warteschlange " + owner.getName() + "/" + name
+                    + " konnte nicht gelesen werden: " + e.getMessage());
+            return;
+        }
+        int skipped;
+        synchronized (lock) {
+            if (closed) {
+                // Die Einträge liegen weiter in der Datei zum Nachholen
+                return;
+            }
+            // Einträge aus dem Journal sind älter als alles, was seitdem geschrieben wurde, auch als
+            // bereits laufende oder geschriebene Stapel
+            int total = entries.size();
+            entries.keySet().removeAll(superseded);
+            skipped = total - entries.size();
+            if (spills == spillsBefore) {
+                // Sonst liegen schon neue Einträge im Journal, für die die Schlüssel weiter gelten
+                superseded.clear();
+                trackSuperseded = false;
+            }
+            if (!entries.isEmpty()) {
+                LinkedHashMap<String, Object[]> merged = new LinkedHashMap<>(entries);
+                merged.putAll(pending);
+                pending = merged;
+                replayPending = true;
+            }
+        }
+        if (entries.isEmpty()) {
+            journal.finishReplay();
+            return;
+        }
+        if (skipped > 0) {
+            plugin.getLoggerService().debug(skipped + " Einträge aus dem Journal von " + owner.getName() + "/" + name
+                    + " übersprungen, sie wurden seitdem neu geschrieben");
+        }
+        plugin.getLoggerService().info(entries.size() + " Einträge aus dem Journal von " + owner.getName() + "/" + name + " werden nachgeholt");
+    }
+    
+    /**
+     * @param entries Die Einträge
+     * @param containsReplay ob alle noch nicht geschriebenen Einträge aus dem Journal darunter sind
+     */
+    private void spill(Map<String, Object[]> entries, boolean containsReplay) {
+        try {
+            journal.append(entries);
+            journaled.add(entries.size());
+            if (containsReplay) {
+                // Das Journal enthält jetzt auch die nachgeholten Einträge, die noch im Speicher waren
+                journal.finishReplay();
+                synchronized (lock) {
+                    replayPending = false;
+                }
+            }
+            plugin.getLoggerService().warn(entries.size() + " Einträge von " + owner.getName() + "/" + name
+                    + " ins Journal geschrieben, sie werden später nachgeholt");
+        } catch (IOException e) {
+            plugin.getLoggerService().error("Journal von " + owner.getName() + "/" + name + " konnte nicht geschrieben werden, "
+                    + entries.size() + " Einträge bleiben im Speicher: " + e.getMessage());
+            synchronized (lock) {
+                LinkedHashMap<String, Object[]> merged = new LinkedHashMap<>(entries);
+                merged.putAll(pending);
+                pending = merged;
+            }
+        }
+    }
+    
+    private void warnFailure(int size, Throwable error) {
+        long now = System.currentTimeMillis();
+        if (now - lastFailureWarning >= FAILURE_WARN_INTERVAL_MILLIS) {
+            lastFailureWarning = now;
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            plugin.getLoggerService().warn("Write-Behind-Warteschlange " + owner.getName() + "/" + name + ": " + size
+                    + " Einträge konnten nicht geschrieben werden (" + cause.getMessage() + "), neuer Versuch folgt");
+        }
+    }
+    
+    /**
+     * Schreibt so lange, bis die Warteschlange leer ist oder die Zeit abgelaufen ist, und schließt sie.
+     * Übrige Einträge landen im Journal, ebenso eine Kopie eines noch laufenden Schreibvorgangs; die
+     * Statements sind Upserts, ein doppelt geschriebener Eintrag schadet daher nicht.
+     * 
+     * @param timeoutMillis Die maximale Wartezeit
+     */
+    void drain(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            CompletableFuture<Integer> future = startFlush();
+            if (future == null) {
+                synchronized (lock) {
+                    if (!flushing) {
+                        if (pending.isEmpty()) {
+                            break;
+                        }
+                        continue;
+                    }
+                }
+                // Ein Schreibvorgang aus dem Intervall läuft noch
+                if (remaining <= 0) {
+                    break;
+                }
+                sleep();
+                continue;
+            }
+            
+            try {
+                future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        
+        Map<String, Object[]> rest;
+        boolean restReplay;
+        synchronized (lock) {
+            closed = true;
+            if (flushing && !inFlightJournaled) {
+                // Ob der laufende Schreibvorgang noch gelingt, ist offen; neuere Werte aus pending gehen vor
+                rest = new LinkedHashMap<>(inFlight);
+                rest.putAll(pending);
+                inFlightJournaled = true;
+            } else {
+                rest = pending;
+            }
+            // Nachgeholte Einträge liegen entweder im laufenden Stapel oder in pending, beide sind jetzt in rest
+            restReplay = replayPending;
+            pending = new LinkedHashMap<>();
+            if (!rest.isEmpty()) {
+                markSpilling(rest);
+            }
+        }
+        if (!rest.isEmpty()) {
+            spill(rest, restReplay);
+        }
+        drained.complete(null);
+    }
+    
+    private static void sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    WriteJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * @return die Future, die abgeschlossen wird, sobald diese und alle älteren Warteschlangen auf demselben
+     *         Journal mit {@link #drain(long)} geschlossen wurden
+     */
+    CompletableFuture<Void> getReleased() {
+        return released;
+    }
+    
+    /**
+     * @return das Modul, dem die Warteschlange gehört
+     */
+    public Plugin getOwner() {
+        return owner;
+    }
+    
+    /**
+     * @return der Name der Warteschlange
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return die Anzahl der wartenden Einträge
+     */
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+    
+    /**
+     * @return die Anzahl aller Aufrufe von {@link #write(String, Object...)}
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+    
+    /**
+     * @return die Anzahl der Einträge, die einen noch nicht geschriebenen Eintrag ersetzt haben
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+    
+    /**
+     * @return die Anzahl der in die Datenbank geschriebenen Einträge
+     */
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+    
+    /**
+     * @return die Anzahl der ins Journal geschriebenen Einträge
+     */
+    public long getJournaledCount() {
+        return journaled.sum();
+    }
+    
+    /**
+     * @return die Anzahl der fehlgeschlagenen Schreibvorgänge
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+}
@@ -0,0 +1,284 @@
+package de.pexora.core.database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Lokales Journal einer {@link WriteBehindQueue} für Einträge, die nicht in die Datenbank geschrieben werden konnten.
+ * 
+ * Neue Einträge werden an die Datei "name.journal" angehängt. Zum Nachholen wird sie in "name.replay"
+ * umbenannt und erst gelöscht, wenn ihr Inhalt geschrieben wurde; ein Absturz dazwischen verliert
+ * dadurch nichts. Jeder Eintrag trägt eine CRC32-Prüfsumme, ein abgeschnittenes Ende nach einem
+ * Absturz wird beim Lesen übersprungen. Die Methoden sind synchronisiert, da ein Schreibvorgang und
+ * {@link WriteBehindQueue#drain(long)} gleichzeitig Einträge anhängen können.
+ */
+final class WriteJournal {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte BYTES = 7;
+    private static final byte TIMESTAMP = 8;
+    private static final byte SHORT = 9;
+    private static final byte DECIMAL = 10;
+    
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+    
+    private final File file;
+    private final File replayFile;
+    
+    WriteJournal(File directory, String name) {
+        this.file = new File(directory, name + ".journal");
+        this.replayFile = new File(directory, name + ".replay");
+    }
+    
+    /**
+     * Prüft die Parameter eines Eintrags, damit nur Werte in die Warteschlange gelangen, die das Journal speichern kann
+     * 
+     * @param params Die Parameter
+     * @return Die Parameter, UUIDs und Enums als Text
+     * @throws IllegalArgumentException Bei einem nicht unterstützten Typ
+     */
+    static Object[] normalize(Object[] params) {
+        Object[] values = params.clone();
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value instanceof UUID || value instanceof Enum) {
+                values[i] = value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+            } else if (value != null && !(value instanceof String || value instanceof Integer || value instanceof Long
+                    || value instanceof Double || value instanceof Float || value instanceof Boolean || value instanceof byte[]
+                    || value instanceof Timestamp || value instanceof Short || value instanceof BigDecimal)) {
+                throw new IllegalArgumentException("Nicht unterstützter Parametertyp für Write-Behind: " + value.getClass().getName());
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * @return ob Einträge auf das Nachholen warten
+     */
+    boolean hasEntries() {
+        return file.length() > 0 || replayFile.length() > 0;
+    }
+    
+    /**
+     * Hängt Einträge an das Journal an und schreibt sie auf den Datenträger
+     * 
+     * @param entries Die Einträge nach Schlüssel
+     * @throws IOException Wenn die Datei nicht geschrieben werden konnte
+     */
+    synchronized void append(Map<String, Object[]> entries) throws IOException {
+        File directory = file.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Ordner " + directory + " konnte nicht erstellt werden");
+        }
+        write(file, entries);
+    }
+    
+    private static void write(File target, Map<String, Object[]> entries) throws IOException {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        DataOutputStream recordOut = new DataOutputStream(record);
+        CRC32 crc = new CRC32();
+        try (FileOutputStream stream = new FileOutputStream(target, true)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+            for (Map.Entry<String, Object[]> entry : entries.entrySet()) {
+                record.reset();
+                writeRecord(recordOut, entry.getKey(), entry.getValue());
+                crc.reset();
+                crc.update(record.toByteArray(), 0, record.size());
+                out.writeInt(record.size());
+                out.writeInt((int) crc.getValue());
+                record.writeTo(out);
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+    }
+    
+    /**
+     * Übernimmt das Journal zum Nachholen und liest alle wartenden Einträge. Bei mehrfach vorhandenen
+     * Schlüsseln gilt der zuletzt geschriebene Eintrag.
+     * 
+     * @return Die Einträge nach Schlüssel in Schreibreihenfolge
+     * @throws IOException Wenn die Dateien nicht gelesen oder umbenannt werden konnten
+     */
+    synchronized Map<String, Object[]> recover() throws IOException {
+        Map<String, Object[]> entries = new LinkedHashMap<>();
+        if (replayFile.exists()) {
+            read(replayFile, entries);
+        }
+        if (!file.exists()) {
+            return entries;
+        }
+        
+        if (replayFile.exists()) {
+            // Reste eines früheren Nachholens und neue Einträge zu einer Datei zusammenführen
+            read(file, entries);
+            File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+            Files.deleteIfExists(temp.toPath());
+            write(temp, entries);
+            Files.move(temp.toPath(), replayFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(file.toPath());
+        } else {
+            Files.move(file.toPath(), replayFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            read(replayFile, entries);
+        }
+        return entries;
+    }
+    
+    /**
+     * Löscht die nachgeholten Einträge, nachdem sie geschrieben oder erneut ins Journal übernommen wurden
+     */
+    synchronized void finishReplay() {
+        if (replayFile.exists() && !replayFile.delete()) {
+            replayFile.deleteOnExit();
+        }
+    }
+    
+    private static void read(File source, Map<String, Object[]> entries) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source), 64 * 1024))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) {
+                    throw new IOException("Beschädigter Eintrag in " + source.getName());
+                }
+                
+                byte[] record = new byte[length];
+                try {
+                    int checksum = in.readInt();
+                    in.readFully(record);
+                    crc.reset();
+                    crc.update(record, 0, length);
+                    if ((int) crc.getValue() != checksum) {
+                        return;
+                    }
+                } catch (EOFException e) {
+                    // Beim Absturz abgeschnittener letzter Eintrag
+                    return;
+                }
+                readRecord(new DataInputStream(new ByteArrayInputStream(record)), entries);
+            }
+        }
+    }
+    
+    private static void writeRecord(DataOutputStream out, String key, Object[] values) throws IOException {
+        out.writeUTF(key);
+        out.writeShort(values.length);
+        for (Object value : values) {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String) {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                out.writeByte(STRING);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof byte[]) {
+                out.writeByte(BYTES);
+                out.writeInt(((byte[]) value).length);
+                out.write((byte[]) value);
+            } else if (value instanceof Timestamp) {
+                out.writeByte(TIMESTAMP);
+                out.writeLong(((Timestamp) value).getTime());
+                out.writeInt(((Timestamp) value).getNanos());
+            } else if (value instanceof Short) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) value);
+            } else {
+                out.writeByte(DECIMAL);
+                out.writeUTF(value.toString());
+            }
+        }
+    }
+    
+    private static void readRecord(DataInputStream in, Map<String, Object[]> entries) throws IOException {
+        String key = in.readUTF();
+        Object[] values = new Object[in.readUnsignedShort()];
+        for (int i = 0; i < values.length; i++) {
+            byte type = in.readByte();
+            switch (type) {
+                case NULL:
+                    break;
+                case STRING:
+                case BYTES:
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    values[i] = type == STRING ? new String(bytes, StandardCharsets.UTF_8) : bytes;
+                    break;
+                case INT:
+                    values[i] = in.readInt();
+                    break;
+                case LONG:
+                    values[i] = in.readLong();
+                    break;
+                case DOUBLE:
+                    values[i] = in.readDouble();
+                    break;
+                case FLOAT:
+                    values[i] = in.readFloat();
+                    break;
+                case BOOLEAN:
+                    values[i] = in.readBoolean();
+                    break;
+                case TIMESTAMP:
+                    Timestamp timestamp = new Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    values[i] = timestamp;
+                    break;
+                case SHORT:
+                    values[i] = in.readShort();
+                    break;
+                case DECIMAL:
+                    values[i] = new BigDecimal(in.readUTF());
+                    break;
+                default:
+                    throw new IOException("Unbekannter Typ " + type + " im Journal");
+            }
+        }
+        // Spätere Einträge ersetzen frühere, die Position des Schlüssels rückt nach hinten
+        entries.remove(key);
+        entries.put(key, values);
+    }
+}
@@ -0,0 +1,368 @@
+package de.pexora.core.events;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.profiler.TickProfiler;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verteilt Events an die Handler der Module.
+ * 
+ * Pro Event-Typ und Priorität wird genau ein Listener bei Bukkit registriert, egal wie viele Module
+ * sich für das Event interessieren. Dieser prüft den Event-Typ einmal und ruft dann der Reihe nach die
+ * Handler aus einem vorberechneten Array auf. Beim Hinzufügen und Entfernen wird das Array kopiert,
+ * sodass das Verteilen ohne Sperren auskommt und auch für asynchrone Events sicher ist.
+ * 
+ * Wie bei Bukkit selbst verhindert ein fehlerhafter Handler nicht den Aufruf der übrigen.
+ * Die Handler eines Plugins werden beim Deaktivieren des Plugins automatisch entfernt; der
+ * {@link de.pexora.core.module.ModuleLoader} entfernt sie zusätzlich beim Entladen eines Moduls.
+ * Sind für einen Event-Typ und eine Priorität keine Handler mehr übrig, wird der Bukkit-Listener
+ * wieder aus der {@link HandlerList} entfernt.
+ */
+public class EventDispatcher implements Listener {
+
+    private final PexoraCore plugin;
+    
+    // Wird nur unter der Sperre dieses Objekts verändert; das Verteilen liest nur die Arrays
+    private final Map<Class<? extends Event>, Map<EventPriority, Dispatch>> dispatches = new HashMap<>();
+    
+    public EventDispatcher(PexoraCore plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getStatusAPI().registerStatusProvider("Events", this::getStatusSummary);
+    }
+    
+    /**
+     * Registriert einen Handler
+     * 
+     * @param eventClass Die Event-Klasse
+     * @param priority Die Event-Priorität
+     * @param owner Das Plugin, dem der Handler gehört
+     * @param ignoreCancelled Ob abgebrochene Events ignoriert werden sollen
+     * @param target Der Aufruf des Handlers; erhält nur Events vom Typ eventClass
+     * @return Der registrierte Handler, z.B. zum Entfernen über {@link #unregister(Handler)}
+     */
+    public synchronized Handler register(Class<? extends Event> eventClass, EventPriority priority, Plugin owner,
+                                         boolean ignoreCancelled, Target target) {
+        Map<EventPriority, Dispatch> byPriority = dispatches.computeIfAbsent(eventClass, key -> new EnumMap<>(EventPriority.class));
+        Dispatch dispatch = byPriority.get(priority);
+        if (dispatch == null) {
+            // Erst die HandlerList ermitteln: Events ohne eigene HandlerList werfen hier eine Exception
+            dispatch = new Dispatch(eventClass, priority, getHandlerList(eventClass));
+            dispatch.handlerList.register(dispatch.registration);
+            byPriority.put(priority, dispatch);
+        }
+        
+        Handler handler = new Handler(dispatch, owner, ignoreCancelled, target);
+        Handler[] current = dispatch.handlers;
+        Handler[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = handler;
+        dispatch.handlers = updated;
+        return handler;
+    }
+    
+    /**
+     * Entfernt einen Handler. Der Bukkit-Listener wird abgemeldet, sobald keine Handler mehr übrig sind.
+     * 
+     * @param handler Der Handler
+     * @return true, wenn der Handler registriert war
+     */
+    public synchronized boolean unregister(Handler handler) {
+        Dispatch dispatch = handler.dispatch;
+        Handler[] current = dispatch.handlers;
+        int index = -1;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == handler) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return false;
+        }
+        
+        Handler[] updated = new Handler[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        dispatch.handlers = updated;
+        handler.registered = false;
+        if (updated.length == 0) {
+            removeDispatch(dispatch);
+        }
+        return true;
+    }
+    
+    /**
+     * Entfernt alle Handler eines Plugins
+     * 
+     * @param owner Das Plugin
+     * @return Die Anzahl der entfernten Handler
+     */
+    public synchronized int unregisterAll(Plugin owner) {
+        int removed = 0;
+        for (Dispatch dispatch : allDispatches()) {
+            Handler[] current = dispatch.handlers;
+            List<Handler> kept = new ArrayList<>(current.length);
+            for (Handler handler : current) {
+                if (handler.owner != owner) {
+                    kept.add(handler);
+                } else {
+                    handler.registered = false;
+                }
+            }
+            if (kept.size() == current.length) {
+                continue;
+            }
+            
+            removed += current.length - kept.size();
+            dispatch.handlers = kept.toArray(new Handler[0]);
+            if (kept.isEmpty()) {
+                removeDispatch(dispatch);
+            }
+        }
+        return removed;
+    }
+    
+    private void removeDispatch(Dispatch dispatch) {
+        dispatch.handlerList.unregister(dispatch.registration);
+        Map<EventPriority, Dispatch> byPriority = dispatches.get(dispatch.eventClass);
+        if (byPriority != null) {
+            byPriority.remove(dispatch.priority, dispatch);
+            if (byPriority.isEmpty()) {
+                dispatches.remove(dispatch.eventClass);
+            }
+        }
+    }
+    
+    private List<Dispatch> allDispatches() {
+        List<Dispatch> result = new ArrayList<>();
+        for (Map<EventPriority, Dispatch> byPriority : dispatches.values()) {
+            result.addAll(byPriority.values());
+        }
+        return result;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (event.getPlugin() != plugin) {
+            unregisterAll(event.getPlugin());
+        }
+    }
+    
+    /**
+     * @return die Anzahl der bei Bukkit registrierten Verteiler (Event-Typ und Priorität)
+     */
+    public synchronized int getDispatchCount() {
+        return allDispatches().size();
+    }
+    
+    /**
+     * @return die Anzahl der registrierten Handler
+     */
+    public synchronized int getHandlerCount() {
+        int count = 0;
+        for (Dispatch dispatch : allDispatches()) {
+            count += dispatch.handlers.length;
+        }
+        return count;
+    }
+    
+    /**
+     * @param owner Das Plugin
+     * @return die Anzahl der Handler des Plugins
+     */
+    public synchronized int getHandlerCount(Plugin owner) {
+        int count = 0;
+        for (Dispatch dispatch : allDispatches()) {
+            for (Handler handler : dispatch.handlers) {
+                if (handler.owner == owner) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * @return die Anzahl der Handler je Plugin-Name
+     */
+    public synchronized Map<String, Integer> getHandlerCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Dispatch dispatch : allDispatches()) {
+            for (Handler handler : dispatch.handlers) {
+                counts.merge(handler.owner.getName(), 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+    
+    /**
+     * Ermittelt die HandlerList eines Events auf dieselbe Weise wie Bukkit: über die statische
+     * Methode getHandlerList der Klasse selbst oder der nächsten Oberklasse, die sie deklariert.
+     * 
+     * @param eventClass Die Event-Klasse
+     * @return Die HandlerList
+     * @throws IllegalArgumentException Wenn weder die Klasse noch eine Oberklasse eine HandlerList hat
+     */
+    public static HandlerList getHandlerList(Class<? extends Event> eventClass) {
+        Class<?> current = eventClass;
+        while (current != null && current != Event.class && Event.class.isAssignableFrom(current)) {
+            try {
+                Method method = current.getDeclaredMethod("getHandlerList");
+                method.setAccessible(true);
+                return (HandlerList) method.invoke(null);
+            } catch (NoSuchMethodException e) {
+                current = current.getSuperclass();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException("HandlerList von " + eventClass.getName() + " konnte nicht gelesen werden", e);
+            }
+        }
+        throw new IllegalArgumentException("Event " + eventClass.getName() + " hat keine statische Methode getHandlerList");
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Verteiler", String.valueOf(getDispatchCount()));
+        status.put("Handler", String.valueOf(getHandlerCount()));
+        return status;
+    }
+    
+    /**
+     * Der Aufruf eines Handlers
+     */
+    @FunctionalInterface
+    public interface Target {
+        void call(Event event) throws EventException;
+    }
+    
+    /**
+     * Ein registrierter Handler
+     */
+    public static final class Handler {
+        
+        private final Dispatch dispatch;
+        private final Plugin owner;
+        private final boolean ignoreCancelled;
+        private final Target target;
+        private volatile boolean registered = true;
+        
+        private Handler(Dispatch dispatch, Plugin owner, boolean ignoreCancelled, Target target) {
+            this.dispatch = dispatch;
+            this.owner = owner;
+            this.ignoreCancelled = ignoreCancelled;
+            this.target = target;
+        }
+        
+        /**
+         * Entfernt den Handler
+         * 
+         * @return true, wenn der Handler noch registriert war
+         */
+        public boolean unregister() {
+            return dispatch.dispatcher().unregister(this);
+        }
+        
+        /**
+         * @return ob der Handler noch registriert ist
+         */
+        public boolean isRegistered() {
+            return registered;
+        }
+        
+        /**
+         * @return das Plugin, dem der Handler gehört
+         */
+        public Plugin getOwner() {
+            return owner;
+        }
+        
+        /**
+         * @return die Event-Klasse des Handlers
+         */
+        public Class<? extends Event> getEventClass() {
+            return dispatch.eventClass;
+        }
+        
+        /**
+         * @return die Priorität des Handlers
+         */
+        public EventPriority getPriority() {
+            return dispatch.priority;
+        }
+    }
+    
+    /**
+     * Der Bukkit-Listener für einen Event-Typ und eine Priorität
+     */
+    private final class Dispatch implements Listener {
+        
+        private final Class<? extends Event> eventClass;
+        private final EventPriority priority;
+        private final HandlerList handlerList;
+        private final RegisteredListener registration;
+        private volatile Handler[] handlers = new Handler[0];
+        
+        private Dispatch(Class<? extends Event> eventClass, EventPriority priority, HandlerList handlerList) {
+            this.eventClass = eventClass;
+            this.priority = priority;
+            this.handlerList = handlerList;
+            this.registration = new RegisteredListener(this, this::dispatch, priority, plugin, false);
+        }
+        
+        private EventDispatcher dispatcher() {
+            return EventDispatcher.this;
+        }
+        
+        private void dispatch(Listener ignored, Event event) {
+            // Teilen sich Event-Klassen eine HandlerList, kommen hier auch Events anderer Typen an
+            if (event.getClass() != eventClass && !eventClass.isInstance(event)) {
+                return;
+            }
+            
+            Handler[] current = handlers;
+            Cancellable cancellable = event instanceof Cancellable ? (Cancellable) event : null;
+            TickProfiler profiler = plugin.getProfiler();
+            for (Handler handler : current) {
+                if (handler.ignoreCancelled && cancellable != null && cancellable.isCancelled()) {
+                    continue;
+                }
+                
+                long start = profiler.begin();
+                try {
+                    handler.target.call(event);
+                } catch (EventException e) {
+                    reportFailure(handler, event, e.getCause() != null ? e.getCause() : e);
+                } catch (RuntimeException | LinkageError e) {
+                    reportFailure(handler, event, e);
+                } finally {
+                    profiler.end(handler.owner, start);
+                }
+            }
+        }
+        
+        private void reportFailure(Handler handler, Event event, Throwable error) {
+            plugin.getLoggerService().error("Handler von " + handler.owner.getName() + " für "
+                    + event.getEventName() + " hat einen Fehler verursacht: " + error);
+            if (plugin.getCoreConfig().isDebugMode()) {
+                error.printStackTrace();
+            }
+        }
+    }
+}
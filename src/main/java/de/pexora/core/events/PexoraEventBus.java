@@ -0,0 +1,411 @@
+package de.pexora.core.events;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.events.EventSubscriber;
+import de.pexora.core.api.events.EventSubscription;
+import de.pexora.core.api.events.HandlerMode;
+import de.pexora.core.api.events.PexoraEvent;
+import de.pexora.core.profiler.TickProfiler;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event-Bus für Events zwischen Modulen, z.B. Transaktionen oder Statistik-Updates.
+ * 
+ * Bukkit-Events bleiben bei {@link de.pexora.core.api.events.EventRegistration}; dieser Bus ist für
+ * eigene {@link PexoraEvent}s gedacht, deren Handler nicht auf dem Server-Thread laufen müssen.
+ * Handler laufen entweder direkt beim Veröffentlichen ({@link HandlerMode#SYNC}) oder auf einem
+ * begrenzten Thread-Pool ({@link HandlerMode#ASYNC}). Ist dessen Warteschlange voll, werden asynchrone
+ * Aufrufe verworfen und gezählt, statt den Aufrufer zu blockieren.
+ * 
+ * Pro Event-Klasse wird einmal ein Verteilungsplan berechnet: die passenden Handler nach Priorität
+ * sortiert und nach Modus getrennt. Änderungen an den Abonnements ersetzen alle Pläne auf einmal,
+ * das Veröffentlichen kommt ohne Sperren aus. Handler eines Plugins werden beim Deaktivieren des
+ * Plugins automatisch entfernt.
+ * 
+ * Beispiel:
+ * <pre>
+ * eventBus.subscribe(this, BalanceChangedEvent.class, HandlerMode.ASYNC, event -> stats.update(event));
+ * eventBus.publish(new BalanceChangedEvent(player, balance));
+ * </pre>
+ */
+public class PexoraEventBus implements Listener {
+
+    private static final Comparator<Subscriber> ORDER = Comparator
+            .comparingInt((Subscriber subscriber) -> subscriber.priority.ordinal())
+            .thenComparingLong(subscriber -> subscriber.sequence);
+    private static final long DROP_WARN_INTERVAL_MILLIS = 10_000L;
+    
+    private final PexoraCore plugin;
+    private final ThreadPoolExecutor asyncExecutor;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder asyncDropped = new LongAdder();
+    private volatile Registry registry = new Registry(new Subscriber[0]);
+    private volatile long lastDropWarning;
+    private long nextSequence;
+    
+    public PexoraEventBus(PexoraCore plugin) {
+        this.plugin = plugin;
+        this.asyncExecutor = createAsyncExecutor(plugin.getCoreConfig().getEventBusAsyncThreads(),
+                plugin.getCoreConfig().getEventBusQueueCapacity());
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getStatusAPI().registerStatusProvider("EventBus", this::getStatusSummary);
+    }
+    
+    private static ThreadPoolExecutor createAsyncExecutor(int threads, int capacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-EventBus-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Registriert einen synchronen Handler mit normaler Priorität
+     * 
+     * @param <T> Der Event-Typ
+     * @param owner Das Plugin, dem der Handler gehört
+     * @param eventClass Die Event-Klasse; der Handler erhält auch Events von Unterklassen
+     * @param subscriber Der Handler
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends PexoraEvent> EventSubscription subscribe(Plugin owner, Class<T> eventClass, EventSubscriber<? super T> subscriber) {
+        return subscribe(owner, eventClass, EventPriority.NORMAL, HandlerMode.SYNC, subscriber);
+    }
+    
+    /**
+     * Registriert einen Handler mit normaler Priorität
+     * 
+     * @param <T> Der Event-Typ
+     * @param owner Das Plugin, dem der Handler gehört
+     * @param eventClass Die Event-Klasse; der Handler erhält auch Events von Unterklassen
+     * @param mode Auf welchem Thread der Handler läuft
+     * @param subscriber Der Handler
+     * @return Der Verweis auf den Handler
+     */
+    public <T extends PexoraEvent> EventSubscription subscribe(Plugin owner, Class<T> eventClass, HandlerMode mode,
+                                                               EventSubscriber<? super T> subscriber) {
+        return subscribe(owner, eventClass, EventPriority.NORMAL, mode, subscriber);
+    }
+    
+    /**
+     * Registriert einen Handler
+     * 
+     * @param <T> Der Event-Typ
+     * @param owner Das Plugin, dem der Handler gehört
+     * @param eventClass Die Event-Klasse; der Handler erhält auch Events von Unterklassen
+     * @param priority Die Reihenfolge unter den Handlern desselben Modus (LOWEST zuerst)
+     * @param mode Auf welchem Thread der Handler läuft
+     * @param subscriber Der Handler
+     * @return Der Verweis auf den Handler
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends PexoraEvent> EventSubscription subscribe(Plugin owner, Class<T> eventClass, EventPriority priority,
+                                                                            HandlerMode mode, EventSubscriber<? super T> subscriber) {
+        Subscriber created = new Subscriber(owner, eventClass, priority, mode,
+                (EventSubscriber<PexoraEvent>) subscriber, nextSequence++);
+        Subscriber[] current = registry.subscribers;
+        Subscriber[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = created;
+        Arrays.sort(updated, ORDER);
+        registry = new Registry(updated);
+        return created;
+    }
+    
+    private synchronized boolean unsubscribe(Subscriber subscriber) {
+        if (!subscriber.active) {
+            return false;
+        }
+        
+        subscriber.active = false;
+        List<Subscriber> kept = new ArrayList<>(Arrays.asList(registry.subscribers));
+        kept.remove(subscriber);
+        registry = new Registry(kept.toArray(new Subscriber[0]));
+        return true;
+    }
+    
+    /**
+     * Entfernt alle Handler eines Plugins
+     * 
+     * @param owner Das Plugin
+     * @return Die Anzahl der entfernten Handler
+     */
+    public synchronized int unsubscribeAll(Plugin owner) {
+        Subscriber[] current = registry.subscribers;
+        List<Subscriber> kept = new ArrayList<>(current.length);
+        for (Subscriber subscriber : current) {
+            if (subscriber.owner != owner) {
+                kept.add(subscriber);
+            } else {
+                subscriber.active = false;
+            }
+        }
+        
+        int removed = current.length - kept.size();
+        if (removed > 0) {
+            registry = new Registry(kept.toArray(new Subscriber[0]));
+        }
+        return removed;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        unsubscribeAll(event.getPlugin());
+    }
+    
+    /**
+     * Veröffentlicht ein Event. SYNC-Handler laufen sofort auf dem aufrufenden Thread,
+     * ASYNC-Handler anschließend auf dem Thread-Pool.
+     * 
+     * @param event Das Event
+     */
+    public void publish(PexoraEvent event) {
+        Plan plan = registry.planFor(event.getClass());
+        published.increment();
+        for (Subscriber subscriber : plan.sync) {
+            invoke(subscriber, event);
+        }
+        for (Subscriber subscriber : plan.async) {
+            submit(subscriber, () -> invoke(subscriber, event));
+        }
+    }
+    
+    /**
+     * Veröffentlicht mehrere Events in ihrer Reihenfolge. Jeder ASYNC-Handler erhält alle für ihn
+     * bestimmten Events in einer einzigen Aufgabe, statt eine Aufgabe pro Event.
+     * 
+     * @param events Die Events
+     */
+    public void publishAll(Collection<? extends PexoraEvent> events) {
+        Registry current = registry;
+        Map<Subscriber, List<PexoraEvent>> asyncBatches = new IdentityHashMap<>();
+        Class<?> lastClass = null;
+        Plan plan = null;
+        for (PexoraEvent event : events) {
+            if (event.getClass() != lastClass) {
+                lastClass = event.getClass();
+                plan = current.planFor(lastClass);
+            }
+            for (Subscriber subscriber : plan.sync) {
+                invoke(subscriber, event);
+            }
+            for (Subscriber subscriber : plan.async) {
+                asyncBatches.computeIfAbsent(subscriber, key -> new ArrayList<>()).add(event);
+            }
+        }
+        published.add(events.size());
+        
+        for (Map.Entry<Subscriber, List<PexoraEvent>> batch : asyncBatches.entrySet()) {
+            Subscriber subscriber = batch.getKey();
+            List<PexoraEvent> batchEvents = batch.getValue();
+            submit(subscriber, () -> {
+                for (PexoraEvent event : batchEvents) {
+                    invoke(subscriber, event);
+                }
+            });
+        }
+    }
+    
+    private void submit(Subscriber subscriber, Runnable task) {
+        try {
+            asyncExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            asyncDropped.increment();
+            long now = System.currentTimeMillis();
+            if (now - lastDropWarning >= DROP_WARN_INTERVAL_MILLIS) {
+                lastDropWarning = now;
+                plugin.getLoggerService().warn("Event-Bus ist ausgelastet, Event für " + subscriber.owner.getName()
+                        + " verworfen (insgesamt " + asyncDropped.sum() + ")");
+            }
+        }
+    }
+    
+    private void invoke(Subscriber subscriber, PexoraEvent event) {
+        if (!subscriber.active) {
+            return;
+        }
+        
+        TickProfiler profiler = plugin.getProfiler();
+        long start = profiler.begin();
+        try {
+            subscriber.subscriber.onEvent(event);
+        } catch (RuntimeException e) {
+            plugin.getLoggerService().warn("Handler von " + subscriber.owner.getName() + " für "
+                    + event.getClass().getSimpleName() + " hat einen Fehler verursacht: " + e);
+            if (plugin.getCoreConfig().isDebugMode()) {
+                e.printStackTrace();
+            }
+        } finally {
+            profiler.end(subscriber.owner, start);
+        }
+    }
+    
+    /**
+     * Beendet den Thread-Pool. Bereits eingereihte Aufrufe werden noch abgearbeitet.
+     */
+    public void close() {
+        asyncExecutor.shutdown();
+    }
+    
+    /**
+     * @return die Anzahl der registrierten Handler
+     */
+    public int getSubscriberCount() {
+        return registry.subscribers.length;
+    }
+    
+    /**
+     * @return die Anzahl der veröffentlichten Events seit dem Start
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+    
+    /**
+     * @return die Anzahl der verworfenen asynchronen Aufrufe, weil die Warteschlange voll war
+     */
+    public long getAsyncDroppedCount() {
+        return asyncDropped.sum();
+    }
+    
+    /**
+     * @return die Anzahl der wartenden asynchronen Aufrufe
+     */
+    public int getAsyncQueueDepth() {
+        return asyncExecutor.getQueue().size();
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        int async = 0;
+        Subscriber[] subscribers = registry.subscribers;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.mode == HandlerMode.ASYNC) {
+                async++;
+            }
+        }
+        
+        Map<String, String> status = new LinkedHashMap<>();
+        status.put("Handler", subscribers.length + " (davon " + async + " asynchron)");
+        status.put("Veröffentlicht", String.valueOf(published.sum()));
+        status.put("Warteschlange", getAsyncQueueDepth() + ", verworfen: " + asyncDropped.sum());
+        return status;
+    }
+    
+    /**
+     * Unveränderlicher Stand der Abonnements samt den daraus berechneten Verteilungsplänen
+     */
+    private static final class Registry {
+        
+        private final Subscriber[] subscribers;
+        private final Map<Class<?>, Plan> plans = new ConcurrentHashMap<>();
+        
+        private Registry(Subscriber[] subscribers) {
+            this.subscribers = subscribers;
+        }
+        
+        private Plan planFor(Class<?> eventType) {
+            Plan plan = plans.get(eventType);
+            if (plan == null) {
+                plan = plans.computeIfAbsent(eventType, this::buildPlan);
+            }
+            return plan;
+        }
+        
+        private Plan buildPlan(Class<?> eventType) {
+            // Die Handler sind bereits nach Priorität sortiert
+            List<Subscriber> sync = new ArrayList<>();
+            List<Subscriber> async = new ArrayList<>();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.eventClass.isAssignableFrom(eventType)) {
+                    (subscriber.mode == HandlerMode.ASYNC ? async : sync).add(subscriber);
+                }
+            }
+            return new Plan(sync.toArray(new Subscriber[0]), async.toArray(new Subscriber[0]));
+        }
+    }
+    
+    private static final class Plan {
+        
+        private final Subscriber[] sync;
+        private final Subscriber[] async;
+        
+        private Plan(Subscriber[] sync, Subscriber[] async) {
+            this.sync = sync;
+            this.async = async;
+        }
+    }
+    
+    private final class Subscriber implements EventSubscription {
+        
+        private final Plugin owner;
+        private final Class<? extends PexoraEvent> eventClass;
+        private final EventPriority priority;
+        private final HandlerMode mode;
+        private final EventSubscriber<PexoraEvent> subscriber;
+        private final long sequence;
+        private volatile boolean active = true;
+        
+        private Subscriber(Plugin owner, Class<? extends PexoraEvent> eventClass, EventPriority priority, HandlerMode mode,
+                           EventSubscriber<PexoraEvent> subscriber, long sequence) {
+            this.owner = owner;
+            this.eventClass = eventClass;
+            this.priority = priority;
+            this.mode = mode;
+            this.subscriber = subscriber;
+            this.sequence = sequence;
+        }
+        
+        @Override
+        public boolean unsubscribe() {
+            return PexoraEventBus.this.unsubscribe(this);
+        }
+        
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+        
+        @Override
+        public Plugin getOwner() {
+            return owner;
+        }
+        
+        @Override
+        public Class<? extends PexoraEvent> getEventClass() {
+            return eventClass;
+        }
+        
+        @Override
+        public EventPriority getPriority() {
+            return priority;
+        }
+        
+        @Override
+        public HandlerMode getMode() {
+            return mode;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.ConsoleCommandSender;
 
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * Bietet einheitliche Protokollierungsfunktionalität mit passender Formatierung.
  */
@@ -12,10 +14,14 @@ public class LoggerService {
 
     private final PexoraCore plugin;
     private final ConsoleCommandSender console;
+    private final LongAdder[] messageCounts = new LongAdder[LogLevel.values().length];
     
     public LoggerService(PexoraCore plugin) {
         this.plugin = plugin;
         this.console = Bukkit.getConsoleSender();
+        for (int i = 0; i < messageCounts.length; i++) {
+            messageCounts[i] = new LongAdder();
+        }
     }
     
     /**
@@ -42,7 +48,7 @@ public class LoggerService {
      * @param message Die zu protokollierende Nachricht
      */
     public void info(String message) {
-        console.sendMessage(formatMessage(message, LogLevel.INFO));
+        log(message, LogLevel.INFO);
     }
     
     /**
@@ -51,7 +57,7 @@ public class LoggerService {
      * @param message Die zu protokollierende Nachricht
      */
     public void warn(String message) {
-        console.sendMessage(formatMessage(message, LogLevel.WARN));
+        log(message, LogLevel.WARN);
     }
     
     /**
@@ -60,7 +66,7 @@ public class LoggerService {
      * @param message Die zu protokollierende Nachricht
      */
     public void error(String message) {
-        console.sendMessage(formatMessage(message, LogLevel.ERROR));
+        log(message, LogLevel.ERROR);
     }
     
     /**
@@ -70,10 +76,25 @@ public class LoggerService {
      */
     public void debug(String message) {
         if (plugin.getCoreConfig() != null && plugin.getCoreConfig().isDebugMode()) {
-            console.sendMessage(formatMessage("[DEBUG] " + message, LogLevel.INFO));
+            log("[DEBUG] " + message, LogLevel.INFO);
         }
     }
     
+    private void log(String message, LogLevel level) {
+        messageCounts[level.ordinal()].increment();
+        console.sendMessage(formatMessage(message, level));
+    }
+    
+    /**
+     * Gibt die Anzahl der protokollierten Nachrichten eines Log-Levels seit dem Start zurück
+     * 
+     * @param level Das Log-Level
+     * @return Die Anzahl der Nachrichten
+     */
+    public long getMessageCount(LogLevel level) {
+        return messageCounts[level.ordinal()].sum();
+    }
+    
     /**
      * Formatiert eine Nachricht mit dem entsprechenden Präfix und der passenden Farbe
      * 
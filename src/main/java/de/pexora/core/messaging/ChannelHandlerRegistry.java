@@ -0,0 +1,123 @@
+package de.pexora.core.messaging;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps legacy subchannel names to the handlers of their owning plugins.
+ * 
+ * Binary packets are dispatched through the dense ID array of the
+ * {@link de.pexora.core.messaging.protocol.PacketRegistry}; this registry covers the
+ * string subchannels of the legacy frame format. Every handler belongs to a plugin and
+ * is removed together with all other handlers of that plugin when it is disabled.
+ */
+public class ChannelHandlerRegistry {
+
+    private final Map<String, Registration> handlers = new ConcurrentHashMap<>();
+    
+    /**
+     * Registers a handler that runs on the thread receiving the message (usually the server thread)
+     * 
+     * @param owner The owning plugin
+     * @param subChannel The subchannel name
+     * @param handler The handler
+     * @throws IllegalArgumentException If the subchannel already has a handler
+     */
+    public void register(Plugin owner, String subChannel, SubchannelHandler handler) {
+        register(owner, subChannel, handler, false);
+    }
+    
+    /**
+     * Registers a handler
+     * 
+     * @param owner The owning plugin
+     * @param subChannel The subchannel name
+     * @param handler The handler
+     * @param async Whether the handler runs on the channel executor instead of the receiving thread
+     * @throws IllegalArgumentException If the subchannel already has a handler
+     */
+    public void register(Plugin owner, String subChannel, SubchannelHandler handler, boolean async) {
+        Registration registration = new Registration(owner, handler, async);
+        Registration existing = handlers.putIfAbsent(subChannel, registration);
+        if (existing != null) {
+            throw new IllegalArgumentException("Subchannel '" + subChannel + "' is already handled by " + existing.owner.getName());
+        }
+    }
+    
+    /**
+     * Removes the handler of a subchannel
+     * 
+     * @param subChannel The subchannel name
+     */
+    public void unregister(String subChannel) {
+        handlers.remove(subChannel);
+    }
+    
+    /**
+     * Removes all handlers of a plugin
+     * 
+     * @param owner The owning plugin
+     * @return The number of removed handlers
+     */
+    public int unregisterAll(Plugin owner) {
+        int removed = 0;
+        for (Map.Entry<String, Registration> entry : handlers.entrySet()) {
+            if (entry.getValue().owner == owner && handlers.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * @param subChannel The subchannel name
+     * @return The registration or null if the subchannel has no handler
+     */
+    public Registration get(String subChannel) {
+        return handlers.get(subChannel);
+    }
+    
+    /**
+     * @param owner The owning plugin
+     * @return The number of subchannels handled by the plugin
+     */
+    public int getHandlerCount(Plugin owner) {
+        int count = 0;
+        for (Registration registration : handlers.values()) {
+            if (registration.owner == owner) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * A registered subchannel handler
+     */
+    public static final class Registration {
+        
+        private final Plugin owner;
+        private final SubchannelHandler handler;
+        private final boolean async;
+        
+        private Registration(Plugin owner, SubchannelHandler handler, boolean async) {
+            this.owner = owner;
+            this.handler = handler;
+            this.async = async;
+        }
+        
+        public Plugin getOwner() {
+            return owner;
+        }
+        
+        public SubchannelHandler getHandler() {
+            return handler;
+        }
+        
+        public boolean isAsync() {
+            return async;
+        }
+    }
+}
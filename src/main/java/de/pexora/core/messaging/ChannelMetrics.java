@@ -0,0 +1,173 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Traffic statistics of the Pexora channel, per subchannel or packet type.
+ * 
+ * Counts messages and bytes in both directions and records how long received messages
+ * took to decode and to handle. Only registered subchannels and packet types get their own
+ * entry; everything else is counted as {@link #UNKNOWN}, so spoofed names cannot grow the map.
+ */
+public class ChannelMetrics {
+
+    /**
+     * Entry for messages whose subchannel or packet type has no registered handler
+     */
+    public static final String UNKNOWN = "unknown";
+    
+    private final Map<String, SubchannelStats> stats = new ConcurrentHashMap<>();
+    
+    /**
+     * @param name The subchannel or packet name
+     * @return The statistics, created on first use
+     */
+    public SubchannelStats get(String name) {
+        SubchannelStats existing = stats.get(name);
+        return existing != null ? existing : stats.computeIfAbsent(name, key -> new SubchannelStats());
+    }
+    
+    /**
+     * @return a snapshot of all entries
+     */
+    public Map<String, SubchannelStats> getAll() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(stats));
+    }
+    
+    /**
+     * Clears all statistics
+     */
+    public void reset() {
+        stats.clear();
+    }
+    
+    /**
+     * Summarizes the busiest subchannels for the status output
+     * 
+     * @param limit The maximum number of entries
+     * @return Subchannel name to summary line, busiest first
+     */
+    public Map<String, String> summarize(int limit) {
+        List<Map.Entry<String, SubchannelStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().getTotalMessages(), a.getValue().getTotalMessages()));
+        
+        Map<String, String> summary = new LinkedHashMap<>();
+        for (Map.Entry<String, SubchannelStats> entry : entries) {
+            if (summary.size() >= limit) {
+                break;
+            }
+            summary.put(entry.getKey(), entry.getValue().toString());
+        }
+        return summary;
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format(java.util.Locale.ROOT, "%.1f KB", bytes / 1024.0);
+        }
+        return String.format(java.util.Locale.ROOT, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+    
+    /**
+     * Statistics of one subchannel or packet type
+     */
+    public static final class SubchannelStats {
+        
+        private final LongAdder messagesIn = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder messagesOut = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder slowHandlers = new LongAdder();
+        private final LatencyHistogram decodeTime = new LatencyHistogram();
+        private final LatencyHistogram handlerTime = new LatencyHistogram();
+        private volatile long lastSlowWarning;
+        
+        void recordIn(int bytes) {
+            messagesIn.increment();
+            bytesIn.add(bytes);
+        }
+        
+        void recordOut(int bytes) {
+            messagesOut.increment();
+            bytesOut.add(bytes);
+        }
+        
+        /**
+         * Counts a handler that exceeded the budget
+         * 
+         * @param now The current time in milliseconds
+         * @param warnIntervalMillis The minimum time between two warnings
+         * @return whether a warning should be logged
+         */
+        boolean recordSlowHandler(long now, long warnIntervalMillis) {
+            slowHandlers.increment();
+            if (now - lastSlowWarning < warnIntervalMillis) {
+                return false;
+            }
+            lastSlowWarning = now;
+            return true;
+        }
+        
+        public long getMessagesIn() {
+            return messagesIn.sum();
+        }
+        
+        public long getBytesIn() {
+            return bytesIn.sum();
+        }
+        
+        public long getMessagesOut() {
+            return messagesOut.sum();
+        }
+        
+        public long getBytesOut() {
+            return bytesOut.sum();
+        }
+        
+        public long getTotalMessages() {
+            return messagesIn.sum() + messagesOut.sum();
+        }
+        
+        /**
+         * @return how often a handler exceeded the time budget on the server thread
+         */
+        public long getSlowHandlers() {
+            return slowHandlers.sum();
+        }
+        
+        /**
+         * @return the time from receiving a message until its handler starts
+         */
+        public LatencyHistogram getDecodeTime() {
+            return decodeTime;
+        }
+        
+        /**
+         * @return the time spent in the handler
+         */
+        public LatencyHistogram getHandlerTime() {
+            return handlerTime;
+        }
+        
+        @Override
+        public String toString() {
+            return "in " + getMessagesIn() + " (" + formatBytes(getBytesIn()) + ")"
+                    + ", out " + getMessagesOut() + " (" + formatBytes(getBytesOut()) + ")"
+                    + ", Decode p99 " + LatencyHistogram.formatMillis(decodeTime.getPercentile(99))
+                    + ", Handler p50 " + LatencyHistogram.formatMillis(handlerTime.getPercentile(50))
+                    + " / p99 " + LatencyHistogram.formatMillis(handlerTime.getPercentile(99))
+                    + ", langsam " + getSlowHandlers();
+        }
+    }
+}
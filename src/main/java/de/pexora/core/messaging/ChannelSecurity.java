@@ -0,0 +1,315 @@
+package de.pexora.core.messaging;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticates frames received on the Pexora channel.
+ * 
+ * The secret from {@code channel.security.secret} is only used during the handshake:
+ * 1. The proxy sends "Handshake" with the server name, a random proxy nonce and
+ *    HMAC(secret, "pexora-handshake" | server name | proxy nonce).
+ * 2. The server checks the MAC, picks a random server nonce and derives the session key
+ *    HMAC(secret, "pexora-session" | proxy nonce | server nonce). Its response contains the
+ *    server nonce and HMAC(secret, "pexora-handshake-response" | server name | proxy nonce | server nonce).
+ * 
+ * All other frames carry a trailer of 16 bytes: an 8 byte sequence number that must increase
+ * and the first 8 bytes of HMAC-SHA256(session key, frame | sequence). Session keys are cached
+ * per carrier until the carrier disconnects, so verifying a frame costs a single HMAC. A new
+ * session stays pending until its first valid frame, so a replayed handshake cannot replace
+ * a working session.
+ */
+public class ChannelSecurity {
+
+    /**
+     * Size of the trailer appended to every authenticated frame
+     */
+    public static final int TRAILER_SIZE = 16;
+    
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_SIZE = 8;
+    private static final int NONCE_SIZE = 16;
+    
+    private final SecureRandom random = new SecureRandom();
+    private final Map<UUID, CarrierSessions> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong rejectedFrames = new AtomicLong();
+    private final AtomicLong rejectedHandshakes = new AtomicLong();
+    private volatile byte[] secret;
+    
+    /**
+     * @param secret The shared secret, or an empty string to disable authentication
+     */
+    public ChannelSecurity(String secret) {
+        setSecret(secret);
+    }
+    
+    /**
+     * Changes the shared secret. Existing sessions are discarded if the secret changed.
+     * 
+     * @param secret The shared secret, or an empty string to disable authentication
+     */
+    public void setSecret(String secret) {
+        byte[] updated = secret == null || secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+        if (!Arrays.equals(updated, this.secret)) {
+            this.secret = updated;
+            sessions.clear();
+        }
+    }
+    
+    /**
+     * @return whether frames must be authenticated
+     */
+    public boolean isEnabled() {
+        return secret != null;
+    }
+    
+    /**
+     * Checks a handshake and starts a pending session for the carrier
+     * 
+     * @param carrier The carrier that delivered the handshake
+     * @param serverName The server name sent by the proxy
+     * @param proxyNonce The proxy nonce (hex)
+     * @param mac The handshake MAC (hex)
+     * @return The values for the handshake response, or null if the MAC is invalid
+     */
+    public HandshakeReply acceptHandshake(UUID carrier, String serverName, String proxyNonce, String mac) {
+        byte[] key = secret;
+        if (key == null) {
+            return null;
+        }
+        
+        byte[] expected = hmac(key, "pexora-handshake", serverName, proxyNonce);
+        if (!MessageDigest.isEqual(expected, fromHex(mac))) {
+            rejectedHandshakes.incrementAndGet();
+            return null;
+        }
+        
+        byte[] nonce = new byte[NONCE_SIZE];
+        random.nextBytes(nonce);
+        String serverNonce = toHex(nonce);
+        
+        byte[] sessionKey = hmac(key, "pexora-session", proxyNonce, serverNonce);
+        sessions.computeIfAbsent(carrier, uuid -> new CarrierSessions()).pending = new Session(sessionKey);
+        
+        String proof = toHex(hmac(key, "pexora-handshake-response", serverName, proxyNonce, serverNonce));
+        return new HandshakeReply(serverNonce, proof);
+    }
+    
+    /**
+     * Verifies the trailer of a received frame
+     * 
+     * @param carrier The carrier that delivered the frame
+     * @param frame The frame including the trailer
+     * @return The frame without trailer, or null if it is not authenticated
+     */
+    public byte[] verify(UUID carrier, byte[] frame) {
+        CarrierSessions carrierSessions = sessions.get(carrier);
+        if (carrierSessions == null || frame.length < TRAILER_SIZE) {
+            rejectedFrames.incrementAndGet();
+            return null;
+        }
+        
+        int length = frame.length - TRAILER_SIZE;
+        Session current = carrierSessions.current;
+        if (current != null && current.verify(frame, length)) {
+            return Arrays.copyOf(frame, length);
+        }
+        
+        Session pending = carrierSessions.pending;
+        if (pending != null && pending.verify(frame, length)) {
+            // The proxy switched to the new session
+            carrierSessions.current = pending;
+            carrierSessions.pending = null;
+            return Arrays.copyOf(frame, length);
+        }
+        
+        rejectedFrames.incrementAndGet();
+        return null;
+    }
+    
+    /**
+     * Discards the sessions of a carrier
+     * 
+     * @param carrier The carrier
+     */
+    public void endSession(UUID carrier) {
+        sessions.remove(carrier);
+    }
+    
+    /**
+     * Appends the authentication trailer to a frame, as done by the proxy
+     * 
+     * @param sessionKey The session key
+     * @param sequence The sequence number, higher than the one of the previous frame
+     * @param frame The frame
+     * @return The frame with trailer
+     */
+    public static byte[] appendTrailer(byte[] sessionKey, long sequence, byte[] frame) {
+        byte[] result = Arrays.copyOf(frame, frame.length + TRAILER_SIZE);
+        ByteBuffer.wrap(result, frame.length, 8).putLong(sequence);
+        Mac mac = newMac(sessionKey);
+        mac.update(result, 0, frame.length + 8);
+        System.arraycopy(mac.doFinal(), 0, result, frame.length + 8, MAC_SIZE);
+        return result;
+    }
+    
+    /**
+     * Derives the session key, as done by the proxy after the handshake
+     * 
+     * @param secret The shared secret
+     * @param proxyNonce The proxy nonce (hex)
+     * @param serverNonce The server nonce (hex)
+     * @return The session key
+     */
+    public static byte[] deriveSessionKey(String secret, String proxyNonce, String serverNonce) {
+        return hmac(secret.getBytes(StandardCharsets.UTF_8), "pexora-session", proxyNonce, serverNonce);
+    }
+    
+    /**
+     * @return the number of carriers with an established or pending session
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+    
+    /**
+     * @return the number of frames dropped because of a missing or invalid trailer
+     */
+    public long getRejectedFrames() {
+        return rejectedFrames.get();
+    }
+    
+    /**
+     * @return the number of handshakes with an invalid MAC
+     */
+    public long getRejectedHandshakes() {
+        return rejectedHandshakes.get();
+    }
+    
+    static byte[] hmac(byte[] key, String... parts) {
+        Mac mac = newMac(key);
+        for (String part : parts) {
+            byte[] bytes = part.getBytes(StandardCharsets.UTF_8);
+            // Length prefix, so that part boundaries cannot be shifted
+            mac.update((byte) (bytes.length >>> 8));
+            mac.update((byte) bytes.length);
+            mac.update(bytes);
+        }
+        return mac.doFinal();
+    }
+    
+    private static Mac newMac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+    
+    static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return builder.toString();
+    }
+    
+    static byte[] fromHex(String hex) {
+        if (hex.length() % 2 != 0) {
+            return new byte[0];
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int high = Character.digit(hex.charAt(i * 2), 16);
+            int low = Character.digit(hex.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                return new byte[0];
+            }
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+    
+    /**
+     * Values the server sends back in the handshake response
+     */
+    public static final class HandshakeReply {
+        
+        private final String serverNonce;
+        private final String proof;
+        
+        private HandshakeReply(String serverNonce, String proof) {
+            this.serverNonce = serverNonce;
+            this.proof = proof;
+        }
+        
+        /**
+         * @return the server nonce (hex)
+         */
+        public String getServerNonce() {
+            return serverNonce;
+        }
+        
+        /**
+         * @return the MAC proving that the server knows the secret (hex)
+         */
+        public String getProof() {
+            return proof;
+        }
+    }
+    
+    private static final class CarrierSessions {
+        
+        private volatile Session current;
+        private volatile Session pending;
+    }
+    
+    private static final class Session {
+        
+        private final Mac mac;
+        private final byte[] expected = new byte[32];
+        private long lastSequence = Long.MIN_VALUE;
+        
+        private Session(byte[] key) {
+            this.mac = newMac(key);
+        }
+        
+        private synchronized boolean verify(byte[] frame, int length) {
+            long sequence = ByteBuffer.wrap(frame, length, 8).getLong();
+            if (sequence <= lastSequence) {
+                return false;
+            }
+            
+            try {
+                mac.update(frame, 0, length + 8);
+                mac.doFinal(expected, 0);
+            } catch (GeneralSecurityException e) {
+                return false;
+            }
+            
+            // Constant-time comparison of the truncated MAC
+            int diff = 0;
+            for (int i = 0; i < MAC_SIZE; i++) {
+                diff |= expected[i] ^ frame[length + 8 + i];
+            }
+            if (diff != 0) {
+                return false;
+            }
+            
+            lastSequence = sequence;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.protocol.BufferPool;
+import de.pexora.core.messaging.protocol.PacketBuffer;
+import org.bukkit.entity.Player;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Coalesces plugin messages queued in the same tick into one batch frame per carrier.
+ * 
+ * A batch frame is a binary frame with the reserved packet ID {@value #BATCH_PACKET_ID}:
+ * a flags byte, followed by the inner frames as VarInt length plus bytes. If the batch is
+ * larger than the compression threshold, the inner frames are Deflate-compressed with a
+ * preset dictionary of common channel strings, and the uncompressed length is written
+ * before the compressed data. The receiving side must use the same {@link #DICTIONARY}.
+ */
+public class FrameBatcher {
+
+    /**
+     * Reserved core packet ID for batch frames
+     */
+    public static final int BATCH_PACKET_ID = 0;
+    
+    /**
+     * Flag: the inner frames are Deflate-compressed
+     */
+    public static final int FLAG_COMPRESSED = 0x01;
+    
+    /**
+     * Preset Deflate dictionary; the most frequent strings are placed at the end
+     */
+    public static final byte[] DICTIONARY = ("<white><gray><dark_gray><aqua><gold><yellow><green><red></gradient>"
+            + "PlayerSyncPartyUpdatePartyListScoreboardChatSyncServerSwitch"
+            + "StatusResponseHandshakeResponseStatusHandshakepexora:corePexora").getBytes(StandardCharsets.UTF_8);
+    
+    // Frame header (2 zero bytes, version, packet ID), flags and uncompressed length
+    private static final int MAX_HEADER_SIZE = 2 + 1 + 1 + 1 + 5;
+    private static final int MAX_BODY_SIZE = PacketBuffer.MAX_FRAME_SIZE - MAX_HEADER_SIZE;
+    
+    private final PexoraCore plugin;
+    private final BufferPool bufferPool;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final Inflater inflater = new Inflater();
+    private final Map<Player, List<byte[]>> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong framesBatched = new AtomicLong();
+    private final AtomicLong bytesBeforeCompression = new AtomicLong();
+    private final AtomicLong bytesAfterCompression = new AtomicLong();
+    
+    public FrameBatcher(PexoraCore plugin, BufferPool bufferPool) {
+        this.plugin = plugin;
+        this.bufferPool = bufferPool;
+    }
+    
+    /**
+     * Adds a frame to the batch of a carrier; the batch is sent on the next tick
+     * 
+     * @param carrier The player to send through
+     * @param frame The encoded frame
+     */
+    public synchronized void add(Player carrier, byte[] frame) {
+        pending.computeIfAbsent(carrier, player -> new ArrayList<>()).add(frame);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            plugin.getServer().getScheduler().runTask(plugin, this::flush);
+        }
+    }
+    
+    /**
+     * Sends all pending batches
+     */
+    public void flush() {
+        Map<Player, List<byte[]>> batches;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batches = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        
+        for (Map.Entry<Player, List<byte[]>> entry : batches.entrySet()) {
+            Player carrier = entry.getKey();
+            for (byte[] frame : encode(entry.getValue())) {
+                carrier.sendPluginMessage(plugin, PexoraChannel.CHANNEL_NAME, frame);
+            }
+        }
+    }
+    
+    /**
+     * Packs frames into as few batch frames as the plugin message limit allows
+     * 
+     * @param frames The frames in send order
+     * @return The frames to send
+     */
+    List<byte[]> encode(List<byte[]> frames) {
+        List<byte[]> result = new ArrayList<>();
+        List<byte[]> batch = new ArrayList<>();
+        int batchSize = 0;
+        for (byte[] frame : frames) {
+            int size = varIntSize(frame.length) + frame.length;
+            if (size > MAX_BODY_SIZE) {
+                // Cannot be wrapped, send on its own
+                result.add(frame);
+                continue;
+            }
+            if (batchSize + size > MAX_BODY_SIZE) {
+                result.add(encodeBatch(batch));
+                batch.clear();
+                batchSize = 0;
+            }
+            batch.add(frame);
+            batchSize += size;
+        }
+        if (!batch.isEmpty()) {
+            result.add(encodeBatch(batch));
+        }
+        return result;
+    }
+    
+    private byte[] encodeBatch(List<byte[]> frames) {
+        if (frames.size() == 1) {
+            return frames.get(0);
+        }
+        
+        PacketBuffer body = bufferPool.acquire();
+        PacketBuffer out = bufferPool.acquire();
+        try {
+            for (byte[] frame : frames) {
+                body.writeVarInt(frame.length).writeBytes(frame);
+            }
+            int rawLength = body.position();
+            
+            PexoraChannel.writeHeader(out, BATCH_PACKET_ID);
+            int flagsPosition = out.position();
+            
+            if (rawLength >= plugin.getCoreConfig().getChannelCompressionThreshold()) {
+                out.writeByte(FLAG_COMPRESSED);
+                out.writeVarInt(rawLength);
+                if (compress(body.nioBuffer().array(), rawLength, out.nioBuffer())) {
+                    record(frames.size(), rawLength, out.position());
+                    return out.toByteArray();
+                }
+                // Did not shrink, fall back to an uncompressed batch
+                out.nioBuffer().position(flagsPosition);
+            }
+            
+            out.writeByte(0);
+            out.writeBytes(body.nioBuffer().array(), 0, rawLength);
+            record(frames.size(), rawLength, out.position());
+            return out.toByteArray();
+        } finally {
+            bufferPool.release(body);
+            bufferPool.release(out);
+        }
+    }
+    
+    /**
+     * Deflates the input into the target buffer
+     * 
+     * @return false if the compressed data would not be smaller than the input
+     */
+    private boolean compress(byte[] input, int length, ByteBuffer target) {
+        synchronized (deflater) {
+            deflater.reset();
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(input, 0, length);
+            deflater.finish();
+            
+            byte[] array = target.array();
+            int start = target.position();
+            int limit = Math.min(array.length, start + length);
+            int position = start;
+            while (!deflater.finished() && position < limit) {
+                position += deflater.deflate(array, position, limit - position);
+            }
+            if (!deflater.finished()) {
+                return false;
+            }
+            target.position(position);
+            return true;
+        }
+    }
+    
+    /**
+     * Reads the inner frames of a received batch frame
+     * 
+     * @param in The buffer positioned after the packet ID
+     * @return The inner frames
+     * @throws IllegalStateException If the batch is malformed
+     */
+    public List<byte[]> decode(PacketBuffer in) {
+        int flags = in.readUnsignedByte();
+        if ((flags & FLAG_COMPRESSED) == 0) {
+            return readFrames(in);
+        }
+        
+        int rawLength = in.readVarInt();
+        if (rawLength < 0 || rawLength > PacketBuffer.MAX_FRAME_SIZE) {
+            throw new IllegalStateException("Invalid batch length " + rawLength);
+        }
+        
+        PacketBuffer inflated = bufferPool.acquire();
+        try {
+            inflate(in.nioBuffer(), inflated.nioBuffer(), rawLength);
+            return readFrames(inflated);
+        } finally {
+            bufferPool.release(inflated);
+        }
+    }
+    
+    private void inflate(ByteBuffer source, ByteBuffer target, int rawLength) {
+        synchronized (inflater) {
+            inflater.reset();
+            inflater.setInput(source.array(), source.arrayOffset() + source.position(), source.remaining());
+            byte[] array = target.array();
+            int position = 0;
+            try {
+                while (position < rawLength) {
+                    int inflatedBytes = inflater.inflate(array, position, rawLength - position);
+                    if (inflatedBytes == 0) {
+                        if (inflater.needsDictionary()) {
+                            inflater.setDictionary(DICTIONARY);
+                        } else if (inflater.finished() || inflater.needsInput()) {
+                            break;
+                        }
+                    }
+                    position += inflatedBytes;
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt compressed batch: " + e.getMessage());
+            }
+            if (position != rawLength) {
+                throw new IllegalStateException("Compressed batch is truncated");
+            }
+            source.position(source.limit());
+            target.position(0);
+            target.limit(rawLength);
+        }
+    }
+    
+    private List<byte[]> readFrames(PacketBuffer in) {
+        List<byte[]> frames = new ArrayList<>();
+        while (in.readableBytes() > 0) {
+            frames.add(in.readByteArray());
+        }
+        return frames;
+    }
+    
+    private void record(int frames, int rawLength, int encodedLength) {
+        batchesSent.incrementAndGet();
+        framesBatched.addAndGet(frames);
+        bytesBeforeCompression.addAndGet(rawLength);
+        bytesAfterCompression.addAndGet(encodedLength);
+    }
+    
+    private static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+    
+    /**
+     * @return the number of batch frames sent
+     */
+    public long getBatchesSent() {
+        return batchesSent.get();
+    }
+    
+    /**
+     * @return the number of frames that were sent inside batch frames
+     */
+    public long getFramesBatched() {
+        return framesBatched.get();
+    }
+    
+    /**
+     * @return the total size of batched frames before compression
+     */
+    public long getBytesBeforeCompression() {
+        return bytesBeforeCompression.get();
+    }
+    
+    /**
+     * @return the total size of the batch frames on the wire
+     */
+    public long getBytesAfterCompression() {
+        return bytesAfterCompression.get();
+    }
+    
+    /**
+     * Releases the native compression resources
+     */
+    public void close() {
+        deflater.end();
+        inflater.end();
+    }
+}
@@ -0,0 +1,65 @@
+package de.pexora.core.messaging;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory transport without any network.
+ * 
+ * Every published message is delivered synchronously, on the publishing thread, to all
+ * transports of the same {@link Network} including the publisher itself. A transport created
+ * without a network only talks to itself, which is useful on a single server and in tests;
+ * several transports sharing a network simulate a server group inside one JVM.
+ */
+public class LoopbackTransport implements MessageTransport {
+
+    private final Network network;
+    private volatile Receiver receiver;
+    
+    public LoopbackTransport() {
+        this(new Network());
+    }
+    
+    public LoopbackTransport(Network network) {
+        this.network = network;
+    }
+    
+    @Override
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        network.members.addIfAbsent(this);
+    }
+    
+    @Override
+    public void publish(String topic, byte[] payload) {
+        for (LoopbackTransport member : network.members) {
+            Receiver target = member.receiver;
+            if (target != null) {
+                target.receive(topic, payload);
+            }
+        }
+    }
+    
+    @Override
+    public boolean isConnected() {
+        return receiver != null;
+    }
+    
+    @Override
+    public String getName() {
+        return "loopback";
+    }
+    
+    @Override
+    public void close() {
+        network.members.remove(this);
+        receiver = null;
+    }
+    
+    /**
+     * A group of loopback transports that receive each other's messages
+     */
+    public static final class Network {
+        
+        private final CopyOnWriteArrayList<LoopbackTransport> members = new CopyOnWriteArrayList<>();
+    }
+}
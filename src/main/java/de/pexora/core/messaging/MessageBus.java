@@ -0,0 +1,273 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.PexoraCore;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Topic based messaging between servers.
+ * 
+ * Modules publish to and subscribe to topics without knowing how messages travel;
+ * the {@link MessageTransport} is chosen by {@code channel.transport.type}:
+ * - player: plugin messages through the proxy ({@link PlayerCarrierTransport})
+ * - socket: direct TCP connections between backend servers ({@link SocketTransport})
+ * - loopback: in-memory, only this server ({@link LoopbackTransport})
+ * 
+ * Subscriptions use exact topics or patterns with wildcards ({@code chat.*}, {@code party.#},
+ * see {@link TopicPattern}). Every subscription has a bounded queue with an {@link OverflowPolicy},
+ * so slow listeners never stall the transport thread or other subscribers. Subscriptions belong
+ * to a plugin and are removed when the plugin is disabled.
+ */
+public class MessageBus implements Listener {
+
+    private final PexoraCore plugin;
+    private final MessageTransport transport;
+    private final Map<String, CopyOnWriteArrayList<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<Subscription> wildcardSubscriptions = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Resolved subscribers per received topic; replaced as a whole whenever subscriptions change
+     */
+    private volatile Map<String, Subscription[]> dispatchCache = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_TOPICS = 1024;
+    private static final Subscription[] NO_SUBSCRIBERS = new Subscription[0];
+    
+    /**
+     * Creates the bus and starts the transport. If the transport cannot be started,
+     * the bus falls back to the player transport.
+     * 
+     * @param plugin The core plugin
+     * @param transport The transport
+     */
+    public MessageBus(PexoraCore plugin, MessageTransport transport) {
+        this.plugin = plugin;
+        this.transport = startTransport(transport);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+    
+    private MessageTransport startTransport(MessageTransport transport) {
+        try {
+            start(transport);
+            return transport;
+        } catch (RuntimeException e) {
+            plugin.getLoggerService().error("Transport '" + transport.getName() + "' konnte nicht gestartet werden: " + e.getMessage());
+            MessageTransport fallback = new PlayerCarrierTransport(plugin.getPexoraChannel());
+            start(fallback);
+            return fallback;
+        }
+    }
+    
+    private void start(MessageTransport transport) {
+        boolean mayBlock = transport.isBlockingDeliveryAllowed();
+        transport.start((topic, payload) -> deliver(topic, payload, mayBlock));
+    }
+    
+    /**
+     * Creates the transport configured in the core configuration
+     * 
+     * @param plugin The core plugin
+     * @return The transport, not yet started
+     */
+    public static MessageTransport createTransport(PexoraCore plugin) {
+        String type = plugin.getCoreConfig().getTransportType();
+        switch (type) {
+            case "socket":
+                String bind = plugin.getCoreConfig().getTransportBind();
+                List<InetSocketAddress> peers = new ArrayList<>();
+                for (String peer : plugin.getCoreConfig().getTransportPeers()) {
+                    peers.add(SocketTransport.parseAddress(peer));
+                }
+                return new SocketTransport(plugin, plugin.getCoreConfig().getTransportNodeId(),
+                        bind.isEmpty() ? null : SocketTransport.parseAddress(bind), peers,
+                        plugin.getCoreConfig().getTransportReconnectSeconds() * 1000L,
+                        plugin.getCoreConfig().getChannelSecret());
+            case "loopback":
+                return new LoopbackTransport();
+            case "player":
+                return new PlayerCarrierTransport(plugin.getPexoraChannel());
+            default:
+                plugin.getLoggerService().warn("Unbekannter Transport '" + type + "', verwende 'player'");
+                return new PlayerCarrierTransport(plugin.getPexoraChannel());
+        }
+    }
+    
+    /**
+     * Publishes a message to a topic on all servers reached by the transport.
+     * Wildcards only have a meaning in subscriptions; a published {@code *} or {@code #}
+     * is part of the topic name.
+     * 
+     * @param topic The topic
+     * @param payload The payload
+     * @throws IllegalArgumentException If the topic is empty
+     */
+    public void publish(String topic, byte[] payload) {
+        if (topic.isEmpty()) {
+            throw new IllegalArgumentException("Topic must not be empty");
+        }
+        transport.publish(topic, payload);
+    }
+    
+    /**
+     * Subscribes to a topic or topic pattern with the default queue settings.
+     * The listener runs on the server thread.
+     * 
+     * @param owner The owning plugin; the subscription is removed when it is disabled
+     * @param topic The topic or pattern, e.g. {@code chat.global} or {@code party.#}
+     * @param listener The listener
+     * @return The subscription, used to unsubscribe
+     */
+    public Subscription subscribe(Plugin owner, String topic, TopicListener listener) {
+        return subscribe(owner, topic, listener, new SubscriptionOptions());
+    }
+    
+    /**
+     * Subscribes to a topic or topic pattern
+     * 
+     * @param owner The owning plugin; the subscription is removed when it is disabled
+     * @param topic The topic or pattern, e.g. {@code chat.global} or {@code party.#}
+     * @param listener The listener
+     * @param options Queue capacity, overflow policy and thread of the listener
+     * @return The subscription, used to unsubscribe
+     * @throws IllegalArgumentException If the pattern is invalid
+     */
+    public synchronized Subscription subscribe(Plugin owner, String topic, TopicListener listener, SubscriptionOptions options) {
+        int capacity = options.getCapacity() > 0 ? options.getCapacity() : plugin.getCoreConfig().getPubSubQueueCapacity();
+        OverflowPolicy overflowPolicy = options.getOverflowPolicy() != null
+                ? options.getOverflowPolicy() : plugin.getCoreConfig().getPubSubOverflowPolicy();
+        
+        Subscription subscription = new Subscription(plugin, owner, topic, listener, capacity, overflowPolicy,
+                options.isAsync(), plugin.getCoreConfig().getPubSubBlockTimeoutMillis());
+        if (subscription.isWildcard()) {
+            wildcardSubscriptions.add(subscription);
+        } else {
+            subscriptions.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>()).add(subscription);
+        }
+        dispatchCache = new ConcurrentHashMap<>();
+        return subscription;
+    }
+    
+    /**
+     * Removes a subscription and discards its queued messages
+     * 
+     * @param subscription The subscription
+     */
+    public synchronized void unsubscribe(Subscription subscription) {
+        subscription.cancel();
+        if (subscription.isWildcard()) {
+            wildcardSubscriptions.remove(subscription);
+        } else {
+            List<Subscription> list = subscriptions.get(subscription.getTopic());
+            if (list != null) {
+                list.remove(subscription);
+            }
+        }
+        dispatchCache = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Removes all subscriptions of a plugin
+     * 
+     * @param owner The owning plugin
+     * @return The number of removed subscriptions
+     */
+    public synchronized int unsubscribeAll(Plugin owner) {
+        List<Subscription> owned = getSubscriptions(owner);
+        for (Subscription subscription : owned) {
+            unsubscribe(subscription);
+        }
+        return owned.size();
+    }
+    
+    /**
+     * @param owner The owning plugin
+     * @return The active subscriptions of the plugin
+     */
+    public List<Subscription> getSubscriptions(Plugin owner) {
+        List<Subscription> owned = new ArrayList<>();
+        for (List<Subscription> list : subscriptions.values()) {
+            for (Subscription subscription : list) {
+                if (subscription.getOwner() == owner) {
+                    owned.add(subscription);
+                }
+            }
+        }
+        for (Subscription subscription : wildcardSubscriptions) {
+            if (subscription.getOwner() == owner) {
+                owned.add(subscription);
+            }
+        }
+        return owned;
+    }
+    
+    private void deliver(String topic, byte[] payload, boolean mayBlock) {
+        Map<String, Subscription[]> cache = dispatchCache;
+        Subscription[] targets = cache.get(topic);
+        if (targets == null) {
+            targets = resolve(topic);
+            if (cache.size() >= MAX_CACHED_TOPICS) {
+                cache.clear();
+            }
+            cache.put(topic, targets);
+        }
+        
+        for (Subscription subscription : targets) {
+            subscription.offer(topic, payload, mayBlock);
+        }
+    }
+    
+    private Subscription[] resolve(String topic) {
+        List<Subscription> targets = new ArrayList<>();
+        List<Subscription> exact = subscriptions.get(topic);
+        if (exact != null) {
+            targets.addAll(exact);
+        }
+        for (Subscription subscription : wildcardSubscriptions) {
+            if (subscription.matches(topic)) {
+                targets.add(subscription);
+            }
+        }
+        return targets.isEmpty() ? NO_SUBSCRIBERS : targets.toArray(NO_SUBSCRIBERS);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (event.getPlugin() != plugin) {
+            unsubscribeAll(event.getPlugin());
+        }
+    }
+    
+    /**
+     * @return the active transport
+     */
+    public MessageTransport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * Stops the transport
+     */
+    public synchronized void close() {
+        transport.close();
+        for (List<Subscription> list : subscriptions.values()) {
+            for (Subscription subscription : list) {
+                subscription.cancel();
+            }
+        }
+        for (Subscription subscription : wildcardSubscriptions) {
+            subscription.cancel();
+        }
+        subscriptions.clear();
+        wildcardSubscriptions.clear();
+        dispatchCache = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,11 @@
+package de.pexora.core.messaging;
+
+/**
+ * Priority of an outbound message while it waits for a player carrier.
+ * When the outbound queue is full, messages with a lower priority are dropped first.
+ */
+public enum MessagePriority {
+    LOW,
+    NORMAL,
+    HIGH
+}
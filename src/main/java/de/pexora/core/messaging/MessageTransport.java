@@ -0,0 +1,64 @@
+package de.pexora.core.messaging;
+
+/**
+ * Carries topic messages between servers.
+ * 
+ * The {@link MessageBus} publishes through exactly one transport, selected by
+ * {@code channel.transport.type} in the config. Implementations decide how messages
+ * reach the other servers; whether the publishing server receives its own messages
+ * is documented per implementation.
+ */
+public interface MessageTransport {
+
+    /**
+     * Starts the transport. Received messages are passed to the receiver,
+     * on a thread chosen by the implementation.
+     * 
+     * @param receiver The receiver for incoming messages
+     */
+    void start(Receiver receiver);
+    
+    /**
+     * Publishes a message to all other servers
+     * 
+     * @param topic The topic
+     * @param payload The payload
+     */
+    void publish(String topic, byte[] payload);
+    
+    /**
+     * @return whether messages can currently leave this server without being queued or dropped
+     */
+    boolean isConnected();
+    
+    /**
+     * @return whether the receiver may block the delivering thread, false if a single thread
+     *         delivers the messages of all peers and must never wait for a subscriber
+     */
+    default boolean isBlockingDeliveryAllowed() {
+        return true;
+    }
+    
+    /**
+     * @return the name of the transport as used in the config
+     */
+    String getName();
+    
+    /**
+     * Stops the transport and releases its connections
+     */
+    void close();
+    
+    /**
+     * Receives messages from a transport
+     */
+    @FunctionalInterface
+    interface Receiver {
+        
+        /**
+         * @param topic The topic
+         * @param payload The payload
+         */
+        void receive(String topic, byte[] payload);
+    }
+}
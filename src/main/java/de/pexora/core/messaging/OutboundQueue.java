@@ -0,0 +1,190 @@
+package de.pexora.core.messaging;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queue for plugin messages that cannot be sent because no player is online.
+ * 
+ * Messages are ordered by priority and then by insertion order. Each message carries an
+ * expiry time; expired messages are discarded instead of being sent. When the queue is full,
+ * the oldest message with the lowest priority is dropped, unless the new message has an even
+ * lower priority, in which case the new message is dropped.
+ */
+public class OutboundQueue {
+
+    private static final Comparator<QueuedMessage> ORDER = Comparator
+            .comparing((QueuedMessage message) -> message.priority).reversed()
+            .thenComparingLong(message -> message.sequence);
+    
+    private final TreeSet<QueuedMessage> messages = new TreeSet<>(ORDER);
+    private volatile int capacity;
+    private long nextSequence;
+    
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong droppedOverflow = new AtomicLong();
+    private final AtomicLong droppedExpired = new AtomicLong();
+    
+    /**
+     * Creates a new queue
+     * 
+     * @param capacity The maximum number of queued messages
+     */
+    public OutboundQueue(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    /**
+     * Queues a message
+     * 
+     * @param frame The encoded plugin message
+     * @param priority The priority
+     * @param ttlMillis The time to live in milliseconds
+     * @return false if the message was dropped because the queue is full
+     */
+    public synchronized boolean offer(byte[] frame, MessagePriority priority, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        QueuedMessage message = new QueuedMessage(frame, priority, now + ttlMillis, nextSequence++);
+        
+        if (messages.size() >= capacity) {
+            removeExpired(now);
+        }
+        if (messages.size() >= capacity) {
+            QueuedMessage lowest = lowestPriority();
+            if (lowest == null || lowest.priority.compareTo(priority) > 0) {
+                droppedOverflow.incrementAndGet();
+                return false;
+            }
+            messages.remove(lowest);
+            droppedOverflow.incrementAndGet();
+        }
+        
+        messages.add(message);
+        enqueued.incrementAndGet();
+        return true;
+    }
+    
+    /**
+     * Removes all messages that have not expired yet, in send order
+     * 
+     * @return The frames to send
+     */
+    public synchronized List<byte[]> drain() {
+        long now = System.currentTimeMillis();
+        List<byte[]> frames = new ArrayList<>(messages.size());
+        for (QueuedMessage message : messages) {
+            if (message.expiresAt < now) {
+                droppedExpired.incrementAndGet();
+            } else {
+                frames.add(message.frame);
+            }
+        }
+        messages.clear();
+        sent.addAndGet(frames.size());
+        return frames;
+    }
+    
+    /**
+     * Drops all expired messages
+     * 
+     * @return The number of dropped messages
+     */
+    public synchronized int purgeExpired() {
+        return removeExpired(System.currentTimeMillis());
+    }
+    
+    private int removeExpired(long now) {
+        int removed = 0;
+        Iterator<QueuedMessage> iterator = messages.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt < now) {
+                iterator.remove();
+                removed++;
+            }
+        }
+        droppedExpired.addAndGet(removed);
+        return removed;
+    }
+    
+    /**
+     * Finds the oldest message of the lowest priority present
+     */
+    private QueuedMessage lowestPriority() {
+        if (messages.isEmpty()) {
+            return null;
+        }
+        MessagePriority lowest = messages.last().priority;
+        return messages.ceiling(new QueuedMessage(null, lowest, 0L, Long.MIN_VALUE));
+    }
+    
+    /**
+     * Changes the capacity; already queued messages are kept until the next offer
+     * 
+     * @param capacity The maximum number of queued messages
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+    
+    /**
+     * @return the maximum number of queued messages
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    /**
+     * @return the number of messages currently waiting
+     */
+    public synchronized int getDepth() {
+        return messages.size();
+    }
+    
+    /**
+     * @return the total number of messages that were queued
+     */
+    public long getEnqueuedCount() {
+        return enqueued.get();
+    }
+    
+    /**
+     * @return the total number of queued messages that were handed to a carrier
+     */
+    public long getSentCount() {
+        return sent.get();
+    }
+    
+    /**
+     * @return the number of messages dropped because the queue was full
+     */
+    public long getDroppedOverflowCount() {
+        return droppedOverflow.get();
+    }
+    
+    /**
+     * @return the number of messages dropped because their TTL expired
+     */
+    public long getDroppedExpiredCount() {
+        return droppedExpired.get();
+    }
+    
+    private static final class QueuedMessage {
+        
+        private final byte[] frame;
+        private final MessagePriority priority;
+        private final long expiresAt;
+        private final long sequence;
+        
+        private QueuedMessage(byte[] frame, MessagePriority priority, long expiresAt, long sequence) {
+            this.frame = frame;
+            this.priority = priority;
+            this.expiresAt = expiresAt;
+            this.sequence = sequence;
+        }
+    }
+}
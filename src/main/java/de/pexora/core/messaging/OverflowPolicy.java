@@ -0,0 +1,25 @@
+package de.pexora.core.messaging;
+
+/**
+ * What happens when a message arrives for a subscriber whose queue is full
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Discard the oldest queued message to make room for the new one
+     */
+    DROP_OLDEST,
+    
+    /**
+     * Discard the new message
+     */
+    DROP_NEWEST,
+    
+    /**
+     * Block the delivering thread until there is room or the block timeout expires.
+     * The server thread and shared transport threads (see
+     * {@link MessageTransport#isBlockingDeliveryAllowed()}) never block; there the new
+     * message is discarded instead.
+     */
+    BLOCK
+}
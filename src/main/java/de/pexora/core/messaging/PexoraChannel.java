@@ -4,26 +4,112 @@ import com.google.common.io.ByteArrayDataInput;
 import com.google.common.io.ByteArrayDataOutput;
 import com.google.common.io.ByteStreams;
 import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.protocol.BufferPool;
+import de.pexora.core.messaging.protocol.PacketBuffer;
+import de.pexora.core.messaging.protocol.PacketRegistry;
+import de.pexora.core.messaging.protocol.PacketType;
+import de.pexora.core.util.LatencyHistogram;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.messaging.PluginMessageListener;
 
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages plugin messaging channel for Velocity/Proxy communication.
+ * 
+ * Two frame formats share the channel:
+ * - Legacy frames start with a writeUTF subchannel name followed by writeUTF/writeInt fields.
+ * - Binary frames start with an empty subchannel (two zero bytes), followed by the protocol
+ *   version byte, the VarInt packet ID and the payload written by the packet's codec.
+ * 
+ * Plugin messages need an online player as carrier. Messages sent while the server is empty
+ * are kept in a bounded {@link OutboundQueue} and flushed shortly after the next player joins.
+ * With batching enabled, messages of the same tick are coalesced by the {@link FrameBatcher}.
+ * 
+ * Received frames are dispatched through the {@link ChannelHandlerRegistry} (legacy subchannels)
+ * and the {@link PacketRegistry} (binary packets). Handlers belong to a plugin and are removed
+ * when that plugin is disabled; handlers registered as async run on the channel executor.
+ * Traffic and handler durations are recorded in {@link ChannelMetrics} and shown in the status.
+ * With a shared secret configured, frames are authenticated by {@link ChannelSecurity}.
  */
-public class PexoraChannel implements PluginMessageListener {
+public class PexoraChannel implements PluginMessageListener, Listener {
 
-    private static final String CHANNEL_NAME = "pexora:core";
+    public static final String CHANNEL_NAME = "pexora:core";
+    
+    /**
+     * Version of the binary frame format, announced in the handshake response
+     */
+    public static final int PROTOCOL_VERSION = 1;
+    
+    /**
+     * Metric names of the reserved core packet IDs
+     */
+    private static final String[] CORE_PACKET_NAMES = {"batch", "request", "response", "topic"};
+    
+    private static final long SLOW_HANDLER_WARN_INTERVAL_MILLIS = 10_000;
+    
+    /**
+     * Start of a legacy "Handshake" frame: the writeUTF length followed by the name
+     */
+    private static final byte[] HANDSHAKE_PREFIX = {0, 9, 'H', 'a', 'n', 'd', 's', 'h', 'a', 'k', 'e'};
     
     private final PexoraCore plugin;
+    private final PacketRegistry packetRegistry;
+    private final BufferPool bufferPool;
+    private final OutboundQueue outboundQueue;
+    private final FrameBatcher frameBatcher;
+    private final RequestManager requestManager;
+    private final ChannelHandlerRegistry handlerRegistry;
+    private final ExecutorService handlerExecutor;
+    private final ChannelMetrics metrics;
+    private final ChannelSecurity security;
+    private volatile Player carrier;
+    private volatile MessageTransport.Receiver topicReceiver;
+    
+    // Set while queued messages wait for the delayed flush after a join; guarded by outboundQueue
+    private boolean flushPending;
     
     public PexoraChannel(PexoraCore plugin) {
         this.plugin = plugin;
+        this.packetRegistry = new PacketRegistry();
+        this.bufferPool = new BufferPool(8);
+        this.outboundQueue = new OutboundQueue(plugin.getCoreConfig().getChannelQueueCapacity());
+        this.frameBatcher = new FrameBatcher(plugin, bufferPool);
+        this.requestManager = new RequestManager(plugin, this);
+        this.handlerRegistry = new ChannelHandlerRegistry();
+        this.handlerExecutor = createHandlerExecutor(plugin.getCoreConfig().getChannelHandlerThreads());
+        this.metrics = new ChannelMetrics();
+        this.security = new ChannelSecurity(plugin.getCoreConfig().getChannelSecret());
+        if (!security.isEnabled()) {
+            plugin.getLoggerService().warn("No channel.security.secret configured, messages on " + CHANNEL_NAME + " are not authenticated");
+        }
+        
+        // Core subchannels
+        handlerRegistry.register(plugin, "Handshake", this::handleHandshake);
+        handlerRegistry.register(plugin, "Status", this::handleStatusRequest);
         
         // Register channel
         plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, CHANNEL_NAME);
         plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, CHANNEL_NAME, this);
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getStatusAPI().registerStatusProvider("Kanal", this::getStatusSummary);
         
         plugin.getLoggerService().info("Registered PexoraChannel '" + CHANNEL_NAME + "'");
     }
@@ -34,44 +120,268 @@ public class PexoraChannel implements PluginMessageListener {
             return;
         }
         
+        // Everything except the handshake must carry the MAC trailer of the carrier's session
+        if (security.isEnabled() && !isHandshakeFrame(message)) {
+            byte[] verified = security.verify(player.getUniqueId(), message);
+            if (verified == null) {
+                plugin.getLoggerService().debug("Dropped unauthenticated message via " + player.getName());
+                return;
+            }
+            message = verified;
+        }
+        
+        dispatchFrame(player, message);
+    }
+    
+    private static boolean isHandshakeFrame(byte[] message) {
+        if (message.length < HANDSHAKE_PREFIX.length) {
+            return false;
+        }
+        for (int i = 0; i < HANDSHAKE_PREFIX.length; i++) {
+            if (message[i] != HANDSHAKE_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Dispatches an authenticated frame to its handler
+     * 
+     * @param player The player that received the frame
+     * @param message The frame without authentication trailer
+     */
+    private void dispatchFrame(Player player, byte[] message) {
+        long received = System.nanoTime();
+        if (isBinaryFrame(message)) {
+            handlePacket(player, message, received);
+            return;
+        }
+        
         ByteArrayDataInput in = ByteStreams.newDataInput(message);
         String subChannel = in.readUTF();
         
-        switch (subChannel) {
-            case "Handshake":
-                handleHandshake(in);
-                break;
-            case "Status":
-                handleStatusRequest(player, in);
-                break;
-            default:
-                if (plugin.getCoreConfig().isDebugMode()) {
-                    plugin.getLoggerService().info("[DEBUG] Received unknown subchannel: " + subChannel);
+        ChannelHandlerRegistry.Registration registration = handlerRegistry.get(subChannel);
+        if (registration == null) {
+            metrics.get(ChannelMetrics.UNKNOWN).recordIn(message.length);
+            if (plugin.getCoreConfig().isDebugMode()) {
+                plugin.getLoggerService().info("[DEBUG] Received unknown subchannel: " + subChannel);
+            }
+            return;
+        }
+        
+        ChannelMetrics.SubchannelStats stats = metrics.get(subChannel);
+        stats.recordIn(message.length);
+        stats.getDecodeTime().record(System.nanoTime() - received);
+        
+        // The input wraps the message array, which Bukkit does not reuse, so async handlers may keep it
+        Runnable handler = () -> registration.getHandler().handle(player, in);
+        if (registration.isAsync()) {
+            dispatchAsync(subChannel, () -> invokeHandler(subChannel, registration.getOwner(), stats, handler));
+        } else {
+            invokeHandler(subChannel, registration.getOwner(), stats, handler);
+        }
+    }
+    
+    /**
+     * Runs a handler, records its duration and warns if it exceeded the budget on the server thread
+     */
+    private void invokeHandler(String name, Plugin owner, ChannelMetrics.SubchannelStats stats, Runnable handler) {
+        long profilerStart = plugin.getProfiler().begin();
+        long start = System.nanoTime();
+        try {
+            handler.run();
+        } catch (RuntimeException e) {
+            plugin.getLoggerService().warn("Handler for " + name + " failed: " + e.getMessage());
+            if (plugin.getCoreConfig().isDebugMode()) {
+                e.printStackTrace();
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            plugin.getProfiler().end(owner, profilerStart);
+            stats.getHandlerTime().record(elapsed);
+            checkHandlerBudget(name, owner, stats, elapsed);
+        }
+    }
+    
+    private void checkHandlerBudget(String name, Plugin owner, ChannelMetrics.SubchannelStats stats, long elapsedNanos) {
+        long budgetMillis = plugin.getCoreConfig().getChannelSlowHandlerMillis();
+        if (budgetMillis <= 0 || elapsedNanos <= budgetMillis * 1_000_000L || !plugin.getServer().isPrimaryThread()) {
+            return;
+        }
+        
+        if (stats.recordSlowHandler(System.currentTimeMillis(), SLOW_HANDLER_WARN_INTERVAL_MILLIS)) {
+            plugin.getLoggerService().warn("Handler for " + name + " (" + owner.getName() + ") took "
+                    + LatencyHistogram.formatMillis(elapsedNanos) + " on the server thread, budget is " + budgetMillis + " ms");
+        }
+    }
+    
+    private void dispatchAsync(String name, Runnable task) {
+        try {
+            handlerExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            plugin.getLoggerService().warn("Channel executor is saturated, dropped message for " + name);
+        }
+    }
+    
+    private static ExecutorService createHandlerExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024), runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-Channel-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    private static boolean isBinaryFrame(byte[] message) {
+        return message.length >= 3 && message[0] == 0 && message[1] == 0;
+    }
+    
+    /**
+     * Decodes a binary frame and passes the packet to its registered handler
+     * 
+     * @param player The player that received the message
+     * @param message The raw frame
+     * @param received When the frame was received, from System#nanoTime
+     */
+    private void handlePacket(Player player, byte[] message, long received) {
+        List<byte[]> batched = null;
+        PacketBuffer in = bufferPool.acquire().load(message, 2, message.length - 2);
+        try {
+            int version = in.readUnsignedByte();
+            if (version != PROTOCOL_VERSION) {
+                plugin.getLoggerService().debug("Dropped packet with unsupported protocol version " + version);
+                return;
+            }
+            
+            int packetId = in.readVarInt();
+            switch (packetId) {
+                case FrameBatcher.BATCH_PACKET_ID:
+                    recordCorePacket(packetId, message.length, received);
+                    batched = frameBatcher.decode(in);
+                    return;
+                case RequestManager.REQUEST_PACKET_ID:
+                    invokeHandler("request", plugin, recordCorePacket(packetId, message.length, received),
+                            () -> requestManager.handleRequest(player, in));
+                    return;
+                case RequestManager.RESPONSE_PACKET_ID:
+                    invokeHandler("response", plugin, recordCorePacket(packetId, message.length, received),
+                            () -> requestManager.handleResponse(in));
+                    return;
+                case PlayerCarrierTransport.TOPIC_PACKET_ID:
+                    invokeHandler("topic", plugin, recordCorePacket(packetId, message.length, received),
+                            () -> handleTopicMessage(in));
+                    return;
+                default:
+                    break;
+            }
+            
+            PacketType<?> type = packetRegistry.getType(packetId);
+            if (type == null || type.getHandler() == null) {
+                metrics.get(ChannelMetrics.UNKNOWN).recordIn(message.length);
+                plugin.getLoggerService().debug("Received packet without handler: " + packetId);
+                return;
+            }
+            
+            ChannelMetrics.SubchannelStats stats = metrics.get(type.getName());
+            stats.recordIn(message.length);
+            Plugin owner = type.getOwner() != null ? type.getOwner() : plugin;
+            if (type.isAsync()) {
+                // The pooled buffer is released on return, so the payload is copied for the executor
+                byte[] payload = new byte[in.readableBytes()];
+                in.readBytes(payload);
+                dispatchAsync(type.getName(), () -> handleAsyncPacket(type, owner, stats, player, payload));
+            } else {
+                Object packet = type.decode(in);
+                stats.getDecodeTime().record(System.nanoTime() - received);
+                invokeHandler(type.getName(), owner, stats, () -> type.dispatch(player, packet));
+            }
+        } catch (RuntimeException e) {
+            plugin.getLoggerService().warn("Failed to decode packet: " + e.getMessage());
+        } finally {
+            bufferPool.release(in);
+            
+            // Unbatch after the buffer was released; inner frames were authenticated with the batch
+            if (batched != null) {
+                for (byte[] frame : batched) {
+                    dispatchFrame(player, frame);
                 }
+            }
+        }
+    }
+    
+    private ChannelMetrics.SubchannelStats recordCorePacket(int packetId, int length, long received) {
+        ChannelMetrics.SubchannelStats stats = metrics.get(CORE_PACKET_NAMES[packetId]);
+        stats.recordIn(length);
+        stats.getDecodeTime().record(System.nanoTime() - received);
+        return stats;
+    }
+    
+    private void handleAsyncPacket(PacketType<?> type, Plugin owner, ChannelMetrics.SubchannelStats stats,
+                                   Player player, byte[] payload) {
+        long start = System.nanoTime();
+        Object packet;
+        PacketBuffer in = bufferPool.acquire().load(payload);
+        try {
+            packet = type.decode(in);
+        } catch (RuntimeException e) {
+            plugin.getLoggerService().warn("Failed to decode packet " + type.getName() + ": " + e.getMessage());
+            return;
+        } finally {
+            bufferPool.release(in);
+        }
+        stats.getDecodeTime().record(System.nanoTime() - start);
+        invokeHandler(type.getName(), owner, stats, () -> type.dispatch(player, packet));
+    }
+    
+    private void handleTopicMessage(PacketBuffer in) {
+        String topic = in.readString();
+        byte[] payload = in.readByteArray();
+        MessageTransport.Receiver receiver = topicReceiver;
+        if (receiver != null) {
+            receiver.receive(topic, payload);
         }
     }
     
+    /**
+     * Sets the receiver for topic messages of the {@link PlayerCarrierTransport}
+     * 
+     * @param receiver The receiver, or null to ignore topic messages
+     */
+    void setTopicReceiver(MessageTransport.Receiver receiver) {
+        this.topicReceiver = receiver;
+    }
+    
     /**
      * Handles a handshake message from the proxy
      * 
+     * @param player The player that received the message
      * @param in The input stream
      */
-    private void handleHandshake(ByteArrayDataInput in) {
+    private void handleHandshake(Player player, ByteArrayDataInput in) {
         String serverName = in.readUTF();
-        String serverSecret = in.readUTF();
         
-        // In a real implementation, you would validate the server secret
-        // For now, we'll just log it
-        plugin.getLoggerService().info("Received handshake from " + serverName);
+        if (!security.isEnabled()) {
+            plugin.getLoggerService().info("Received unauthenticated handshake from " + serverName);
+            sendHandshakeResponse(player, serverName, null);
+            return;
+        }
         
-        // Send a response to confirm the handshake
-        if (plugin.getServer().getOnlinePlayers().isEmpty()) {
-            plugin.getLoggerService().warn("Cannot respond to handshake: no online players");
+        String proxyNonce = in.readUTF();
+        String mac = in.readUTF();
+        ChannelSecurity.HandshakeReply reply = security.acceptHandshake(player.getUniqueId(), serverName, proxyNonce, mac);
+        if (reply == null) {
+            plugin.getLoggerService().warn("Rejected handshake from " + serverName + " via " + player.getName() + ": invalid MAC");
             return;
         }
         
-        Player player = plugin.getServer().getOnlinePlayers().iterator().next();
-        sendHandshakeResponse(player, serverName);
+        plugin.getLoggerService().info("Received authenticated handshake from " + serverName);
+        
+        // Send a response to confirm the handshake, queued if the carrier went offline
+        sendHandshakeResponse(player, serverName, reply);
     }
     
     /**
@@ -90,37 +400,183 @@ public class PexoraChannel implements PluginMessageListener {
         out.writeUTF(plugin.getDescription().getVersion());
         out.writeInt(plugin.getModuleLoader().getLoadedModules().size());
         
-        player.sendPluginMessage(plugin, CHANNEL_NAME, out.toByteArray());
+        send(player, out.toByteArray(), MessagePriority.NORMAL, getDefaultTtlMillis());
     }
     
     /**
      * Sends a handshake response to the proxy
      * 
-     * @param player The player to send through
+     * @param player The player to send through, or null to queue until a carrier is online
      * @param serverName The server name
+     * @param reply The server nonce and proof, or null if authentication is disabled
      */
-    private void sendHandshakeResponse(Player player, String serverName) {
+    private void sendHandshakeResponse(Player player, String serverName, ChannelSecurity.HandshakeReply reply) {
         ByteArrayDataOutput out = ByteStreams.newDataOutput();
         out.writeUTF("HandshakeResponse");
         out.writeUTF(serverName);
         out.writeUTF(plugin.getDescription().getVersion());
+        out.writeInt(PROTOCOL_VERSION);
+        if (reply != null) {
+            out.writeUTF(reply.getServerNonce());
+            out.writeUTF(reply.getProof());
+        }
         
-        player.sendPluginMessage(plugin, CHANNEL_NAME, out.toByteArray());
+        send(player, out.toByteArray(), MessagePriority.HIGH, getDefaultTtlMillis());
+    }
+    
+    /**
+     * Sends a binary packet to the proxy
+     * 
+     * @param player The player to send through, or null to use any online player
+     * @param packet The packet; its class must be registered in the packet registry
+     * @throws IllegalArgumentException If the packet class is not registered
+     */
+    public void sendPacket(Player player, Object packet) {
+        send(player, encodePacket(packet), MessagePriority.NORMAL, getDefaultTtlMillis());
+    }
+    
+    /**
+     * Sends a binary packet to the proxy through any online player.
+     * The packet is queued if no player is online.
+     * 
+     * @param packet The packet; its class must be registered in the packet registry
+     */
+    public void sendPacket(Object packet) {
+        sendPacket(null, packet);
+    }
+    
+    /**
+     * Sends a binary packet to the proxy through any online player
+     * 
+     * @param packet The packet; its class must be registered in the packet registry
+     * @param priority The priority while the packet waits for a carrier
+     * @param ttlMillis How long the packet may wait for a carrier, in milliseconds
+     */
+    public void sendPacket(Object packet, MessagePriority priority, long ttlMillis) {
+        send(null, encodePacket(packet), priority, ttlMillis);
+    }
+    
+    /**
+     * Encodes a packet into a binary frame
+     * 
+     * @param packet The packet
+     * @return The encoded frame
+     * @throws IllegalArgumentException If the packet class is not registered
+     */
+    public byte[] encodePacket(Object packet) {
+        PacketType<?> type = packetRegistry.getType(packet.getClass());
+        if (type == null) {
+            throw new IllegalArgumentException("Packet class " + packet.getClass().getName() + " is not registered");
+        }
+        
+        PacketBuffer out = bufferPool.acquire();
+        try {
+            writeHeader(out, type.getId());
+            type.encode(out, packet);
+            return out.toByteArray();
+        } finally {
+            bufferPool.release(out);
+        }
+    }
+    
+    /**
+     * Writes the binary frame header: an empty legacy subchannel, the protocol version and the packet ID
+     * 
+     * @param out The buffer to write to
+     * @param packetId The packet ID
+     */
+    static void writeHeader(PacketBuffer out, int packetId) {
+        out.writeShort(0);
+        out.writeByte(PROTOCOL_VERSION);
+        out.writeVarInt(packetId);
+    }
+    
+    /**
+     * Sends a request to the proxy or another server and waits asynchronously for the response.
+     * The request is queued if no player is online; the timeout applies in any case.
+     * 
+     * @param subChannel The subchannel the remote handler is registered for
+     * @param payload The request payload
+     * @return A future with the response payload
+     */
+    public CompletableFuture<byte[]> request(String subChannel, byte[] payload) {
+        return requestManager.request(subChannel, payload);
+    }
+    
+    /**
+     * Registers the handler that answers requests on a subchannel
+     * 
+     * @param owner The owning plugin; the handler is removed when it is disabled
+     * @param subChannel The subchannel
+     * @param handler The handler; it may complete its future asynchronously
+     */
+    public void registerRequestHandler(Plugin owner, String subChannel, RequestHandler handler) {
+        requestManager.registerHandler(owner, subChannel, handler);
+    }
+    
+    /**
+     * Removes the request handler of a subchannel
+     * 
+     * @param subChannel The subchannel
+     */
+    public void unregisterRequestHandler(String subChannel) {
+        requestManager.unregisterHandler(subChannel);
+    }
+    
+    /**
+     * Registers a handler for a legacy subchannel, called on the thread receiving the message
+     * 
+     * @param owner The owning plugin; the handler is removed when it is disabled
+     * @param subChannel The subchannel
+     * @param handler The handler
+     * @throws IllegalArgumentException If the subchannel already has a handler
+     */
+    public void registerHandler(Plugin owner, String subChannel, SubchannelHandler handler) {
+        handlerRegistry.register(owner, subChannel, handler);
+    }
+    
+    /**
+     * Registers a handler for a legacy subchannel
+     * 
+     * @param owner The owning plugin; the handler is removed when it is disabled
+     * @param subChannel The subchannel
+     * @param handler The handler
+     * @param async Whether the handler runs on the channel executor instead of the receiving thread
+     * @throws IllegalArgumentException If the subchannel already has a handler
+     */
+    public void registerHandler(Plugin owner, String subChannel, SubchannelHandler handler, boolean async) {
+        handlerRegistry.register(owner, subChannel, handler, async);
+    }
+    
+    /**
+     * Removes the handler of a legacy subchannel
+     * 
+     * @param subChannel The subchannel
+     */
+    public void unregisterHandler(String subChannel) {
+        handlerRegistry.unregister(subChannel);
+    }
+    
+    /**
+     * Removes all subchannel handlers, packet types and request handlers of a plugin
+     * 
+     * @param owner The owning plugin
+     * @return The number of removed registrations
+     */
+    public int unregisterAll(Plugin owner) {
+        return handlerRegistry.unregisterAll(owner)
+                + packetRegistry.unregisterAll(owner)
+                + requestManager.unregisterAll(owner);
     }
     
     /**
      * Sends a message to the proxy
      * 
-     * @param player The player to send through
+     * @param player The player to send through, or null to use any online player
      * @param subChannel The subchannel
      * @param data The data to send
      */
     public void sendMessage(Player player, String subChannel, String... data) {
-        if (player == null) {
-            plugin.getLoggerService().warn("Cannot send message: player is null");
-            return;
-        }
-        
         ByteArrayDataOutput out = ByteStreams.newDataOutput();
         out.writeUTF(subChannel);
         
@@ -128,13 +584,260 @@ public class PexoraChannel implements PluginMessageListener {
             out.writeUTF(datum);
         }
         
-        player.sendPluginMessage(plugin, CHANNEL_NAME, out.toByteArray());
+        send(player, out.toByteArray(), MessagePriority.NORMAL, getDefaultTtlMillis());
+    }
+    
+    /**
+     * Sends a message to the proxy through any online player.
+     * The message is queued if no player is online.
+     * 
+     * @param subChannel The subchannel
+     * @param data The data to send
+     */
+    public void sendMessage(String subChannel, String... data) {
+        sendMessage((Player) null, subChannel, data);
+    }
+    
+    /**
+     * Sends a frame through the given player, the current carrier or the outbound queue
+     * 
+     * @param player The preferred player, may be null
+     * @param frame The encoded frame
+     * @param priority The priority while queued
+     * @param ttlMillis How long the frame may stay queued
+     */
+    void send(Player player, byte[] frame, MessagePriority priority, long ttlMillis) {
+        Player target = player != null && player.isOnline() ? player : null;
+        if (target == null) {
+            synchronized (outboundQueue) {
+                // Until the delayed flush has run, new messages stay behind the older queued ones
+                target = flushPending ? null : getCarrier();
+                if (target == null) {
+                    if (!outboundQueue.offer(frame, priority, ttlMillis)) {
+                        plugin.getLoggerService().debug("Outbound queue is full, dropped message with priority " + priority);
+                    }
+                    return;
+                }
+            }
+        }
+        
+        transmit(target, frame);
+    }
+    
+    /**
+     * Hands a frame to the carrier, batched with other frames of this tick if enabled
+     * 
+     * @param target The carrier
+     * @param frame The encoded frame
+     */
+    private void transmit(Player target, byte[] frame) {
+        metrics.get(outboundName(frame)).recordOut(frame.length);
+        if (plugin.getCoreConfig().isChannelBatching()) {
+            frameBatcher.add(target, frame);
+        } else {
+            target.sendPluginMessage(plugin, CHANNEL_NAME, frame);
+        }
+    }
+    
+    /**
+     * Determines the metric name of an outgoing frame: the legacy subchannel or the packet name.
+     * Like received frames, only registered subchannels get their own entry.
+     */
+    private String outboundName(byte[] frame) {
+        if (frame.length < 2) {
+            return ChannelMetrics.UNKNOWN;
+        }
+        if (!isBinaryFrame(frame)) {
+            int length = Math.min(((frame[0] & 0xFF) << 8) | (frame[1] & 0xFF), frame.length - 2);
+            String subChannel = new String(frame, 2, length, StandardCharsets.UTF_8);
+            return handlerRegistry.get(subChannel) != null ? subChannel : ChannelMetrics.UNKNOWN;
+        }
+        
+        // VarInt packet ID after the empty subchannel and the version byte
+        int packetId = 0;
+        for (int i = 0, position = 3; i < 5 && position < frame.length; i++, position++) {
+            packetId |= (frame[position] & 0x7F) << (7 * i);
+            if ((frame[position] & 0x80) == 0) {
+                if (packetId >= 0 && packetId < CORE_PACKET_NAMES.length) {
+                    return CORE_PACKET_NAMES[packetId];
+                }
+                PacketType<?> type = packetRegistry.getType(packetId);
+                return type != null ? type.getName() : ChannelMetrics.UNKNOWN;
+            }
+        }
+        return ChannelMetrics.UNKNOWN;
+    }
+    
+    /**
+     * Returns the player currently used to carry messages to the proxy.
+     * The carrier is kept as long as it stays online, so messages use one connection.
+     * 
+     * @return The carrier, or null if no player is online
+     */
+    public Player getCarrier() {
+        Player current = carrier;
+        if (current != null && current.isOnline()) {
+            return current;
+        }
+        
+        carrier = selectCarrier(null);
+        return carrier;
+    }
+    
+    private Player selectCarrier(Player excluded) {
+        for (Player online : plugin.getServer().getOnlinePlayers()) {
+            if (online != excluded) {
+                return online;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Sends all queued messages through the current carrier
+     */
+    public void flushQueue() {
+        Player target;
+        List<byte[]> frames;
+        synchronized (outboundQueue) {
+            // Without a carrier, e.g. if the joining player left again, messages keep waiting in the queue
+            flushPending = false;
+            target = getCarrier();
+            if (target == null || outboundQueue.getDepth() == 0) {
+                return;
+            }
+            
+            frames = outboundQueue.drain();
+            for (byte[] frame : frames) {
+                transmit(target, frame);
+            }
+        }
+        plugin.getLoggerService().debug("Flushed " + frames.size() + " queued messages through " + target.getName());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        synchronized (outboundQueue) {
+            if (outboundQueue.getDepth() == 0) {
+                return;
+            }
+            flushPending = true;
+        }
+        
+        // The proxy registers the channel for the new connection shortly after the join
+        plugin.getServer().getScheduler().runTaskLater(plugin, this::flushQueue,
+                plugin.getCoreConfig().getChannelQueueFlushDelayTicks());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        security.endSession(event.getPlayer().getUniqueId());
+        if (event.getPlayer() == carrier) {
+            carrier = selectCarrier(event.getPlayer());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        if (event.getPlugin() == plugin) {
+            return;
+        }
+        
+        int removed = unregisterAll(event.getPlugin());
+        if (removed > 0) {
+            plugin.getLoggerService().debug("Removed " + removed + " channel handlers of " + event.getPlugin().getName());
+        }
+    }
+    
+    long getDefaultTtlMillis() {
+        return plugin.getCoreConfig().getChannelQueueTtlSeconds() * 1000L;
+    }
+    
+    /**
+     * Applies changed channel settings from the core configuration
+     */
+    public void reloadSettings() {
+        outboundQueue.setCapacity(plugin.getCoreConfig().getChannelQueueCapacity());
+        security.setSecret(plugin.getCoreConfig().getChannelSecret());
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        Map<String, String> status = new LinkedHashMap<>();
+        Player current = carrier;
+        status.put("Träger", current != null && current.isOnline() ? current.getName() : "keiner");
+        status.put("Warteschlange", outboundQueue.getDepth() + " Nachrichten");
+        status.put("Offene Anfragen", String.valueOf(requestManager.getInFlightCount()));
+        status.put("Authentifizierung", security.isEnabled()
+                ? "aktiv, " + security.getSessionCount() + " Sitzungen, " + security.getRejectedFrames() + " abgelehnt"
+                : "aus");
+        status.putAll(metrics.summarize(10));
+        return status;
+    }
+    
+    /**
+     * @return the traffic statistics per subchannel and packet type
+     */
+    public ChannelMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * @return the frame authentication, including session and rejection counters
+     */
+    public ChannelSecurity getSecurity() {
+        return security;
+    }
+    
+    /**
+     * @return the registry of legacy subchannel handlers
+     */
+    public ChannelHandlerRegistry getHandlerRegistry() {
+        return handlerRegistry;
+    }
+    
+    /**
+     * @return the registry of binary packet types
+     */
+    public PacketRegistry getPacketRegistry() {
+        return packetRegistry;
+    }
+    
+    /**
+     * @return the queue of messages waiting for a player carrier, including depth and drop counters
+     */
+    public OutboundQueue getOutboundQueue() {
+        return outboundQueue;
+    }
+    
+    /**
+     * @return the batcher that coalesces messages per tick, including batch and compression counters
+     */
+    public FrameBatcher getFrameBatcher() {
+        return frameBatcher;
+    }
+    
+    /**
+     * @return the manager of outgoing requests and request handlers
+     */
+    public RequestManager getRequestManager() {
+        return requestManager;
+    }
+    
+    /**
+     * @return the pool of reusable packet buffers
+     */
+    public BufferPool getBufferPool() {
+        return bufferPool;
     }
     
     /**
      * Unregisters the channel
      */
     public void unregister() {
+        requestManager.cancelAll();
+        frameBatcher.flush();
+        frameBatcher.close();
+        handlerExecutor.shutdown();
         plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, CHANNEL_NAME);
         plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, CHANNEL_NAME, this);
     }
@@ -0,0 +1,61 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.messaging.protocol.PacketBuffer;
+
+/**
+ * Transport through the plugin messaging channel, carried by an online player.
+ * 
+ * Topic messages are core binary frames that the proxy forwards to the other servers.
+ * Messages published while no player is online wait in the outbound queue of the
+ * {@link PexoraChannel}. The publishing server does not receive its own messages.
+ * Received messages are delivered on the server thread.
+ */
+public class PlayerCarrierTransport implements MessageTransport {
+
+    /**
+     * Reserved core packet ID for topic messages
+     */
+    public static final int TOPIC_PACKET_ID = 3;
+    
+    private final PexoraChannel channel;
+    
+    public PlayerCarrierTransport(PexoraChannel channel) {
+        this.channel = channel;
+    }
+    
+    @Override
+    public void start(Receiver receiver) {
+        channel.setTopicReceiver(receiver);
+    }
+    
+    @Override
+    public void publish(String topic, byte[] payload) {
+        byte[] frame;
+        PacketBuffer out = channel.getBufferPool().acquire();
+        try {
+            PexoraChannel.writeHeader(out, TOPIC_PACKET_ID);
+            out.writeString(topic);
+            out.writeByteArray(payload);
+            frame = out.toByteArray();
+        } finally {
+            channel.getBufferPool().release(out);
+        }
+        
+        channel.send(null, frame, MessagePriority.NORMAL, channel.getDefaultTtlMillis());
+    }
+    
+    @Override
+    public boolean isConnected() {
+        return channel.getCarrier() != null;
+    }
+    
+    @Override
+    public String getName() {
+        return "player";
+    }
+    
+    @Override
+    public void close() {
+        channel.setTopicReceiver(null);
+    }
+}
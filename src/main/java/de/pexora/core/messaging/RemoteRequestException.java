@@ -0,0 +1,11 @@
+package de.pexora.core.messaging;
+
+/**
+ * Thrown when the remote side of a channel request reports an error or has no handler.
+ */
+public class RemoteRequestException extends RuntimeException {
+
+    public RemoteRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package de.pexora.core.messaging;
+
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Answers requests made by another server through {@link PexoraChannel#request(String, byte[])}.
+ * The handler is called on the thread that received the message and may complete the
+ * returned future later, e.g. after a database lookup on another thread.
+ */
+@FunctionalInterface
+public interface RequestHandler {
+
+    /**
+     * Handles a request
+     * 
+     * @param carrier The player connection that carried the request
+     * @param payload The request payload
+     * @return A future with the response payload
+     */
+    CompletableFuture<byte[]> handle(Player carrier, byte[] payload);
+}
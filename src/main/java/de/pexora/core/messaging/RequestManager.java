@@ -0,0 +1,260 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.protocol.PacketBuffer;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request/response calls over the Pexora channel.
+ * 
+ * Requests and responses are core binary frames. A request carries a correlation ID, the
+ * subchannel and the payload; the response carries the same correlation ID, a status byte
+ * and either the response payload or an error message. Pending requests are kept in a
+ * bounded table and fail with a TimeoutException if no response arrives in time.
+ */
+public class RequestManager {
+
+    /**
+     * Reserved core packet ID for requests
+     */
+    public static final int REQUEST_PACKET_ID = 1;
+    
+    /**
+     * Reserved core packet ID for responses
+     */
+    public static final int RESPONSE_PACKET_ID = 2;
+    
+    private static final int STATUS_OK = 0;
+    private static final int STATUS_ERROR = 1;
+    private static final int STATUS_NO_HANDLER = 2;
+    
+    /**
+     * Header, correlation ID, status and length prefix of a response frame at their maximum size
+     */
+    private static final int RESPONSE_OVERHEAD = 2 + 1 + 5 + 10 + 1 + 5;
+    private static final int MAX_RESPONSE_SIZE = PacketBuffer.MAX_FRAME_SIZE - RESPONSE_OVERHEAD;
+    private static final int MAX_ERROR_LENGTH = 256;
+    
+    private final PexoraCore plugin;
+    private final PexoraChannel channel;
+    private final Map<Long, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, OwnedHandler> handlers = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger inFlightCount = new AtomicInteger();
+    
+    public RequestManager(PexoraCore plugin, PexoraChannel channel) {
+        this.plugin = plugin;
+        this.channel = channel;
+    }
+    
+    /**
+     * Sends a request and waits asynchronously for the response
+     * 
+     * @param subChannel The subchannel the remote handler is registered for
+     * @param payload The request payload
+     * @return A future with the response payload; fails with a TimeoutException,
+     *         RejectedExecutionException (too many requests in flight) or RemoteRequestException
+     */
+    public CompletableFuture<byte[]> request(String subChannel, byte[] payload) {
+        if (inFlightCount.incrementAndGet() > plugin.getCoreConfig().getChannelMaxInFlightRequests()) {
+            inFlightCount.decrementAndGet();
+            CompletableFuture<byte[]> rejected = new CompletableFuture<>();
+            rejected.completeExceptionally(new RejectedExecutionException("Too many in-flight requests"));
+            return rejected;
+        }
+        
+        long id = nextId.incrementAndGet();
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        inFlight.put(id, future);
+        future.whenComplete((response, error) -> {
+            inFlight.remove(id);
+            inFlightCount.decrementAndGet();
+        });
+        
+        long timeoutMillis = plugin.getCoreConfig().getChannelRequestTimeoutMillis();
+        future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        
+        byte[] frame;
+        PacketBuffer out = channel.getBufferPool().acquire();
+        try {
+            PexoraChannel.writeHeader(out, REQUEST_PACKET_ID);
+            out.writeVarLong(id);
+            out.writeString(subChannel);
+            out.writeByteArray(payload);
+            frame = out.toByteArray();
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            return future;
+        } finally {
+            channel.getBufferPool().release(out);
+        }
+        
+        // Queued if no carrier is online; the timeout keeps running meanwhile
+        channel.send(null, frame, MessagePriority.HIGH, timeoutMillis);
+        return future;
+    }
+    
+    /**
+     * Registers the handler for incoming requests on a subchannel
+     * 
+     * @param owner The owning plugin; its handlers are removed when it is disabled
+     * @param subChannel The subchannel
+     * @param handler The handler
+     * @throws IllegalArgumentException If a handler is already registered for the subchannel
+     */
+    public void registerHandler(Plugin owner, String subChannel, RequestHandler handler) {
+        OwnedHandler existing = handlers.putIfAbsent(subChannel, new OwnedHandler(owner, handler));
+        if (existing != null) {
+            throw new IllegalArgumentException("A request handler for '" + subChannel + "' is already registered by " + existing.owner.getName());
+        }
+    }
+    
+    /**
+     * Removes the handler for a subchannel
+     * 
+     * @param subChannel The subchannel
+     */
+    public void unregisterHandler(String subChannel) {
+        handlers.remove(subChannel);
+    }
+    
+    /**
+     * Removes all request handlers of a plugin
+     * 
+     * @param owner The owning plugin
+     * @return The number of removed handlers
+     */
+    public int unregisterAll(Plugin owner) {
+        int removed = 0;
+        for (Map.Entry<String, OwnedHandler> entry : handlers.entrySet()) {
+            if (entry.getValue().owner == owner && handlers.remove(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Handles a received request frame
+     * 
+     * @param carrier The player that received the frame
+     * @param in The buffer positioned after the packet ID
+     */
+    void handleRequest(Player carrier, PacketBuffer in) {
+        long id = in.readVarLong();
+        String subChannel = in.readString();
+        byte[] payload = in.readByteArray();
+        
+        OwnedHandler owned = handlers.get(subChannel);
+        if (owned == null) {
+            sendResponse(carrier, id, STATUS_NO_HANDLER, null, "No handler for " + subChannel);
+            return;
+        }
+        
+        CompletableFuture<byte[]> response;
+        try {
+            response = owned.handler.handle(carrier, payload);
+        } catch (RuntimeException e) {
+            response = new CompletableFuture<>();
+            response.completeExceptionally(e);
+        }
+        
+        response.whenComplete((result, error) -> {
+            // Exceptions thrown here would be swallowed by the future and the requester would only time out
+            try {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    plugin.getLoggerService().debug("Request handler for " + subChannel + " failed: " + cause);
+                    sendResponse(carrier, id, STATUS_ERROR, null, String.valueOf(cause.getMessage()));
+                } else if (result != null && result.length > MAX_RESPONSE_SIZE) {
+                    plugin.getLoggerService().warn("Response of the request handler for " + subChannel + " is too large ("
+                            + result.length + " bytes, at most " + MAX_RESPONSE_SIZE + ")");
+                    sendResponse(carrier, id, STATUS_ERROR, null, "Response too large: " + result.length + " bytes");
+                } else {
+                    sendResponse(carrier, id, STATUS_OK, result, null);
+                }
+            } catch (RuntimeException e) {
+                plugin.getLoggerService().warn("Response for request " + id + " on " + subChannel + " could not be sent: " + e);
+            }
+        });
+    }
+    
+    /**
+     * Handles a received response frame
+     * 
+     * @param in The buffer positioned after the packet ID
+     */
+    void handleResponse(PacketBuffer in) {
+        long id = in.readVarLong();
+        int status = in.readUnsignedByte();
+        CompletableFuture<byte[]> future = inFlight.get(id);
+        if (future == null) {
+            // Timed out already or answered twice
+            plugin.getLoggerService().debug("Received response for unknown request " + id);
+            return;
+        }
+        
+        if (status == STATUS_OK) {
+            future.complete(in.readByteArray());
+        } else {
+            future.completeExceptionally(new RemoteRequestException(in.readString()));
+        }
+    }
+    
+    private void sendResponse(Player carrier, long id, int status, byte[] payload, String error) {
+        byte[] frame;
+        PacketBuffer out = channel.getBufferPool().acquire();
+        try {
+            PexoraChannel.writeHeader(out, RESPONSE_PACKET_ID);
+            out.writeVarLong(id);
+            out.writeByte(status);
+            if (status == STATUS_OK) {
+                out.writeByteArray(payload != null ? payload : new byte[0]);
+            } else {
+                out.writeString(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+            }
+            frame = out.toByteArray();
+        } finally {
+            channel.getBufferPool().release(out);
+        }
+        
+        channel.send(carrier, frame, MessagePriority.HIGH, plugin.getCoreConfig().getChannelRequestTimeoutMillis());
+    }
+    
+    /**
+     * @return the number of requests waiting for a response
+     */
+    public int getInFlightCount() {
+        return inFlightCount.get();
+    }
+    
+    /**
+     * Fails all pending requests, e.g. when the channel is closed
+     */
+    public void cancelAll() {
+        for (CompletableFuture<byte[]> future : inFlight.values()) {
+            future.completeExceptionally(new IllegalStateException("Channel closed"));
+        }
+    }
+    
+    private static final class OwnedHandler {
+        
+        private final Plugin owner;
+        private final RequestHandler handler;
+        
+        private OwnedHandler(Plugin owner, RequestHandler handler) {
+            this.owner = owner;
+            this.handler = handler;
+        }
+    }
+}
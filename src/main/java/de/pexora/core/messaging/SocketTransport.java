@@ -0,0 +1,657 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.protocol.BufferPool;
+import de.pexora.core.messaging.protocol.PacketBuffer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Direct TCP transport between backend servers, without a player or the proxy.
+ * 
+ * Every server listens on its bind address and connects to the configured peers. A single
+ * I/O thread drives all connections through one selector. Frames are length-prefixed:
+ * [int length][byte type][...]. After connecting, both sides send a HELLO with their node ID
+ * and a random nonce. The connecting side (initiator) then sends an AUTH frame containing
+ * HMAC(secret, "pexora-transport" | role | initiator nonce | acceptor nonce | initiator node ID |
+ * acceptor node ID), using the secret from {@code channel.security.secret}. The accepting side
+ * only answers with its own AUTH after the initiator's AUTH matched, so an unauthenticated peer
+ * never obtains a proof, and a proof cannot be replayed in the other role or on another
+ * connection. A peer is only linked once its AUTH matches; with an empty secret, peers are not
+ * authenticated. Peer host names are resolved on a separate thread. If two servers connected to each other
+ * at the same time, the link opened by the lower node ID is kept. Messages are only sent to
+ * linked peers and never echoed back to the publisher. Received messages are delivered on
+ * the I/O thread.
+ */
+public class SocketTransport implements MessageTransport {
+
+    private static final int TYPE_HELLO = 0;
+    private static final int TYPE_MESSAGE = 1;
+    private static final int TYPE_AUTH = 2;
+    private static final int NONCE_SIZE = 16;
+    private static final String ROLE_INITIATOR = "initiator";
+    private static final String ROLE_ACCEPTOR = "acceptor";
+    
+    /**
+     * Maximum number of bytes waiting to be written per connection before messages are dropped
+     */
+    private static final int MAX_PENDING_BYTES = 4 * 1024 * 1024;
+    
+    private final PexoraCore plugin;
+    private final String nodeId;
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers;
+    private final long reconnectMillis;
+    private final byte[] secret;
+    private final SecureRandom random = new SecureRandom();
+    private final BufferPool bufferPool = new BufferPool(4);
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private final AtomicLong rejectedPeers = new AtomicLong();
+    
+    // Host names are resolved off the I/O thread; results are picked up by connectPeers
+    private final ThreadPoolExecutor resolver;
+    private final Set<InetSocketAddress> resolving = ConcurrentHashMap.newKeySet();
+    private final Map<InetSocketAddress, InetSocketAddress> resolvedPeers = new ConcurrentHashMap<>();
+    private final AtomicBoolean peersResolved = new AtomicBoolean();
+    
+    // Only accessed by the I/O thread
+    private final Map<InetSocketAddress, Connection> outgoing = new HashMap<>();
+    private final Map<InetSocketAddress, String> peerNodes = new HashMap<>();
+    private long nextReconnect;
+    
+    private volatile boolean running;
+    private volatile Receiver receiver;
+    private volatile Selector selector;
+    private ServerSocketChannel server;
+    private Thread ioThread;
+    
+    /**
+     * @param plugin The core plugin
+     * @param nodeId The unique ID of this server in the group
+     * @param bindAddress The address to listen on, or null to only connect to peers
+     * @param peers The servers to connect to
+     * @param reconnectMillis The delay between connection attempts to unreachable peers
+     * @param secret The secret shared by all servers, or an empty string to accept any peer
+     */
+    public SocketTransport(PexoraCore plugin, String nodeId, InetSocketAddress bindAddress,
+                           List<InetSocketAddress> peers, long reconnectMillis, String secret) {
+        this.plugin = plugin;
+        this.nodeId = nodeId;
+        this.bindAddress = bindAddress;
+        this.peers = new ArrayList<>(peers);
+        this.reconnectMillis = reconnectMillis;
+        this.secret = secret == null || secret.isEmpty() ? null : secret.getBytes(StandardCharsets.UTF_8);
+        this.resolver = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, peers.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-Transport-Resolver");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        resolver.allowCoreThreadTimeOut(true);
+    }
+    
+    /**
+     * Parses an address in the form host:port
+     * 
+     * @param address The address
+     * @return The unresolved socket address
+     * @throws IllegalArgumentException If the address has no valid port
+     */
+    public static InetSocketAddress parseAddress(String address) {
+        int separator = address.lastIndexOf(':');
+        if (separator <= 0 || separator == address.length() - 1) {
+            throw new IllegalArgumentException("Expected host:port, got '" + address + "'");
+        }
+        try {
+            int port = Integer.parseInt(address.substring(separator + 1));
+            return new InetSocketAddress(address.substring(0, separator), port);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid port in '" + address + "'");
+        }
+    }
+    
+    @Override
+    public void start(Receiver receiver) {
+        this.receiver = receiver;
+        try {
+            selector = Selector.open();
+            if (bindAddress != null) {
+                server = ServerSocketChannel.open();
+                server.configureBlocking(false);
+                server.bind(bindAddress);
+                server.register(selector, SelectionKey.OP_ACCEPT);
+            }
+        } catch (IOException e) {
+            closeQuietly();
+            throw new IllegalStateException("Could not open socket transport on " + bindAddress + ": " + e.getMessage(), e);
+        }
+        
+        running = true;
+        ioThread = new Thread(this::run, "Pexora-Transport");
+        ioThread.setDaemon(true);
+        ioThread.start();
+        plugin.getLoggerService().info("Socket transport '" + nodeId + "' started"
+                + (bindAddress != null ? " on " + bindAddress : "") + " with " + peers.size() + " peers");
+        if (secret == null) {
+            plugin.getLoggerService().warn("No channel.security.secret configured, transport peers are not authenticated");
+        }
+    }
+    
+    @Override
+    public void publish(String topic, byte[] payload) {
+        Selector active = selector;
+        if (!running || active == null) {
+            droppedMessages.incrementAndGet();
+            return;
+        }
+        
+        byte[] frame;
+        PacketBuffer out = bufferPool.acquire();
+        try {
+            out.writeInt(0);
+            out.writeByte(TYPE_MESSAGE);
+            out.writeString(topic);
+            out.writeByteArray(payload);
+            out.nioBuffer().putInt(0, out.position() - 4);
+            frame = out.toByteArray();
+        } finally {
+            bufferPool.release(out);
+        }
+        
+        boolean linked = false;
+        boolean queued = false;
+        for (Connection connection : connections) {
+            if (connection.remoteNode != null) {
+                linked = true;
+                queued |= connection.enqueue(frame);
+            }
+        }
+        if (queued) {
+            active.wakeup();
+        } else if (!linked) {
+            droppedMessages.incrementAndGet();
+        }
+    }
+    
+    @Override
+    public boolean isConnected() {
+        for (Connection connection : connections) {
+            if (connection.remoteNode != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean isBlockingDeliveryAllowed() {
+        // A full subscriber queue must not stall the I/O thread of all peers
+        return false;
+    }
+    
+    @Override
+    public String getName() {
+        return "socket";
+    }
+    
+    @Override
+    public void close() {
+        running = false;
+        receiver = null;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        resolver.shutdownNow();
+        if (ioThread != null) {
+            try {
+                ioThread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    /**
+     * @return the number of peers that completed the HELLO exchange
+     */
+    public int getConnectedPeerCount() {
+        int count = 0;
+        for (Connection connection : connections) {
+            if (connection.remoteNode != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * @return the number of messages that could not be sent because no peer was connected or a peer fell behind
+     */
+    public long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+    
+    /**
+     * @return the number of connections closed because the peer failed to authenticate
+     */
+    public long getRejectedPeers() {
+        return rejectedPeers.get();
+    }
+    
+    private void run() {
+        while (running) {
+            try {
+                long now = System.currentTimeMillis();
+                if (now >= nextReconnect) {
+                    nextReconnect = now + reconnectMillis;
+                    connectPeers();
+                } else if (peersResolved.getAndSet(false)) {
+                    connectPeers();
+                }
+                
+                for (Connection connection : connections) {
+                    if (connection.pendingBytes.get() > 0 && connection.socket.isConnected() && connection.key.isValid()) {
+                        connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+                
+                selector.select(Math.max(1, nextReconnect - now));
+                
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handleKey(key);
+                }
+            } catch (IOException | RuntimeException e) {
+                plugin.getLoggerService().warn("Socket transport error: " + e.getMessage());
+            }
+        }
+        closeQuietly();
+    }
+    
+    private void handleKey(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isConnectable()) {
+                connection.socket.finishConnect();
+                key.interestOps(SelectionKey.OP_READ);
+                sendHello(connection);
+            }
+            if (key.isReadable()) {
+                read(connection);
+            }
+            if (key.isValid() && key.isWritable()) {
+                write(connection);
+            }
+        } catch (IOException | RuntimeException e) {
+            plugin.getLoggerService().debug("Closed transport connection to " + connection.describe() + ": " + e.getMessage());
+            closeConnection(connection);
+        }
+    }
+    
+    private void connectPeers() {
+        for (InetSocketAddress peer : peers) {
+            if (outgoing.containsKey(peer) || isLinked(peerNodes.get(peer))) {
+                continue;
+            }
+            
+            // Every attempt resolves the host again, so changed DNS entries are picked up
+            InetSocketAddress resolved = resolvedPeers.remove(peer);
+            if (resolved == null) {
+                resolve(peer);
+                continue;
+            }
+            if (resolved.isUnresolved()) {
+                plugin.getLoggerService().debug("Could not resolve transport peer " + peer);
+                continue;
+            }
+            
+            SocketChannel socket = null;
+            try {
+                socket = SocketChannel.open();
+                socket.configureBlocking(false);
+                Connection connection = new Connection(socket, peer);
+                if (socket.connect(resolved)) {
+                    connection.key = socket.register(selector, SelectionKey.OP_READ, connection);
+                    sendHello(connection);
+                } else {
+                    connection.key = socket.register(selector, SelectionKey.OP_CONNECT, connection);
+                }
+                outgoing.put(peer, connection);
+                connections.add(connection);
+            } catch (IOException e) {
+                plugin.getLoggerService().debug("Could not connect to transport peer " + peer + ": " + e.getMessage());
+                if (socket != null) {
+                    try {
+                        socket.close();
+                    } catch (IOException ignored) {
+                        // Never connected
+                    }
+                }
+            }
+        }
+    }
+    
+    private void resolve(InetSocketAddress peer) {
+        if (!resolving.add(peer)) {
+            return;
+        }
+        try {
+            resolver.execute(() -> {
+                resolvedPeers.put(peer, new InetSocketAddress(peer.getHostString(), peer.getPort()));
+                resolving.remove(peer);
+                peersResolved.set(true);
+                Selector active = selector;
+                if (active != null) {
+                    active.wakeup();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            resolving.remove(peer);
+        }
+    }
+    
+    private boolean isLinked(String node) {
+        if (node == null) {
+            return false;
+        }
+        for (Connection connection : connections) {
+            if (node.equals(connection.remoteNode)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void accept() {
+        try {
+            SocketChannel socket = server.accept();
+            if (socket == null) {
+                return;
+            }
+            socket.configureBlocking(false);
+            Connection connection = new Connection(socket, null);
+            connection.key = socket.register(selector, SelectionKey.OP_READ, connection);
+            connections.add(connection);
+            sendHello(connection);
+        } catch (IOException e) {
+            plugin.getLoggerService().warn("Could not accept transport connection: " + e.getMessage());
+        }
+    }
+    
+    private void sendHello(Connection connection) {
+        PacketBuffer out = bufferPool.acquire();
+        try {
+            out.writeInt(0);
+            out.writeByte(TYPE_HELLO);
+            out.writeString(nodeId);
+            out.writeString(connection.nonce);
+            out.nioBuffer().putInt(0, out.position() - 4);
+            connection.enqueue(out.toByteArray());
+        } finally {
+            bufferPool.release(out);
+        }
+    }
+    
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.readBuffer;
+        if (connection.socket.read(buffer) < 0) {
+            throw new IOException("connection closed by peer");
+        }
+        
+        buffer.flip();
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt(buffer.position());
+            if (length <= 0 || length > PacketBuffer.MAX_FRAME_SIZE) {
+                throw new IOException("invalid frame length " + length);
+            }
+            if (buffer.remaining() < 4 + length) {
+                break;
+            }
+            
+            PacketBuffer in = bufferPool.acquire().load(buffer.array(), buffer.position() + 4, length);
+            buffer.position(buffer.position() + 4 + length);
+            try {
+                handleFrame(connection, in);
+            } finally {
+                bufferPool.release(in);
+            }
+            if (!connection.socket.isOpen()) {
+                return;
+            }
+        }
+        buffer.compact();
+    }
+    
+    private void handleFrame(Connection connection, PacketBuffer in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type == TYPE_HELLO) {
+            handleHello(connection, in.readString(), in.readString());
+            return;
+        }
+        if (type == TYPE_AUTH) {
+            handleAuth(connection, in.readString());
+            return;
+        }
+        if (connection.remoteNode == null) {
+            throw new IOException("message before authentication");
+        }
+        if (type == TYPE_MESSAGE) {
+            String topic = in.readString();
+            byte[] payload = in.readByteArray();
+            Receiver target = receiver;
+            if (target != null) {
+                target.receive(topic, payload);
+            }
+        }
+    }
+    
+    private void handleHello(Connection connection, String remoteNode, String remoteNonce) throws IOException {
+        if (connection.helloNode != null) {
+            throw new IOException("duplicate HELLO");
+        }
+        if (remoteNode.equals(nodeId)) {
+            throw new IOException("peer uses the same node ID '" + nodeId + "'");
+        }
+        connection.helloNode = remoteNode;
+        connection.remoteNonce = remoteNonce;
+        
+        // The acceptor answers only after the initiator has proven that it knows the secret
+        if (connection.peer != null) {
+            sendAuth(connection);
+        }
+    }
+    
+    private void sendAuth(Connection connection) {
+        PacketBuffer out = bufferPool.acquire();
+        try {
+            out.writeInt(0);
+            out.writeByte(TYPE_AUTH);
+            out.writeString(secret != null ? ChannelSecurity.toHex(proof(connection, connection.peer != null)) : "");
+            out.nioBuffer().putInt(0, out.position() - 4);
+            connection.enqueue(out.toByteArray());
+        } finally {
+            bufferPool.release(out);
+        }
+    }
+    
+    private void handleAuth(Connection connection, String mac) throws IOException {
+        String remoteNode = connection.helloNode;
+        if (remoteNode == null || connection.remoteNode != null) {
+            throw new IOException("unexpected AUTH");
+        }
+        // The remote side has the opposite role
+        if (secret != null && !MessageDigest.isEqual(proof(connection, connection.peer == null), ChannelSecurity.fromHex(mac))) {
+            rejectedPeers.incrementAndGet();
+            plugin.getLoggerService().warn("Transport peer " + connection.describe() + " claiming node '" + remoteNode
+                    + "' failed to authenticate, check channel.security.secret");
+            throw new IOException("authentication failed");
+        }
+        if (connection.peer != null) {
+            peerNodes.put(connection.peer, remoteNode);
+        } else {
+            sendAuth(connection);
+        }
+        
+        for (Connection other : connections) {
+            if (other == connection || !remoteNode.equals(other.remoteNode)) {
+                continue;
+            }
+            
+            // Both servers connected to each other; keep the link opened by the lower node ID
+            String preferredInitiator = nodeId.compareTo(remoteNode) < 0 ? nodeId : remoteNode;
+            String initiator = connection.peer != null ? nodeId : remoteNode;
+            if (initiator.equals(preferredInitiator)) {
+                closeConnection(other);
+            } else {
+                closeConnection(connection);
+                return;
+            }
+        }
+        
+        connection.remoteNode = remoteNode;
+        plugin.getLoggerService().info("Transport connected to node '" + remoteNode + "'");
+    }
+    
+    /**
+     * Computes the AUTH proof of one side of a connection. Both nonces and the role are part of
+     * the MAC, so a proof obtained on one connection is worthless on any other.
+     * 
+     * @param connection The connection after the HELLO exchange
+     * @param byInitiator Whether the proof is sent by the side that opened the connection
+     */
+    private byte[] proof(Connection connection, boolean byInitiator) {
+        boolean initiated = connection.peer != null;
+        String initiatorNonce = initiated ? connection.nonce : connection.remoteNonce;
+        String acceptorNonce = initiated ? connection.remoteNonce : connection.nonce;
+        String initiatorNode = initiated ? nodeId : connection.helloNode;
+        String acceptorNode = initiated ? connection.helloNode : nodeId;
+        return ChannelSecurity.hmac(secret, "pexora-transport", byInitiator ? ROLE_INITIATOR : ROLE_ACCEPTOR,
+                initiatorNonce, acceptorNonce, initiatorNode, acceptorNode);
+    }
+    
+    private String newNonce() {
+        byte[] nonce = new byte[NONCE_SIZE];
+        random.nextBytes(nonce);
+        return ChannelSecurity.toHex(nonce);
+    }
+    
+    private void write(Connection connection) throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = connection.writeQueue.peek()) != null) {
+            connection.socket.write(buffer);
+            if (buffer.hasRemaining()) {
+                return;
+            }
+            connection.writeQueue.poll();
+            connection.pendingBytes.addAndGet(-buffer.capacity());
+        }
+        connection.key.interestOps(SelectionKey.OP_READ);
+    }
+    
+    private void closeConnection(Connection connection) {
+        connections.remove(connection);
+        if (connection.peer != null) {
+            outgoing.remove(connection.peer, connection);
+        }
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.socket.close();
+        } catch (IOException ignored) {
+            // Already closed
+        }
+        if (connection.remoteNode != null) {
+            plugin.getLoggerService().info("Transport disconnected from node '" + connection.remoteNode + "'");
+        }
+    }
+    
+    private void closeQuietly() {
+        for (Connection connection : connections) {
+            closeConnection(connection);
+        }
+        try {
+            if (server != null) {
+                server.close();
+            }
+            if (selector != null) {
+                selector.close();
+            }
+        } catch (IOException ignored) {
+            // Shutting down anyway
+        }
+    }
+    
+    private final class Connection {
+        
+        private final SocketChannel socket;
+        private final InetSocketAddress peer;
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(4 + PacketBuffer.MAX_FRAME_SIZE);
+        private final ConcurrentLinkedQueue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingBytes = new AtomicInteger();
+        private final String nonce = newNonce();
+        private volatile String remoteNode;
+        private String helloNode;
+        private String remoteNonce;
+        private SelectionKey key;
+        
+        /**
+         * @param socket The socket
+         * @param peer The configured peer for outgoing links, null for accepted links
+         */
+        private Connection(SocketChannel socket, InetSocketAddress peer) {
+            this.socket = socket;
+            this.peer = peer;
+        }
+        
+        private boolean enqueue(byte[] frame) {
+            if (pendingBytes.addAndGet(frame.length) > MAX_PENDING_BYTES) {
+                pendingBytes.addAndGet(-frame.length);
+                droppedMessages.incrementAndGet();
+                return false;
+            }
+            writeQueue.add(ByteBuffer.wrap(frame));
+            return true;
+        }
+        
+        private String describe() {
+            return remoteNode != null ? "node '" + remoteNode + "'" : peer != null ? peer.toString() : "incoming peer";
+        }
+    }
+}
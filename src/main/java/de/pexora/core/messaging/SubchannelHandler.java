@@ -0,0 +1,20 @@
+package de.pexora.core.messaging;
+
+import com.google.common.io.ByteArrayDataInput;
+import org.bukkit.entity.Player;
+
+/**
+ * Handles legacy frames of one subchannel on the Pexora channel.
+ * The input is positioned right after the subchannel name.
+ */
+@FunctionalInterface
+public interface SubchannelHandler {
+
+    /**
+     * Handles a received frame
+     * 
+     * @param carrier The player connection that carried the frame
+     * @param in The frame data after the subchannel name
+     */
+    void handle(Player carrier, ByteArrayDataInput in);
+}
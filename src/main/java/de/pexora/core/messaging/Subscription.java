@@ -0,0 +1,289 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.PexoraCore;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A subscription of a plugin to a topic pattern on the {@link MessageBus}.
+ * 
+ * Each subscription has its own bounded queue, so a slow listener only delays and drops its
+ * own messages. The queue is drained in order by at most one task at a time, on the server
+ * thread or an async scheduler thread depending on the {@link SubscriptionOptions}.
+ */
+public final class Subscription {
+
+    /**
+     * Maximum number of messages handled per drain task before yielding
+     */
+    private static final int DRAIN_BATCH = 256;
+    
+    private final PexoraCore plugin;
+    private final Plugin owner;
+    private final String pattern;
+    private final TopicPattern matcher;
+    private final TopicListener listener;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean async;
+    private final long blockTimeoutNanos;
+    
+    // Ring buffer, guarded by lock
+    private final String[] topics;
+    private final byte[][] payloads;
+    private int head;
+    private int size;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean active = true;
+    
+    Subscription(PexoraCore plugin, Plugin owner, String pattern, TopicListener listener,
+                 int capacity, OverflowPolicy overflowPolicy, boolean async, long blockTimeoutMillis) {
+        this.plugin = plugin;
+        this.owner = owner;
+        this.pattern = pattern;
+        this.matcher = TopicPattern.isWildcard(pattern) ? TopicPattern.compile(pattern) : null;
+        this.listener = listener;
+        this.overflowPolicy = overflowPolicy;
+        this.async = async;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.topics = new String[capacity];
+        this.payloads = new byte[capacity][];
+    }
+    
+    /**
+     * @param topic A concrete topic
+     * @return whether this subscription receives messages of the topic
+     */
+    boolean matches(String topic) {
+        return matcher != null ? matcher.matches(topic) : pattern.equals(topic);
+    }
+    
+    /**
+     * @return whether the pattern contains wildcards
+     */
+    boolean isWildcard() {
+        return matcher != null;
+    }
+    
+    /**
+     * Queues a message for the listener, applying the overflow policy if the queue is full
+     * 
+     * @param topic The topic
+     * @param payload The payload
+     * @param mayBlock Whether the delivering thread may wait for room under {@link OverflowPolicy#BLOCK}
+     * @return false if the message was dropped
+     */
+    boolean offer(String topic, byte[] payload, boolean mayBlock) {
+        lock.lock();
+        try {
+            if (!active) {
+                return false;
+            }
+            
+            int capacity = topics.length;
+            if (size == capacity) {
+                switch (overflowPolicy) {
+                    case DROP_OLDEST:
+                        topics[head] = null;
+                        payloads[head] = null;
+                        head = (head + 1) % capacity;
+                        size--;
+                        dropped.incrementAndGet();
+                        break;
+                    case BLOCK:
+                        if (!mayBlock || !awaitSpace()) {
+                            dropped.incrementAndGet();
+                            return false;
+                        }
+                        break;
+                    case DROP_NEWEST:
+                    default:
+                        dropped.incrementAndGet();
+                        return false;
+                }
+            }
+            
+            int tail = (head + size) % capacity;
+            topics[tail] = topic;
+            payloads[tail] = payload;
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        
+        schedule();
+        return true;
+    }
+    
+    /**
+     * Waits until the queue has room. Must be called while holding the lock.
+     * 
+     * @return false if the wait timed out, was interrupted, the subscription was cancelled
+     *         or the caller is the server thread
+     */
+    private boolean awaitSpace() {
+        // Blocking the server thread would stall the server and main-thread subscribers
+        if (plugin.getServer().isPrimaryThread()) {
+            return false;
+        }
+        
+        long nanos = blockTimeoutNanos;
+        try {
+            while (size == topics.length && active) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return active;
+    }
+    
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        
+        try {
+            if (async) {
+                plugin.getServer().getScheduler().runTaskAsynchronously(plugin, this::drain);
+            } else {
+                plugin.getServer().getScheduler().runTask(plugin, this::drain);
+            }
+        } catch (RuntimeException e) {
+            // The core is being disabled
+            scheduled.set(false);
+        }
+    }
+    
+    private void drain() {
+        for (int i = 0; i < DRAIN_BATCH && active; i++) {
+            String topic;
+            byte[] payload;
+            lock.lock();
+            try {
+                if (size == 0) {
+                    break;
+                }
+                topic = topics[head];
+                payload = payloads[head];
+                topics[head] = null;
+                payloads[head] = null;
+                head = (head + 1) % topics.length;
+                size--;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            
+            long start = plugin.getProfiler().begin();
+            try {
+                listener.onMessage(topic, payload);
+                delivered.incrementAndGet();
+            } catch (RuntimeException e) {
+                plugin.getLoggerService().warn("Listener of " + owner.getName() + " for topic " + topic + " failed: " + e.getMessage());
+            } finally {
+                plugin.getProfiler().end(owner, start);
+            }
+        }
+        
+        scheduled.set(false);
+        
+        // Messages that arrived while this task was finishing, or beyond the batch limit
+        lock.lock();
+        boolean pending;
+        try {
+            pending = size > 0 && active;
+        } finally {
+            lock.unlock();
+        }
+        if (pending) {
+            schedule();
+        }
+    }
+    
+    /**
+     * Deactivates the subscription, discards queued messages and releases blocked producers
+     */
+    void cancel() {
+        lock.lock();
+        try {
+            active = false;
+            Arrays.fill(topics, null);
+            Arrays.fill(payloads, null);
+            head = 0;
+            size = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public Plugin getOwner() {
+        return owner;
+    }
+    
+    /**
+     * @return the topic or topic pattern
+     */
+    public String getTopic() {
+        return pattern;
+    }
+    
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+    
+    /**
+     * @return the number of messages waiting for the listener
+     */
+    public int getDepth() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @return the maximum number of waiting messages
+     */
+    public int getCapacity() {
+        return topics.length;
+    }
+    
+    /**
+     * @return the number of messages passed to the listener
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+    
+    /**
+     * @return the number of messages discarded because the queue was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+    
+    /**
+     * @return whether the subscription is still registered
+     */
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,54 @@
+package de.pexora.core.messaging;
+
+/**
+ * Options for a subscription on the {@link MessageBus}.
+ * Unset values use the defaults from {@code channel.pubsub} in the config.
+ */
+public class SubscriptionOptions {
+
+    private int capacity = -1;
+    private OverflowPolicy overflowPolicy;
+    private boolean async = false;
+    
+    /**
+     * @param capacity The maximum number of messages waiting for the listener
+     * @return These options
+     */
+    public SubscriptionOptions withCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        return this;
+    }
+    
+    /**
+     * @param overflowPolicy What happens when the queue is full
+     * @return These options
+     */
+    public SubscriptionOptions withOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+    
+    /**
+     * @param async Whether the listener runs on an async scheduler thread instead of the server thread
+     * @return These options
+     */
+    public SubscriptionOptions withAsync(boolean async) {
+        this.async = async;
+        return this;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+    
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+    
+    public boolean isAsync() {
+        return async;
+    }
+}
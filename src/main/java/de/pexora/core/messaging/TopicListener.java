@@ -0,0 +1,14 @@
+package de.pexora.core.messaging;
+
+/**
+ * Receives messages published to a topic on the {@link MessageBus}
+ */
+@FunctionalInterface
+public interface TopicListener {
+
+    /**
+     * @param topic The topic the message was published to
+     * @param payload The payload
+     */
+    void onMessage(String topic, byte[] payload);
+}
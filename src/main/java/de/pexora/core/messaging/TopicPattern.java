@@ -0,0 +1,86 @@
+package de.pexora.core.messaging;
+
+/**
+ * A compiled topic pattern.
+ * 
+ * Topics consist of segments separated by dots, e.g. {@code chat.global}. In patterns,
+ * {@code *} matches exactly one segment and {@code #} as the last segment matches any
+ * number of remaining segments, including none: {@code party.*.invite} matches
+ * {@code party.42.invite}, {@code chat.#} matches {@code chat} and {@code chat.staff.de}.
+ */
+final class TopicPattern {
+
+    private static final String ONE = "*";
+    private static final String REST = "#";
+    
+    private final String[] segments;
+    
+    private TopicPattern(String[] segments) {
+        this.segments = segments;
+    }
+    
+    /**
+     * Compiles a pattern
+     * 
+     * @param pattern The pattern
+     * @return The compiled pattern
+     * @throws IllegalArgumentException If the pattern is empty or uses # before the last segment
+     */
+    static TopicPattern compile(String pattern) {
+        if (pattern.isEmpty()) {
+            throw new IllegalArgumentException("Topic pattern must not be empty");
+        }
+        String[] segments = pattern.split("\\.", -1);
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (segments[i].equals(REST)) {
+                throw new IllegalArgumentException("'#' is only allowed as the last segment: " + pattern);
+            }
+        }
+        return new TopicPattern(segments);
+    }
+    
+    /**
+     * Only whole segments are wildcards; {@code *} or {@code #} inside a segment, e.g. in
+     * {@code shop.item*}, is matched literally.
+     * 
+     * @param pattern The pattern
+     * @return whether the pattern contains wildcard segments
+     */
+    static boolean isWildcard(String pattern) {
+        for (String segment : pattern.split("\\.", -1)) {
+            if (segment.equals(ONE) || segment.equals(REST)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @param topic A concrete topic
+     * @return whether the topic matches this pattern
+     */
+    boolean matches(String topic) {
+        int start = 0;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals(REST)) {
+                return true;
+            }
+            if (start > topic.length()) {
+                return false;
+            }
+            
+            int end = topic.indexOf('.', start);
+            if (end < 0) {
+                end = topic.length();
+            }
+            if (!segment.equals(ONE)
+                    && (end - start != segment.length() || !topic.regionMatches(start, segment, 0, segment.length()))) {
+                return false;
+            }
+            start = end + 1;
+        }
+        // All topic segments must be consumed
+        return start > topic.length();
+    }
+}
@@ -0,0 +1,58 @@
+package de.pexora.core.messaging.protocol;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of reusable {@link PacketBuffer}s.
+ * Avoids allocating a new 32 KiB buffer for every plugin message that is encoded or decoded.
+ */
+public final class BufferPool {
+
+    private final ConcurrentLinkedDeque<PacketBuffer> buffers = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled;
+    
+    /**
+     * Creates a new pool
+     * 
+     * @param maxPooled The maximum number of idle buffers kept in the pool
+     */
+    public BufferPool(int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+    
+    /**
+     * Takes a cleared buffer from the pool or creates a new one
+     * 
+     * @return A buffer ready for writing
+     */
+    public PacketBuffer acquire() {
+        PacketBuffer buffer = buffers.pollFirst();
+        if (buffer == null) {
+            return new PacketBuffer();
+        }
+        pooled.decrementAndGet();
+        return buffer.clear();
+    }
+    
+    /**
+     * Returns a buffer to the pool. The buffer must not be used afterwards.
+     * 
+     * @param buffer The buffer
+     */
+    public void release(PacketBuffer buffer) {
+        if (pooled.incrementAndGet() <= maxPooled) {
+            buffers.offerFirst(buffer.clear());
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+    
+    /**
+     * @return the number of idle buffers in the pool
+     */
+    public int getPooledCount() {
+        return pooled.get();
+    }
+}
@@ -0,0 +1,25 @@
+package de.pexora.core.messaging.protocol;
+
+/**
+ * Encodes and decodes values of a specific type to and from a {@link PacketBuffer}.
+ * 
+ * @param <T> The value type
+ */
+public interface Codec<T> {
+
+    /**
+     * Writes a value into the buffer
+     * 
+     * @param buffer The buffer to write to
+     * @param value The value
+     */
+    void encode(PacketBuffer buffer, T value);
+    
+    /**
+     * Reads a value from the buffer
+     * 
+     * @param buffer The buffer to read from
+     * @return The decoded value
+     */
+    T decode(PacketBuffer buffer);
+}
@@ -0,0 +1,168 @@
+package de.pexora.core.messaging.protocol;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Ready-made codecs for primitives, VarInts, UUIDs, strings and collections.
+ * Module packet codecs can combine these or write to the {@link PacketBuffer} directly.
+ */
+public final class Codecs {
+
+    public static final Codec<Boolean> BOOLEAN = of(PacketBuffer::writeBoolean, PacketBuffer::readBoolean);
+    public static final Codec<Byte> BYTE = of((buffer, value) -> buffer.writeByte(value), PacketBuffer::readByte);
+    public static final Codec<Short> SHORT = of((buffer, value) -> buffer.writeShort(value), PacketBuffer::readShort);
+    public static final Codec<Integer> INT = of(PacketBuffer::writeInt, PacketBuffer::readInt);
+    public static final Codec<Long> LONG = of(PacketBuffer::writeLong, PacketBuffer::readLong);
+    public static final Codec<Float> FLOAT = of(PacketBuffer::writeFloat, PacketBuffer::readFloat);
+    public static final Codec<Double> DOUBLE = of(PacketBuffer::writeDouble, PacketBuffer::readDouble);
+    public static final Codec<Integer> VAR_INT = of(PacketBuffer::writeVarInt, PacketBuffer::readVarInt);
+    public static final Codec<Long> VAR_LONG = of(PacketBuffer::writeVarLong, PacketBuffer::readVarLong);
+    public static final Codec<String> STRING = of(PacketBuffer::writeString, PacketBuffer::readString);
+    public static final Codec<UUID> UUID = of(PacketBuffer::writeUUID, PacketBuffer::readUUID);
+    public static final Codec<byte[]> BYTE_ARRAY = of(PacketBuffer::writeByteArray, PacketBuffer::readByteArray);
+    
+    private Codecs() {
+    }
+    
+    /**
+     * Creates a codec from an encoder and a decoder function
+     * 
+     * @param <T> The value type
+     * @param encoder The encoder
+     * @param decoder The decoder
+     * @return The codec
+     */
+    public static <T> Codec<T> of(Encoder<T> encoder, Decoder<T> decoder) {
+        return new Codec<T>() {
+            @Override
+            public void encode(PacketBuffer buffer, T value) {
+                encoder.encode(buffer, value);
+            }
+            
+            @Override
+            public T decode(PacketBuffer buffer) {
+                return decoder.decode(buffer);
+            }
+        };
+    }
+    
+    /**
+     * Codec for lists, written as VarInt size followed by the elements
+     * 
+     * @param <T> The element type
+     * @param element The element codec
+     * @return The list codec
+     */
+    public static <T> Codec<List<T>> list(Codec<T> element) {
+        return of((buffer, value) -> writeCollection(buffer, value, element), buffer -> {
+            int size = readSize(buffer);
+            List<T> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(element.decode(buffer));
+            }
+            return list;
+        });
+    }
+    
+    /**
+     * Codec for sets, written as VarInt size followed by the elements
+     * 
+     * @param <T> The element type
+     * @param element The element codec
+     * @return The set codec
+     */
+    public static <T> Codec<Set<T>> set(Codec<T> element) {
+        return of((buffer, value) -> writeCollection(buffer, value, element), buffer -> {
+            int size = readSize(buffer);
+            Set<T> set = new HashSet<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                set.add(element.decode(buffer));
+            }
+            return set;
+        });
+    }
+    
+    /**
+     * Codec for maps, written as VarInt size followed by key/value pairs
+     * 
+     * @param <K> The key type
+     * @param <V> The value type
+     * @param key The key codec
+     * @param value The value codec
+     * @return The map codec
+     */
+    public static <K, V> Codec<Map<K, V>> map(Codec<K> key, Codec<V> value) {
+        return of((buffer, map) -> {
+            buffer.writeVarInt(map.size());
+            for (Map.Entry<K, V> entry : map.entrySet()) {
+                key.encode(buffer, entry.getKey());
+                value.encode(buffer, entry.getValue());
+            }
+        }, buffer -> {
+            int size = readSize(buffer);
+            Map<K, V> map = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                map.put(key.decode(buffer), value.decode(buffer));
+            }
+            return map;
+        });
+    }
+    
+    /**
+     * Codec for optional values, written as a presence flag followed by the value
+     * 
+     * @param <T> The value type
+     * @param element The value codec
+     * @return The optional codec
+     */
+    public static <T> Codec<Optional<T>> optional(Codec<T> element) {
+        return of((buffer, value) -> {
+            buffer.writeBoolean(value.isPresent());
+            value.ifPresent(present -> element.encode(buffer, present));
+        }, buffer -> buffer.readBoolean() ? Optional.of(element.decode(buffer)) : Optional.empty());
+    }
+    
+    private static <T> void writeCollection(PacketBuffer buffer, Collection<T> collection, Codec<T> element) {
+        buffer.writeVarInt(collection.size());
+        for (T value : collection) {
+            element.encode(buffer, value);
+        }
+    }
+    
+    private static int readSize(PacketBuffer buffer) {
+        int size = buffer.readVarInt();
+        // Every element needs at least one byte, which bounds the size of malicious input
+        if (size < 0 || size > buffer.readableBytes()) {
+            throw new IllegalStateException("Invalid collection size " + size);
+        }
+        return size;
+    }
+    
+    /**
+     * Encoder half of a codec
+     * 
+     * @param <T> The value type
+     */
+    @FunctionalInterface
+    public interface Encoder<T> {
+        void encode(PacketBuffer buffer, T value);
+    }
+    
+    /**
+     * Decoder half of a codec
+     * 
+     * @param <T> The value type
+     */
+    @FunctionalInterface
+    public interface Decoder<T> {
+        T decode(PacketBuffer buffer);
+    }
+}
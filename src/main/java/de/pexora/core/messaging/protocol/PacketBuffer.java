@@ -0,0 +1,377 @@
+package de.pexora.core.messaging.protocol;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Read/write buffer for binary Pexora packets.
+ * Wraps a heap ByteBuffer sized to the plugin message limit and provides
+ * primitive, VarInt, UUID and UTF-8 string encoding without intermediate arrays.
+ * Instances are usually taken from a {@link BufferPool} and released after use.
+ */
+public final class PacketBuffer {
+
+    /**
+     * Maximum size of a single plugin message payload
+     */
+    public static final int MAX_FRAME_SIZE = 32766;
+    
+    private final ByteBuffer buffer;
+    
+    /**
+     * Creates a new buffer with the given capacity
+     * 
+     * @param capacity The capacity in bytes
+     */
+    public PacketBuffer(int capacity) {
+        this.buffer = ByteBuffer.allocate(capacity);
+    }
+    
+    /**
+     * Creates a new buffer that can hold a full plugin message
+     */
+    public PacketBuffer() {
+        this(MAX_FRAME_SIZE);
+    }
+    
+    /**
+     * Resets the buffer for writing
+     * 
+     * @return This buffer
+     */
+    public PacketBuffer clear() {
+        buffer.clear();
+        return this;
+    }
+    
+    /**
+     * Copies received data into the buffer and prepares it for reading
+     * 
+     * @param data The received bytes
+     * @return This buffer
+     */
+    public PacketBuffer load(byte[] data) {
+        return load(data, 0, data.length);
+    }
+    
+    /**
+     * Copies a range of received data into the buffer and prepares it for reading
+     * 
+     * @param data The received bytes
+     * @param offset The start offset
+     * @param length The number of bytes
+     * @return This buffer
+     */
+    public PacketBuffer load(byte[] data, int offset, int length) {
+        buffer.clear();
+        buffer.put(data, offset, length);
+        buffer.flip();
+        return this;
+    }
+    
+    /**
+     * @return the number of bytes written so far (write mode) or left to read (read mode)
+     */
+    public int readableBytes() {
+        return buffer.remaining();
+    }
+    
+    /**
+     * @return the current position in the buffer
+     */
+    public int position() {
+        return buffer.position();
+    }
+    
+    /**
+     * Copies the written bytes into a new array, as required by Player#sendPluginMessage
+     * 
+     * @return The written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+    
+    /**
+     * @return the underlying ByteBuffer
+     */
+    public ByteBuffer nioBuffer() {
+        return buffer;
+    }
+    
+    // ---- Writing ----
+    
+    public PacketBuffer writeByte(int value) {
+        buffer.put((byte) value);
+        return this;
+    }
+    
+    public PacketBuffer writeBoolean(boolean value) {
+        buffer.put(value ? (byte) 1 : (byte) 0);
+        return this;
+    }
+    
+    public PacketBuffer writeShort(int value) {
+        buffer.putShort((short) value);
+        return this;
+    }
+    
+    public PacketBuffer writeInt(int value) {
+        buffer.putInt(value);
+        return this;
+    }
+    
+    public PacketBuffer writeLong(long value) {
+        buffer.putLong(value);
+        return this;
+    }
+    
+    public PacketBuffer writeFloat(float value) {
+        buffer.putFloat(value);
+        return this;
+    }
+    
+    public PacketBuffer writeDouble(double value) {
+        buffer.putDouble(value);
+        return this;
+    }
+    
+    public PacketBuffer writeBytes(byte[] value) {
+        buffer.put(value);
+        return this;
+    }
+    
+    public PacketBuffer writeBytes(byte[] value, int offset, int length) {
+        buffer.put(value, offset, length);
+        return this;
+    }
+    
+    /**
+     * Writes a VarInt (7 bits per byte, 1-5 bytes)
+     * 
+     * @param value The value
+     * @return This buffer
+     */
+    public PacketBuffer writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+    
+    /**
+     * Writes a VarLong (7 bits per byte, 1-10 bytes)
+     * 
+     * @param value The value
+     * @return This buffer
+     */
+    public PacketBuffer writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+        return this;
+    }
+    
+    public PacketBuffer writeUUID(UUID value) {
+        buffer.putLong(value.getMostSignificantBits());
+        buffer.putLong(value.getLeastSignificantBits());
+        return this;
+    }
+    
+    /**
+     * Writes a byte array prefixed with its VarInt length
+     * 
+     * @param value The bytes
+     * @return This buffer
+     */
+    public PacketBuffer writeByteArray(byte[] value) {
+        writeVarInt(value.length);
+        buffer.put(value);
+        return this;
+    }
+    
+    /**
+     * Writes a UTF-8 string prefixed with its VarInt byte length.
+     * The string is encoded directly into the buffer.
+     * 
+     * @param value The string
+     * @return This buffer
+     */
+    public PacketBuffer writeString(String value) {
+        writeVarInt(utf8Length(value));
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | (c >> 6)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | (c >> 12)));
+                buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buffer.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return this;
+    }
+    
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    // ---- Reading ----
+    
+    public byte readByte() {
+        return buffer.get();
+    }
+    
+    public int readUnsignedByte() {
+        return buffer.get() & 0xFF;
+    }
+    
+    public boolean readBoolean() {
+        return buffer.get() != 0;
+    }
+    
+    public short readShort() {
+        return buffer.getShort();
+    }
+    
+    public int readInt() {
+        return buffer.getInt();
+    }
+    
+    public long readLong() {
+        return buffer.getLong();
+    }
+    
+    public float readFloat() {
+        return buffer.getFloat();
+    }
+    
+    public double readDouble() {
+        return buffer.getDouble();
+    }
+    
+    public PacketBuffer readBytes(byte[] target) {
+        buffer.get(target);
+        return this;
+    }
+    
+    /**
+     * Reads a VarInt
+     * 
+     * @return The value
+     * @throws IllegalStateException If the VarInt is longer than 5 bytes
+     */
+    public int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 35) {
+                throw new IllegalStateException("VarInt is too big");
+            }
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    /**
+     * Reads a VarLong
+     * 
+     * @return The value
+     * @throws IllegalStateException If the VarLong is longer than 10 bytes
+     */
+    public long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift >= 70) {
+                throw new IllegalStateException("VarLong is too big");
+            }
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+    
+    public UUID readUUID() {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+    
+    /**
+     * Reads a byte array prefixed with its VarInt length
+     * 
+     * @return The bytes
+     */
+    public byte[] readByteArray() {
+        byte[] value = new byte[checkLength(readVarInt())];
+        buffer.get(value);
+        return value;
+    }
+    
+    /**
+     * Reads a UTF-8 string prefixed with its VarInt byte length
+     * 
+     * @return The string
+     */
+    public String readString() {
+        int length = checkLength(readVarInt());
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+    
+    /**
+     * Skips a number of bytes
+     * 
+     * @param length The number of bytes to skip
+     * @return This buffer
+     */
+    public PacketBuffer skip(int length) {
+        buffer.position(buffer.position() + checkLength(length));
+        return this;
+    }
+    
+    private int checkLength(int length) {
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Invalid length " + length + ", only " + buffer.remaining() + " bytes remaining");
+        }
+        return length;
+    }
+}
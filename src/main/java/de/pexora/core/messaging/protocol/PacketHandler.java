@@ -0,0 +1,20 @@
+package de.pexora.core.messaging.protocol;
+
+import org.bukkit.entity.Player;
+
+/**
+ * Handles a decoded packet received on the Pexora channel.
+ * 
+ * @param <T> The packet type
+ */
+@FunctionalInterface
+public interface PacketHandler<T> {
+
+    /**
+     * Handles a packet
+     * 
+     * @param carrier The player connection that carried the packet
+     * @param packet The decoded packet
+     */
+    void handle(Player carrier, T packet);
+}
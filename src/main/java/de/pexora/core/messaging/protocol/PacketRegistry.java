@@ -0,0 +1,165 @@
+package de.pexora.core.messaging.protocol;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps numeric packet IDs to packet types and codecs.
+ * 
+ * Lookups by ID go through a dense array, so dispatching a received packet does not hash or allocate.
+ * IDs below {@link #FIRST_MODULE_ID} are reserved for frames of the core itself.
+ * Packets registered with an owner are removed when the owning plugin is disabled.
+ */
+public final class PacketRegistry {
+
+    /**
+     * First packet ID that may be used by modules; lower IDs are reserved for the core
+     */
+    public static final int FIRST_MODULE_ID = 16;
+    
+    /**
+     * Highest supported packet ID
+     */
+    public static final int MAX_ID = 4095;
+    
+    private volatile PacketType<?>[] byId = new PacketType<?>[64];
+    private final Map<Class<?>, PacketType<?>> byClass = new ConcurrentHashMap<>();
+    
+    /**
+     * Registers a packet type that can be sent and received
+     * 
+     * @param <T> The packet type
+     * @param id The packet ID ({@value #FIRST_MODULE_ID} to {@value #MAX_ID})
+     * @param type The packet class
+     * @param codec The codec
+     * @param handler The receive handler, or null for outgoing-only packets
+     * @return The registered packet type
+     * @throws IllegalArgumentException If the ID is out of range or already in use
+     */
+    public <T> PacketType<T> register(int id, Class<T> type, Codec<T> codec, PacketHandler<T> handler) {
+        return register(null, id, type, codec, handler, false);
+    }
+    
+    /**
+     * Registers a packet type owned by a plugin
+     * 
+     * @param <T> The packet type
+     * @param owner The owning plugin; its packets are removed when it is disabled
+     * @param id The packet ID ({@value #FIRST_MODULE_ID} to {@value #MAX_ID})
+     * @param type The packet class
+     * @param codec The codec
+     * @param handler The receive handler, or null for outgoing-only packets
+     * @param async Whether the packet is decoded and handled on the channel executor
+     * @return The registered packet type
+     * @throws IllegalArgumentException If the ID is out of range or already in use
+     */
+    public <T> PacketType<T> register(Plugin owner, int id, Class<T> type, Codec<T> codec, PacketHandler<T> handler, boolean async) {
+        if (id < FIRST_MODULE_ID || id > MAX_ID) {
+            throw new IllegalArgumentException("Packet ID " + id + " is outside of " + FIRST_MODULE_ID + ".." + MAX_ID);
+        }
+        return registerInternal(new PacketType<>(id, type, codec, handler, owner, async));
+    }
+    
+    /**
+     * Registers an outgoing-only packet type
+     * 
+     * @param <T> The packet type
+     * @param id The packet ID
+     * @param type The packet class
+     * @param codec The codec
+     * @return The registered packet type
+     */
+    public <T> PacketType<T> register(int id, Class<T> type, Codec<T> codec) {
+        return register(id, type, codec, null);
+    }
+    
+    private synchronized <T> PacketType<T> registerInternal(PacketType<T> packetType) {
+        int id = packetType.getId();
+        Class<T> type = packetType.getType();
+        PacketType<?>[] current = byId;
+        if (id < current.length && current[id] != null) {
+            throw new IllegalArgumentException("Packet ID " + id + " is already registered for " + current[id].getType().getName());
+        }
+        if (byClass.containsKey(type)) {
+            throw new IllegalArgumentException("Packet class " + type.getName() + " is already registered");
+        }
+        
+        PacketType<?>[] updated = Arrays.copyOf(current, Math.max(current.length, Integer.highestOneBit(id) << 1));
+        updated[id] = packetType;
+        byClass.put(type, packetType);
+        byId = updated;
+        return packetType;
+    }
+    
+    /**
+     * Removes a packet type
+     * 
+     * @param id The packet ID
+     */
+    public synchronized void unregister(int id) {
+        PacketType<?>[] current = byId;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            return;
+        }
+        PacketType<?>[] updated = current.clone();
+        byClass.remove(updated[id].getType());
+        updated[id] = null;
+        byId = updated;
+    }
+    
+    /**
+     * Removes all packet types of a plugin
+     * 
+     * @param owner The owning plugin
+     * @return The number of removed packet types
+     */
+    public synchronized int unregisterAll(Plugin owner) {
+        PacketType<?>[] updated = byId.clone();
+        int removed = 0;
+        for (int id = 0; id < updated.length; id++) {
+            if (updated[id] != null && updated[id].getOwner() == owner) {
+                byClass.remove(updated[id].getType());
+                updated[id] = null;
+                removed++;
+            }
+        }
+        byId = updated;
+        return removed;
+    }
+    
+    /**
+     * @param owner The owning plugin
+     * @return The number of packet types registered by the plugin
+     */
+    public int getPacketCount(Plugin owner) {
+        int count = 0;
+        for (PacketType<?> type : byId) {
+            if (type != null && type.getOwner() == owner) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * @param id The packet ID
+     * @return The packet type or null if unknown
+     */
+    public PacketType<?> getType(int id) {
+        PacketType<?>[] current = byId;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+    
+    /**
+     * @param <T> The packet type
+     * @param type The packet class
+     * @return The packet type or null if the class is not registered
+     */
+    @SuppressWarnings("unchecked")
+    public <T> PacketType<T> getType(Class<T> type) {
+        return (PacketType<T>) byClass.get(type);
+    }
+}
@@ -0,0 +1,117 @@
+package de.pexora.core.messaging.protocol;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * A registered packet: its numeric ID, Java type, codec, optional receive handler and owning plugin.
+ * 
+ * @param <T> The packet type
+ */
+public final class PacketType<T> {
+
+    private final int id;
+    private final Class<T> type;
+    private final Codec<T> codec;
+    private final PacketHandler<T> handler;
+    private final Plugin owner;
+    private final boolean async;
+    private final String name;
+    
+    PacketType(int id, Class<T> type, Codec<T> codec, PacketHandler<T> handler, Plugin owner, boolean async) {
+        this.id = id;
+        this.type = type;
+        this.codec = codec;
+        this.handler = handler;
+        this.owner = owner;
+        this.async = async;
+        this.name = type.getSimpleName() + "#" + id;
+    }
+    
+    /**
+     * Decodes a packet from the buffer
+     * 
+     * @param buffer The buffer positioned at the packet payload
+     * @return The packet
+     */
+    public T decode(PacketBuffer buffer) {
+        return codec.decode(buffer);
+    }
+    
+    /**
+     * Passes an already decoded packet to the handler
+     * 
+     * @param carrier The player connection that carried the packet
+     * @param packet A packet produced by {@link #decode(PacketBuffer)}
+     * @return false if no handler is registered for this packet
+     */
+    public boolean dispatch(Player carrier, Object packet) {
+        if (handler == null) {
+            return false;
+        }
+        handler.handle(carrier, type.cast(packet));
+        return true;
+    }
+    
+    /**
+     * Decodes a packet from the buffer and passes it to the handler
+     * 
+     * @param carrier The player connection that carried the packet
+     * @param buffer The buffer positioned at the packet payload
+     * @return false if no handler is registered for this packet
+     */
+    public boolean handle(Player carrier, PacketBuffer buffer) {
+        if (handler == null) {
+            return false;
+        }
+        handler.handle(carrier, codec.decode(buffer));
+        return true;
+    }
+    
+    /**
+     * Encodes a packet of this type
+     * 
+     * @param buffer The buffer to write to
+     * @param packet The packet
+     */
+    public void encode(PacketBuffer buffer, Object packet) {
+        codec.encode(buffer, type.cast(packet));
+    }
+    
+    public int getId() {
+        return id;
+    }
+    
+    public Class<T> getType() {
+        return type;
+    }
+    
+    /**
+     * @return the display name used in logs and metrics, e.g. "PartyInvite#17"
+     */
+    public String getName() {
+        return name;
+    }
+    
+    public Codec<T> getCodec() {
+        return codec;
+    }
+    
+    public PacketHandler<T> getHandler() {
+        return handler;
+    }
+    
+    /**
+     * @return the owning plugin, or null if the packet is not bound to a plugin
+     */
+    public Plugin getOwner() {
+        return owner;
+    }
+    
+    /**
+     * @return whether the packet is decoded and handled on the channel executor instead of the receiving thread
+     */
+    public boolean isAsync() {
+        return async;
+    }
+}
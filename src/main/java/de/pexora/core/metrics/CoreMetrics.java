@@ -0,0 +1,132 @@
+package de.pexora.core.metrics;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.status.ModuleState;
+import de.pexora.core.api.status.ModuleStatus;
+import de.pexora.core.config.MessageConfig;
+import de.pexora.core.events.PexoraEventBus;
+import de.pexora.core.logger.LoggerService;
+import de.pexora.core.messaging.ChannelMetrics;
+import de.pexora.core.messaging.PexoraChannel;
+import de.pexora.core.profiler.ModuleProfile;
+import de.pexora.core.profiler.TickProfiler;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registriert die eingebauten Metriken des Cores: Module, Nachrichten-Cache, Logger, Kanal und Profiler.
+ * Alle Werte werden erst beim Abfragen aus den jeweiligen Komponenten gelesen.
+ */
+public final class CoreMetrics {
+
+    private CoreMetrics() {
+    }
+    
+    /**
+     * Registriert alle eingebauten Metriken
+     * 
+     * @param plugin Die Core-Instanz mit allen initialisierten Komponenten
+     * @param registry Die Registry
+     */
+    public static void register(PexoraCore plugin, MetricsRegistry registry) {
+        registerModules(plugin, registry);
+        registerEvents(plugin, registry);
+        registerMessages(plugin, registry);
+        registerLogger(plugin, registry);
+        registerChannel(plugin, registry);
+        registerProfiler(plugin, registry);
+    }
+    
+    private static void registerModules(PexoraCore plugin, MetricsRegistry registry) {
+        for (ModuleState state : ModuleState.values()) {
+            registry.gauge(plugin, "pexora_modules", "Anzahl der Module je Zustand", () -> {
+                int count = 0;
+                for (ModuleStatus status : plugin.getStatusAPI().getModuleStatuses()) {
+                    if (status.getState() == state) {
+                        count++;
+                    }
+                }
+                return count;
+            }, "state", state.name().toLowerCase(Locale.ROOT));
+        }
+        
+        registry.collector(plugin, "pexora_module_errors_total", "Von Modulen gemeldete Fehler", MetricType.COUNTER, sink -> {
+            for (ModuleStatus status : plugin.getStatusAPI().getModuleStatuses()) {
+                sink.add(status.getErrorCount(), "module", status.getModuleName());
+            }
+        });
+    }
+    
+    private static void registerEvents(PexoraCore plugin, MetricsRegistry registry) {
+        registry.collector(plugin, "pexora_event_handlers", "Registrierte Event-Handler je Plugin", MetricType.GAUGE, sink -> {
+            for (Map.Entry<String, Integer> entry : plugin.getEventDispatcher().getHandlerCounts().entrySet()) {
+                sink.add(entry.getValue(), "module", entry.getKey());
+            }
+        });
+        
+        PexoraEventBus eventBus = plugin.getEventBus();
+        registry.counter(plugin, "pexora_eventbus_published_total", "Veröffentlichte Events auf dem Event-Bus",
+                eventBus::getPublishedCount);
+        registry.counter(plugin, "pexora_eventbus_async_dropped_total", "Verworfene asynchrone Aufrufe des Event-Busses",
+                eventBus::getAsyncDroppedCount);
+        registry.gauge(plugin, "pexora_eventbus_async_queue_depth", "Wartende asynchrone Aufrufe des Event-Busses",
+                eventBus::getAsyncQueueDepth);
+    }
+    
+    private static void registerMessages(PexoraCore plugin, MetricsRegistry registry) {
+        MessageConfig messages = plugin.getMessageConfig();
+        registry.counter(plugin, "pexora_message_cache_hits_total", "Nachrichten aus dem Komponenten-Cache", messages::getCacheHits);
+        registry.counter(plugin, "pexora_message_cache_misses_total", "Nachrichten, die aufgelöst und geparst werden mussten", messages::getCacheMisses);
+        registry.gauge(plugin, "pexora_message_cache_entries", "Zwischengespeicherte Nachrichten-Komponenten", messages::getCacheSize);
+    }
+    
+    private static void registerLogger(PexoraCore plugin, MetricsRegistry registry) {
+        LoggerService logger = plugin.getLoggerService();
+        for (LoggerService.LogLevel level : LoggerService.LogLevel.values()) {
+            registry.counter(plugin, "pexora_log_messages_total", "Protokollierte Nachrichten je Level",
+                    () -> logger.getMessageCount(level), "level", level.name().toLowerCase(Locale.ROOT));
+        }
+    }
+    
+    private static void registerChannel(PexoraCore plugin, MetricsRegistry registry) {
+        PexoraChannel channel = plugin.getPexoraChannel();
+        registry.collector(plugin, "pexora_channel_messages_total", "Nachrichten je Subkanal und Richtung", MetricType.COUNTER, sink -> {
+            for (Map.Entry<String, ChannelMetrics.SubchannelStats> entry : channel.getMetrics().getAll().entrySet()) {
+                sink.add(entry.getValue().getMessagesIn(), "subchannel", entry.getKey(), "direction", "in");
+                sink.add(entry.getValue().getMessagesOut(), "subchannel", entry.getKey(), "direction", "out");
+            }
+        });
+        registry.collector(plugin, "pexora_channel_bytes_total", "Bytes je Subkanal und Richtung", MetricType.COUNTER, sink -> {
+            for (Map.Entry<String, ChannelMetrics.SubchannelStats> entry : channel.getMetrics().getAll().entrySet()) {
+                sink.add(entry.getValue().getBytesIn(), "subchannel", entry.getKey(), "direction", "in");
+                sink.add(entry.getValue().getBytesOut(), "subchannel", entry.getKey(), "direction", "out");
+            }
+        });
+        registry.gauge(plugin, "pexora_channel_queue_depth", "Nachrichten, die auf einen Träger warten",
+                () -> channel.getOutboundQueue().getDepth());
+        registry.counter(plugin, "pexora_channel_queue_dropped_total", "Verworfene Nachrichten der Warteschlange",
+                () -> channel.getOutboundQueue().getDroppedOverflowCount(), "reason", "overflow");
+        registry.counter(plugin, "pexora_channel_queue_dropped_total", "Verworfene Nachrichten der Warteschlange",
+                () -> channel.getOutboundQueue().getDroppedExpiredCount(), "reason", "expired");
+        registry.gauge(plugin, "pexora_channel_requests_in_flight", "Offene Anfragen ohne Antwort",
+                () -> channel.getRequestManager().getInFlightCount());
+        registry.counter(plugin, "pexora_channel_rejected_frames_total", "Nicht authentifizierte Nachrichten",
+                () -> channel.getSecurity().getRejectedFrames());
+    }
+    
+    private static void registerProfiler(PexoraCore plugin, MetricsRegistry registry) {
+        TickProfiler profiler = plugin.getProfiler();
+        registry.collector(plugin, "pexora_tick_duration_seconds", "Tickdauer im gleitenden Fenster des Profilers", MetricType.GAUGE, sink -> {
+            if (profiler.isEnabled()) {
+                sink.add(profiler.getTickTime().getPercentile(50) / 1e9, "quantile", "0.5");
+                sink.add(profiler.getTickTime().getPercentile(99) / 1e9, "quantile", "0.99");
+            }
+        });
+        registry.collector(plugin, "pexora_module_server_thread_seconds_total", "Laufzeit der Module auf dem Server-Thread", MetricType.COUNTER, sink -> {
+            for (ModuleProfile profile : profiler.getProfiles()) {
+                sink.add(profile.getSyncNanos() / 1e9, "module", profile.getName());
+            }
+        });
+    }
+}
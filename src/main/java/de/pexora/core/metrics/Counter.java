@@ -0,0 +1,41 @@
+package de.pexora.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monoton steigender Zähler. Basiert auf einem {@link LongAdder}, sodass viele Threads
+ * gleichzeitig zählen können, ohne sich gegenseitig auszubremsen.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+    
+    Counter() {
+    }
+    
+    /**
+     * Erhöht den Zähler um eins
+     */
+    public void increment() {
+        value.increment();
+    }
+    
+    /**
+     * Erhöht den Zähler
+     * 
+     * @param amount Der Betrag, muss positiv sein
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Zähler können nur steigen: " + amount);
+        }
+        value.add(amount);
+    }
+    
+    /**
+     * @return der aktuelle Wert
+     */
+    public long get() {
+        return value.sum();
+    }
+}
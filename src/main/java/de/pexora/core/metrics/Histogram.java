@@ -0,0 +1,57 @@
+package de.pexora.core.metrics;
+
+import de.pexora.core.util.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verteilung von Dauern mit logarithmisch-linearen Buckets ({@link LatencyHistogram}).
+ * Wird im Prometheus-Format als Summary in Sekunden mit den Quantilen 0.5, 0.9 und 0.99 ausgegeben.
+ */
+public final class Histogram {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    
+    Histogram() {
+    }
+    
+    /**
+     * Erfasst eine Dauer
+     * 
+     * @param nanos Die Dauer in Nanosekunden
+     */
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+    
+    /**
+     * Erfasst eine Dauer
+     * 
+     * @param duration Die Dauer
+     * @param unit Die Einheit der Dauer
+     */
+    public void record(long duration, TimeUnit unit) {
+        histogram.record(unit.toNanos(duration));
+    }
+    
+    /**
+     * Führt eine Aufgabe aus und erfasst ihre Dauer
+     * 
+     * @param task Die Aufgabe
+     */
+    public void time(Runnable task) {
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * @return das zugrunde liegende Histogramm
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
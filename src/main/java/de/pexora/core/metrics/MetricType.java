@@ -0,0 +1,35 @@
+package de.pexora.core.metrics;
+
+/**
+ * Art einer Metrik, wie sie im Prometheus-Format ausgegeben wird
+ */
+public enum MetricType {
+
+    /**
+     * Monoton steigender Zähler
+     */
+    COUNTER("counter"),
+    
+    /**
+     * Momentaufnahme, die steigen und fallen kann
+     */
+    GAUGE("gauge"),
+    
+    /**
+     * Verteilung von Dauern, ausgegeben als Quantile, Summe und Anzahl
+     */
+    SUMMARY("summary");
+    
+    private final String prometheusName;
+    
+    MetricType(String prometheusName) {
+        this.prometheusName = prometheusName;
+    }
+    
+    /**
+     * @return der Name des Typs im Prometheus-Textformat
+     */
+    public String getPrometheusName() {
+        return prometheusName;
+    }
+}
@@ -0,0 +1,29 @@
+package de.pexora.core.metrics;
+
+/**
+ * Liefert die Werte einer Metrik erst beim Abfragen, z.B. eine Zeile pro Subkanal.
+ * Wird auf dem Thread des Exporters aufgerufen und muss daher threadsicher sein.
+ */
+@FunctionalInterface
+public interface MetricsCollector {
+
+    /**
+     * Meldet die aktuellen Werte
+     * 
+     * @param sink Nimmt die Werte entgegen
+     */
+    void collect(Sink sink);
+    
+    /**
+     * Nimmt die Werte eines {@link MetricsCollector} entgegen
+     */
+    @FunctionalInterface
+    interface Sink {
+        
+        /**
+         * @param value Der Wert
+         * @param labels Die Labels als Paare aus Name und Wert, z.B. "subchannel", "Party"
+         */
+        void add(double value, String... labels);
+    }
+}
@@ -0,0 +1,142 @@
+package de.pexora.core.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.SocketTransport;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Stellt die Metriken im Prometheus-Textformat bereit.
+ * 
+ * Ist metrics.http.enabled gesetzt, beantwortet ein HTTP-Server des JDK Anfragen auf /metrics
+ * (standardmäßig nur auf 127.0.0.1). Läuft kein HTTP-Server, weil er deaktiviert ist oder der Port
+ * belegt war, wird stattdessen regelmäßig die Datei metrics.prom im Plugin-Verzeichnis geschrieben,
+ * z.B. für den Textfile-Collector des node_exporter. Beide Wege laufen nie auf dem Server-Thread.
+ */
+public class MetricsExporter {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String DUMP_FILE = "metrics.prom";
+    
+    private final PexoraCore plugin;
+    private final MetricsRegistry registry;
+    private HttpServer server;
+    private ExecutorService executor;
+    private BukkitTask dumpTask;
+    
+    public MetricsExporter(PexoraCore plugin, MetricsRegistry registry) {
+        this.plugin = plugin;
+        this.registry = registry;
+    }
+    
+    /**
+     * Startet den HTTP-Server oder ersatzweise das Schreiben der Datei
+     */
+    public void start() {
+        if (plugin.getCoreConfig().isMetricsHttpEnabled()) {
+            startHttpServer(plugin.getCoreConfig().getMetricsHttpBind());
+        }
+        
+        int dumpInterval = plugin.getCoreConfig().getMetricsDumpIntervalSeconds();
+        if (server == null && dumpInterval > 0) {
+            long ticks = dumpInterval * 20L;
+            dumpTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::dump, ticks, ticks);
+        }
+    }
+    
+    private void startHttpServer(String bind) {
+        try {
+            InetSocketAddress address = SocketTransport.parseAddress(bind);
+            executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "Pexora-Metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            server = HttpServer.create(address, 0);
+            server.createContext("/metrics", this::handleScrape);
+            server.setExecutor(executor);
+            server.start();
+            plugin.getLoggerService().info("Metriken werden unter http://" + bind + "/metrics bereitgestellt");
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLoggerService().warn("Metrik-Endpunkt " + bind + " konnte nicht gestartet werden: " + e.getMessage());
+            server = null;
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+    }
+    
+    private void handleScrape(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            
+            byte[] body = registry.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    /**
+     * Schreibt alle Metriken in die Datei metrics.prom. Die Datei wird atomar ersetzt,
+     * sodass Leser nie einen halb geschriebenen Stand sehen.
+     */
+    public void dump() {
+        File target = new File(plugin.getDataFolder(), DUMP_FILE);
+        File temp = new File(plugin.getDataFolder(), DUMP_FILE + ".tmp");
+        try {
+            Files.write(temp.toPath(), registry.toPrometheusText().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            plugin.getLoggerService().warn("Metriken konnten nicht nach " + DUMP_FILE + " geschrieben werden: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * @return ob der HTTP-Endpunkt läuft
+     */
+    public boolean isHttpRunning() {
+        return server != null;
+    }
+    
+    /**
+     * Beendet den HTTP-Server und das Schreiben der Datei
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        if (dumpTask != null) {
+            dumpTask.cancel();
+            dumpTask = null;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package de.pexora.core.metrics;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.util.LatencyHistogram;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Zentrale Registry für Metriken des Cores und der Module.
+ * 
+ * Eine Metrik besteht aus einem Namen, einem Hilfetext und beliebig vielen Zeitreihen mit
+ * unterschiedlichen Labels. Zähler und Histogramme werden direkt fortgeschrieben, Gauges und
+ * Funktionszähler lesen ihren Wert erst beim Abfragen. Metriken eines Plugins werden beim
+ * Deaktivieren des Plugins automatisch entfernt. Fordern mehrere Plugins denselben Zähler oder
+ * dasselbe Histogramm an, bleibt die Zeitreihe bestehen, bis das letzte dieser Plugins deaktiviert wird.
+ * 
+ * Beispiel:
+ * <pre>
+ * Counter joins = registry.counter(this, "pexora_party_invites_total", "Versendete Einladungen");
+ * joins.increment();
+ * </pre>
+ */
+public class MetricsRegistry implements Listener {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final Pattern LABEL_PATTERN = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    
+    public MetricsRegistry(PexoraCore plugin) {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+    
+    /**
+     * Gibt einen Zähler zurück und legt ihn bei Bedarf an
+     * 
+     * @param owner Das Plugin, dem die Metrik gehört
+     * @param name Der Name der Metrik, z.B. "pexora_party_invites_total"
+     * @param help Die Beschreibung der Metrik
+     * @param labels Die Labels als Paare aus Name und Wert
+     * @return Der Zähler
+     */
+    public Counter counter(Plugin owner, String name, String help, String... labels) {
+        return (Counter) register(owner, name, help, MetricType.COUNTER, labels, new Counter());
+    }
+    
+    /**
+     * Registriert einen Zähler, dessen Wert beim Abfragen gelesen wird
+     * 
+     * @param owner Das Plugin, dem die Metrik gehört
+     * @param name Der Name der Metrik
+     * @param help Die Beschreibung der Metrik
+     * @param value Liefert den aktuellen, monoton steigenden Wert
+     * @param labels Die Labels als Paare aus Name und Wert
+     */
+    public void counter(Plugin owner, String name, String help, LongSupplier value, String... labels) {
+        register(owner, name, help, MetricType.COUNTER, labels, value);
+    }
+    
+    /**
+     * Registriert eine Gauge, deren Wert beim Abfragen gelesen wird
+     * 
+     * @param owner Das Plugin, dem die Metrik gehört
+     * @param name Der Name der Metrik
+     * @param help Die Beschreibung der Metrik
+     * @param value Liefert den aktuellen Wert
+     * @param labels Die Labels als Paare aus Name und Wert
+     */
+    public void gauge(Plugin owner, String name, String help, DoubleSupplier value, String... labels) {
+        register(owner, name, help, MetricType.GAUGE, labels, value);
+    }
+    
+    /**
+     * Gibt ein Histogramm für Dauern zurück und legt es bei Bedarf an
+     * 
+     * @param owner Das Plugin, dem die Metrik gehört
+     * @param name Der Name der Metrik, z.B. "pexora_database_query_seconds"
+     * @param help Die Beschreibung der Metrik
+     * @param labels Die Labels als Paare aus Name und Wert
+     * @return Das Histogramm
+     */
+    public Histogram histogram(Plugin owner, String name, String help, String... labels) {
+        return (Histogram) register(owner, name, help, MetricType.SUMMARY, labels, new Histogram());
+    }
+    
+    /**
+     * Registriert eine Metrik, deren Zeitreihen erst beim Abfragen ermittelt werden
+     * 
+     * @param owner Das Plugin, dem die Metrik gehört
+     * @param name Der Name der Metrik
+     * @param help Die Beschreibung der Metrik
+     * @param type {@link MetricType#COUNTER} oder {@link MetricType#GAUGE}
+     * @param collector Liefert die Zeitreihen
+     */
+    public void collector(Plugin owner, String name, String help, MetricType type, MetricsCollector collector) {
+        if (type == MetricType.SUMMARY) {
+            throw new IllegalArgumentException("Collector unterstützen nur Zähler und Gauges");
+        }
+        register(owner, name, help, type, new String[0], collector);
+    }
+    
+    private synchronized Object register(Plugin owner, String name, String help, MetricType type, String[] labels, Object value) {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("Ungültiger Metrikname: " + name);
+        }
+        String labelText = formatLabels(labels);
+        
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type));
+        if (family.type != type) {
+            throw new IllegalArgumentException("Metrik " + name + " ist bereits als " + family.type + " registriert");
+        }
+        
+        if (value instanceof Counter || value instanceof Histogram) {
+            Series series = family.series.computeIfAbsent(labelText, key -> new Series(owner, labelText, value));
+            if (series.value.getClass() != value.getClass()) {
+                throw new IllegalArgumentException("Metrik " + name + labelText + " ist bereits mit einem anderen Typ registriert");
+            }
+            series.owners.add(owner);
+            return series.value;
+        }
+        
+        // Funktionen ersetzen eine vorherige Registrierung, z.B. nach dem Neuladen eines Moduls
+        family.series.put(labelText, new Series(owner, labelText, value));
+        return value;
+    }
+    
+    /**
+     * Entfernt eine Metrik mit allen Zeitreihen
+     * 
+     * @param name Der Name der Metrik
+     */
+    public synchronized void unregister(String name) {
+        families.remove(name);
+    }
+    
+    /**
+     * Entfernt alle Metriken eines Plugins
+     * 
+     * @param owner Das Plugin
+     * @return Die Anzahl der entfernten Zeitreihen
+     */
+    public synchronized int unregisterAll(Plugin owner) {
+        int removed = 0;
+        for (Family family : families.values()) {
+            for (Series series : family.series.values()) {
+                // Gemeinsam genutzte Zeitreihen bleiben für die übrigen Plugins erhalten
+                if (series.owners.remove(owner) && series.owners.isEmpty()
+                        && family.series.remove(series.labelText, series)) {
+                    removed++;
+                }
+            }
+            if (family.series.isEmpty()) {
+                families.remove(family.name, family);
+            }
+        }
+        return removed;
+    }
+    
+    /**
+     * Entfernt eine Zeitreihe eines Plugins; nutzen weitere Plugins dieselbe Zeitreihe, bleibt sie für diese erhalten
+     * 
+     * @param owner Das Plugin
+     * @param name Der Name der Metrik
+     * @param labels Die Labels als Paare aus Name und Wert
+     * @return ob die Zeitreihe entfernt wurde
+     */
+    public synchronized boolean unregister(Plugin owner, String name, String... labels) {
+        Family family = families.get(name);
+        if (family == null) {
+            return false;
+        }
+        Series series = family.series.get(formatLabels(labels));
+        if (series == null || !series.owners.remove(owner) || !series.owners.isEmpty()) {
+            return false;
+        }
+        family.series.remove(series.labelText, series);
+        if (family.series.isEmpty()) {
+            families.remove(family.name, family);
+        }
+        return true;
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        unregisterAll(event.getPlugin());
+    }
+    
+    /**
+     * @return die Anzahl der registrierten Metriken
+     */
+    public int getMetricCount() {
+        return families.size();
+    }
+    
+    /**
+     * Schreibt alle Metriken im Prometheus-Textformat (Version 0.0.4)
+     * 
+     * @return Der Text für einen Scrape
+     */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(escapeHelp(family.help)).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type.getPrometheusName()).append('\n');
+            for (Series series : family.series.values()) {
+                writeSeries(out, family.name, series);
+            }
+        }
+        return out.toString();
+    }
+    
+    private void writeSeries(StringBuilder out, String name, Series series) {
+        Object value = series.value;
+        try {
+            if (value instanceof Counter) {
+                writeSample(out, name, series.labelText, ((Counter) value).get());
+            } else if (value instanceof LongSupplier) {
+                writeSample(out, name, series.labelText, ((LongSupplier) value).getAsLong());
+            } else if (value instanceof DoubleSupplier) {
+                writeSample(out, name, series.labelText, ((DoubleSupplier) value).getAsDouble());
+            } else if (value instanceof Histogram) {
+                LatencyHistogram histogram = ((Histogram) value).getHistogram();
+                for (double quantile : QUANTILES) {
+                    String labels = appendLabel(series.labelText, "quantile", formatValue(quantile));
+                    writeSample(out, name, labels, histogram.getPercentile(quantile * 100) / 1e9);
+                }
+                writeSample(out, name + "_sum", series.labelText, histogram.getSum() / 1e9);
+                writeSample(out, name + "_count", series.labelText, histogram.getCount());
+            } else if (value instanceof MetricsCollector) {
+                ((MetricsCollector) value).collect((sample, labels) -> writeSample(out, name, formatLabels(labels), sample));
+            }
+        } catch (RuntimeException e) {
+            // Eine fehlerhafte Metrik darf den Scrape nicht abbrechen
+            out.append("# Fehler in ").append(name).append(series.labelText).append(": ")
+                    .append(escapeHelp(String.valueOf(e.getMessage()))).append('\n');
+        }
+    }
+    
+    private static void writeSample(StringBuilder out, String name, String labels, double value) {
+        out.append(name).append(labels).append(' ').append(formatValue(value)).append('\n');
+    }
+    
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+    
+    private static String formatLabels(String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels müssen als Paare aus Name und Wert angegeben werden");
+        }
+        if (labels.length == 0) {
+            return "";
+        }
+        
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < labels.length; i += 2) {
+            if (!LABEL_PATTERN.matcher(labels[i]).matches()) {
+                throw new IllegalArgumentException("Ungültiger Labelname: " + labels[i]);
+            }
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(labels[i]).append("=\"").append(escapeLabelValue(labels[i + 1])).append('"');
+        }
+        return text.append('}').toString();
+    }
+    
+    private static String appendLabel(String labelText, String name, String value) {
+        String label = name + "=\"" + value + "\"";
+        if (labelText.isEmpty()) {
+            return "{" + label + "}";
+        }
+        return labelText.substring(0, labelText.length() - 1) + "," + label + "}";
+    }
+    
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+    
+    private static final class Family {
+        
+        private final String name;
+        private final String help;
+        private final MetricType type;
+        private final Map<String, Series> series = new ConcurrentSkipListMap<>();
+        
+        private Family(String name, String help, MetricType type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+    
+    private static final class Series {
+        
+        // Nur unter dem Lock der Registry verändert
+        private final Set<Plugin> owners = new HashSet<>();
+        private final String labelText;
+        private final Object value;
+        
+        private Series(Plugin owner, String labelText, Object value) {
+            this.owners.add(owner);
+            this.labelText = labelText;
+            this.value = value;
+        }
+    }
+}
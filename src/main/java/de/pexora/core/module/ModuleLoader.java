@@ -1,6 +1,10 @@
 package de.pexora.core.module;
 
 import de.pexora.core.PexoraCore;
+import de.pexora.core.api.status.ModuleState;
+import de.pexora.core.api.status.ModuleStatus;
+import de.pexora.core.metrics.Counter;
+import de.pexora.core.metrics.Histogram;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.InvalidDescriptionException;
 import org.bukkit.plugin.InvalidPluginException;
@@ -38,12 +42,16 @@ public class ModuleLoader {
     private final PluginManager pluginManager;
     private final File modulesDir;
     private final Map<String, JavaPlugin> loadedModules;
+    private final Counter loadFailures;
+    private final Histogram enableTime;
     
     public ModuleLoader(PexoraCore core) {
         this.core = core;
         this.pluginManager = Bukkit.getPluginManager();
         this.modulesDir = new File(core.getDataFolder(), "modules");
         this.loadedModules = new HashMap<>();
+        this.loadFailures = core.getMetricsRegistry().counter(core, "pexora_module_load_failures_total", "Fehlgeschlagene Modul-Ladevorgänge");
+        this.enableTime = core.getMetricsRegistry().histogram(core, "pexora_module_enable_seconds", "Dauer von onEnable der Module");
         
         // Load all modules during initialization
         loadModules();
@@ -78,6 +86,7 @@ public class ModuleLoader {
             try {
                 loadModule(file);
             } catch (Exception e) {
+                loadFailures.increment();
                 core.getLoggerService().error("Fehler beim Laden des Moduls " + file.getName() + ": " + e.getMessage());
                 if (core.getCoreConfig().isDebugMode()) {
                     e.printStackTrace();
@@ -197,7 +206,9 @@ public class ModuleLoader {
             core.getLoggerService().info("Versuche Modul zu laden: " + file.getName());
         }
         
+        long loadStart = System.nanoTime();
         Plugin plugin = pluginManager.loadPlugin(file);
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000L;
         
         if (plugin == null) {
             throw new InvalidPluginException("Konnte Plugin aus Datei " + file.getName() + " nicht laden");
@@ -221,14 +232,39 @@ public class ModuleLoader {
             core.getLoggerService().warn("Modul " + javaPlugin.getName() + " folgt nicht der Namenskonvention (Pexora*).");
         }
         
+        ModuleStatus status = core.getStatusAPI().registerModule(javaPlugin.getName(), ModuleState.LOADING);
+        status.setLoadDurationMillis(loadMillis);
+        
         // Plugin aktivieren
         try {
+            long enableStart = System.nanoTime();
             pluginManager.enablePlugin(javaPlugin);
+            long enableNanos = System.nanoTime() - enableStart;
+            enableTime.record(enableNanos);
+            status.setEnableDurationMillis(enableNanos / 1_000_000L);
+            
+            // Bukkit fängt Fehler in onEnable selbst ab und lässt das Plugin deaktiviert
+            if (!javaPlugin.isEnabled()) {
+                status.reportError("onEnable fehlgeschlagen");
+                status.setState(ModuleState.FAILED);
+                loadFailures.increment();
+                releaseListeners(javaPlugin);
+                core.getLoggerService().error("Modul " + javaPlugin.getName() + " konnte nicht aktiviert werden (siehe Serverlog)");
+                return;
+            }
+            
             loadedModules.put(javaPlugin.getName(), javaPlugin);
-            core.getStatusAPI().registerModule(javaPlugin.getName(), true);
-            core.getLoggerService().info("Modul erfolgreich geladen und aktiviert: " + javaPlugin.getName() + " v" + javaPlugin.getDescription().getVersion());
+            // Ein Modul kann sich in onEnable bereits selbst als eingeschränkt gemeldet haben
+            if (status.getState() == ModuleState.LOADING) {
+                status.setState(ModuleState.ENABLED);
+            }
+            core.getLoggerService().info("Modul erfolgreich geladen und aktiviert: " + javaPlugin.getName() + " v" + javaPlugin.getDescription().getVersion()
+                    + " (" + status.getEnableDurationMillis() + " ms)");
         } catch (Exception e) {
-            core.getStatusAPI().registerModule(javaPlugin.getName(), false);
+            status.reportError(e);
+            status.setState(ModuleState.FAILED);
+            loadFailures.increment();
+            releaseListeners(javaPlugin);
             core.getLoggerService().error("Fehler beim Aktivieren des Moduls " + javaPlugin.getName() + ": " + e.getMessage());
             if (core.getCoreConfig().isDebugMode()) {
                 e.printStackTrace();
@@ -248,6 +284,7 @@ public class ModuleLoader {
             JavaPlugin module = loadedModules.get(moduleName);
             try {
                 pluginManager.disablePlugin(module);
+                releaseListeners(module);
                 core.getStatusAPI().registerModule(moduleName, false);
                 core.getLoggerService().info("Modul deaktiviert: " + moduleName);
             } catch (Exception e) {
@@ -258,6 +295,34 @@ public class ModuleLoader {
         loadedModules.clear();
     }
     
+    /**
+     * Entfernt die Event-Handler und Befehle eines Moduls, die über den Core registriert sind, und schreibt
+     * seine gepufferten Datenbankzugriffe. Bukkit entfernt beim Deaktivieren nur die Listener, die direkt
+     * auf das Modul registriert sind.
+     */
+    private void releaseListeners(Plugin module) {
+        int removed = core.getEventDispatcher().unregisterAll(module) + core.getEventBus().unsubscribeAll(module);
+        if (removed > 0) {
+            core.getLoggerService().debug(removed + " Event-Handler von " + module.getName() + " entfernt");
+        }
+        int commands = core.getCommandManager().unregisterAll(module);
+        if (commands > 0) {
+            core.getLoggerService().debug(commands + " Befehle von " + module.getName() + " entfernt");
+        }
+        if (core.getDatabase() != null) {
+            core.getDatabase().release(module);
+        }
+    }
+    
+    /**
+     * @param moduleName Der Name des Moduls
+     * @return die Anzahl der registrierten Event-Handler des Moduls
+     */
+    public int getListenerCount(String moduleName) {
+        JavaPlugin module = loadedModules.get(moduleName);
+        return module != null ? core.getEventDispatcher().getHandlerCount(module) : 0;
+    }
+    
     /**
      * Lädt alle Module neu
      */
@@ -0,0 +1,79 @@
+package de.pexora.core.profiler;
+
+import de.pexora.core.util.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gemessene Laufzeit eines Moduls: Zeit pro Tick auf dem Server-Thread als gleitendes Histogramm
+ * sowie Summen für Aufrufe und asynchron verbrauchte Zeit.
+ */
+public final class ModuleProfile {
+
+    private final String name;
+    private final RollingHistogram tickTime = new RollingHistogram();
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder syncNanos = new LongAdder();
+    private final LongAdder asyncNanos = new LongAdder();
+    
+    // Wird nur auf dem Server-Thread gelesen und geschrieben
+    private long currentTickNanos;
+    
+    ModuleProfile(String name) {
+        this.name = name;
+    }
+    
+    void record(long nanos, boolean primaryThread) {
+        invocations.increment();
+        if (primaryThread) {
+            currentTickNanos += nanos;
+            syncNanos.add(nanos);
+        } else {
+            asyncNanos.add(nanos);
+        }
+    }
+    
+    void endTick() {
+        tickTime.record(currentTickNanos);
+        currentTickNanos = 0;
+    }
+    
+    void rotate() {
+        tickTime.rotate();
+    }
+    
+    /**
+     * @return der Name des Moduls
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * @return die Zeit, die das Modul pro Tick auf dem Server-Thread verbraucht hat, im aktuellen Fenster
+     */
+    public LatencyHistogram getTickTime() {
+        return tickTime.snapshot();
+    }
+    
+    /**
+     * @return die Anzahl der gemessenen Aufrufe seit dem letzten Zurücksetzen
+     */
+    public long getInvocations() {
+        return invocations.sum();
+    }
+    
+    /**
+     * @return die gesamte Zeit auf dem Server-Thread in Nanosekunden seit dem letzten Zurücksetzen
+     */
+    public long getSyncNanos() {
+        return syncNanos.sum();
+    }
+    
+    /**
+     * @return die gesamte Zeit auf anderen Threads in Nanosekunden seit dem letzten Zurücksetzen
+     */
+    public long getAsyncNanos() {
+        return asyncNanos.sum();
+    }
+}
@@ -0,0 +1,37 @@
+package de.pexora.core.profiler;
+
+import de.pexora.core.util.LatencyHistogram;
+
+/**
+ * Histogramm über ein gleitendes Zeitfenster. Werte landen im aktuellen Abschnitt, der beim
+ * Rotieren zum vorherigen wird; Auswertungen umfassen beide Abschnitte, also ein bis zwei Fenster.
+ */
+final class RollingHistogram {
+
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private volatile LatencyHistogram previous = new LatencyHistogram();
+    
+    void record(long nanos) {
+        current.record(nanos);
+    }
+    
+    void rotate() {
+        previous = current;
+        current = new LatencyHistogram();
+    }
+    
+    void reset() {
+        previous = new LatencyHistogram();
+        current = new LatencyHistogram();
+    }
+    
+    /**
+     * @return ein neues Histogramm mit den Werten beider Abschnitte
+     */
+    LatencyHistogram snapshot() {
+        LatencyHistogram result = new LatencyHistogram();
+        result.add(previous);
+        result.add(current);
+        return result;
+    }
+}
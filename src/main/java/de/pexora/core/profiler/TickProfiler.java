@@ -0,0 +1,273 @@
+package de.pexora.core.profiler;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.util.LatencyHistogram;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Misst die Tickdauer (MSPT) und rechnet die Laufzeit der Module zu.
+ * 
+ * Gemessen werden die Listener aus {@link de.pexora.core.api.events.EventRegistration}, Aufgaben aus
+ * {@link de.pexora.core.api.scheduler.TaskScheduler}, Kanal-Handler und Topic-Abonnements. Verschachtelte
+ * Aufrufe auf dem Server-Thread werden nur einmal gezählt: ein Modul, dessen Handler ein Event eines
+ * anderen Moduls auslöst, bekommt nur seine eigene Zeit zugerechnet.
+ * 
+ * Auf Paper wird die Tickdauer über ServerTickStartEvent/ServerTickEndEvent gemessen, sonst als
+ * Abstand zwischen zwei Scheduler-Ticks (mindestens 50 ms). Die Auswertungen umfassen ein gleitendes
+ * Fenster von profiler.window-seconds bis zur doppelten Länge.
+ */
+public class TickProfiler implements Listener {
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+    private static final int MAX_DEPTH = 64;
+    private static final String PAPER_TICK_START = "com.destroystokyo.paper.event.server.ServerTickStartEvent";
+    private static final String PAPER_TICK_END = "com.destroystokyo.paper.event.server.ServerTickEndEvent";
+    
+    private final PexoraCore plugin;
+    private final Map<String, ModuleProfile> profiles = new ConcurrentHashMap<>();
+    private final RollingHistogram tickTime = new RollingHistogram();
+    private final boolean paperTicks;
+    private volatile boolean enabled;
+    private volatile long windowMillis;
+    private BukkitTask fallbackTask;
+    
+    // Wird nur auf dem Server-Thread gelesen und geschrieben
+    private final long[] childNanos = new long[MAX_DEPTH];
+    private int depth;
+    private long tickStart;
+    private long windowStart = System.currentTimeMillis();
+    
+    public TickProfiler(PexoraCore plugin) {
+        this.plugin = plugin;
+        this.paperTicks = registerPaperTickEvents();
+        if (!paperTicks) {
+            this.fallbackTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::onSchedulerTick, 1L, 1L);
+        }
+        reloadSettings();
+        
+        plugin.getStatusAPI().registerStatusProvider("Profiler", this::getStatusSummary);
+    }
+    
+    /**
+     * Übernimmt die Einstellungen aus der Konfiguration
+     */
+    public void reloadSettings() {
+        enabled = plugin.getCoreConfig().isProfilerEnabled();
+        windowMillis = plugin.getCoreConfig().getProfilerWindowSeconds() * 1000L;
+    }
+    
+    /**
+     * Beendet die Messung
+     */
+    public void stop() {
+        enabled = false;
+        if (fallbackTask != null) {
+            fallbackTask.cancel();
+            fallbackTask = null;
+        }
+    }
+    
+    private boolean registerPaperTickEvents() {
+        Class<? extends Event> startEvent;
+        Class<? extends Event> endEvent;
+        try {
+            startEvent = Class.forName(PAPER_TICK_START).asSubclass(Event.class);
+            endEvent = Class.forName(PAPER_TICK_END).asSubclass(Event.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            return false;
+        }
+        
+        plugin.getServer().getPluginManager().registerEvent(startEvent, this, EventPriority.LOWEST,
+                (listener, event) -> tickStart = System.nanoTime(), plugin);
+        plugin.getServer().getPluginManager().registerEvent(endEvent, this, EventPriority.MONITOR,
+                (listener, event) -> {
+                    if (tickStart != 0) {
+                        endTick(System.nanoTime() - tickStart);
+                    }
+                }, plugin);
+        return true;
+    }
+    
+    private void onSchedulerTick() {
+        long now = System.nanoTime();
+        if (tickStart != 0) {
+            endTick(now - tickStart);
+        }
+        tickStart = now;
+    }
+    
+    private void endTick(long tickNanos) {
+        if (!enabled) {
+            return;
+        }
+        
+        tickTime.record(tickNanos);
+        for (ModuleProfile profile : profiles.values()) {
+            profile.endTick();
+        }
+        
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= windowMillis) {
+            windowStart = now;
+            tickTime.rotate();
+            for (ModuleProfile profile : profiles.values()) {
+                profile.rotate();
+            }
+        }
+    }
+    
+    /**
+     * Beginnt eine Messung. Muss immer mit {@link #end(Plugin, long)} abgeschlossen werden, am besten in finally.
+     * 
+     * @return Der Startwert für {@link #end(Plugin, long)}
+     */
+    public long begin() {
+        if (!enabled) {
+            return NOT_STARTED;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            if (depth < MAX_DEPTH) {
+                childNanos[depth] = 0;
+            }
+            depth++;
+        }
+        return System.nanoTime();
+    }
+    
+    /**
+     * Schließt eine Messung ab und rechnet die Zeit dem Modul zu
+     * 
+     * @param owner Das Plugin, dem die Zeit zugerechnet wird, oder null für den Core
+     * @param start Der Rückgabewert von {@link #begin()}
+     */
+    public void end(Plugin owner, long start) {
+        if (start == NOT_STARTED) {
+            return;
+        }
+        
+        long elapsed = System.nanoTime() - start;
+        if (Bukkit.isPrimaryThread() && depth > 0) {
+            depth--;
+            long self = elapsed;
+            if (depth < MAX_DEPTH) {
+                self -= childNanos[depth];
+            }
+            if (depth > 0 && depth <= MAX_DEPTH) {
+                childNanos[depth - 1] += elapsed;
+            }
+            profileOf(owner).record(Math.max(0, self), true);
+        } else {
+            profileOf(owner).record(elapsed, false);
+        }
+    }
+    
+    /**
+     * Umhüllt eine Aufgabe, sodass ihre Laufzeit dem Modul zugerechnet wird
+     * 
+     * @param owner Das Plugin, dem die Zeit zugerechnet wird
+     * @param task Die Aufgabe
+     * @return Die gemessene Aufgabe
+     */
+    public Runnable wrap(Plugin owner, Runnable task) {
+        return () -> {
+            long start = begin();
+            try {
+                task.run();
+            } finally {
+                end(owner, start);
+            }
+        };
+    }
+    
+    private ModuleProfile profileOf(Plugin owner) {
+        String name = owner != null ? owner.getName() : plugin.getName();
+        ModuleProfile profile = profiles.get(name);
+        if (profile == null) {
+            profile = profiles.computeIfAbsent(name, ModuleProfile::new);
+        }
+        return profile;
+    }
+    
+    /**
+     * Verwirft alle bisherigen Messwerte
+     */
+    public void reset() {
+        profiles.clear();
+        tickTime.reset();
+    }
+    
+    /**
+     * @return ob gerade gemessen wird
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * @return ob die Tickdauer über die Paper-Tick-Events gemessen wird
+     */
+    public boolean isPaperTicks() {
+        return paperTicks;
+    }
+    
+    /**
+     * @return die Tickdauer im aktuellen Fenster
+     */
+    public LatencyHistogram getTickTime() {
+        return tickTime.snapshot();
+    }
+    
+    /**
+     * @return alle Module, sortiert nach ihrer Zeit pro Tick (p99, absteigend)
+     */
+    public List<ModuleProfile> getProfiles() {
+        List<ModuleProfile> result = new ArrayList<>();
+        Map<ModuleProfile, Long> p99 = new LinkedHashMap<>();
+        for (ModuleProfile profile : profiles.values()) {
+            result.add(profile);
+            p99.put(profile, profile.getTickTime().getPercentile(99));
+        }
+        result.sort(Comparator.comparing((ModuleProfile profile) -> p99.get(profile)).reversed()
+                .thenComparing(ModuleProfile::getSyncNanos, Comparator.reverseOrder()));
+        return result;
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        Map<String, String> status = new LinkedHashMap<>();
+        if (!enabled) {
+            status.put("Status", "deaktiviert");
+            return status;
+        }
+        
+        LatencyHistogram ticks = tickTime.snapshot();
+        status.put("MSPT", "p50 " + LatencyHistogram.formatMillis(ticks.getPercentile(50))
+                + ", p99 " + LatencyHistogram.formatMillis(ticks.getPercentile(99))
+                + ", max " + LatencyHistogram.formatMillis(ticks.getMax()));
+        status.put("Messung", paperTicks ? "Paper-Tick-Events" : "Abstand zwischen Scheduler-Ticks");
+        
+        List<ModuleProfile> top = getProfiles();
+        StringBuilder modules = new StringBuilder();
+        for (int i = 0; i < Math.min(3, top.size()); i++) {
+            if (i > 0) {
+                modules.append(", ");
+            }
+            ModuleProfile profile = top.get(i);
+            modules.append(profile.getName()).append(" ")
+                    .append(LatencyHistogram.formatMillis(profile.getTickTime().getPercentile(99)));
+        }
+        status.put("Top-Module (p99 pro Tick)", modules.length() == 0 ? "-" : modules.toString());
+        return status;
+    }
+}
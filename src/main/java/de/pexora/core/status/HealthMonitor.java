@@ -0,0 +1,177 @@
+package de.pexora.core.status;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.status.HealthCheck;
+import de.pexora.core.api.status.ModuleStatus;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Führt die Health-Checks aller aktivierten Module regelmäßig asynchron aus und prüft deren Heartbeats.
+ * 
+ * Schlägt eine Prüfung fehl oder bleibt der Heartbeat länger als status.heartbeat-timeout-seconds aus,
+ * wird das Modul als eingeschränkt (DEGRADED) markiert, bis eine spätere Runde wieder erfolgreich ist.
+ * Eine Runde wird übersprungen, solange die vorherige noch läuft.
+ * 
+ * Jede Prüfung läuft in einem eigenen kleinen Thread-Pool und darf höchstens
+ * status.health-check-timeout-seconds dauern; eine hängende Prüfung zählt als fehlgeschlagen
+ * und blockiert weder die übrigen Prüfungen noch die nächste Runde.
+ */
+public class HealthMonitor {
+
+    private static final int CHECK_THREADS = 4;
+    private static final int CHECK_QUEUE_CAPACITY = 256;
+    
+    private final PexoraCore plugin;
+    private final StatusAPI statusAPI;
+    private final ThreadPoolExecutor executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private BukkitTask task;
+    private int intervalSeconds;
+    
+    public HealthMonitor(PexoraCore plugin, StatusAPI statusAPI) {
+        this.plugin = plugin;
+        this.statusAPI = statusAPI;
+        this.executor = createExecutor();
+        reloadSettings();
+    }
+    
+    private static ThreadPoolExecutor createExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(CHECK_THREADS, CHECK_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CHECK_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "Pexora-Health-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+    
+    /**
+     * Übernimmt das Prüfintervall aus der Konfiguration und plant die Prüfungen neu, falls es sich geändert hat
+     */
+    public void reloadSettings() {
+        int interval = plugin.getCoreConfig().getHealthCheckIntervalSeconds();
+        if (task != null && interval == intervalSeconds) {
+            return;
+        }
+        
+        stop();
+        intervalSeconds = interval;
+        if (interval > 0) {
+            long ticks = interval * 20L;
+            task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::runChecks, ticks, ticks);
+        }
+    }
+    
+    /**
+     * Beendet die regelmäßigen Prüfungen
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+    
+    /**
+     * Beendet die regelmäßigen Prüfungen und unterbricht noch laufende Health-Checks
+     */
+    public void close() {
+        stop();
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Führt eine Prüfrunde für alle aktivierten Module aus
+     */
+    public void runChecks() {
+        if (!running.compareAndSet(false, true)) {
+            plugin.getLoggerService().debug("Health-Checks der vorherigen Runde laufen noch, Runde wird übersprungen");
+            return;
+        }
+        
+        try {
+            long heartbeatTimeout = plugin.getCoreConfig().getHeartbeatTimeoutSeconds() * 1000L;
+            long checkTimeout = plugin.getCoreConfig().getHealthCheckTimeoutSeconds() * 1000L;
+            for (ModuleStatus status : statusAPI.getModuleStatuses()) {
+                if (status.isEnabled()) {
+                    check(status, heartbeatTimeout, checkTimeout);
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void check(ModuleStatus status, long heartbeatTimeout, long checkTimeout) {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, HealthCheck> entry : status.getHealthChecks().entrySet()) {
+            String problem = runCheck(status, entry.getValue(), checkTimeout);
+            if (problem != null) {
+                problems.add(entry.getKey() + ": " + problem);
+            }
+        }
+        
+        if (status.isStale(heartbeatTimeout)) {
+            long seconds = (System.currentTimeMillis() - status.getLastHeartbeat()) / 1000L;
+            problems.add("kein Heartbeat seit " + seconds + " s");
+        }
+        
+        String previous = status.getHealthProblem();
+        String problem = problems.isEmpty() ? null : String.join("; ", problems);
+        status.updateHealth(problem);
+        
+        if (problem != null && previous == null) {
+            plugin.getLoggerService().warn("Modul " + status.getModuleName() + " ist eingeschränkt: " + problem);
+        } else if (problem == null && previous != null) {
+            plugin.getLoggerService().info("Modul " + status.getModuleName() + " ist wieder gesund");
+        }
+    }
+    
+    /**
+     * Führt eine Prüfung mit Zeitlimit aus
+     * 
+     * @return Die Problembeschreibung, oder null, wenn die Prüfung erfolgreich war
+     */
+    private String runCheck(ModuleStatus status, HealthCheck check, long timeoutMillis) {
+        Future<HealthCheck.Result> future;
+        try {
+            future = executor.submit(check::check);
+        } catch (RejectedExecutionException e) {
+            return "nicht ausgeführt, zu viele hängende Prüfungen";
+        }
+        
+        try {
+            HealthCheck.Result result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (result == null) {
+                return "kein Ergebnis";
+            }
+            return result.isHealthy() ? null : result.getMessage();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return "Zeitüberschreitung nach " + timeoutMillis + " ms";
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            status.reportError(cause);
+            return cause.getMessage();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return "unterbrochen";
+        }
+    }
+}
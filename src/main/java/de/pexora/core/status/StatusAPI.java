@@ -1,21 +1,48 @@
 package de.pexora.core.status;
 
+import de.pexora.core.PexoraCore;
+import de.pexora.core.api.status.ModuleState;
 import de.pexora.core.api.status.ModuleStatus;
-import java.util.HashMap;
+import de.pexora.core.api.status.ModuleStatusListener;
+import de.pexora.core.api.status.StatusProvider;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Verfolgt den Status aller Module im System.
  * Implementiert das StatusAPI-Interface aus dem API-Paket.
+ * 
+ * Lesezugriffe sind von jedem Thread aus möglich und kosten keine Kopie: Änderungen bauen
+ * eine unveränderliche Momentaufnahme samt Zählern neu auf, die Abfragen direkt zurückgeben.
+ * Statuswechsel werden an registrierte {@link ModuleStatusListener} gemeldet.
  */
-public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
+public class StatusAPI implements de.pexora.core.api.status.StatusAPI, Listener {
 
-    private final Map<String, Boolean> moduleStatus;
+    private final PexoraCore plugin;
     private final Map<String, ModuleStatus> moduleStatusObjects;
+    private final Map<String, StatusProvider> statusProviders;
+    private final CopyOnWriteArrayList<OwnedListener> listeners;
+    private final ModuleStatusListener changeForwarder = new ChangeForwarder();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
     
-    public StatusAPI() {
-        this.moduleStatus = new HashMap<>();
-        this.moduleStatusObjects = new HashMap<>();
+    public StatusAPI(PexoraCore plugin) {
+        this.plugin = plugin;
+        this.moduleStatusObjects = new ConcurrentHashMap<>();
+        this.statusProviders = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.listeners = new CopyOnWriteArrayList<>();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
     }
     
     /**
@@ -26,8 +53,45 @@ public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
      */
     @Override
     public void registerModule(String moduleName, boolean enabled) {
-        moduleStatus.put(moduleName, enabled);
-        moduleStatusObjects.put(moduleName, new ModuleStatus(moduleName, enabled));
+        ModuleStatus existing = moduleStatusObjects.get(moduleName);
+        if (existing != null) {
+            // Meldet den Wechsel über den ChangeForwarder, falls sich der Status ändert
+            existing.setEnabled(enabled);
+        } else {
+            registerModule(moduleName, enabled ? ModuleState.ENABLED : ModuleState.DISABLED);
+        }
+    }
+    
+    /**
+     * Registriert ein Modul mit einem Lebenszyklus-Zustand oder ändert den Zustand eines registrierten Moduls
+     * 
+     * @param moduleName Der Name des Moduls
+     * @param state Der Zustand
+     * @return Das ModuleStatus-Objekt des Moduls
+     */
+    @Override
+    public ModuleStatus registerModule(String moduleName, ModuleState state) {
+        ModuleStatus status;
+        boolean created = false;
+        synchronized (this) {
+            status = moduleStatusObjects.get(moduleName);
+            if (status == null) {
+                status = new ModuleStatus(moduleName, state, changeForwarder);
+                moduleStatusObjects.put(moduleName, status);
+                rebuildSnapshot();
+                created = true;
+            }
+        }
+        
+        if (created) {
+            fireStateChange(moduleName, null, state);
+            if (state.isActive()) {
+                fireStatusChange(moduleName, true);
+            }
+        } else {
+            status.setState(state);
+        }
+        return status;
     }
     
     /**
@@ -37,8 +101,58 @@ public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
      */
     @Override
     public void unregisterModule(String moduleName) {
-        moduleStatus.remove(moduleName);
-        moduleStatusObjects.remove(moduleName);
+        ModuleStatus removed;
+        synchronized (this) {
+            removed = moduleStatusObjects.remove(moduleName);
+            if (removed == null) {
+                return;
+            }
+            rebuildSnapshot();
+        }
+        
+        ModuleState previous = removed.getState();
+        if (previous != ModuleState.DISABLED) {
+            fireStateChange(moduleName, previous, ModuleState.DISABLED);
+        }
+        if (previous.isActive()) {
+            fireStatusChange(moduleName, false);
+        }
+    }
+    
+    /**
+     * Baut die Momentaufnahme neu auf. Muss unter der Sperre dieses Objekts aufgerufen werden.
+     */
+    private void rebuildSnapshot() {
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        int enabled = 0;
+        for (ModuleStatus moduleStatus : moduleStatusObjects.values()) {
+            status.put(moduleStatus.getModuleName(), moduleStatus.isEnabled());
+            if (moduleStatus.isEnabled()) {
+                enabled++;
+            }
+        }
+        List<ModuleStatus> modules = new ArrayList<>(moduleStatusObjects.values());
+        snapshot = new Snapshot(Collections.unmodifiableMap(status), Collections.unmodifiableList(modules), enabled);
+    }
+    
+    private void fireStateChange(String moduleName, ModuleState previous, ModuleState state) {
+        for (OwnedListener entry : listeners) {
+            try {
+                entry.listener.onStateChange(moduleName, previous, state);
+            } catch (RuntimeException e) {
+                plugin.getLoggerService().warn("Status-Listener von " + entry.owner.getName() + " hat einen Fehler verursacht: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void fireStatusChange(String moduleName, boolean enabled) {
+        for (OwnedListener entry : listeners) {
+            try {
+                entry.listener.onStatusChange(moduleName, enabled);
+            } catch (RuntimeException e) {
+                plugin.getLoggerService().warn("Status-Listener von " + entry.owner.getName() + " hat einen Fehler verursacht: " + e.getMessage());
+            }
+        }
     }
     
     /**
@@ -49,17 +163,17 @@ public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
      */
     @Override
     public boolean isModuleEnabled(String moduleName) {
-        return moduleStatus.getOrDefault(moduleName, false);
+        return snapshot.status.getOrDefault(moduleName, false);
     }
     
     /**
      * Gibt den Status aller Module zurück
      * 
-     * @return Eine Map mit Modulnamen und ihrem Aktivierungsstatus
+     * @return Eine unveränderliche Momentaufnahme mit Modulnamen und ihrem Aktivierungsstatus
      */
     @Override
     public Map<String, Boolean> getModuleStatus() {
-        return new HashMap<>(moduleStatus);
+        return snapshot.status;
     }
     
     /**
@@ -69,13 +183,7 @@ public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
      */
     @Override
     public int getEnabledModuleCount() {
-        int count = 0;
-        for (boolean enabled : moduleStatus.values()) {
-            if (enabled) {
-                count++;
-            }
-        }
-        return count;
+        return snapshot.enabledCount;
     }
     
     /**
@@ -85,7 +193,7 @@ public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
      */
     @Override
     public int getTotalModuleCount() {
-        return moduleStatus.size();
+        return snapshot.status.size();
     }
     
     /**
@@ -98,4 +206,133 @@ public class StatusAPI implements de.pexora.core.api.status.StatusAPI {
     public ModuleStatus getModuleStatusForModule(String moduleName) {
         return moduleStatusObjects.get(moduleName);
     }
+    
+    /**
+     * Gibt die ModuleStatus-Objekte aller registrierten Module zurück
+     * 
+     * @return Eine unveränderliche Liste der Module
+     */
+    @Override
+    public Collection<ModuleStatus> getModuleStatuses() {
+        return snapshot.modules;
+    }
+    
+    /**
+     * Registriert einen zusätzlichen Abschnitt für die Statusausgabe
+     * 
+     * @param section Der Name des Abschnitts
+     * @param provider Der Provider, der die Zeilen des Abschnitts liefert
+     */
+    @Override
+    public void registerStatusProvider(String section, StatusProvider provider) {
+        statusProviders.put(section, provider);
+    }
+    
+    /**
+     * Entfernt einen Abschnitt der Statusausgabe
+     * 
+     * @param section Der Name des Abschnitts
+     */
+    @Override
+    public void unregisterStatusProvider(String section) {
+        statusProviders.remove(section);
+    }
+    
+    /**
+     * Fragt alle registrierten Abschnitte ab. Fehler eines Providers werden als Zeile ausgegeben.
+     * 
+     * @return Eine Map mit Abschnittsnamen und ihren Zeilen, in Registrierungsreihenfolge
+     */
+    @Override
+    public Map<String, Map<String, String>> getStatusSections() {
+        Map<String, StatusProvider> providers;
+        synchronized (statusProviders) {
+            providers = new LinkedHashMap<>(statusProviders);
+        }
+        
+        Map<String, Map<String, String>> sections = new LinkedHashMap<>();
+        for (Map.Entry<String, StatusProvider> entry : providers.entrySet()) {
+            try {
+                sections.put(entry.getKey(), entry.getValue().getStatus());
+            } catch (RuntimeException e) {
+                sections.put(entry.getKey(), Collections.singletonMap("Fehler", String.valueOf(e.getMessage())));
+            }
+        }
+        return sections;
+    }
+    
+    /**
+     * Registriert einen Listener für Statuswechsel von Modulen
+     * 
+     * @param owner Das Plugin, dem der Listener gehört; er wird beim Deaktivieren des Plugins entfernt
+     * @param listener Der Listener
+     */
+    @Override
+    public void addStatusListener(Plugin owner, ModuleStatusListener listener) {
+        listeners.add(new OwnedListener(owner, listener));
+    }
+    
+    /**
+     * Entfernt einen Listener für Statuswechsel
+     * 
+     * @param listener Der Listener
+     */
+    @Override
+    public void removeStatusListener(ModuleStatusListener listener) {
+        listeners.removeIf(entry -> entry.listener == listener);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPluginDisable(PluginDisableEvent event) {
+        listeners.removeIf(entry -> entry.owner == event.getPlugin());
+    }
+    
+    /**
+     * Unveränderlicher Stand aller Module mit vorberechneten Zählern
+     */
+    private static final class Snapshot {
+        
+        private static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyList(), 0);
+        
+        private final Map<String, Boolean> status;
+        private final List<ModuleStatus> modules;
+        private final int enabledCount;
+        
+        private Snapshot(Map<String, Boolean> status, List<ModuleStatus> modules, int enabledCount) {
+            this.status = status;
+            this.modules = modules;
+            this.enabledCount = enabledCount;
+        }
+    }
+    
+    /**
+     * Leitet Wechsel der ModuleStatus-Objekte weiter, auch wenn ein Modul seinen Zustand
+     * direkt über {@link ModuleStatus#setState(ModuleState)} oder {@link ModuleStatus#setEnabled(boolean)} ändert
+     */
+    private final class ChangeForwarder implements ModuleStatusListener {
+        
+        @Override
+        public void onStatusChange(String moduleName, boolean enabled) {
+            synchronized (StatusAPI.this) {
+                rebuildSnapshot();
+            }
+            fireStatusChange(moduleName, enabled);
+        }
+        
+        @Override
+        public void onStateChange(String moduleName, ModuleState previous, ModuleState state) {
+            fireStateChange(moduleName, previous, state);
+        }
+    }
+    
+    private static final class OwnedListener {
+        
+        private final Plugin owner;
+        private final ModuleStatusListener listener;
+        
+        private OwnedListener(Plugin owner, ModuleStatusListener listener) {
+            this.owner = owner;
+            this.listener = listener;
+        }
+    }
 }
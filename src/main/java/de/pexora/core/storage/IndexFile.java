@@ -0,0 +1,210 @@
+package de.pexora.core.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongPredicate;
+
+/**
+ * Der Index des {@link KeyValueStore} als Hashtabelle in einer Datei, die in den Speicher abgebildet wird.
+ * 
+ * Jeder Platz enthält den Hash des Schlüssels und die Position seines letzten Eintrags im Log
+ * (0 = frei; das Log beginnt mit einem Kopf, kein Eintrag liegt bei 0). Gelöschte Schlüssel zeigen auf
+ * ihren Löscheintrag, sodass Plätze nie frei werden und die lineare Suche korrekt bleibt.
+ * 
+ * Der Kopf hält fest, zu welchem Log und bis zu welcher Länge der Index passt. Nur ein sauber
+ * geschlossener Index wird beim Start übernommen, sonst wird er aus dem Log neu aufgebaut.
+ */
+final class IndexFile {
+
+    private static final int MAGIC = 0x50584958;
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int SLOT = 16;
+    private static final double MAX_LOAD = 0.7;
+    
+    private final File file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private int size;
+    
+    private IndexFile(File file, FileChannel channel, int capacity) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) capacity * SLOT);
+    }
+    
+    /**
+     * Legt einen leeren Index an
+     * 
+     * @param file Die Datei; ein vorhandener Inhalt wird überschrieben
+     * @param minEntries Die Anzahl der Schlüssel, die ohne Vergrößern Platz finden sollen
+     * @param epoch Die Kennung des zugehörigen Logs
+     */
+    static IndexFile create(File file, int minEntries, int epoch) throws IOException {
+        int capacity = 1024;
+        while (capacity * MAX_LOAD < minEntries) {
+            capacity <<= 1;
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        IndexFile index = new IndexFile(file, channel, capacity);
+        index.buffer.putInt(0, MAGIC);
+        index.buffer.putInt(4, VERSION);
+        index.buffer.putInt(12, capacity);
+        index.buffer.putInt(20, epoch);
+        return index;
+    }
+    
+    /**
+     * Öffnet einen sauber geschlossenen Index
+     * 
+     * @param file Die Datei
+     * @param epoch Die Kennung des Logs
+     * @param logLength Die Länge des Logs
+     * @return Der Index oder null, wenn er nicht zum Log passt oder nicht sauber geschlossen wurde
+     */
+    static IndexFile open(File file, int epoch, long logLength) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER) {
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+            int capacity = header.getInt(12);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(8) != 1
+                    || header.getInt(20) != epoch || header.getLong(24) != logLength
+                    || Integer.bitCount(capacity) != 1 || fileSize != HEADER + (long) capacity * SLOT) {
+                channel.close();
+                return null;
+            }
+            IndexFile index = new IndexFile(file, channel, capacity);
+            index.size = header.getInt(16);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Sucht den Platz eines Schlüssels
+     * 
+     * @param hash Der Hash des Schlüssels
+     * @param sameKey Prüft, ob der Eintrag an einer Position im Log zum gesuchten Schlüssel gehört
+     * @return Der Platz des Schlüssels, sonst -(freier Platz + 1)
+     * @throws IOException Wenn alle Plätze belegt sind, ohne dass der Schlüssel gefunden wurde
+     */
+    int find(long hash, LongPredicate sameKey) throws IOException {
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        for (int probes = 0; probes < capacity; probes++) {
+            long offset = getOffset(slot);
+            if (offset == 0) {
+                return -(slot + 1);
+            }
+            if (getHash(slot) == hash && sameKey.test(offset)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        throw new IOException("Index " + file.getName() + " ist voll (" + capacity + " Plätze)");
+    }
+    
+    /**
+     * Belegt einen freien Platz oder ersetzt die Position eines vorhandenen Schlüssels
+     */
+    void set(int slot, long hash, long offset) {
+        int position = HEADER + slot * SLOT;
+        if (buffer.getLong(position + 8) == 0) {
+            size++;
+        }
+        buffer.putLong(position, hash);
+        buffer.putLong(position + 8, offset);
+    }
+    
+    /**
+     * Fügt einen Schlüssel ein, der sicher noch nicht enthalten ist, z.B. beim Umkopieren
+     */
+    void insertNew(long hash, long offset) throws IOException {
+        int slot = find(hash, existing -> false);
+        set(-slot - 1, hash, offset);
+    }
+    
+    long getHash(int slot) {
+        return buffer.getLong(HEADER + slot * SLOT);
+    }
+    
+    long getOffset(int slot) {
+        return buffer.getLong(HEADER + slot * SLOT + 8);
+    }
+    
+    boolean needsResize() {
+        return size > capacity * MAX_LOAD;
+    }
+    
+    int getCapacity() {
+        return capacity;
+    }
+    
+    int getSize() {
+        return size;
+    }
+    
+    File getFile() {
+        return file;
+    }
+    
+    /**
+     * Markiert den Index als in Benutzung; nach einem Absturz wird er dadurch neu aufgebaut
+     */
+    void markOpen() {
+        buffer.putInt(8, 0);
+        buffer.force();
+    }
+    
+    /**
+     * Schreibt den Index auf den Datenträger und markiert ihn als sauber geschlossen
+     * 
+     * @param logLength Die Länge des Logs, zu der der Index passt
+     * @param liveBytes Die Bytes der gültigen Einträge im Log
+     */
+    void markClean(long logLength, long liveBytes) {
+        buffer.putInt(16, size);
+        buffer.putLong(24, logLength);
+        buffer.putLong(32, liveBytes);
+        buffer.force();
+        buffer.putInt(8, 1);
+        buffer.force();
+    }
+    
+    long getStoredLiveBytes() {
+        return buffer.getLong(32);
+    }
+    
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Die Abbildung bleibt bis zur Garbage Collection gültig
+        }
+    }
+    
+    /**
+     * Schließt den Index und löscht die Datei. Solange die Abbildung besteht, kann das auf Windows
+     * fehlschlagen; die Datei wird dann beim Beenden bzw. beim nächsten Start gelöscht.
+     */
+    void delete() {
+        close();
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
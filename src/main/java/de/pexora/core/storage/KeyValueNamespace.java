@@ -0,0 +1,194 @@
+package de.pexora.core.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Der Namensraum eines Moduls im {@link KeyValueStore} mit typisierten Zugriffen.
+ * 
+ * Jeder Schreibzugriff hängt nur einen Eintrag an das Log an und kehrt ohne Warten auf den Datenträger
+ * zurück; Zugriffe sind aus jedem Thread erlaubt. Fehler beim Lesen oder Schreiben werden protokolliert,
+ * Lesezugriffe liefern dann den Standardwert.
+ */
+public final class KeyValueNamespace {
+
+    private static final byte[] EMPTY = new byte[0];
+    
+    private final KeyValueStore store;
+    private final String name;
+    
+    KeyValueNamespace(KeyValueStore store, String name) {
+        this.store = store;
+        this.name = name;
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @param defaultValue Der Wert, falls der Schlüssel fehlt
+     * @return Der gespeicherte Wert oder der Standardwert
+     * @throws IllegalStateException Wenn unter dem Schlüssel ein Wert eines anderen Typs liegt
+     */
+    public int getInt(String key, int defaultValue) {
+        StoreRecord record = read(key, StoreRecord.INT);
+        return record != null ? record.value.getInt(0) : defaultValue;
+    }
+    
+    public void putInt(String key, int value) {
+        write(key, StoreRecord.INT, ByteBuffer.allocate(4).putInt(value).array());
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @param defaultValue Der Wert, falls der Schlüssel fehlt
+     * @return Der gespeicherte Wert oder der Standardwert; ein gespeicherter int wird erweitert
+     * @throws IllegalStateException Wenn unter dem Schlüssel ein Wert eines anderen Typs liegt
+     */
+    public long getLong(String key, long defaultValue) {
+        StoreRecord record = read(key, StoreRecord.LONG, StoreRecord.INT);
+        if (record == null) {
+            return defaultValue;
+        }
+        return record.type == StoreRecord.INT ? record.value.getInt(0) : record.value.getLong(0);
+    }
+    
+    public void putLong(String key, long value) {
+        write(key, StoreRecord.LONG, ByteBuffer.allocate(8).putLong(value).array());
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @param defaultValue Der Wert, falls der Schlüssel fehlt
+     * @return Der gespeicherte Wert oder der Standardwert
+     * @throws IllegalStateException Wenn unter dem Schlüssel ein Wert eines anderen Typs liegt
+     */
+    public double getDouble(String key, double defaultValue) {
+        StoreRecord record = read(key, StoreRecord.DOUBLE);
+        return record != null ? record.value.getDouble(0) : defaultValue;
+    }
+    
+    public void putDouble(String key, double value) {
+        write(key, StoreRecord.DOUBLE, ByteBuffer.allocate(8).putDouble(value).array());
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @param defaultValue Der Wert, falls der Schlüssel fehlt
+     * @return Der gespeicherte Wert oder der Standardwert
+     * @throws IllegalStateException Wenn unter dem Schlüssel ein Wert eines anderen Typs liegt
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        StoreRecord record = read(key, StoreRecord.BOOLEAN);
+        return record != null ? record.value.get(0) != 0 : defaultValue;
+    }
+    
+    public void putBoolean(String key, boolean value) {
+        write(key, StoreRecord.BOOLEAN, new byte[] {(byte) (value ? 1 : 0)});
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @param defaultValue Der Wert, falls der Schlüssel fehlt
+     * @return Der gespeicherte Text oder der Standardwert
+     * @throws IllegalStateException Wenn unter dem Schlüssel ein Wert eines anderen Typs liegt
+     */
+    public String getString(String key, String defaultValue) {
+        StoreRecord record = read(key, StoreRecord.STRING);
+        if (record == null) {
+            return defaultValue;
+        }
+        ByteBuffer value = record.value;
+        return new String(value.array(), value.arrayOffset() + value.position(), value.remaining(), StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @param value Der Text; null entfernt den Schlüssel
+     */
+    public void putString(String key, String value) {
+        if (value == null) {
+            remove(key);
+            return;
+        }
+        write(key, StoreRecord.STRING, value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * @param key Der Schlüssel
+     * @return ob unter dem Schlüssel ein Wert liegt
+     */
+    public boolean contains(String key) {
+        try {
+            return store.read(KeyValueStore.encodeKey(name, key)) != null;
+        } catch (IOException e) {
+            store.reportError("Lesen von " + name + "/" + key, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Entfernt einen Schlüssel
+     * 
+     * @param key Der Schlüssel
+     * @return true, wenn der Schlüssel vorhanden war
+     */
+    public boolean remove(String key) {
+        try {
+            return store.write(KeyValueStore.encodeKey(name, key), StoreRecord.DELETE, StoreRecord.NONE, EMPTY, true);
+        } catch (IOException e) {
+            store.reportError("Löschen von " + name + "/" + key, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Liefert alle Schlüssel des Namensraums. Durchsucht den ganzen Index und ist daher für seltene
+     * Aufrufe gedacht, z.B. zum Aufräumen abgelaufener Cooldowns.
+     * 
+     * @return Die Schlüssel in keiner bestimmten Reihenfolge
+     */
+    public List<String> keys() {
+        try {
+            return store.keys(name);
+        } catch (IOException e) {
+            store.reportError("Auflisten von " + name, e);
+            return Collections.emptyList();
+        }
+    }
+    
+    /**
+     * @return der Name des Namensraums
+     */
+    public String getName() {
+        return name;
+    }
+    
+    private StoreRecord read(String key, byte... types) {
+        StoreRecord record;
+        try {
+            record = store.read(KeyValueStore.encodeKey(name, key));
+        } catch (IOException e) {
+            store.reportError("Lesen von " + name + "/" + key, e);
+            return null;
+        }
+        if (record == null) {
+            return null;
+        }
+        for (byte type : types) {
+            if (record.type == type) {
+                return record;
+            }
+        }
+        throw new IllegalStateException("Schlüssel " + name + "/" + key + " enthält einen Wert eines anderen Typs");
+    }
+    
+    private void write(String key, byte type, byte[] value) {
+        try {
+            store.write(KeyValueStore.encodeKey(name, key), StoreRecord.PUT, type, value, false);
+        } catch (IOException e) {
+            store.reportError("Schreiben von " + name + "/" + key, e);
+        }
+    }
+}
@@ -0,0 +1,742 @@
+package de.pexora.core.storage;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.config.CoreConfig;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Eingebetteter Schlüssel-Wert-Speicher für kleine Zustände der Module, z.B. Cooldowns, Schalter
+ * oder Zeitpunkte des letzten Besuchs.
+ * 
+ * Anders als eine YAML-Datei über den ConfigService wird bei einer Änderung nur ein Eintrag an das
+ * Log "store/data.log" angehängt, und Werte bleiben auf dem Datenträger statt im Heap. Ein in den
+ * Speicher abgebildeter Index ({@link IndexFile}) führt jeden Schlüssel zu seinem letzten Eintrag.
+ * Überholte Einträge entfernt eine Verdichtung im Hintergrund, sobald sie einen Anteil des Logs
+ * ausmachen. Das Log wird im Intervall aus der config.yml auf den Datenträger geschrieben; Zugriffe
+ * warten dabei nicht auf den Datenträger.
+ * 
+ * Nach einem Absturz wird der Index aus dem Log neu aufgebaut; ein unvollständiger letzter Eintrag
+ * wird an seiner Prüfsumme erkannt und abgeschnitten.
+ * 
+ * Module greifen über einen eigenen Namensraum zu:
+ * <pre>
+ * KeyValueNamespace cooldowns = store.namespace(this, "cooldowns");
+ * cooldowns.putLong(player.getUniqueId().toString(), System.currentTimeMillis());
+ * </pre>
+ */
+public class KeyValueStore {
+
+    private static final int LOG_MAGIC = 0x50584C47;
+    private static final int LOG_HEADER = 8;
+    private static final int MAX_KEY_BYTES = 1024;
+    private static final Pattern INDEX_PATTERN = Pattern.compile("index-(\\d+)\\.dat");
+    
+    private final PexoraCore plugin;
+    private final File directory;
+    private final File logFile;
+    private final File compactFile;
+    private final long compactionMinBytes;
+    private final int compactionGarbagePercent;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Hält compact() und close() auseinander; immer vor lock nehmen
+    private final Object compactionLock = new Object();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final BukkitTask syncTask;
+    
+    // Zugriff nur unter der Sperre
+    private FileChannel log;
+    private IndexFile index;
+    private int epoch;
+    private long logLength;
+    private long liveBytes;
+    private boolean closed;
+    
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private volatile boolean dirty;
+    private volatile String recovery = "sauber geöffnet";
+    
+    /**
+     * Öffnet den Speicher im Ordner "store" des Plugins
+     * 
+     * @param plugin Die Core-Instanz
+     * @throws IOException Wenn das Log nicht geöffnet oder der Index nicht angelegt werden konnte
+     */
+    public KeyValueStore(PexoraCore plugin) throws IOException {
+        CoreConfig config = plugin.getCoreConfig();
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder(), "store");
+        this.logFile = new File(directory, "data.log");
+        this.compactFile = new File(directory, "data.compact");
+        this.compactionMinBytes = config.getStorageCompactionMinKilobytes() * 1024;
+        this.compactionGarbagePercent = config.getStorageCompactionGarbagePercent();
+        open();
+        
+        long ticks = Math.max(1, config.getStorageSyncIntervalMillis() / 50);
+        this.syncTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::maintain, ticks, ticks);
+        plugin.getStatusAPI().registerStatusProvider("Schlüsselspeicher", this::getStatusSummary);
+        plugin.getMetricsRegistry().gauge(plugin, "pexora_store_keys", "Schlüssel im Schlüssel-Wert-Speicher", this::getKeyCount);
+        plugin.getMetricsRegistry().gauge(plugin, "pexora_store_log_bytes", "Größe des Logs des Schlüssel-Wert-Speichers", this::getLogLength);
+        plugin.getMetricsRegistry().counter(plugin, "pexora_store_compactions_total", "Verdichtungen des Schlüssel-Wert-Speichers", compactions::sum);
+    }
+    
+    private void open() throws IOException {
+        Files.createDirectories(directory.toPath());
+        // Eine abgebrochene Verdichtung; das alte Log ist noch vollständig
+        Files.deleteIfExists(compactFile.toPath());
+        
+        log = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (log.size() < LOG_HEADER) {
+            epoch = newEpoch();
+            writeLogHeader(log, epoch);
+            log.force(true);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+            StoreRecord.readFully(log, header, 0);
+            if (header.getInt(0) != LOG_MAGIC) {
+                log.close();
+                throw new IOException(logFile + " ist kein Log des Schlüssel-Wert-Speichers");
+            }
+            epoch = header.getInt(4);
+        }
+        logLength = log.size();
+        
+        File existing = findIndex();
+        if (existing != null) {
+            try {
+                index = IndexFile.open(existing, epoch, logLength);
+            } catch (IOException e) {
+                plugin.getLoggerService().warn("Index des Schlüssel-Wert-Speichers nicht lesbar, er wird neu aufgebaut: " + e.getMessage());
+            }
+        }
+        if (index != null) {
+            liveBytes = index.getStoredLiveBytes();
+        } else {
+            rebuildIndex();
+        }
+        deleteOtherIndexes();
+        index.markOpen();
+    }
+    
+    private File findIndex() {
+        File[] files = directory.listFiles();
+        File newest = null;
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = INDEX_PATTERN.matcher(file.getName());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) >= generation.get()) {
+                    generation.set(Integer.parseInt(matcher.group(1)));
+                    newest = file;
+                }
+            }
+        }
+        return newest;
+    }
+    
+    private void deleteOtherIndexes() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (INDEX_PATTERN.matcher(file.getName()).matches() && !file.equals(index.getFile())) {
+                    file.delete();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Baut den Index aus dem Log auf und schneidet einen beschädigten Rest am Ende ab
+     */
+    private void rebuildIndex() throws IOException {
+        long start = System.nanoTime();
+        index = IndexFile.create(nextIndexFile(), 0, epoch);
+        liveBytes = 0;
+        
+        long offset = LOG_HEADER;
+        long end = log.size();
+        int records = 0;
+        while (offset < end) {
+            StoreRecord record = StoreRecord.read(log, offset, end);
+            if (record == null) {
+                break;
+            }
+            apply(record.key, record.op, offset, record.length);
+            offset += record.length;
+            records++;
+            if (index.needsResize()) {
+                resizeIndex();
+            }
+        }
+        
+        if (offset < end) {
+            plugin.getLoggerService().warn("Schlüssel-Wert-Speicher: " + (end - offset) + " Bytes am Ende des Logs sind unvollständig und werden verworfen");
+            log.truncate(offset);
+            log.force(true);
+        }
+        logLength = offset;
+        recovery = "Index aus " + records + " Einträgen neu aufgebaut ("
+                + (System.nanoTime() - start) / 1_000_000 + " ms)";
+        plugin.getLoggerService().info("Schlüssel-Wert-Speicher: " + recovery);
+    }
+    
+    private File nextIndexFile() {
+        return new File(directory, "index-" + generation.incrementAndGet() + ".dat");
+    }
+    
+    private static int newEpoch() {
+        int epoch;
+        do {
+            epoch = ThreadLocalRandom.current().nextInt();
+        } while (epoch == 0);
+        return epoch;
+    }
+    
+    private static void writeLogHeader(FileChannel channel, int epoch) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putInt(LOG_MAGIC).putInt(epoch).flip();
+        StoreRecord.writeFully(channel, header, 0);
+    }
+    
+    /**
+     * Gibt den Namensraum eines Moduls zurück
+     * 
+     * @param owner Das Modul
+     * @return Der Namensraum mit dem Namen des Moduls
+     */
+    public KeyValueNamespace namespace(Plugin owner) {
+        return new KeyValueNamespace(this, owner.getName());
+    }
+    
+    /**
+     * Gibt einen Unterbereich des Namensraums eines Moduls zurück, z.B. für Cooldowns
+     * 
+     * @param owner Das Modul
+     * @param name Der Name des Unterbereichs
+     * @return Der Namensraum "Modul:name"
+     */
+    public KeyValueNamespace namespace(Plugin owner, String name) {
+        return new KeyValueNamespace(this, owner.getName() + ":" + name);
+    }
+    
+    static byte[] encodeKey(String namespace, String key) {
+        byte[] bytes = (namespace + '\0' + key).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Schlüssel ist zu lang (maximal " + MAX_KEY_BYTES + " Bytes): " + key);
+        }
+        return bytes;
+    }
+    
+    /**
+     * Liest den letzten Eintrag eines Schlüssels
+     * 
+     * @return Der Eintrag oder null, wenn der Schlüssel fehlt oder gelöscht wurde
+     */
+    StoreRecord read(byte[] key) throws IOException {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            reads.increment();
+            int slot = index.find(StoreRecord.hash(key), offset -> matches(offset, key));
+            if (slot < 0) {
+                return null;
+            }
+            StoreRecord record = StoreRecord.read(log, index.getOffset(slot), logLength);
+            if (record == null) {
+                throw new IOException("Beschädigter Eintrag im Log bei " + index.getOffset(slot));
+            }
+            return record.op == StoreRecord.PUT ? record : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Hängt einen Eintrag an das Log an und führt den Index nach
+     * 
+     * @param onlyIfPresent Nur schreiben, wenn der Schlüssel vorhanden ist (für Löschungen)
+     * @return ob ein Eintrag geschrieben wurde
+     */
+    boolean write(byte[] key, byte op, byte type, byte[] value, boolean onlyIfPresent) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            if (onlyIfPresent) {
+                int slot = index.find(StoreRecord.hash(key), offset -> matches(offset, key));
+                if (slot < 0 || readOp(index.getOffset(slot)) != StoreRecord.PUT) {
+                    return false;
+                }
+            }
+            
+            ByteBuffer record = StoreRecord.encode(op, type, key, value);
+            int length = record.remaining();
+            long offset = logLength;
+            StoreRecord.writeFully(log, record, offset);
+            logLength += length;
+            apply(key, op, offset, length);
+            writes.increment();
+            dirty = true;
+            
+            if (index.needsResize()) {
+                resizeIndex();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Trägt einen Eintrag im Index ein und führt die Größe der gültigen Einträge nach
+     */
+    private void apply(byte[] key, byte op, long offset, int length) throws IOException {
+        long hash = StoreRecord.hash(key);
+        int slot = index.find(hash, existing -> matches(existing, key));
+        if (slot >= 0) {
+            StoreRecord previous = StoreRecord.read(log, index.getOffset(slot), offset);
+            if (previous != null && previous.op == StoreRecord.PUT) {
+                liveBytes -= previous.length;
+            }
+        } else {
+            slot = -slot - 1;
+        }
+        index.set(slot, hash, offset);
+        if (op == StoreRecord.PUT) {
+            liveBytes += length;
+        }
+    }
+    
+    private boolean matches(long offset, byte[] key) {
+        try {
+            StoreRecord record = StoreRecord.read(log, offset, logLength);
+            return record != null && Arrays.equals(record.key, key);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    private byte readOp(long offset) throws IOException {
+        StoreRecord record = StoreRecord.read(log, offset, logLength);
+        return record != null ? record.op : StoreRecord.DELETE;
+    }
+    
+    /**
+     * Liefert alle gültigen Schlüssel eines Namensraums
+     */
+    List<String> keys(String namespace) throws IOException {
+        byte[] prefix = (namespace + '\0').getBytes(StandardCharsets.UTF_8);
+        List<String> keys = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            for (int slot = 0; slot < index.getCapacity(); slot++) {
+                long offset = index.getOffset(slot);
+                if (offset == 0) {
+                    continue;
+                }
+                StoreRecord record = StoreRecord.read(log, offset, logLength);
+                if (record != null && record.op == StoreRecord.PUT && startsWith(record.key, prefix)) {
+                    keys.add(new String(record.key, prefix.length, record.key.length - prefix.length, StandardCharsets.UTF_8));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return keys;
+    }
+    
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void resizeIndex() throws IOException {
+        index = resize(index, epoch);
+        index.markOpen();
+    }
+    
+    /**
+     * Kopiert einen Index in einen doppelt so großen und löscht den alten
+     */
+    private IndexFile resize(IndexFile source, int epoch) throws IOException {
+        IndexFile resized = IndexFile.create(nextIndexFile(), source.getSize() * 2, epoch);
+        for (int slot = 0; slot < source.getCapacity(); slot++) {
+            long offset = source.getOffset(slot);
+            if (offset != 0) {
+                resized.insertNew(source.getHash(slot), offset);
+            }
+        }
+        source.delete();
+        return resized;
+    }
+    
+    /**
+     * Schreibt das Log auf den Datenträger und verdichtet es bei Bedarf; läuft im Intervall asynchron
+     */
+    private void maintain() {
+        try {
+            if (dirty) {
+                dirty = false;
+                FileChannel channel;
+                lock.readLock().lock();
+                try {
+                    channel = closed ? null : log;
+                } finally {
+                    lock.readLock().unlock();
+                }
+                if (channel != null) {
+                    forceOutsideLock(channel);
+                }
+            }
+            
+            long length = getLogLength();
+            if (length >= compactionMinBytes && getGarbageBytes() * 100 >= length * compactionGarbagePercent) {
+                compact();
+            }
+        } catch (IOException e) {
+            plugin.getLoggerService().error("Schlüssel-Wert-Speicher konnte nicht geschrieben werden: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Schreibt das Log ohne Sperre auf den Datenträger; Schreibzugriffe laufen währenddessen weiter
+     */
+    private static void forceOutsideLock(FileChannel channel) throws IOException {
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Durch eine Verdichtung ersetzt oder geschlossen; beide schreiben das Log selbst auf den Datenträger
+        }
+    }
+    
+    /**
+     * Schreibt alle gültigen Einträge in ein neues Log und ersetzt das alte.
+     * 
+     * Kopiert und auf den Datenträger geschrieben wird ohne Sperre anhand eines Abbilds des Index.
+     * Schreibzugriffe warten nur, während die seitdem angehängten Einträge übernommen und die
+     * Dateien getauscht werden.
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            long start = System.nanoTime();
+            FileChannel source;
+            long copied;
+            long[] hashes;
+            long[] offsets;
+            File indexFile;
+            lock.readLock().lock();
+            try {
+                checkOpen();
+                source = log;
+                copied = logLength;
+                hashes = new long[index.getSize()];
+                offsets = new long[index.getSize()];
+                int count = 0;
+                for (int slot = 0; slot < index.getCapacity(); slot++) {
+                    long offset = index.getOffset(slot);
+                    if (offset != 0) {
+                        hashes[count] = index.getHash(slot);
+                        offsets[count++] = offset;
+                    }
+                }
+                indexFile = nextIndexFile();
+            } finally {
+                lock.readLock().unlock();
+            }
+            
+            long before = copied;
+            Compaction compaction = new Compaction(newEpoch());
+            boolean swapped = false;
+            try (FileChannel target = FileChannel.open(compactFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+                compaction.index = IndexFile.create(indexFile, hashes.length, compaction.epoch);
+                compaction.target = target;
+                writeLogHeader(target, compaction.epoch);
+                compaction.copyLive(source, copied, hashes, offsets);
+                
+                // Was während des Kopierens angehängt wurde, ebenfalls noch ohne Sperre übernehmen
+                long end;
+                lock.readLock().lock();
+                try {
+                    checkOpen();
+                    end = logLength;
+                } finally {
+                    lock.readLock().unlock();
+                }
+                compaction.copyAppended(source, copied, end);
+                copied = end;
+                target.force(true);
+                
+                lock.writeLock().lock();
+                try {
+                    checkOpen();
+                    if (logLength > copied) {
+                        compaction.copyAppended(log, copied, logLength);
+                        target.force(true);
+                    }
+                    target.close();
+                    swap(compaction);
+                    swapped = true;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } catch (IOException e) {
+                if (!swapped) {
+                    if (compaction.index != null) {
+                        compaction.index.delete();
+                    }
+                    Files.deleteIfExists(compactFile.toPath());
+                }
+                throw e;
+            }
+            syncDirectory();
+            compactions.increment();
+            plugin.getLoggerService().debug("Schlüssel-Wert-Speicher verdichtet: " + before / 1024 + " KB -> " + compaction.length / 1024
+                    + " KB (" + (System.nanoTime() - start) / 1_000_000 + " ms)");
+        }
+    }
+    
+    /**
+     * Ersetzt Log und Index durch die verdichteten; nur unter der Schreibsperre aufrufen
+     */
+    private void swap(Compaction compaction) throws IOException {
+        // Ab hier gilt das neue Log; der neue Index ist bis zum Schließen als unsauber markiert
+        compaction.index.markOpen();
+        log.close();
+        try {
+            Files.move(compactFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Das alte Log ist unverändert, mit ihm und dem alten Index weiterarbeiten
+            try {
+                log = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            } catch (IOException reopen) {
+                closed = true;
+                e.addSuppressed(reopen);
+            }
+            throw e;
+        }
+        
+        IndexFile previous = index;
+        index = compaction.index;
+        previous.delete();
+        epoch = compaction.epoch;
+        logLength = compaction.length;
+        liveBytes = compaction.live;
+        try {
+            log = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            closed = true;
+            throw e;
+        }
+    }
+    
+    /**
+     * Das neue Log einer laufenden Verdichtung mit seinem Index
+     */
+    private final class Compaction {
+        
+        private final int epoch;
+        private FileChannel target;
+        private IndexFile index;
+        private long length = LOG_HEADER;
+        private long live;
+        
+        private Compaction(int epoch) {
+            this.epoch = epoch;
+        }
+        
+        /**
+         * Kopiert die gültigen Einträge eines Abbilds des Index
+         */
+        private void copyLive(FileChannel source, long end, long[] hashes, long[] offsets) throws IOException {
+            for (int i = 0; i < offsets.length; i++) {
+                StoreRecord record = StoreRecord.read(source, offsets[i], end);
+                if (record == null || record.op != StoreRecord.PUT) {
+                    continue;
+                }
+                index.insertNew(hashes[i], copy(source, offsets[i], record.length));
+                live += record.length;
+            }
+        }
+        
+        /**
+         * Übernimmt alle Einträge eines Abschnitts am Ende des alten Logs der Reihe nach, auch Löschungen
+         */
+        private void copyAppended(FileChannel source, long from, long to) throws IOException {
+            long offset = from;
+            while (offset < to) {
+                StoreRecord record = StoreRecord.read(source, offset, to);
+                if (record == null) {
+                    throw new IOException("Beschädigter Eintrag im Log bei " + offset);
+                }
+                long hash = StoreRecord.hash(record.key);
+                int slot = index.find(hash, existing -> {
+                    try {
+                        StoreRecord previous = StoreRecord.read(target, existing, length);
+                        return previous != null && Arrays.equals(previous.key, record.key);
+                    } catch (IOException e) {
+                        return false;
+                    }
+                });
+                if (slot >= 0) {
+                    StoreRecord previous = StoreRecord.read(target, index.getOffset(slot), length);
+                    if (previous != null && previous.op == StoreRecord.PUT) {
+                        live -= previous.length;
+                    }
+                } else {
+                    slot = -slot - 1;
+                }
+                index.set(slot, hash, copy(source, offset, record.length));
+                if (record.op == StoreRecord.PUT) {
+                    live += record.length;
+                }
+                offset += record.length;
+                if (index.needsResize()) {
+                    index = resize(index, epoch);
+                }
+            }
+        }
+        
+        /**
+         * Hängt einen Eintrag unverändert an das neue Log an
+         * 
+         * @return Die Position im neuen Log
+         */
+        private long copy(FileChannel source, long offset, int recordLength) throws IOException {
+            ByteBuffer raw = ByteBuffer.allocate(recordLength);
+            StoreRecord.readFully(source, raw, offset);
+            raw.flip();
+            long position = length;
+            StoreRecord.writeFully(target, raw, position);
+            length += recordLength;
+            return position;
+        }
+    }
+    
+    /**
+     * Schreibt die Umbenennung auf den Datenträger, damit sie einen Absturz übersteht
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Nicht jedes Betriebssystem erlaubt das Öffnen eines Ordners, z.B. Windows
+        }
+    }
+    
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Der Schlüssel-Wert-Speicher ist geschlossen");
+        }
+    }
+    
+    /**
+     * Schreibt Log und Index auf den Datenträger und schließt den Speicher. Ein sauber geschlossener
+     * Index wird beim nächsten Start übernommen.
+     */
+    public void close() {
+        syncTask.cancel();
+        // Eine laufende Verdichtung zuerst abschließen lassen
+        synchronized (compactionLock) {
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                log.force(true);
+                index.markClean(logLength, liveBytes);
+                index.close();
+                log.close();
+            } catch (IOException e) {
+                plugin.getLoggerService().error("Schlüssel-Wert-Speicher konnte nicht sauber geschlossen werden: " + e.getMessage());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+    
+    void reportError(String action, IOException e) {
+        plugin.getLoggerService().error("Schlüssel-Wert-Speicher: " + action + " fehlgeschlagen: " + e.getMessage());
+        if (plugin.getCoreConfig().isDebugMode()) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * @return die Anzahl der Schlüssel einschließlich gelöschter, bis zur nächsten Verdichtung
+     */
+    public int getKeyCount() {
+        lock.readLock().lock();
+        try {
+            return index.getSize();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @return die Größe des Logs in Bytes
+     */
+    public long getLogLength() {
+        lock.readLock().lock();
+        try {
+            return logLength;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * @return die Bytes überholter und gelöschter Einträge im Log
+     */
+    public long getGarbageBytes() {
+        lock.readLock().lock();
+        try {
+            return logLength - LOG_HEADER - liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private Map<String, String> getStatusSummary() {
+        Map<String, String> status = new LinkedHashMap<>();
+        long length = getLogLength();
+        long garbage = getGarbageBytes();
+        status.put("Schlüssel", String.valueOf(getKeyCount()));
+        status.put("Log", (length / 1024) + " KB, " + (length > 0 ? garbage * 100 / length : 0) + "% überholt");
+        status.put("Zugriffe", reads.sum() + " gelesen, " + writes.sum() + " geschrieben");
+        status.put("Verdichtungen", String.valueOf(compactions.sum()));
+        status.put("Start", recovery);
+        return status;
+    }
+}
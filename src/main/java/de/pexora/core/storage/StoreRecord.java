@@ -0,0 +1,133 @@
+package de.pexora.core.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Ein Eintrag im Log des {@link KeyValueStore}.
+ * 
+ * Aufbau: CRC32 und Länge des Rumpfs (je 4 Bytes), dann Operation, Typ, Länge des Schlüssels (2 Bytes),
+ * Schlüssel und Wert. Die Prüfsumme erkennt einen beim Absturz nur teilweise geschriebenen Eintrag.
+ */
+final class StoreRecord {
+
+    static final int HEADER = 8;
+    static final int MAX_BODY = 1024 * 1024;
+    
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+    
+    static final byte NONE = 0;
+    static final byte INT = 1;
+    static final byte LONG = 2;
+    static final byte DOUBLE = 3;
+    static final byte BOOLEAN = 4;
+    static final byte STRING = 5;
+    
+    // Die meisten Einträge passen vollständig in einen Lesezugriff
+    private static final int READ_AHEAD = 256;
+    
+    final byte op;
+    final byte type;
+    final byte[] key;
+    final ByteBuffer value;
+    final int length;
+    
+    private StoreRecord(byte op, byte type, byte[] key, ByteBuffer value, int length) {
+        this.op = op;
+        this.type = type;
+        this.key = key;
+        this.value = value;
+        this.length = length;
+    }
+    
+    static ByteBuffer encode(byte op, byte type, byte[] key, byte[] value) {
+        int bodyLength = 4 + key.length + value.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + bodyLength);
+        buffer.position(HEADER);
+        buffer.put(op).put(type).putShort((short) key.length).put(key).put(value);
+        
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER, bodyLength);
+        buffer.putInt(0, (int) crc.getValue());
+        buffer.putInt(4, bodyLength);
+        buffer.flip();
+        return buffer;
+    }
+    
+    /**
+     * Liest einen Eintrag
+     * 
+     * @param channel Das Log
+     * @param offset Die Position des Eintrags
+     * @param end Das Ende des gültigen Logs
+     * @return Der Eintrag oder null, wenn er unvollständig oder beschädigt ist
+     * @throws IOException Bei einem Lesefehler
+     */
+    static StoreRecord read(FileChannel channel, long offset, long end) throws IOException {
+        if (offset + HEADER > end) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(READ_AHEAD, end - offset));
+        readFully(channel, buffer, offset);
+        int checksum = buffer.getInt(0);
+        int bodyLength = buffer.getInt(4);
+        if (bodyLength < 4 || bodyLength > MAX_BODY || offset + HEADER + bodyLength > end) {
+            return null;
+        }
+        
+        if (HEADER + bodyLength > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocate(HEADER + bodyLength);
+            buffer.flip();
+            larger.put(buffer);
+            readFully(channel, larger, offset);
+            buffer = larger;
+        }
+        
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER, bodyLength);
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        
+        buffer.position(HEADER).limit(HEADER + bodyLength);
+        byte op = buffer.get();
+        byte type = buffer.get();
+        int keyLength = buffer.getShort() & 0xFFFF;
+        if (keyLength > buffer.remaining()) {
+            return null;
+        }
+        byte[] key = new byte[keyLength];
+        buffer.get(key);
+        return new StoreRecord(op, type, key, buffer.slice(), HEADER + bodyLength);
+    }
+    
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unerwartetes Ende des Logs bei " + position);
+            }
+        }
+    }
+    
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+    }
+    
+    /**
+     * FNV-1a über den Schlüssel; Kollisionen werden beim Lesen über den Schlüssel im Log aufgelöst
+     */
+    static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
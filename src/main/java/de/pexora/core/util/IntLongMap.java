@@ -0,0 +1,162 @@
+package de.pexora.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from int keys to long values without boxing.
+ * 
+ * Open addressing with linear probing; removal shifts entries back instead of leaving tombstones,
+ * so lookups stay short with frequent adds and removes (e.g. players joining and quitting).
+ * Not thread-safe.
+ */
+public final class IntLongMap {
+
+    private static final int MIN_CAPACITY = 16;
+    
+    private int[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    
+    public IntLongMap() {
+        this(MIN_CAPACITY);
+    }
+    
+    /**
+     * @param expectedSize The number of entries the map should hold without resizing
+     */
+    public IntLongMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+    
+    private static int slotOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+    
+    private int find(int key) {
+        int slot = slotOf(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * @param key The key
+     * @param defaultValue Returned when the key is not present
+     * @return the value for the key, or defaultValue
+     */
+    public long get(int key, long defaultValue) {
+        int slot = find(key);
+        return slot >= 0 ? values[slot] : defaultValue;
+    }
+    
+    /**
+     * @param key The key
+     * @return whether the key is present
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+    
+    /**
+     * Sets the value for a key
+     * 
+     * @param key The key
+     * @param value The value
+     */
+    public void put(int key, long value) {
+        int slot = slotOf(key, mask);
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize((mask + 1) << 1);
+        }
+    }
+    
+    /**
+     * Removes a key
+     * 
+     * @param key The key
+     * @return whether the key was present
+     */
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        
+        // Shift following entries of the same probe sequence back into the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = slotOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        size--;
+        return true;
+    }
+    
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+    
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
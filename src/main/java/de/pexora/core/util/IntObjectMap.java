@@ -0,0 +1,175 @@
+package de.pexora.core.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hash map from int keys to objects without boxing the keys.
+ * 
+ * Open addressing with linear probing; removal shifts entries back instead of leaving tombstones,
+ * so lookups stay short with frequent adds and removes (e.g. players joining and quitting).
+ * Not thread-safe.
+ * 
+ * @param <V> The value type
+ */
+public final class IntObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+    
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    
+    public IntObjectMap() {
+        allocate(MIN_CAPACITY);
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+    
+    private static int slotOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+    
+    private int find(int key) {
+        int slot = slotOf(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    /**
+     * @param key The key
+     * @return the value for the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+    
+    /**
+     * Sets the value for a key
+     * 
+     * @param key The key
+     * @param value The value, not null
+     */
+    public void put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        
+        int slot = slotOf(key, mask);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) * 3 / 4) {
+            resize((mask + 1) << 1);
+        }
+    }
+    
+    /**
+     * Removes a key
+     * 
+     * @param key The key
+     * @return the removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        
+        V removed = (V) values[slot];
+        // Shift following entries of the same probe sequence back into the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (values[next] != null) {
+            int home = slotOf(keys[next], mask);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+    
+    /**
+     * Calls the action for every value. The map must not be modified during the iteration.
+     * 
+     * @param action The action
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+    
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return whether the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Removes all entries
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                putUnchecked(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+    
+    private void putUnchecked(int key, Object value) {
+        int slot = slotOf(key, mask);
+        while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+}
@@ -0,0 +1,87 @@
+package de.pexora.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests des Speichers außerhalb des Heaps
+ */
+class OffHeapStoreTest {
+
+    private final CachedPlayerData<?> cache = mock(CachedPlayerData.class);
+    private final Random random = new Random(42);
+    
+    @Test
+    void entriesSpanningSeveralBlocksAreReadBack() {
+        OffHeapStore store = new OffHeapStore(64 * 1024);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        byte[] large = data(1000);
+        byte[] empty = new byte[0];
+        
+        assertTrue(store.put(cache, first, large, 1L).isEmpty());
+        assertTrue(store.put(cache, second, empty, 2L).isEmpty());
+        assertEquals(2, store.getEntryCount());
+        assertEquals(1024, store.getUsedBytes());
+        
+        assertArrayEquals(large, store.take(cache, first));
+        assertArrayEquals(empty, store.take(cache, second));
+        assertNull(store.take(cache, first));
+        assertEquals(0, store.getUsedBytes());
+    }
+    
+    @Test
+    void leastRecentlyUsedEntriesAreEvictedWithTheirVersion() {
+        OffHeapStore store = new OffHeapStore(1024);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        byte[] firstData = data(300);
+        byte[] secondData = data(300);
+        byte[] thirdData = data(100);
+        
+        store.put(cache, first, firstData, 1L);
+        store.put(cache, second, secondData, 2L);
+        List<OffHeapStore.Evicted> evicted = store.put(cache, third, thirdData, 3L);
+        
+        assertEquals(1, evicted.size());
+        assertEquals(first, evicted.get(0).uuid);
+        assertSame(cache, evicted.get(0).cache);
+        assertEquals(1L, evicted.get(0).version);
+        assertArrayEquals(firstData, evicted.get(0).data);
+        
+        // Die frei gewordenen Blöcke werden wiederverwendet, ohne andere Einträge zu überschreiben
+        assertArrayEquals(secondData, store.take(cache, second));
+        assertArrayEquals(thirdData, store.take(cache, third));
+    }
+    
+    @Test
+    void entryLargerThanTheBudgetIsReturnedDirectly() {
+        OffHeapStore store = new OffHeapStore(1024);
+        UUID uuid = UUID.randomUUID();
+        byte[] data = data(2000);
+        
+        List<OffHeapStore.Evicted> evicted = store.put(cache, uuid, data, 1L);
+        assertEquals(1, evicted.size());
+        assertSame(data, evicted.get(0).data);
+        assertFalse(store.contains(cache, uuid));
+        assertEquals(0, store.getEntryCount());
+    }
+    
+    private byte[] data(int length) {
+        byte[] data = new byte[length];
+        random.nextBytes(data);
+        return data;
+    }
+}
@@ -0,0 +1,192 @@
+package de.pexora.core.database;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.config.CoreConfig;
+import de.pexora.core.metrics.MetricsRegistry;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests des Datenbank-Pools gegen eine H2-Datei im temporären Ordner
+ */
+class DatabaseTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+    
+    @TempDir
+    File dataFolder;
+    
+    private Database database;
+    private MetricsRegistry metrics;
+    
+    private Database open(int maxConnections, int moduleQuota, int queueCapacity) {
+        PexoraCore plugin = mock(PexoraCore.class, RETURNS_DEEP_STUBS);
+        CoreConfig config = plugin.getCoreConfig();
+        when(config.getDatabaseType()).thenReturn("h2");
+        when(config.getDatabaseName()).thenReturn("pexora");
+        when(config.getDatabaseMaxConnections()).thenReturn(maxConnections);
+        when(config.getDatabaseModuleQuota()).thenReturn(moduleQuota);
+        when(config.getDatabaseQueueCapacity()).thenReturn(queueCapacity);
+        when(config.getDatabaseConnectionTimeoutMillis()).thenReturn(2000);
+        when(config.getDatabaseSlowQueryMillis()).thenReturn(1000);
+        when(config.getWriteBehindFlushIntervalMillis()).thenReturn(1000);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        metrics = new MetricsRegistry(plugin);
+        when(plugin.getMetricsRegistry()).thenReturn(metrics);
+        database = new Database(plugin);
+        return database;
+    }
+    
+    private static Plugin module(String name) {
+        Plugin module = mock(Plugin.class);
+        when(module.getName()).thenReturn(name);
+        return module;
+    }
+    
+    @AfterEach
+    void close() {
+        if (database != null) {
+            database.close();
+        }
+    }
+    
+    @Test
+    void moduleQuotaQueuesFurtherTasksOfTheSameModule() throws Exception {
+        Database database = open(3, 1, 10);
+        Plugin moduleA = module("A");
+        Plugin moduleB = module("B");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        
+        CompletableFuture<Integer> first = database.withConnection(moduleA, connection -> {
+            started.countDown();
+            await(proceed);
+            return 1;
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<Integer> second = database.withConnection(moduleA, connection -> 2);
+        
+        // Modul B hat eine eigene Quote und wird von A nicht aufgehalten
+        assertEquals(3, database.withConnection(moduleB, connection -> 3).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        assertEquals(1, database.getPendingCount());
+        
+        proceed.countDown();
+        assertEquals(1, first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, second.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, database.getPendingCount());
+    }
+    
+    @Test
+    void fullQueueRejectsTasks() throws Exception {
+        Database database = open(2, 1, 1);
+        Plugin module = module("A");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        
+        CompletableFuture<Integer> running = database.withConnection(module, connection -> {
+            started.countDown();
+            await(proceed);
+            return 1;
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = database.withConnection(module, connection -> 2);
+        CompletableFuture<Integer> rejected = database.withConnection(module, connection -> 3);
+        
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        
+        proceed.countDown();
+        assertEquals(1, running.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, queued.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void failedTransactionIsRolledBack() throws Exception {
+        Database database = open(1, 1, 10);
+        Plugin module = module("A");
+        database.update(module, "CREATE TABLE konto (uuid VARCHAR(36) PRIMARY KEY, coins BIGINT)")
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        
+        CompletableFuture<Integer> transaction = database.transaction(module, connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("INSERT INTO konto VALUES ('a', 10)");
+            }
+            throw new SQLException("Abbruch");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> transaction.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertInstanceOf(SQLException.class, e.getCause());
+        
+        // Der Pool hat nur eine Verbindung, die folgenden Aufträge erhalten also dieselbe
+        assertEquals(0L, database.query(module, "SELECT COUNT(*) FROM konto", DatabaseTest::readLong)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(database.withConnection(module, connection -> connection.getAutoCommit())
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void connectionsAreReturnedAfterExceptions() throws Exception {
+        Database database = open(1, 1, 10);
+        Plugin module = module("A");
+        
+        for (int i = 0; i < 5; i++) {
+            CompletableFuture<Integer> runtime = database.withConnection(module, connection -> {
+                throw new IllegalStateException("Fehler im Modul");
+            });
+            assertThrows(ExecutionException.class, () -> runtime.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            CompletableFuture<Long> sql = database.query(module, "SELECT * FROM gibt_es_nicht", DatabaseTest::readLong);
+            assertThrows(ExecutionException.class, () -> sql.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+        
+        ConnectionPool pool = database.getPool();
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, database.withConnection(module, connection -> 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void queryMetricsOfAModuleAreRemovedOnRelease() throws Exception {
+        Database database = open(1, 1, 10);
+        Plugin module = module("A");
+        database.withConnection(module, connection -> 1).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertTrue(metrics.toPrometheusText().contains("pexora_database_query_seconds_count{module=\"A\"} 1"));
+        
+        database.release(module);
+        assertFalse(metrics.toPrometheusText().contains("module=\"A\""));
+    }
+    
+    private static long readLong(ResultSet resultSet) throws SQLException {
+        return resultSet.next() ? resultSet.getLong(1) : -1L;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
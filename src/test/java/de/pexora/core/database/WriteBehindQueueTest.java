@@ -0,0 +1,208 @@
+package de.pexora.core.database;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.config.CoreConfig;
+import de.pexora.core.metrics.MetricsRegistry;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests der Write-Behind-Warteschlange gegen eine H2-Datei im temporären Ordner
+ */
+class WriteBehindQueueTest {
+
+    private static final long TIMEOUT_SECONDS = 5;
+    private static final String CREATE_TABLE = "CREATE TABLE konto (uuid VARCHAR(36) PRIMARY KEY, coins BIGINT)";
+    private static final String UPSERT = "INSERT INTO konto (uuid, coins) VALUES (?, ?) ON DUPLICATE KEY UPDATE coins = VALUES(coins)";
+    
+    @TempDir
+    File dataFolder;
+    
+    private PexoraCore plugin;
+    private Database database;
+    
+    private Database open(int moduleQuota, int maxPending) {
+        plugin = mock(PexoraCore.class, RETURNS_DEEP_STUBS);
+        CoreConfig config = plugin.getCoreConfig();
+        when(config.getDatabaseType()).thenReturn("h2");
+        when(config.getDatabaseName()).thenReturn("pexora");
+        when(config.getDatabaseMaxConnections()).thenReturn(2);
+        when(config.getDatabaseModuleQuota()).thenReturn(moduleQuota);
+        when(config.getDatabaseQueueCapacity()).thenReturn(10);
+        when(config.getDatabaseConnectionTimeoutMillis()).thenReturn(2000);
+        when(config.getDatabaseSlowQueryMillis()).thenReturn(1000);
+        when(config.getWriteBehindFlushIntervalMillis()).thenReturn(1000);
+        when(config.getWriteBehindBatchSize()).thenReturn(100);
+        when(config.getWriteBehindMaxPending()).thenReturn(maxPending);
+        when(config.getWriteBehindDrainTimeoutMillis()).thenReturn(2000);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        MetricsRegistry metrics = new MetricsRegistry(plugin);
+        when(plugin.getMetricsRegistry()).thenReturn(metrics);
+        database = new Database(plugin);
+        return database;
+    }
+    
+    private static Plugin module(String name) {
+        Plugin module = mock(Plugin.class);
+        when(module.getName()).thenReturn(name);
+        return module;
+    }
+    
+    @AfterEach
+    void close() {
+        if (database != null) {
+            database.close();
+        }
+    }
+    
+    @Test
+    void writesOfTheSameKeyAreCoalesced() throws Exception {
+        Database database = open(1, 1000);
+        Plugin module = module("A");
+        database.update(module, CREATE_TABLE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        WriteBehindQueue queue = database.createWriteBehindQueue(module, "coins", UPSERT);
+        
+        queue.write("a", "a", 1L);
+        queue.write("a", "a", 2L);
+        queue.write("b", "b", 5L);
+        queue.write("a", "a", 3L);
+        assertEquals(2, queue.getPendingCount());
+        assertEquals(2, queue.getCoalescedCount());
+        
+        assertEquals(2, queue.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(3L, coins(module, "a"));
+        assertEquals(5L, coins(module, "b"));
+        assertEquals(2, queue.getFlushedCount());
+        assertEquals(4, queue.getWrittenCount());
+    }
+    
+    @Test
+    void replayedJournalDoesNotOverwriteNewerValues() throws Exception {
+        Database database = open(1, 1);
+        Plugin module = module("A");
+        WriteBehindQueue queue = database.createWriteBehindQueue(module, "coins", UPSERT);
+        
+        // Ohne Tabelle schlägt das Schreiben fehl, mit maxPending 1 landen die Einträge im Journal
+        queue.write("a", "a", 1L);
+        queue.write("b", "b", 7L);
+        assertThrows(ExecutionException.class, () -> queue.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2, queue.getJournaledCount());
+        assertEquals(0, queue.getPendingCount());
+        
+        database.update(module, CREATE_TABLE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        queue.write("a", "a", 2L);
+        assertEquals(1, queue.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        
+        // Nur "b" wird nachgeholt, "a" wurde seit dem Journal neu geschrieben
+        assertEquals(1, queue.getPendingCount());
+        assertEquals(1, queue.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(2L, coins(module, "a"));
+        assertEquals(7L, coins(module, "b"));
+        assertFalse(queue.getJournal().hasEntries());
+    }
+    
+    @Test
+    void drainJournalsABatchThatIsStillRunning() throws Exception {
+        Database database = open(1, 1000);
+        Plugin module = module("A");
+        database.update(module, CREATE_TABLE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        WriteBehindQueue queue = database.createWriteBehindQueue(module, "coins", UPSERT);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        
+        // Die Quote des Moduls ist belegt, der Schreibvorgang wartet dahinter
+        CompletableFuture<Integer> blocker = database.withConnection(module, connection -> {
+            started.countDown();
+            await(proceed);
+            return 1;
+        });
+        assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        queue.write("a", "a", 1L);
+        CompletableFuture<Integer> flush = queue.flush();
+        
+        queue.drain(100);
+        assertFalse(flush.isDone());
+        assertEquals(1, queue.getJournaledCount());
+        assertTrue(queue.getJournal().hasEntries());
+        assertThrows(IllegalStateException.class, () -> queue.write("b", "b", 2L));
+        
+        proceed.countDown();
+        assertEquals(1, blocker.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, flush.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1L, coins(module, "a"));
+        
+        // Die Kopie im Journal wird von der nächsten Instanz des Moduls nachgeholt; das Upsert schadet nicht
+        WriteBehindQueue next = database.createWriteBehindQueue(module("A"), "coins", UPSERT);
+        assertEquals(1, next.getPendingCount());
+        assertEquals(1, next.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertFalse(next.getJournal().hasEntries());
+    }
+    
+    @Test
+    void reloadedModuleTakesOverTheJournalAfterRelease() throws Exception {
+        Database database = open(1, 1);
+        Plugin old = module("A");
+        WriteBehindQueue queue = database.createWriteBehindQueue(old, "coins", UPSERT);
+        queue.write("a", "a", 1L);
+        assertThrows(ExecutionException.class, () -> queue.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        database.update(old, CREATE_TABLE).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        
+        // Die Freigabe läuft asynchron und wird hier erst später ausgeführt
+        when(plugin.isEnabled()).thenReturn(true);
+        database.release(old);
+        BukkitScheduler scheduler = plugin.getServer().getScheduler();
+        ArgumentCaptor<Runnable> release = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).runTaskAsynchronously(eq(plugin), release.capture());
+        
+        Plugin module = module("A");
+        WriteBehindQueue next = database.createWriteBehindQueue(module, "coins", UPSERT);
+        assertEquals(0, next.getPendingCount());
+        assertTrue(next.getJournal().hasEntries());
+        next.write("a", "a", 2L);
+        assertEquals(1, next.flush().get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        
+        release.getValue().run();
+        assertEquals(0, next.getPendingCount());
+        assertFalse(next.getJournal().hasEntries());
+        assertEquals(2L, coins(module, "a"));
+    }
+    
+    private long coins(Plugin module, String uuid) throws Exception {
+        return database.query(module, "SELECT coins FROM konto WHERE uuid = ?", WriteBehindQueueTest::readLong, uuid)
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    private static long readLong(ResultSet resultSet) throws SQLException {
+        return resultSet.next() ? resultSet.getLong(1) : -1L;
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package de.pexora.core.database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests des Journals einer Write-Behind-Warteschlange
+ */
+class WriteJournalTest {
+
+    @TempDir
+    File directory;
+    
+    @Test
+    void entriesSurviveRecoveryUntilReplayIsFinished() throws Exception {
+        WriteJournal journal = new WriteJournal(directory, "coins");
+        UUID uuid = UUID.randomUUID();
+        Timestamp timestamp = new Timestamp(1_700_000_000_123L);
+        journal.append(entry("a", WriteJournal.normalize(new Object[]{uuid, 1L, 2, 1.5D, true, new byte[]{1, 2},
+                timestamp, (short) 3, new BigDecimal("1.25"), null})));
+        journal.append(entry("b", new Object[]{"alt"}));
+        journal.append(entry("b", new Object[]{"neu"}));
+        
+        Map<String, Object[]> entries = journal.recover();
+        assertEquals(2, entries.size());
+        assertArrayEquals(new Object[]{uuid.toString(), 1L, 2, 1.5D, true, new byte[]{1, 2}, timestamp, (short) 3,
+                new BigDecimal("1.25"), null}, entries.get("a"));
+        assertArrayEquals(new Object[]{"neu"}, entries.get("b"));
+        
+        // Bis zum Abschluss liegen die Einträge in der Datei zum Nachholen, neue kommen hinzu
+        journal.append(entry("c", new Object[]{"c"}));
+        assertEquals(3, journal.recover().size());
+        journal.finishReplay();
+        assertFalse(journal.hasEntries());
+    }
+    
+    @Test
+    void truncatedTailIsSkipped() throws Exception {
+        WriteJournal journal = new WriteJournal(directory, "coins");
+        journal.append(entry("a", new Object[]{1L}));
+        journal.append(entry("b", new Object[]{2L}));
+        
+        File file = new File(directory, "coins.journal");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        
+        Map<String, Object[]> entries = journal.recover();
+        assertEquals(1, entries.size());
+        assertTrue(entries.containsKey("a"));
+    }
+    
+    @Test
+    void damagedTailIsSkipped() throws Exception {
+        WriteJournal journal = new WriteJournal(directory, "coins");
+        journal.append(entry("a", new Object[]{1L}));
+        journal.append(entry("b", new Object[]{2L}));
+        
+        File file = new File(directory, "coins.journal");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 1);
+            int last = raf.read();
+            raf.seek(raf.length() - 1);
+            raf.write(last ^ 0xFF);
+        }
+        
+        Map<String, Object[]> entries = journal.recover();
+        assertEquals(1, entries.size());
+        assertTrue(entries.containsKey("a"));
+    }
+    
+    private static Map<String, Object[]> entry(String key, Object[] values) {
+        Map<String, Object[]> entries = new LinkedHashMap<>();
+        entries.put(key, values);
+        return entries;
+    }
+}
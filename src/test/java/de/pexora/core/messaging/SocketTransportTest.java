@@ -0,0 +1,154 @@
+package de.pexora.core.messaging;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.messaging.protocol.PacketBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the handshake of the socket transport over real loopback connections
+ */
+class SocketTransportTest {
+
+    private static final String SECRET = "test-secret";
+    private static final int TIMEOUT_MILLIS = 5000;
+    
+    private final PexoraCore plugin = mock(PexoraCore.class, RETURNS_DEEP_STUBS);
+    private final List<SocketTransport> transports = new ArrayList<>();
+    private final List<Socket> sockets = new ArrayList<>();
+    
+    @AfterEach
+    void close() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        for (SocketTransport transport : transports) {
+            transport.close();
+        }
+    }
+    
+    private SocketTransport start(String nodeId, InetSocketAddress bind, List<InetSocketAddress> peers, String secret,
+                                  MessageTransport.Receiver receiver) {
+        SocketTransport transport = new SocketTransport(plugin, nodeId, bind, peers, 100, secret);
+        transports.add(transport);
+        transport.start(receiver);
+        return transport;
+    }
+    
+    @Test
+    void peersWithTheSameSecretLinkAndExchangeMessages() throws Exception {
+        InetSocketAddress addressB = freeAddress();
+        CompletableFuture<byte[]> received = new CompletableFuture<>();
+        SocketTransport b = start("b", addressB, List.of(), SECRET, (topic, payload) -> received.complete(payload));
+        SocketTransport a = start("a", freeAddress(), List.of(addressB), SECRET, (topic, payload) -> { });
+        
+        awaitCondition(() -> a.getConnectedPeerCount() == 1 && b.getConnectedPeerCount() == 1);
+        a.publish("chat.global", new byte[] {1, 2, 3});
+        assertArrayEquals(new byte[] {1, 2, 3}, received.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+    }
+    
+    @Test
+    void peerWithAnotherSecretIsRejected() throws Exception {
+        InetSocketAddress addressB = freeAddress();
+        SocketTransport b = start("b", addressB, List.of(), SECRET, (topic, payload) -> { });
+        SocketTransport a = start("a", freeAddress(), List.of(addressB), "other-secret", (topic, payload) -> { });
+        
+        awaitCondition(() -> b.getRejectedPeers() > 0);
+        assertEquals(0, a.getConnectedPeerCount());
+        assertEquals(0, b.getConnectedPeerCount());
+    }
+    
+    @Test
+    void relayedHandshakeIsRejected() throws Exception {
+        InetSocketAddress addressA = freeAddress();
+        InetSocketAddress addressB = freeAddress();
+        SocketTransport a = start("a", addressA, List.of(), SECRET, (topic, payload) -> { });
+        SocketTransport b = start("b", addressB, List.of(), SECRET, (topic, payload) -> { });
+        
+        // The attacker takes the nonce A sent to it and presents it to B as node "a"
+        Socket toA = connect(addressA);
+        PacketBuffer helloA = readFrame(toA);
+        assertEquals(0, helloA.readUnsignedByte());
+        assertEquals("a", helloA.readString());
+        String nonceA = helloA.readString();
+        
+        Socket toB = connect(addressB);
+        assertEquals(0, readFrame(toB).readUnsignedByte());
+        writeFrame(toB, 0, "a", nonceA);
+        
+        // B only answers with AUTH after the initiator authenticated, so there is nothing to relay
+        toB.setSoTimeout(500);
+        assertThrows(SocketTimeoutException.class, () -> readFrame(toB));
+        
+        // Without a proof from B the attacker can only guess
+        writeFrame(toA, 0, "b", nonceA);
+        writeFrame(toA, 2, "00".repeat(32));
+        assertThrows(EOFException.class, () -> readFrame(toA));
+        awaitCondition(() -> a.getRejectedPeers() == 1);
+        assertEquals(0, a.getConnectedPeerCount());
+        assertEquals(0, b.getConnectedPeerCount());
+    }
+    
+    private static InetSocketAddress freeAddress() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return new InetSocketAddress("127.0.0.1", socket.getLocalPort());
+        }
+    }
+    
+    private Socket connect(InetSocketAddress address) throws IOException {
+        Socket socket = new Socket();
+        sockets.add(socket);
+        socket.connect(address, TIMEOUT_MILLIS);
+        socket.setSoTimeout(TIMEOUT_MILLIS);
+        return socket;
+    }
+    
+    private static PacketBuffer readFrame(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        byte[] frame = new byte[in.readInt()];
+        in.readFully(frame);
+        return new PacketBuffer().load(frame);
+    }
+    
+    private static void writeFrame(Socket socket, int type, String... strings) throws IOException {
+        PacketBuffer out = new PacketBuffer();
+        out.writeInt(0);
+        out.writeByte(type);
+        for (String value : strings) {
+            out.writeString(value);
+        }
+        out.nioBuffer().putInt(0, out.position() - 4);
+        DataOutputStream stream = new DataOutputStream(socket.getOutputStream());
+        stream.write(out.toByteArray());
+        stream.flush();
+    }
+    
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+}
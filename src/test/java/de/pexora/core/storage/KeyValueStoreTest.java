@@ -0,0 +1,239 @@
+package de.pexora.core.storage;
+
+import de.pexora.core.PexoraCore;
+import de.pexora.core.config.CoreConfig;
+import org.bukkit.plugin.Plugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests des Schlüssel-Wert-Speichers, insbesondere des Wiederanlaufs nach einem Absturz.
+ * Ein Absturz wird nachgestellt, indem ein zweiter Speicher geöffnet wird, ohne den ersten zu schließen.
+ */
+class KeyValueStoreTest {
+
+    @TempDir
+    File dataFolder;
+    
+    private final List<KeyValueStore> opened = new ArrayList<>();
+    private PexoraCore plugin;
+    
+    private KeyValueStore open() throws Exception {
+        plugin = mock(PexoraCore.class, RETURNS_DEEP_STUBS);
+        CoreConfig config = plugin.getCoreConfig();
+        when(config.getStorageSyncIntervalMillis()).thenReturn(1000L);
+        when(config.getStorageCompactionMinKilobytes()).thenReturn(1024L);
+        when(config.getStorageCompactionGarbagePercent()).thenReturn(50);
+        when(plugin.getDataFolder()).thenReturn(dataFolder);
+        KeyValueStore store = new KeyValueStore(plugin);
+        opened.add(store);
+        return store;
+    }
+    
+    private static KeyValueNamespace namespace(KeyValueStore store) {
+        Plugin module = mock(Plugin.class);
+        when(module.getName()).thenReturn("Test");
+        return store.namespace(module, "werte");
+    }
+    
+    @AfterEach
+    void close() {
+        for (KeyValueStore store : opened) {
+            store.close();
+        }
+    }
+    
+    @Test
+    void valuesSurviveACleanClose() throws Exception {
+        KeyValueStore store = open();
+        KeyValueNamespace values = namespace(store);
+        values.putLong("zeit", 1234L);
+        values.putString("text", "äöü");
+        values.putBoolean("schalter", true);
+        store.close();
+        
+        KeyValueStore reopened = open();
+        values = namespace(reopened);
+        assertEquals(1234L, values.getLong("zeit", 0L));
+        assertEquals("äöü", values.getString("text", null));
+        assertTrue(values.getBoolean("schalter", false));
+        assertEquals(3, reopened.getKeyCount());
+        verify(plugin.getLoggerService(), never()).info(contains("neu aufgebaut"));
+    }
+    
+    @Test
+    void indexIsRebuiltAfterACrash() throws Exception {
+        KeyValueNamespace values = namespace(open());
+        values.putInt("a", 1);
+        values.putInt("b", 2);
+        values.putInt("a", 3);
+        
+        values = namespace(open());
+        verify(plugin.getLoggerService()).info(contains("neu aufgebaut"));
+        assertEquals(3, values.getInt("a", 0));
+        assertEquals(2, values.getInt("b", 0));
+    }
+    
+    @Test
+    void tornLastRecordIsTruncated() throws Exception {
+        KeyValueStore store = open();
+        KeyValueNamespace values = namespace(store);
+        values.putString("a", "erster");
+        long length = store.getLogLength();
+        values.putString("b", "zweiter");
+        
+        File log = new File(new File(dataFolder, "store"), "data.log");
+        try (RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+        
+        KeyValueStore reopened = open();
+        values = namespace(reopened);
+        assertEquals(length, reopened.getLogLength());
+        assertEquals(length, log.length());
+        assertEquals("erster", values.getString("a", null));
+        assertFalse(values.contains("b"));
+        
+        // Nach dem Abschneiden wird normal weitergeschrieben
+        values.putString("b", "neu");
+        reopened.close();
+        assertEquals("neu", namespace(open()).getString("b", null));
+    }
+    
+    @Test
+    void rebuildGrowsTheIndex() throws Exception {
+        KeyValueNamespace values = namespace(open());
+        // Mehr Schlüssel, als der kleinste Index bei 70 % Füllung fasst
+        int count = 2000;
+        for (int i = 0; i < count; i++) {
+            values.putInt("key-" + i, i);
+        }
+        
+        KeyValueStore reopened = open();
+        values = namespace(reopened);
+        assertEquals(count, reopened.getKeyCount());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, values.getInt("key-" + i, -1));
+        }
+        verify(plugin.getLoggerService(), never()).error(anyString());
+    }
+    
+    @Test
+    void compactedLogSurvivesReopen() throws Exception {
+        KeyValueStore store = open();
+        KeyValueNamespace values = namespace(store);
+        for (int i = 0; i < 100; i++) {
+            values.putLong("zähler", i);
+            values.putInt("key-" + (i % 10), i);
+        }
+        values.remove("key-0");
+        long before = store.getLogLength();
+        
+        store.compact();
+        assertTrue(store.getLogLength() < before);
+        assertEquals(0, store.getGarbageBytes());
+        assertEquals(99L, values.getLong("zähler", 0L));
+        assertFalse(values.contains("key-0"));
+        store.close();
+        
+        values = namespace(open());
+        assertEquals(99L, values.getLong("zähler", 0L));
+        assertEquals(99, values.getInt("key-9", 0));
+        assertFalse(values.contains("key-0"));
+        assertEquals(10, values.keys().size());
+    }
+    
+    @Test
+    void deletedKeysStayDeleted() throws Exception {
+        KeyValueStore store = open();
+        KeyValueNamespace values = namespace(store);
+        values.putInt("a", 1);
+        values.putInt("b", 2);
+        assertTrue(values.remove("a"));
+        assertFalse(values.remove("a"));
+        store.close();
+        
+        // Sauber geschlossen, nach einem Absturz und nach einer Verdichtung
+        KeyValueStore reopened = open();
+        assertFalse(namespace(reopened).contains("a"));
+        KeyValueStore crashed = open();
+        assertFalse(namespace(crashed).contains("a"));
+        crashed.compact();
+        assertFalse(namespace(crashed).contains("a"));
+        KeyValueNamespace values2 = namespace(open());
+        assertFalse(values2.contains("a"));
+        assertEquals(2, values2.getInt("b", 0));
+    }
+    
+    @Test
+    void writesDuringCompactionAreKept() throws Exception {
+        KeyValueStore store = open();
+        KeyValueNamespace values = namespace(store);
+        for (int i = 0; i < 200; i++) {
+            values.putInt("key-" + i, -1);
+        }
+        
+        // Ein zweiter Thread schreibt und löscht, während verdichtet wird
+        Map<String, Integer> expected = new HashMap<>();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            for (int round = 0; round < 20; round++) {
+                for (int i = 0; i < 200; i++) {
+                    String key = "key-" + i;
+                    if ((i + round) % 7 == 0) {
+                        values.remove(key);
+                        expected.remove(key);
+                    } else {
+                        values.putInt(key, round * 1000 + i);
+                        expected.put(key, round * 1000 + i);
+                    }
+                }
+            }
+        });
+        while (!writer.isDone()) {
+            store.compact();
+        }
+        writer.get(10, TimeUnit.SECONDS);
+        store.compact();
+        
+        assertState(values, expected);
+        store.close();
+        assertState(namespace(open()), expected);
+        verify(plugin.getLoggerService(), never()).error(anyString());
+    }
+    
+    private static void assertState(KeyValueNamespace values, Map<String, Integer> expected) {
+        assertEquals(expected.keySet(), new HashSet<>(values.keys()));
+        for (int i = 0; i < 200; i++) {
+            Integer value = expected.get("key-" + i);
+            if (value == null) {
+                assertFalse(values.contains("key-" + i));
+            } else {
+                assertEquals(value, values.getInt("key-" + i, -1));
+            }
+        }
+        assertNull(values.getString("fehlt", null));
+    }
+}